@@ -6,12 +6,14 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
 
 @SpringBootApplication
 @EnableAsync
+@EnableScheduling
 @PropertySource("file:.env")
 public class DuckChatApiApplication {
 
@@ -29,4 +31,16 @@ public class DuckChatApiApplication {
         executor.initialize();
         return executor;
     }
+
+    // OpenAI 호출 타임아웃 전용 공유 풀 (executor.* 메트릭은 actuator가 빈 이름으로 자동 등록)
+    @Bean(name = "openAiExecutor")
+    public ThreadPoolTaskExecutor openAiExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(16);
+        executor.setMaxPoolSize(32);
+        executor.setQueueCapacity(200);
+        executor.setThreadNamePrefix("OpenAI-");
+        executor.initialize();
+        return executor;
+    }
 }
@@ -0,0 +1,81 @@
+package com.duckchat.api.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * OpenAI(chat, Whisper)와 YouTube 호출이 함께 쓰는 외부 HTTP 클라이언트 설정.
+ * 하나의 JDK HttpClient를 공유해 같은 호스트로의 연결을 재사용하고(HTTP/1.1 keep-alive 풀, h2 지원 시 스트림 다중화),
+ * 대상별로 응답 타임아웃만 다르게 둔 RestTemplate을 만듭니다.
+ * RestTemplateBuilder로 생성하므로 요청별 http.client.requests 타이머가 기록되고, 호스트별 진행 중 요청 수는
+ * http.outbound.in.flight 게이지로 볼 수 있습니다. JDK HttpClient는 연결 풀 상태를 노출하지 않으므로 풀 지표는 없습니다.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Value("${app.http.connect-timeout-ms:3000}")
+    private long connectTimeoutMs;
+
+    @Value("${app.http.max-concurrent-per-host:64}")
+    private int maxConcurrentPerHost;
+
+    @Value("${app.http.chat.response-timeout-ms:10000}")
+    private long chatResponseTimeoutMs;
+
+    @Value("${app.http.transcription.response-timeout-ms:30000}")
+    private long transcriptionResponseTimeoutMs;
+
+    @Value("${app.http.youtube.response-timeout-ms:5000}")
+    private long youtubeResponseTimeoutMs;
+
+    @Bean
+    public HttpClient outboundHttpClient() {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2) // h2를 지원하지 않는 호스트는 자동으로 HTTP/1.1로 협상
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    @Bean
+    public OutboundConcurrencyLimiter outboundConcurrencyLimiter(MeterRegistry meterRegistry) {
+        // 허용량이 찰 경우 연결 타임아웃만큼만 대기
+        return new OutboundConcurrencyLimiter(maxConcurrentPerHost, connectTimeoutMs, meterRegistry);
+    }
+
+    @Bean
+    public OutboundHttpClients outboundHttpClients(HttpClient outboundHttpClient,
+                                                   RestTemplateBuilder restTemplateBuilder,
+                                                   OutboundConcurrencyLimiter outboundConcurrencyLimiter) {
+        return new OutboundHttpClients(
+                buildRestTemplate(restTemplateBuilder, outboundHttpClient, outboundConcurrencyLimiter, chatResponseTimeoutMs),
+                buildRestTemplate(restTemplateBuilder, outboundHttpClient, outboundConcurrencyLimiter, transcriptionResponseTimeoutMs),
+                buildRestTemplate(restTemplateBuilder, outboundHttpClient, outboundConcurrencyLimiter, youtubeResponseTimeoutMs),
+                outboundHttpClient,
+                Duration.ofMillis(chatResponseTimeoutMs),
+                outboundConcurrencyLimiter
+        );
+    }
+
+    private RestTemplate buildRestTemplate(RestTemplateBuilder restTemplateBuilder, HttpClient httpClient,
+                                           OutboundConcurrencyLimiter limiter, long responseTimeoutMs) {
+        // 응답 타임아웃은 HttpRequest.timeout으로 전달되어 초과 시 HttpClient가 교환 자체를 중단하고,
+        // 팩토리에 read timeout을 두지 않아 블로킹 send()가 쓰이므로 호출 스레드 인터럽트(OpenAICallExecutor 데드라인)에도 교환이 취소됨
+        JdkClientHttpRequestFactory requestFactory =
+                new JdkClientHttpRequestFactory(new RequestTimeoutHttpClient(httpClient, Duration.ofMillis(responseTimeoutMs)));
+        // 동시 요청 제한은 인터셉터가 아닌 팩토리 래퍼로 걸어 요청 본문(Whisper 업로드 등)을 버퍼링하지 않음
+        ClientHttpRequestFactory limitedFactory = limiter.limit(requestFactory);
+        return restTemplateBuilder
+                .requestFactory(() -> limitedFactory)
+                .build();
+    }
+}
@@ -0,0 +1,50 @@
+package com.duckchat.api.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * IDENTITY에서 pooled 시퀀스로 바꾼 테이블의 시퀀스 값을 기존 최대 id 뒤로 맞춥니다.
+ * MySQL에는 시퀀스가 없어 Hibernate가 next_val 컬럼 하나짜리 테이블로 에뮬레이션하며,
+ * AUTO_INCREMENT로 쌓인 기존 행이나 SQL로 직접 넣은 행과 id가 겹치지 않도록 기동 시(요청을 받기 전) 한 번 보정합니다.
+ * 보정에 실패하면 예외로 기동을 중단합니다.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class IdSequenceInitializer {
+
+    // 엔티티의 @SequenceGenerator allocationSize와 같아야 함
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final String[][] SEQUENCES = {
+            {"chat_messages_seq", "chat_messages"},
+            {"chat_session_messages_seq", "chat_session_messages"},
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void alignSequences() {
+        for (String[] sequence : SEQUENCES) {
+            String sequenceTable = sequence[0];
+            String entityTable = sequence[1];
+            try {
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + sequenceTable + " (next_val BIGINT)");
+                Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + entityTable, Long.class);
+                // pooled 옵티마이저는 읽은 값에서 allocationSize만큼 앞 구간까지 쓸 수 있으므로 그만큼 여유를 둠
+                long minNext = (maxId != null ? maxId : 0) + 1 + ALLOCATION_SIZE;
+                int updated = jdbcTemplate.update("UPDATE " + sequenceTable + " SET next_val = GREATEST(next_val, ?)", minNext);
+                if (updated == 0) {
+                    jdbcTemplate.update("INSERT INTO " + sequenceTable + " (next_val) VALUES (?)", minNext);
+                }
+            } catch (Exception e) {
+                // 보정 없이 뜨면 새 id가 기존 행과 겹쳐 첫 저장부터 실패하므로 기동을 멈춤
+                throw new IllegalStateException("시퀀스 테이블 " + sequenceTable + " 보정 실패", e);
+            }
+        }
+    }
+}
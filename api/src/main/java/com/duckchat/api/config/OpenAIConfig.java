@@ -1,9 +1,7 @@
 package com.duckchat.api.config;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.client.RestTemplate;
 
 @Configuration
 public class OpenAIConfig {
@@ -20,17 +18,28 @@ public class OpenAIConfig {
     @Value("${openai.transcription.model:whisper-1}")
     private String openaiTranscriptionModel;
 
+    // 대화 히스토리(요약 포함)에 쓸 프롬프트 토큰 예산
+    @Value("${openai.history.token-budget:1500}")
+    private int historyTokenBudget;
+
+    // 히스토리 구성 시 DB에서 읽어 올 최근 턴 수 상한
+    @Value("${openai.history.max-turns:60}")
+    private int historyMaxTurns;
+
+    // 음성 턴의 감정 분석과 응답을 JSON 모드 호출 한 번으로 생성 (false면 분석/응답 2회 호출)
+    @Value("${openai.combined-analysis.enabled:true}")
+    private boolean combinedAnalysisEnabled;
+
+    // 동기 음성 파일 턴(전사~응답 저장) 전체 데드라인. 넘으면 비동기 작업으로 전환
+    @Value("${openai.voice.sync-deadline-ms:15000}")
+    private long voiceSyncDeadlineMs;
+
     @Value("${app.upload.dir:/tmp/duckchat-uploads}")
     private String uploadDir;
 
     @Value("${youtube.api.key:}")
     private String youtubeApiKey;
 
-    @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
-    }
-
     public String getOpenaiApiKey() {
         return openaiApiKey;
     }
@@ -47,6 +56,22 @@ public class OpenAIConfig {
         return openaiTranscriptionModel;
     }
 
+    public int getHistoryTokenBudget() {
+        return historyTokenBudget;
+    }
+
+    public int getHistoryMaxTurns() {
+        return historyMaxTurns;
+    }
+
+    public boolean isCombinedAnalysisEnabled() {
+        return combinedAnalysisEnabled;
+    }
+
+    public long getVoiceSyncDeadlineMs() {
+        return voiceSyncDeadlineMs;
+    }
+
     public String getUploadDir() {
         return uploadDir;
     }
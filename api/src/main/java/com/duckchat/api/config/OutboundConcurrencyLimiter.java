@@ -0,0 +1,203 @@
+package com.duckchat.api.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * 호스트별 동시 요청 수 제한.
+ * 허가는 응답 본문을 닫을 때 반납되므로 스트리밍 응답도 끝날 때까지 한 자리를 차지합니다.
+ * 호스트별 사용 중인 요청 수는 http.outbound.in.flight 게이지로 노출됩니다 (JDK HttpClient는 연결 풀 지표를 제공하지 않음).
+ */
+public class OutboundConcurrencyLimiter {
+
+    private final int maxConcurrentPerHost;
+    private final long acquireTimeoutMs;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Semaphore> permitsByHost = new ConcurrentHashMap<>();
+
+    public OutboundConcurrencyLimiter(int maxConcurrentPerHost, long acquireTimeoutMs, MeterRegistry meterRegistry) {
+        this.maxConcurrentPerHost = maxConcurrentPerHost;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * RestTemplate용. 인터셉터는 요청 본문을 바이트 배열로 버퍼링하게 만들므로(InterceptingClientHttpRequestFactory),
+     * 대신 요청 팩토리를 감싸 본문은 그대로 스트리밍하고 execute 시점에만 허가를 받습니다.
+     */
+    public ClientHttpRequestFactory limit(ClientHttpRequestFactory delegate) {
+        return (uri, httpMethod) -> new LimitedRequest(delegate.createRequest(uri, httpMethod));
+    }
+
+    // 자리가 날 때까지 acquireTimeoutMs만큼 대기
+    private Semaphore acquire(String host) throws IOException {
+        Semaphore permits = permitsByHost.computeIfAbsent(host, this::registerHost);
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new IOException("외부 호출 동시 요청 한도 초과: " + host);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("외부 호출 대기 중 인터럽트: " + host, e);
+        }
+        return permits;
+    }
+
+    /**
+     * RestTemplate을 거치지 않는 비동기 호출용. 자리가 없으면 기다리지 않고 바로 실패한 future를 반환하며,
+     * 허가는 호출 future가 끝날 때(취소 포함) 반납됩니다.
+     * call은 HttpClient.sendAsync가 돌려준 교환 future 자체를 반환해야 합니다. thenApply 등으로 파생된 future를 넘기면
+     * 파생 future가 먼저 끝나도 교환은 계속 진행되므로 실제 진행 중인 요청 수가 한도를 넘을 수 있습니다.
+     */
+    public <T> CompletableFuture<T> limitAsync(URI uri, Supplier<CompletableFuture<T>> call) {
+        String host = uri.getHost();
+        Semaphore permits = permitsByHost.computeIfAbsent(host, this::registerHost);
+        if (!permits.tryAcquire()) {
+            return CompletableFuture.failedFuture(new IOException("외부 호출 동시 요청 한도 초과: " + host));
+        }
+        try {
+            CompletableFuture<T> future = call.get();
+            future.whenComplete((result, ex) -> permits.release());
+            return future;
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * CompletableFuture는 취소를 원본으로 전달하지 않으므로, 교환 future에서 파생된 결과 future가
+     * 취소/시간 초과/실패로 끝나면 교환 future를 직접 취소합니다 (HTTP 교환 중단 → 허가 반납).
+     */
+    public static <T> CompletableFuture<T> cancelExchangeWith(CompletableFuture<T> result, CompletableFuture<?> exchange) {
+        result.whenComplete((value, ex) -> {
+            if (ex != null) {
+                exchange.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    private Semaphore registerHost(String host) {
+        Semaphore permits = new Semaphore(maxConcurrentPerHost);
+        Gauge.builder("http.outbound.in.flight", permits, p -> maxConcurrentPerHost - p.availablePermits())
+                .description("호스트별 진행 중인 외부 요청 수")
+                .tag("host", host)
+                .register(meterRegistry);
+        return permits;
+    }
+
+    private final class LimitedRequest implements ClientHttpRequest, StreamingHttpOutputMessage {
+        private final ClientHttpRequest delegate;
+
+        private LimitedRequest(ClientHttpRequest delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            Semaphore permits = acquire(delegate.getURI().getHost());
+            try {
+                return new PermitReleasingResponse(delegate.execute(), permits);
+            } catch (IOException | RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        @Override
+        public void setBody(Body body) {
+            if (delegate instanceof StreamingHttpOutputMessage streaming) {
+                streaming.setBody(body);
+                return;
+            }
+            try {
+                body.writeTo(delegate.getBody());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return delegate.getMethod();
+        }
+
+        @Override
+        public URI getURI() {
+            return delegate.getURI();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+    }
+
+    private static final class PermitReleasingResponse implements ClientHttpResponse {
+        private final ClientHttpResponse delegate;
+        private final Semaphore permits;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        private PermitReleasingResponse(ClientHttpResponse delegate, Semaphore permits) {
+            this.delegate = delegate;
+            this.permits = permits;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    permits.release();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.duckchat.api.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+// 대상별 RestTemplate 묶음 (모두 같은 HttpClient 연결 풀을 공유)
+@Getter
+@AllArgsConstructor
+public class OutboundHttpClients {
+    private final RestTemplate chat;          // OpenAI chat completions
+    private final RestTemplate transcription; // OpenAI Whisper
+    private final RestTemplate youtube;       // YouTube Data API
+    private final HttpClient httpClient;      // 논블로킹(sendAsync) 호출용
+    private final Duration chatResponseTimeout;
+    private final OutboundConcurrencyLimiter concurrencyLimiter;
+}
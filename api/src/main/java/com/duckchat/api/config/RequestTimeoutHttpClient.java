@@ -0,0 +1,108 @@
+package com.duckchat.api.config;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import java.io.IOException;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.ProxySelector;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * 공유 HttpClient에 대상별 응답 타임아웃(HttpRequest.timeout)만 덧붙이는 래퍼. 연결은 원래 클라이언트의 것을 그대로 씁니다.
+ * JdkClientHttpRequestFactory.setReadTimeout은 sendAsync().get(timeout)으로 기다리므로 호출 스레드가 인터럽트되어도
+ * 교환이 계속 진행됩니다. 대신 이 클라이언트로 팩토리를 만들면 블로킹 send()가 쓰이고,
+ * send()는 인터럽트 시 교환을 취소하며 타임아웃이 지나면 HttpClient가 교환을 중단합니다.
+ */
+final class RequestTimeoutHttpClient extends HttpClient {
+
+    private final HttpClient delegate;
+    private final Duration responseTimeout;
+
+    RequestTimeoutHttpClient(HttpClient delegate, Duration responseTimeout) {
+        this.delegate = delegate;
+        this.responseTimeout = responseTimeout;
+    }
+
+    @Override
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler)
+            throws IOException, InterruptedException {
+        return delegate.send(withTimeout(request), responseBodyHandler);
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler) {
+        return delegate.sendAsync(withTimeout(request), responseBodyHandler);
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler,
+                                                            HttpResponse.PushPromiseHandler<T> pushPromiseHandler) {
+        return delegate.sendAsync(withTimeout(request), responseBodyHandler, pushPromiseHandler);
+    }
+
+    // 요청에 이미 타임아웃이 있으면 그대로 둠
+    private HttpRequest withTimeout(HttpRequest request) {
+        if (request.timeout().isPresent()) {
+            return request;
+        }
+        return HttpRequest.newBuilder(request, (name, value) -> true).timeout(responseTimeout).build();
+    }
+
+    @Override
+    public Optional<CookieHandler> cookieHandler() {
+        return delegate.cookieHandler();
+    }
+
+    @Override
+    public Optional<Duration> connectTimeout() {
+        return delegate.connectTimeout();
+    }
+
+    @Override
+    public Redirect followRedirects() {
+        return delegate.followRedirects();
+    }
+
+    @Override
+    public Optional<ProxySelector> proxy() {
+        return delegate.proxy();
+    }
+
+    @Override
+    public SSLContext sslContext() {
+        return delegate.sslContext();
+    }
+
+    @Override
+    public SSLParameters sslParameters() {
+        return delegate.sslParameters();
+    }
+
+    @Override
+    public Optional<Authenticator> authenticator() {
+        return delegate.authenticator();
+    }
+
+    @Override
+    public Version version() {
+        return delegate.version();
+    }
+
+    @Override
+    public Optional<Executor> executor() {
+        return delegate.executor();
+    }
+
+    @Override
+    public WebSocket.Builder newWebSocketBuilder() {
+        return delegate.newWebSocketBuilder();
+    }
+}
@@ -0,0 +1,101 @@
+package com.duckchat.api.config;
+
+import com.duckchat.api.controller.VoiceStreamHandler;
+import com.duckchat.api.security.JwtTokenProvider;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.util.StringUtils;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
+import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+@EnableWebSocket
+@RequiredArgsConstructor
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    static final String TOKEN_PROTOCOL = "bearer";
+
+    private final VoiceStreamHandler voiceStreamHandler;
+    private final JwtTokenProvider jwtTokenProvider;
+
+    @Value("${cors.allowed-origins}")
+    private String allowedOrigins;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        // 토큰을 실은 서브프로토콜 요청에는 "bearer"만 선택해 응답 (토큰 자체는 되돌려 보내지 않음)
+        DefaultHandshakeHandler handshakeHandler = new DefaultHandshakeHandler();
+        handshakeHandler.setSupportedProtocols(TOKEN_PROTOCOL);
+        registry.addHandler(voiceStreamHandler, "/api/chatgpt/chat/voice/ws")
+                .setHandshakeHandler(handshakeHandler)
+                .addInterceptors(new JwtHandshakeInterceptor())
+                .setAllowedOrigins(allowedOrigins.split(","));
+    }
+
+    // 클라이언트는 보통 20~100ms 단위 PCM 청크를 보내므로 64KB면 충분
+    @Bean
+    public ServletServerContainerFactoryBean webSocketContainer() {
+        ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
+        container.setMaxBinaryMessageBufferSize(64 * 1024);
+        container.setMaxTextMessageBufferSize(8 * 1024);
+        container.setMaxSessionIdleTimeout(60_000L);
+        return container;
+    }
+
+    /**
+     * Authorization 헤더의 JWT, 또는 헤더를 넣을 수 없는 브라우저용으로 Sec-WebSocket-Protocol의 "bearer" 다음 값
+     * (new WebSocket(url, ["bearer", jwt]))을 씁니다. 쿼리 문자열은 접근 로그/프록시 로그에 남으므로 토큰을 받지 않습니다.
+     */
+    static String bearerToken(HttpHeaders headers) {
+        String header = headers.getFirst(HttpHeaders.AUTHORIZATION);
+        if (StringUtils.hasText(header) && header.startsWith("Bearer ")) {
+            return header.substring(7);
+        }
+        List<String> protocols = new WebSocketHttpHeaders(headers).getSecWebSocketProtocol();
+        int index = protocols.indexOf(TOKEN_PROTOCOL);
+        return index >= 0 && index + 1 < protocols.size() ? protocols.get(index + 1) : null;
+    }
+
+    /**
+     * 핸드셰이크에서 JWT를 검증하고 사용자 이메일과 요청한 채팅 세션을 소켓 속성에 넣습니다.
+     */
+    private class JwtHandshakeInterceptor implements HandshakeInterceptor {
+
+        @Override
+        public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                       WebSocketHandler wsHandler, Map<String, Object> attributes) {
+            String token = bearerToken(request.getHeaders());
+            if (!StringUtils.hasText(token) || !jwtTokenProvider.validateToken(token)) {
+                response.setStatusCode(HttpStatus.UNAUTHORIZED);
+                return false;
+            }
+            attributes.put(VoiceStreamHandler.ATTR_EMAIL, jwtTokenProvider.getEmail(token));
+            Map<String, String> query = UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().toSingleValueMap();
+            if (StringUtils.hasText(query.get("chatSessionId"))) {
+                attributes.put(VoiceStreamHandler.ATTR_CHAT_SESSION_ID, query.get("chatSessionId"));
+            }
+            return true;
+        }
+
+        @Override
+        public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Exception exception) {
+        }
+    }
+}
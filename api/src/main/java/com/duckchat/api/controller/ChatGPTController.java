@@ -4,30 +4,58 @@ import com.duckchat.api.dto.ApiResponse;
 import com.duckchat.api.dto.ChatRequest;
 import com.duckchat.api.dto.ChatResponse;
 import com.duckchat.api.dto.DuckyChatRequest;
+import com.duckchat.api.dto.EmotionAnalysisResult;
+import com.duckchat.api.dto.JobEvent;
+import com.duckchat.api.dto.PendingTurn;
+import com.duckchat.api.dto.VoiceTurnResult;
 import com.duckchat.api.dto.openai.ChatCompletionRequest;
 import com.duckchat.api.entity.ChatMessage;
 import com.duckchat.api.entity.ChatSession;
-import com.duckchat.api.entity.ChatSessionMessage;
+import com.duckchat.api.entity.ProcessingJob;
 import com.duckchat.api.entity.User;
+import com.duckchat.api.exception.JobRejectedException;
 import com.duckchat.api.repository.UserRepository;
+import com.duckchat.api.service.AudioAnalysisCache;
 import com.duckchat.api.service.ChatService;
+import com.duckchat.api.service.ConversationContextService;
+import com.duckchat.api.service.JobEventBus;
+import com.duckchat.api.service.OpenAICallExecutor;
 import com.duckchat.api.service.OpenAIService;
+import com.duckchat.api.service.TranscriptionService;
+import com.duckchat.api.service.VoiceJobScheduler;
+import com.duckchat.api.service.VoiceTurnService;
+import com.duckchat.api.service.VoiceUpload;
+import com.duckchat.api.service.VoiceUploadStore;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
-import java.io.File;
-import java.io.FileOutputStream;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.nio.file.Files;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/chatgpt")
@@ -40,6 +68,20 @@ public class ChatGPTController {
     private final UserRepository userRepository;
         private final com.duckchat.api.service.AsyncProcessingService asyncProcessingService;
         private final com.duckchat.api.config.OpenAIConfig openAIConfig;
+    // DB 작업과 SSE 스트리밍용 애플리케이션 풀 (lombok.config로 @Qualifier가 생성자에 복사됨)
+    @Qualifier("taskExecutor")
+    private final Executor taskExecutor;
+    private final OpenAICallExecutor openAICallExecutor;
+    private final AudioAnalysisCache audioAnalysisCache;
+    private final ConversationContextService conversationContextService;
+    private final VoiceTurnService voiceTurnService;
+    private final JobEventBus jobEventBus;
+    private final VoiceUploadStore voiceUploadStore;
+    private final TranscriptionService transcriptionService;
+
+    private static final long STREAM_TIMEOUT_MS = 60_000L;
+    private static final long JOB_EVENTS_TIMEOUT_MS = 5 * 60_000L;
+    private static final long MAX_LONG_POLL_MS = 60_000L;
 
     // 텍스트 채팅은 음성 채팅만 지원하도록 비활성화
     /*
@@ -95,25 +137,7 @@ public class ChatGPTController {
         request.setChatSessionId(sessionId);
         
         // 세션의 이전 메시지 히스토리 조회
-        List<ChatSessionMessage> sessionMessages = chatService.getSessionMessages(session);
-        List<ChatCompletionRequest.Message> messageHistory = new ArrayList<>();
-        
-        // 시스템 메시지 추가
-        messageHistory.add(ChatCompletionRequest.Message.builder()
-                .role("system")
-                .content("너는 덕키야! 귀여운 오리 같은 친구 같은 AI야. 사용자의 감정을 잘 이해하고 공감해줘. 이전 대화도 기억하면서 재미있고 귀엽게 응답해줘. 유튜브 쇼츠 추천도 해줄게~")
-                .build());
-        
-        // 이전 메시지 히스토리 추가
-        for (ChatSessionMessage sessionMessage : sessionMessages) {
-            ChatMessage message = sessionMessage.getMessage();
-            String role = message.getType() == ChatMessage.MessageType.USER ? "user" : "assistant";
-            
-            messageHistory.add(ChatCompletionRequest.Message.builder()
-                    .role(role)
-                    .content(message.getContent())
-                    .build());
-        }
+        List<ChatCompletionRequest.Message> messageHistory = buildSessionHistory(session);
         
         // 사용자 메시지 저장
         ChatMessage userMessage = chatService.saveMessage(user, buildChatMessageRequest(request, ChatMessage.MessageType.USER));
@@ -151,6 +175,17 @@ public class ChatGPTController {
                 .build();
     }
     
+    private ChatMessage saveTurn(User user, ChatRequest request, String assistantResponse, Long chatSessionId) {
+        return chatService.saveTurn(user,
+                buildChatMessageRequest(request, ChatMessage.MessageType.USER),
+                buildChatMessageRequest(assistantResponse, ChatMessage.MessageType.ASSISTANT, chatSessionId),
+                chatSessionId);
+    }
+
+    private PendingTurn saveUserMessage(User user, ChatRequest request, Long chatSessionId) {
+        return chatService.saveUserMessage(user, buildChatMessageRequest(request, ChatMessage.MessageType.USER), chatSessionId);
+    }
+
     private com.duckchat.api.dto.ChatMessageRequest buildChatMessageRequest(
             String content, ChatMessage.MessageType type, Long chatSessionId) {
         return com.duckchat.api.dto.ChatMessageRequest.builder()
@@ -161,39 +196,41 @@ public class ChatGPTController {
     }
     
     @PostMapping("/chat/voice")
-    public ResponseEntity<ApiResponse<ChatResponse>> chatWithVoice(
+    public CompletableFuture<ResponseEntity<ApiResponse<ChatResponse>>> chatWithVoice(
             @AuthenticationPrincipal UserDetails userDetails,
             @Valid @RequestBody ChatRequest request) {
 
         User user = userRepository.findByEmail(userDetails.getUsername())
                 .orElseThrow(() -> new IllegalArgumentException("사용자를 찾을 수 없습니다."));
 
-        // 사용자 메시지 저장 (음성 메타데이터 포함)
-        ChatMessage userMessage = chatService.saveMessage(user, buildChatMessageRequest(request, ChatMessage.MessageType.USER));
+        // 사용자 메시지는 응답 생성이 실패해도 남도록 호출 전에 저장 (세션 소유권도 함께 확인)
+        PendingTurn pending = saveUserMessage(user, request, request.getChatSessionId());
 
-        // 음성 메타데이터를 활용한 ChatGPT API 호출
-        String assistantResponse;
-        try {
-            if (request.getVoiceMetadata() != null) {
-                assistantResponse = openAIService.generateResponseWithVoice(request.getMessage(), request.getVoiceMetadata());
-            } else {
-                assistantResponse = openAIService.generateResponse(request.getMessage());
-            }
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().body(new ApiResponse<>(false, "ChatGPT API 호출 중 오류가 발생했습니다.", null));
-        }
+        // 음성 메타데이터를 활용한 ChatGPT API 호출 (응답을 기다리는 동안 요청 스레드를 반납)
+        CompletableFuture<String> assistantResponse = request.getVoiceMetadata() != null
+                ? openAIService.generateResponseWithVoiceAsync(request.getMessage(), request.getVoiceMetadata())
+                : openAIService.generateResponseAsync(request.getMessage());
 
-        // ChatGPT 응답 저장
-        ChatMessage assistantMessage = chatService.saveMessage(user, buildChatMessageRequest(
-                assistantResponse, ChatMessage.MessageType.ASSISTANT, request.getChatSessionId()));
+        return assistantResponse
+                .thenApplyAsync(content -> saveAssistantReply(pending, content), taskExecutor)
+                .exceptionally(e -> {
+                    log.error("ChatGPT API 호출 중 오류 발생: {}", e.getMessage(), e);
+                    return ResponseEntity.internalServerError().body(new ApiResponse<>(false, "ChatGPT API 호출 중 오류가 발생했습니다.", null));
+                });
+    }
+
+    // 먼저 저장한 사용자 메시지 뒤에 ChatGPT 응답을 저장하고 응답 본문을 만든다 (DB 작업이므로 HttpClient 스레드가 아닌 taskExecutor에서 실행)
+    private ResponseEntity<ApiResponse<ChatResponse>> saveAssistantReply(PendingTurn pending, String assistantResponse) {
+        Long chatSessionId = pending.getChatSessionId();
+        ChatMessage assistantMessage = chatService.saveAssistantReply(pending,
+                buildChatMessageRequest(assistantResponse, ChatMessage.MessageType.ASSISTANT, chatSessionId));
 
-        // 응답 생성
         ChatResponse response = ChatResponse.builder()
                 .id(assistantMessage.getId())
                 .content(assistantMessage.getContent())
                 .type(assistantMessage.getType())
                 .timestamp(assistantMessage.getCreatedAt())
-                .chatSessionId(request.getChatSessionId())
+                .chatSessionId(chatSessionId)
                 .build();
 
         return ResponseEntity.ok(new ApiResponse<>(true, "음성 메시지가 성공적으로 처리되었습니다.", response));
@@ -221,104 +258,31 @@ public class ChatGPTController {
                         return ResponseEntity.badRequest().body(new ApiResponse<>(false, "오디오 파일이 필요합니다.", null));
                 }
 
+                VoiceUpload upload = null;
                 try {
-                                        // 업로드 디렉토리에 저장
-                                        File uploadDir = new File(openAIConfig.getUploadDir());
-                                        if (!uploadDir.exists()) uploadDir.mkdirs();
-                                        File tmp = new File(uploadDir, "upload-" + System.currentTimeMillis() + "-" + audio.getOriginalFilename());
-                                        try (FileOutputStream fos = new FileOutputStream(tmp)) {
-                                                fos.write(audio.getBytes());
-                                        }
+                                        // 작은 클립은 메모리 버퍼, 큰 파일은 업로드 디렉토리로 (전체를 힙에 올리지 않음)
+                                        upload = voiceUploadStore.store(audio);
 
                                         if (async) {
-                                                var job = asyncProcessingService.createJob(user.getId());
-                                                asyncProcessingService.runTranscriptionAndAnalysis(job.getId(), tmp.getAbsolutePath(), "ko", sessionIdToUse, openAIService);
+                                                var job = submitVoiceJob(user, upload, sessionIdToUse, VoiceJobScheduler.Priority.NORMAL);
                                                 // 클라이언트가 폴링해서 확인하도록 jobId 반환
                                                 return ResponseEntity.ok(new ApiResponse<>(true, "작업이 시작되었습니다.", job.getId()));
                                         }
 
-                                        // 동기 처리에서 7초 이상 걸리면 자동으로 비동기 전환
-                                        java.util.concurrent.ExecutorService executor = java.util.concurrent.Executors.newSingleThreadExecutor();
-                                        java.util.concurrent.Future<String> future = executor.submit(() -> openAIService.transcribeAudioFile(tmp.getAbsolutePath(), "ko"));
-                                        String transcriptionRaw;
-                                        try {
-                                                transcriptionRaw = future.get(7, java.util.concurrent.TimeUnit.SECONDS); // 7초 제한
-                                        } catch (java.util.concurrent.TimeoutException e) {
-                                                // 비동기로 전환
-                                                var job = asyncProcessingService.createJob(user.getId());
-                                                asyncProcessingService.runTranscriptionAndAnalysis(job.getId(), tmp.getAbsolutePath(), "ko", sessionIdToUse, openAIService);
-                                                return ResponseEntity.ok(new ApiResponse<>(true, "오디오 처리에 시간이 소요되어 비동기 처리로 전환되었습니다. 잠시 후 결과를 확인해주세요.", job.getId()));
-                                        } finally {
-                                                executor.shutdown();
-                                        }
-
-                                        // API 키가 더미일 경우 기본 텍스트 사용
-                                        String transcriptText;
-                                        if (transcriptionRaw == null || transcriptionRaw.trim().isEmpty()) {
-                                                transcriptText = "안녕하세요! 음성 메시지를 받았어요. 어떻게 도와드릴까요?"; // 기본 텍스트
-                                        } else {
-                                                transcriptText = transcriptionRaw;
-                                        }
-
-                                        // 감정/상황 분석
-                                        // VoiceMetadata 파싱은 생략(클라이언트 metaJson 사용 가능)
-                                        var analysis = openAIService.analyzeTranscriptEmotion(transcriptText, null);
-
-                                        // 기존 저장/대화 흐름 사용: ChatMessage로 사용자 메시지 저장 (전사 텍스트 포함)
-                                        ChatRequest request = new ChatRequest();
-                                        request.setMessage(transcriptText);
-                                        request.setChatSessionId(sessionIdToUse);
-
-                                        ChatMessage userMessage = chatService.saveMessage(user, buildChatMessageRequest(request, ChatMessage.MessageType.USER));
-
-                                        // 챗봇 응답 생성 - 분석 결과 반영 가능
-                                        String assistantResponse;
-                                        List<ChatCompletionRequest.Message> messageHistory = new ArrayList<>(); // Declare messageHistory here
-                                        Optional<ChatSession> sessionOpt = chatService.getChatSession(sessionIdToUse, user);
-                                        if (sessionOpt.isPresent()) {
-                                            ChatSession session = sessionOpt.get(); // 'session' is now correctly scoped
-                                            List<ChatSessionMessage> sessionMessages = chatService.getSessionMessages(session);
-
-                                            // 시스템 메시지 추가
-                                            messageHistory.add(ChatCompletionRequest.Message.builder()
-                                                    .role("system")
-                                                    .content("너는 덕키야! 귀여운 오리 같은 친구 같은 AI야. 사용자의 감정을 잘 이해하고 공감해줘. 이전 대화도 기억하면서 재미있고 귀엽게 응답해줘. 유튜브 쇼츠 추천도 해줄게~")
-                                                    .build());
-
-                                            // 이전 메시지 히스토리 추가
-                                            for (ChatSessionMessage sessionMessage : sessionMessages) {
-                                                ChatMessage message = sessionMessage.getMessage();
-                                                String role = message.getType() == ChatMessage.MessageType.USER ? "user" : "assistant";
-
-                                                messageHistory.add(ChatCompletionRequest.Message.builder()
-                                                        .role(role)
-                                                        .content(message.getContent())
-                                                        .build());
-                                            }
-                                            assistantResponse = openAIService.generateResponseWithHistoryAndVoice(messageHistory, transcriptText, null);
-                                        } else {
-                                            // 세션을 찾을 수 없으면 히스토리 없이 응답 (이 경우는 발생하지 않음)
-                                            assistantResponse = openAIService.generateResponseWithVoice(transcriptText, null);
-                                        }
-
-                                        ChatMessage assistantMessage = chatService.saveMessage(user, buildChatMessageRequest(
-                                                assistantResponse, ChatMessage.MessageType.ASSISTANT, sessionIdToUse));
-
-                                        ChatResponse response = ChatResponse.builder()
-                                                .id(assistantMessage.getId())
-                                                .content(assistantMessage.getContent())
-                                                .type(assistantMessage.getType())
-                                                .timestamp(assistantMessage.getCreatedAt())
-                                                .chatSessionId(sessionIdToUse)
-                                                .build();
-
-                                        // 임시 파일 삭제
-                                        tmp.delete();
-
-                                        return ResponseEntity.ok(new ApiResponse<>(true, "오디오 처리 및 응답 생성 완료", response));
+                                        // 세션을 찾을 수 없으면 히스토리 없이 응답 (이 경우는 발생하지 않음)
+                                        ChatSession session = chatService.getChatSession(sessionIdToUse, user).orElse(null);
+                                        return runVoiceFileTurn(user, sessionIdToUse, session, upload);
+                } catch (JobRejectedException e) {
+                        // 429 + Retry-After는 GlobalExceptionHandler에서 처리
+                        throw e;
                 } catch (Exception e) {
                         log.error("오디오 처리 중 오류 발생: {}", e.getMessage(), e);
                         return ResponseEntity.internalServerError().body(new ApiResponse<>(false, "오디오 처리 중 오류가 발생했습니다: " + e.getMessage(), null));
+                } finally {
+                        // 작업에 넘긴 파일은 남기고, 버퍼는 전사가 끝난 뒤 풀에 반납됨
+                        if (upload != null) {
+                                upload.release();
+                        }
                 }
         }
 
@@ -349,76 +313,117 @@ public class ChatGPTController {
                         return ResponseEntity.badRequest().body(new ApiResponse<>(false, "오디오 파일이 필요합니다.", null));
                 }
 
+                VoiceUpload upload = null;
                 try {
-                            File uploadDir = new File(openAIConfig.getUploadDir());
-                            if (!uploadDir.exists()) uploadDir.mkdirs();
-                            File tmp = new File(uploadDir, "upload-" + System.currentTimeMillis() + "-" + audio.getOriginalFilename());
-                        try (FileOutputStream fos = new FileOutputStream(tmp)) {
-                                fos.write(audio.getBytes());
-                        }
+                        upload = voiceUploadStore.store(audio);
 
                                         if (async) {
-                                                var job = asyncProcessingService.createJob(user.getId());
-                                                asyncProcessingService.runTranscriptionAndAnalysis(job.getId(), tmp.getAbsolutePath(), "ko", sessionId, openAIService);
+                                                var job = submitVoiceJob(user, upload, sessionId, VoiceJobScheduler.Priority.NORMAL);
                                                 return ResponseEntity.ok(new ApiResponse<>(true, "작업이 시작되었습니다.", job.getId()));
                                         }
 
-                                        String transcriptionRaw = openAIService.transcribeAudioFile(tmp.getAbsolutePath(), "ko");
-                                        String transcriptText;
-                                        if (transcriptionRaw == null || transcriptionRaw.trim().isEmpty()) {
-                                                transcriptText = "안녕하세요! 음성 메시지를 받았어요. 어떻게 도와드릴까요?"; // 기본 텍스트
-                                        } else {
-                                                transcriptText = transcriptionRaw;
-                                        }
-
-                        var analysis = openAIService.analyzeTranscriptEmotion(transcriptText, null);
-
-                        ChatRequest request = new ChatRequest();
-                        request.setMessage(transcriptText);
-                        request.setChatSessionId(sessionId);
-
-                        ChatMessage userMessage = chatService.saveMessage(user, buildChatMessageRequest(request, ChatMessage.MessageType.USER));
-
-                        // 세션의 이전 메시지 히스토리 조회
-                        List<ChatSessionMessage> sessionMessages = chatService.getSessionMessages(session);
-                        List<ChatCompletionRequest.Message> messageHistory = new ArrayList<>();
-
-                        // 시스템 메시지 추가
-                        messageHistory.add(ChatCompletionRequest.Message.builder()
-                                .role("system")
-                                .content("너는 덕키야! 귀여운 오리 같은 친구 같은 AI야. 사용자의 감정을 잘 이해하고 공감해줘. 이전 대화도 기억하면서 재미있고 귀엽게 응답해줘. 유튜브 쇼츠 추천도 해줄게~")
-                                .build());
+                                        return runVoiceFileTurn(user, sessionId, session, upload);
+                } catch (JobRejectedException e) {
+                        // 429 + Retry-After는 GlobalExceptionHandler에서 처리
+                        throw e;
+                } catch (Exception e) {
+                        log.error("오디오 처리 중 오류 발생: {}", e.getMessage(), e);
+                        return ResponseEntity.internalServerError().body(new ApiResponse<>(false, "오디오 처리 중 오류가 발생했습니다: " + e.getMessage(), null));
+                } finally {
+                        // 작업에 넘긴 파일은 남기고, 버퍼는 전사가 끝난 뒤 풀에 반납됨
+                        if (upload != null) {
+                                upload.release();
+                        }
+                }
+        }
 
-                        // 이전 메시지 히스토리 추가
-                        for (ChatSessionMessage sessionMessage : sessionMessages) {
-                            ChatMessage message = sessionMessage.getMessage();
-                            String role = message.getType() == ChatMessage.MessageType.USER ? "user" : "assistant";
+    /**
+     * 동기 음성 파일 턴을 단계 그래프로 실행합니다.
+     * 전사와 세션 히스토리 조회를 동시에 시작하고, 둘이 준비되면 감정 분석과 응답 생성을 진행한 뒤 한 턴으로 저장합니다.
+     * 그래프 전체가 데드라인 안에 끝나지 않으면 (아직 저장 전일 때) 비동기 작업으로 전환합니다.
+     */
+    private ResponseEntity<ApiResponse<Object>> runVoiceFileTurn(User user, Long sessionId, ChatSession session, VoiceUpload upload) throws Exception {
+        // 같은 오디오 재업로드 시 캐시된 전사/분석 결과 재사용
+        String audioKey = upload.isInMemory()
+                ? audioAnalysisCache.fingerprint(upload.content())
+                : audioAnalysisCache.fingerprint(upload.file());
+
+        // Whisper 업로드가 버퍼를 읽는 동안 반납되지 않도록 참조를 잡고, 호출이 끝나거나 취소되면 놓음
+        // (취소 직후 중단 중인 요청이 재사용된 버퍼를 읽더라도 그 응답은 버려지므로 결과에는 영향 없음)
+        upload.retain();
+        CompletableFuture<String> whisperFuture = openAICallExecutor.submit(() -> audioAnalysisCache.transcript(audioKey, "ko",
+                () -> transcriptionService.transcribe(audioKey, upload, "ko")));
+        whisperFuture.whenComplete((text, error) -> upload.release());
+        CompletableFuture<String> transcriptFuture = whisperFuture
+                // API 키가 더미일 경우 기본 텍스트 사용
+                .thenApply(raw -> raw == null || raw.trim().isEmpty() ? TranscriptionService.DEFAULT_TRANSCRIPT : raw);
+        CompletableFuture<List<ChatCompletionRequest.Message>> historyFuture = session != null
+                ? CompletableFuture.supplyAsync(() -> buildSessionHistory(session), taskExecutor)
+                : CompletableFuture.completedFuture(new ArrayList<>());
+
+        // VoiceMetadata 파싱은 생략(클라이언트 metaJson 사용 가능)
+        CompletableFuture<VoiceTurnResult> turnFuture =
+                voiceTurnService.analyzeAndReplyAsync(audioKey, historyFuture, transcriptFuture, null);
+
+        // 데드라인 처리와 저장 중 먼저 시작한 쪽만 진행 (비동기 전환 후 같은 턴이 두 번 저장되지 않도록)
+        AtomicBoolean settled = new AtomicBoolean();
+        CompletableFuture<ChatMessage> savedFuture = transcriptFuture.thenCombineAsync(turnFuture, (transcriptText, turn) -> {
+            if (!settled.compareAndSet(false, true)) {
+                throw new CancellationException("데드라인 초과로 비동기 처리로 전환됨");
+            }
+            // 전사 텍스트를 사용자 메시지로, 분석된 감정과 함께 응답과 한 턴으로 저장
+            ChatRequest request = new ChatRequest();
+            request.setMessage(transcriptText);
+            request.setChatSessionId(sessionId);
+            request.setIsVoiceInput(true);
+            EmotionAnalysisResult analysis = turn.getAnalysis();
+            if (analysis != null) {
+                request.setEmotionType(analysis.getPrimaryEmotion());
+                request.setEmotionScore(analysis.getConfidence());
+            }
+            return saveTurn(user, request, turn.getReply(), sessionId);
+        }, taskExecutor);
 
-                            messageHistory.add(ChatCompletionRequest.Message.builder()
-                                    .role(role)
-                                    .content(message.getContent())
-                                    .build());
-                        }
-                        String assistantResponse = openAIService.generateResponseWithHistoryAndVoice(messageHistory, transcriptText, null);
+        ChatMessage assistantMessage;
+        try {
+            assistantMessage = savedFuture.get(openAIConfig.getVoiceSyncDeadlineMs(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (!settled.compareAndSet(false, true)) {
+                // 저장이 이미 시작됨 - 짧은 DB 작업이므로 마저 기다림
+                assistantMessage = savedFuture.get();
+            } else {
+                // 진행 중인 Whisper(작업 스레드 인터럽트)와 분석/응답 호출(HTTP 교환)까지 취소하고 작업이 처음부터 처리
+                turnFuture.cancel(true);
+                whisperFuture.cancel(true);
+                log.info("음성 턴이 {}ms 데드라인을 넘어 비동기 처리로 전환합니다.", openAIConfig.getVoiceSyncDeadlineMs());
+                var job = submitVoiceJob(user, upload, sessionId, VoiceJobScheduler.Priority.HIGH);
+                return ResponseEntity.ok(new ApiResponse<>(true, "오디오 처리에 시간이 소요되어 비동기 처리로 전환되었습니다. 잠시 후 결과를 확인해주세요.", job.getId()));
+            }
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
 
-                        ChatMessage assistantMessage = chatService.saveMessage(user, buildChatMessageRequest(
-                                        assistantResponse, ChatMessage.MessageType.ASSISTANT, sessionId));
+        ChatResponse response = ChatResponse.builder()
+                .id(assistantMessage.getId())
+                .content(assistantMessage.getContent())
+                .type(assistantMessage.getType())
+                .timestamp(assistantMessage.getCreatedAt())
+                .chatSessionId(sessionId)
+                .build();
 
-                        ChatResponse response = ChatResponse.builder()
-                                        .id(assistantMessage.getId())
-                                        .content(assistantMessage.getContent())
-                                        .type(assistantMessage.getType())
-                                        .timestamp(assistantMessage.getCreatedAt())
-                                        .chatSessionId(sessionId)
-                                        .build();
+        return ResponseEntity.ok(new ApiResponse<>(true, "오디오 처리 및 응답 생성 완료", response));
+    }
 
-                        tmp.delete();
-                        return ResponseEntity.ok(new ApiResponse<>(true, "오디오 처리 및 응답 생성 완료", response));
-                } catch (Exception e) {
-                        log.error("오디오 처리 중 오류 발생: {}", e.getMessage(), e);
-                        return ResponseEntity.internalServerError().body(new ApiResponse<>(false, "오디오 처리 중 오류가 발생했습니다: " + e.getMessage(), null));
-                }
+    // 작업 등록이 실패하면(429 포함) 넘긴 파일을 업로드에 돌려줘 release에서 지워지게 함
+    private ProcessingJob submitVoiceJob(User user, VoiceUpload upload, Long sessionId, VoiceJobScheduler.Priority priority) throws IOException {
+        Path file = upload.handOff();
+        try {
+            return asyncProcessingService.submitJob(user.getId(), file.toString(), "ko", sessionId, priority);
+        } catch (RuntimeException e) {
+            upload.reclaim();
+            throw e;
         }
+    }
 
                         @GetMapping("/chat/voice/task/{jobId}")
                         public ResponseEntity<ApiResponse<Object>> getJobStatus(@PathVariable("jobId") String jobId) {
@@ -429,15 +434,66 @@ public class ChatGPTController {
                                 return ResponseEntity.ok(new ApiResponse<>(true, "작업 상태 조회", job));
                         }
 
+                        /**
+                         * 작업 상태 전환을 SSE로 받습니다. 연결 즉시 현재 상태를 보내고, DONE/FAILED 이벤트(응답 포함) 뒤 스트림을 닫습니다.
+                         */
+                        @GetMapping(value = "/chat/voice/task/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+                        public SseEmitter streamJobEvents(@PathVariable("jobId") String jobId) {
+                                JobEvent snapshot = currentJobEvent(jobId);
+                                SseEmitter emitter = new SseEmitter(JOB_EVENTS_TIMEOUT_MS);
+                                jobEventBus.subscribe(jobId, emitter, snapshot);
+                                return emitter;
+                        }
+
+                        /**
+                         * 롱폴: 상태가 since와 달라질 때까지(최대 timeoutMs) 기다렸다가 현재 상태를 반환합니다.
+                         */
+                        @GetMapping("/chat/voice/task/{jobId}/wait")
+                        public DeferredResult<ResponseEntity<ApiResponse<JobEvent>>> waitJobEvent(
+                                @PathVariable("jobId") String jobId,
+                                @RequestParam(value = "since", required = false) String since,
+                                @RequestParam(value = "timeoutMs", required = false, defaultValue = "25000") long timeoutMs) {
+                                JobEvent snapshot = currentJobEvent(jobId);
+                                long timeout = Math.max(1_000L, Math.min(timeoutMs, MAX_LONG_POLL_MS));
+                                DeferredResult<ResponseEntity<ApiResponse<JobEvent>>> result = new DeferredResult<>(timeout);
+                                CompletableFuture<JobEvent> change = jobEventBus.awaitChange(jobId, since, snapshot);
+                                result.onTimeout(() -> {
+                                        change.cancel(false);
+                                        JobEvent latest = jobEventBus.latest(jobId);
+                                        result.setResult(ResponseEntity.ok(new ApiResponse<>(true, "작업 상태 변화 없음", latest != null ? latest : snapshot)));
+                                });
+                                change.thenAccept(event -> result.setResult(ResponseEntity.ok(new ApiResponse<>(true, "작업 상태 조회", event))));
+                                return result;
+                        }
+
+                        // 버스에 상태가 없으면(재시작 이후 등) DB에서 한 번만 읽음.
+                        // 다른 노드가 처리 중인 작업은 이 노드로 전환 이벤트가 오지 않으므로 MOVED로 바로 닫음 (클라이언트는 상태 조회로 확인)
+                        private JobEvent currentJobEvent(String jobId) {
+                                JobEvent latest = jobEventBus.latest(jobId);
+                                if (latest != null) {
+                                        return latest;
+                                }
+                                var job = asyncProcessingService.getJob(jobId);
+                                if (job == null) {
+                                        throw new IllegalArgumentException("존재하지 않는 작업 ID입니다.");
+                                }
+                                JobEvent event = JobEvent.from(job);
+                                if (!event.isTerminal() && !asyncProcessingService.isRunningHere(jobId)) {
+                                        return JobEvent.moved(jobId);
+                                }
+                                return event;
+                        }
+
         @PostMapping("/chat/session/{sessionId}/voice")
-    public ResponseEntity<ApiResponse<ChatResponse>> chatWithSessionAndVoice(
+    public CompletableFuture<ResponseEntity<ApiResponse<ChatResponse>>> chatWithSessionAndVoice(
             @AuthenticationPrincipal UserDetails userDetails,
             @PathVariable("sessionId") Long sessionId,
             @Valid @RequestBody ChatRequest request) {
 
         // sessionId 유효성 검증
         if (sessionId == null || sessionId <= 0) {
-            return ResponseEntity.badRequest().body(new ApiResponse<>(false, "유효하지 않은 세션 ID입니다.", null));
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.badRequest().body(new ApiResponse<>(false, "유효하지 않은 세션 ID입니다.", null)));
         }
 
         User user = userRepository.findByEmail(userDetails.getUsername())
@@ -446,66 +502,127 @@ public class ChatGPTController {
         // 세션 조회
         Optional<ChatSession> sessionOpt = chatService.getChatSession(sessionId, user);
         if (sessionOpt.isEmpty()) {
-            return ResponseEntity.badRequest().body(new ApiResponse<>(false, "채팅 세션을 찾을 수 없습니다. 세션 ID: " + sessionId, null));
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.badRequest().body(new ApiResponse<>(false, "채팅 세션을 찾을 수 없습니다. 세션 ID: " + sessionId, null)));
         }
 
         ChatSession session = sessionOpt.get();
         request.setChatSessionId(sessionId);
 
-        // 세션의 이전 메시지 히스토리 조회
-        List<ChatSessionMessage> sessionMessages = chatService.getSessionMessages(session);
-        List<ChatCompletionRequest.Message> messageHistory = new ArrayList<>();
+        // 세션의 이전 메시지 히스토리 조회 (이번 사용자 메시지를 저장하기 전에)
+        List<ChatCompletionRequest.Message> messageHistory = buildSessionHistory(session);
+        PendingTurn pending = saveUserMessage(user, request, sessionId);
 
-        // 시스템 메시지 추가 (기본 시스템 메시지)
-        messageHistory.add(ChatCompletionRequest.Message.builder()
-                .role("system")
-                .content("너는 덕키야! 귀여운 오리 같은 친구 같은 AI야. 사용자의 감정을 잘 이해하고 공감해줘. 이전 대화도 기억하면서 재미있고 귀엽게 응답해줘. 유튜브 쇼츠 추천도 해줄게~")
-                .build());
+        // 음성 메타데이터를 활용한 ChatGPT API 호출
+        CompletableFuture<String> assistantResponse = request.getVoiceMetadata() != null
+                ? openAIService.generateResponseWithHistoryAndVoiceAsync(messageHistory, request.getMessage(), request.getVoiceMetadata())
+                : openAIService.generateResponseWithHistoryAsync(messageHistory, request.getMessage());
+
+        return assistantResponse
+                .thenApplyAsync(content -> saveAssistantReply(pending, content), taskExecutor)
+                .exceptionally(e -> {
+                    log.error("ChatGPT API 호출 중 오류 발생: {}", e.getMessage(), e);
+                    return ResponseEntity.internalServerError().body(new ApiResponse<>(false, "ChatGPT API 호출 중 오류가 발생했습니다.", null));
+                });
+    }
+
+    @PostMapping(value = "/chat/voice/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter chatWithVoiceStream(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @Valid @RequestBody ChatRequest request) {
+
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new IllegalArgumentException("사용자를 찾을 수 없습니다."));
+
+        return streamAssistantReply(user, request, request.getChatSessionId(),
+                onDelta -> openAIService.streamResponseWithVoice(request.getMessage(), request.getVoiceMetadata(), onDelta));
+    }
 
-        // 이전 메시지 히스토리 추가
-        for (ChatSessionMessage sessionMessage : sessionMessages) {
-            ChatMessage message = sessionMessage.getMessage();
-            String role = message.getType() == ChatMessage.MessageType.USER ? "user" : "assistant";
+    @PostMapping(value = "/chat/session/{sessionId}/voice/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter chatWithSessionAndVoiceStream(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @PathVariable("sessionId") Long sessionId,
+            @Valid @RequestBody ChatRequest request) {
 
-            messageHistory.add(ChatCompletionRequest.Message.builder()
-                    .role(role)
-                    .content(message.getContent())
-                    .build());
+        if (sessionId == null || sessionId <= 0) {
+            throw new IllegalArgumentException("유효하지 않은 세션 ID입니다.");
         }
 
-        // 사용자 메시지 저장
-        ChatMessage userMessage = chatService.saveMessage(user, buildChatMessageRequest(request, ChatMessage.MessageType.USER));
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new IllegalArgumentException("사용자를 찾을 수 없습니다."));
 
-        // 음성 메타데이터를 활용한 ChatGPT API 호출
-        String assistantResponse;
+        ChatSession session = chatService.getChatSession(sessionId, user)
+                .orElseThrow(() -> new IllegalArgumentException("채팅 세션을 찾을 수 없습니다. 세션 ID: " + sessionId));
+        request.setChatSessionId(sessionId);
+
+        // 세션의 이전 메시지 히스토리 조회
+        List<ChatCompletionRequest.Message> messageHistory = buildSessionHistory(session);
+
+        return streamAssistantReply(user, request, sessionId,
+                onDelta -> openAIService.streamResponseWithHistoryAndVoice(messageHistory, request.getMessage(), request.getVoiceMetadata(), onDelta));
+    }
+
+    /**
+     * 사용자 메시지를 먼저 저장하고 응답 델타를 "delta" 이벤트로 밀어주며, 스트림이 끝나면 조립된 응답을 저장한 뒤 "done" 이벤트로 ChatResponse를 보냅니다.
+     * 세션 히스토리는 호출 전에 만들어 두어야 합니다 (이번 사용자 메시지가 히스토리에 중복으로 들어가지 않도록).
+     */
+    private SseEmitter streamAssistantReply(User user, ChatRequest request, Long chatSessionId, Function<Consumer<String>, String> replyStreamer) {
+        PendingTurn pending = saveUserMessage(user, request, chatSessionId);
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
         try {
-            if (request.getVoiceMetadata() != null) {
-                assistantResponse = openAIService.generateResponseWithHistoryAndVoice(messageHistory, request.getMessage(), request.getVoiceMetadata());
-            } else {
-                assistantResponse = openAIService.generateResponseWithHistory(messageHistory, request.getMessage());
-            }
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().body(new ApiResponse<>(false, "ChatGPT API 호출 중 오류가 발생했습니다.", null));
+            taskExecutor.execute(() -> {
+                try {
+                    String assistantResponse = replyStreamer.apply(delta -> {
+                        try {
+                            emitter.send(SseEmitter.event().name("delta").data(delta, MediaType.TEXT_PLAIN));
+                        } catch (IOException e) {
+                            // 클라이언트가 연결을 끊어도 응답은 끝까지 받아서 저장
+                            log.debug("SSE delta 전송 실패: {}", e.getMessage());
+                        }
+                    });
+
+                    ChatMessage assistantMessage = chatService.saveAssistantReply(pending,
+                            buildChatMessageRequest(assistantResponse, ChatMessage.MessageType.ASSISTANT, chatSessionId));
+
+                    ChatResponse response = ChatResponse.builder()
+                            .id(assistantMessage.getId())
+                            .content(assistantMessage.getContent())
+                            .type(assistantMessage.getType())
+                            .timestamp(assistantMessage.getCreatedAt())
+                            .chatSessionId(chatSessionId)
+                            .build();
+
+                    emitter.send(SseEmitter.event().name("done").data(response, MediaType.APPLICATION_JSON));
+                    emitter.complete();
+                } catch (Exception e) {
+                    log.error("스트리밍 응답 처리 중 오류 발생: {}", e.getMessage(), e);
+                    emitter.completeWithError(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 풀과 큐가 모두 찬 경우: 요청 스레드로 예외를 올리지 않고 스트림을 오류로 닫음
+            log.warn("스트리밍 작업을 시작하지 못했습니다 (작업 풀 포화): {}", e.getMessage());
+            emitter.completeWithError(e);
         }
+        return emitter;
+    }
 
-        // ChatGPT 응답 저장
-        ChatMessage assistantMessage = chatService.saveMessage(user, buildChatMessageRequest(
-                assistantResponse, ChatMessage.MessageType.ASSISTANT, sessionId));
+    private List<ChatCompletionRequest.Message> buildSessionHistory(ChatSession session) {
+        List<ChatCompletionRequest.Message> messageHistory = new ArrayList<>();
 
-        // 응답 생성
-        ChatResponse response = ChatResponse.builder()
-                .id(assistantMessage.getId())
-                .content(assistantMessage.getContent())
-                .type(assistantMessage.getType())
-                .timestamp(assistantMessage.getCreatedAt())
-                .chatSessionId(sessionId)
-                .build();
+        // 시스템 메시지 추가 (기본 시스템 메시지)
+        messageHistory.add(ChatCompletionRequest.Message.builder()
+                .role("system")
+                .content("너는 덕키야! 귀여운 오리 같은 친구 같은 AI야. 사용자의 감정을 잘 이해하고 공감해줘. 이전 대화도 기억하면서 재미있고 귀엽게 응답해줘. 유튜브 쇼츠 추천도 해줄게~")
+                .build());
 
-        return ResponseEntity.ok(new ApiResponse<>(true, "음성 메시지가 성공적으로 처리되었습니다.", response));
+        // 이전 대화 요약 + 토큰 예산 안의 최근 턴
+        messageHistory.addAll(conversationContextService.buildHistory(session));
+        return messageHistory;
     }
 
     @PostMapping("/ducky-chat")
-    public ResponseEntity<ApiResponse<String>> duckyChat(
+    public CompletableFuture<ResponseEntity<ApiResponse<String>>> duckyChat(
             @AuthenticationPrincipal UserDetails userDetails,
             @Valid @RequestBody DuckyChatRequest request) {
 
@@ -513,19 +630,16 @@ public class ChatGPTController {
         userRepository.findByEmail(userDetails.getUsername())
                 .orElseThrow(() -> new IllegalArgumentException("사용자를 찾을 수 없습니다."));
 
-        try {
-            String duckyResponseJson = openAIService.generateDuckyResponse(
-                    request.getMessage(),
-                    request.getCharacterProfile(),
-                    request.getExtractedLabelsJson(),
-                    request.getConversationHistory()
-            );
-
-            return ResponseEntity.ok(new ApiResponse<>(true, "Ducky response generated successfully.", duckyResponseJson));
-
-        } catch (Exception e) {
-            log.error("Error during Ducky chat: {}", e.getMessage(), e);
-            return ResponseEntity.internalServerError().body(new ApiResponse<>(false, "Error generating Ducky response.", null));
-        }
+        return openAIService.generateDuckyResponseAsync(
+                        request.getMessage(),
+                        request.getCharacterProfile(),
+                        request.getExtractedLabelsJson(),
+                        request.getConversationHistory())
+                .thenApply(duckyResponseJson -> ResponseEntity.ok(
+                        new ApiResponse<>(true, "Ducky response generated successfully.", duckyResponseJson)))
+                .exceptionally(e -> {
+                    log.error("Error during Ducky chat: {}", e.getMessage(), e);
+                    return ResponseEntity.internalServerError().body(new ApiResponse<>(false, "Error generating Ducky response.", null));
+                });
     }
 }
@@ -0,0 +1,82 @@
+package com.duckchat.api.controller;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * sendfile을 쓸 수 없을 때(TLS 등) 파일 구간 하나를 서블릿 논블로킹 출력으로 보내는 WriteListener.
+ * 소켓에 쓸 수 있을 때만 컨테이너가 onWritePossible을 호출하므로, 느린 클라이언트에게 큰 영상을 보내는 동안에도
+ * 워커 스레드를 붙잡지 않습니다. 전송이 끝나거나 실패하면 파일을 닫고 비동기 요청을 완료합니다.
+ */
+@Slf4j
+final class FileRegionWriter implements WriteListener {
+
+    private static final int CHUNK_BYTES = 64 * 1024;
+
+    private final FileChannel channel;
+    private final ServletOutputStream out;
+    private final AsyncContext asyncContext;
+    private final long end;
+    private final ByteBuffer buffer = ByteBuffer.allocate(CHUNK_BYTES);
+    private long position;
+
+    private FileRegionWriter(FileChannel channel, ServletOutputStream out, AsyncContext asyncContext, long position, long count) {
+        this.channel = channel;
+        this.out = out;
+        this.asyncContext = asyncContext;
+        this.position = position;
+        this.end = position + count;
+    }
+
+    /**
+     * 상태 코드와 헤더를 응답에 쓴 뒤 호출합니다. 채널은 전송이 끝나면 이 리스너가 닫습니다.
+     */
+    static void start(HttpServletRequest request, HttpServletResponse response, FileChannel channel, long position, long count)
+            throws IOException {
+        AsyncContext asyncContext = request.startAsync();
+        // 전송 시간은 파일 크기와 클라이언트 속도에 달려 있어 전체 시간 제한은 두지 않음 (멈춘 연결은 커넥터 소켓 타임아웃으로 onError)
+        asyncContext.setTimeout(0);
+        response.getOutputStream().setWriteListener(new FileRegionWriter(channel, response.getOutputStream(), asyncContext, position, count));
+    }
+
+    @Override
+    public void onWritePossible() throws IOException {
+        while (out.isReady()) {
+            if (position >= end) {
+                finish();
+                return;
+            }
+            buffer.clear().limit((int) Math.min(CHUNK_BYTES, end - position));
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("전송 중에 파일이 줄었습니다");
+            }
+            out.write(buffer.array(), 0, read);
+            position += read;
+        }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        log.debug("동영상 전송 중단: {}", t.getMessage());
+        finish();
+    }
+
+    private void finish() {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // 읽기 전용 채널
+        }
+        asyncContext.complete();
+    }
+}
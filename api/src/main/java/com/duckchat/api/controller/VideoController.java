@@ -1,155 +1,264 @@
 package com.duckchat.api.controller;
 
 import com.duckchat.api.dto.ApiResponse;
+import com.duckchat.api.service.VideoCatalog;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourceRegion;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
-import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
-import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/videos")
 @RequiredArgsConstructor
 public class VideoController {
     
-    private static final String ARCHIVE_PATH = "/Users/ryugi62/Desktop/해커톤/아카이브";
+    // Tomcat sendfile 요청 속성 (org.apache.catalina.Globals)
+    private static final String SENDFILE_SUPPORTED_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+    
+    private final VideoCatalog videoCatalog;
     
     @GetMapping("/list")
     public ResponseEntity<ApiResponse<List<Map<String, String>>>> getVideoList() {
-        try {
-            Path archivePath = Paths.get(ARCHIVE_PATH);
-            
-            if (!Files.exists(archivePath)) {
-                return ResponseEntity.ok(new ApiResponse<>(false, "아카이브 폴더를 찾을 수 없습니다.", null));
-            }
-            
-            List<Map<String, String>> videos;
-            try (Stream<Path> stream = Files.list(archivePath)) {
-                videos = stream
-                    .filter(Files::isRegularFile)
-                    .filter(path -> path.toString().toLowerCase().endsWith(".mp4"))
-                    .map(path -> {
-                        String fileName = path.getFileName().toString();
-                        String fileNameWithoutExtension = fileName.replaceFirst("[.][^.]+$", "");
-                        return Map.of(
-                            "id", String.valueOf(Math.abs(fileName.hashCode())),
-                            "title", fileNameWithoutExtension,
-                            "filename", fileName,
-                            "url", "/api/videos/stream/" + fileName
-                        );
-                    })
-                    .limit(5)
-                    .toList();
-            }
-            
-            return ResponseEntity.ok(new ApiResponse<>(true, "로컬 동영상 목록을 성공적으로 가져왔습니다.", videos));
-            
-        } catch (IOException e) {
-            return ResponseEntity.ok(new ApiResponse<>(false, "동영상 목록을 가져오는데 실패했습니다: " + e.getMessage(), null));
+        if (!videoCatalog.isAvailable() && videoCatalog.all().isEmpty()) {
+            return ResponseEntity.ok(new ApiResponse<>(false, "아카이브 폴더를 찾을 수 없습니다.", null));
         }
+        
+        List<Map<String, String>> videos = videoCatalog.all().stream()
+            .limit(5)
+            .map(this::toVideoMap)
+            .toList();
+        
+        return ResponseEntity.ok(new ApiResponse<>(true, "로컬 동영상 목록을 성공적으로 가져왔습니다.", videos));
     }
     
+    /**
+     * 동영상 스트리밍. Range 요청이면 206으로 해당 구간만 보내고, ETag/Last-Modified로 조건부 요청(304, If-Range)을 처리합니다.
+     * Tomcat이 sendfile을 지원하면 구간 전송을 컨테이너에 넘겨(FileChannel.transferTo) 워커 스레드가 전송 동안 묶이지 않게 하고,
+     * 지원하지 않으면 서블릿 논블로킹 출력(FileRegionWriter)으로 보냅니다. 여러 구간은 Spring MVC가 multipart/byteranges로 씁니다.
+     * HEAD는 파일을 읽지 않고 헤더만 반환합니다.
+     */
     @GetMapping("/stream/{filename}")
-    public ResponseEntity<Resource> streamVideo(@PathVariable String filename) {
+    public ResponseEntity<Resource> streamVideo(@PathVariable String filename,
+                                                @RequestHeader HttpHeaders requestHeaders,
+                                                ServletWebRequest webRequest) {
         try {
-            Path videoPath = Paths.get(ARCHIVE_PATH, filename);
+            // 카탈로그에 있는 파일만 제공 (경로 조작 방지)
+            Optional<VideoCatalog.Entry> entry = videoCatalog.byFilename(filename);
+            if (entry.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            Path videoPath = videoCatalog.resolve(entry.get());
             
-            if (!Files.exists(videoPath)) {
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(videoPath, BasicFileAttributes.class);
+            } catch (NoSuchFileException e) {
                 return ResponseEntity.notFound().build();
             }
+            long size = attributes.size();
+            long lastModified = attributes.lastModifiedTime().toMillis();
+            // 내용 id에 크기/수정 시각을 붙여, 카탈로그 갱신 전에 파일이 바뀌어도 ETag가 달라지게 함
+            String etag = "\"" + entry.get().getId() + "-" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+            
+            // If-None-Match / If-Modified-Since 일치 시 304 (If-Match 불일치 시 412)
+            if (webRequest.checkNotModified(etag, lastModified)) {
+                return null;
+            }
+            
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaTypeFactory.getMediaType(filename).orElse(MediaType.APPLICATION_OCTET_STREAM));
+            headers.setContentDisposition(ContentDisposition.inline().filename(filename, StandardCharsets.UTF_8).build());
+            headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+            headers.setETag(etag);
+            headers.setLastModified(lastModified);
+            headers.setCacheControl(CacheControl.noCache()); // 매번 재검증하되 바뀌지 않았으면 304
             
             Resource resource = new FileSystemResource(videoPath);
+            HttpServletRequest request = webRequest.getRequest();
+            // Range는 GET에만 정의되어 있으므로 HEAD는 전체 크기로 답함
+            boolean head = HttpMethod.HEAD.matches(request.getMethod());
+            List<HttpRange> ranges;
+            try {
+                ranges = !head && ifRangeMatches(requestHeaders, etag, lastModified) ? requestHeaders.getRange() : List.of();
+            } catch (IllegalArgumentException e) {
+                ranges = List.of(); // 해석할 수 없는 Range 헤더는 무시하고 전체 전송
+            }
+            
+            List<ResourceRegion> regions;
+            try {
+                regions = ranges.isEmpty() ? List.of(new ResourceRegion(resource, 0, size)) : HttpRange.toResourceRegions(ranges, resource);
+            } catch (IllegalArgumentException e) {
+                // 파일 밖 구간이거나 구간 합이 파일보다 큼
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + size)
+                        .build();
+            }
+            
+            if (regions.size() > 1) {
+                // 여러 구간: MVC가 Range 헤더대로 ResourceRegion들로 나눠 multipart/byteranges로 씀
+                return ResponseEntity.ok().headers(headers).body(resource);
+            }
+            
+            ResourceRegion region = regions.get(0);
+            HttpStatus status = ranges.isEmpty() ? HttpStatus.OK : HttpStatus.PARTIAL_CONTENT;
+            headers.setContentLength(region.getCount());
+            if (!ranges.isEmpty()) {
+                headers.set(HttpHeaders.CONTENT_RANGE, contentRange(region, size));
+            }
+            if (head || region.getCount() == 0) {
+                return ResponseEntity.status(status).headers(headers).build();
+            }
+            if (sendfileSupported(request)) {
+                sendfile(request, videoPath, region);
+                return ResponseEntity.status(status).headers(headers).build();
+            }
             
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_OCTET_STREAM_VALUE)
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
-                    .body(resource);
+            // 파일을 먼저 열어 실패하면 헤더를 쓰기 전에 500으로 끝나게 함
+            FileChannel channel = FileChannel.open(videoPath, StandardOpenOption.READ);
+            try {
+                HttpServletResponse response = webRequest.getResponse();
+                response.setStatus(status.value());
+                // checkNotModified가 이미 넣은 ETag/Last-Modified는 덮어씀
+                headers.forEach((name, values) -> {
+                    response.setHeader(name, values.get(0));
+                    values.stream().skip(1).forEach(value -> response.addHeader(name, value));
+                });
+                FileRegionWriter.start(request, response, channel, region.getPosition(), region.getCount());
+            } catch (Exception e) {
+                channel.close();
+                throw e;
+            }
+            return null; // 응답은 FileRegionWriter가 마무리
                     
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
     }
     
+    // If-Range가 없거나 현재 ETag/수정 시각과 같을 때만 Range를 적용 (다르면 전체 전송)
+    private static boolean ifRangeMatches(HttpHeaders requestHeaders, String etag, long lastModified) {
+        String ifRange = requestHeaders.getFirst(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            return requestHeaders.getFirstDate(HttpHeaders.IF_RANGE) == lastModified / 1000 * 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+    
+    private static boolean sendfileSupported(HttpServletRequest request) {
+        return Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTR));
+    }
+    
+    // Tomcat sendfile: 응답 헤더만 쓰고 본문은 컨테이너가 poller에서 FileChannel.transferTo로 전송
+    private static void sendfile(HttpServletRequest request, Path videoPath, ResourceRegion region) {
+        request.setAttribute(SENDFILE_FILENAME_ATTR, videoPath.toAbsolutePath().toString());
+        request.setAttribute(SENDFILE_START_ATTR, region.getPosition());
+        request.setAttribute(SENDFILE_END_ATTR, region.getPosition() + region.getCount());
+    }
+    
+    private static String contentRange(ResourceRegion region, long size) {
+        long start = region.getPosition();
+        return "bytes " + start + "-" + (start + region.getCount() - 1) + "/" + size;
+    }
+    
     @GetMapping("/recommend/{emotion}")
     public ResponseEntity<ApiResponse<List<Map<String, String>>>> getRecommendedVideos(
             @PathVariable String emotion,
             @RequestParam(required = false) String excludeIds,
             @RequestParam(required = false) String chatContext,
             @RequestParam(defaultValue = "3") int limit) {
-        try {
-            Path archivePath = Paths.get(ARCHIVE_PATH);
-            
-            if (!Files.exists(archivePath)) {
-                return ResponseEntity.ok(new ApiResponse<>(false, "아카이브 폴더를 찾을 수 없습니다.", null));
-            }
-            
-            // 제외할 ID들 파싱
-            final Set<String> excludeIdSet;
-            if (excludeIds != null && !excludeIds.trim().isEmpty()) {
-                excludeIdSet = Set.of(excludeIds.split(","));
-            } else {
-                excludeIdSet = new HashSet<>();
-            }
-            
-            List<Map<String, String>> videos;
-            try (Stream<Path> stream = Files.list(archivePath)) {
-                videos = stream
-                    .filter(Files::isRegularFile)
-                    .filter(path -> path.toString().toLowerCase().endsWith(".mp4"))
-                    .map(path -> {
-                        String fileName = path.getFileName().toString();
-                        String fileNameWithoutExtension = fileName.replaceFirst("[.][^.]+$", "");
-                        String videoId = String.valueOf(Math.abs(fileName.hashCode()));
-                        
-                        return Map.of(
-                            "id", videoId,
-                            "title", fileNameWithoutExtension,
-                            "filename", fileName,
-                            "url", "/api/videos/stream/" + fileName,
-                            "type", "local",
-                            "emotion", emotion,
-                            "chatContext", chatContext != null ? chatContext : "",
-                            "recommendationScore", calculateRecommendationScore(fileNameWithoutExtension, emotion, chatContext)
-                        );
-                    })
-                    .filter(video -> !excludeIdSet.contains(video.get("id"))) // 이미 본 동영상 제외
-                    .sorted((v1, v2) -> Double.compare(
-                        Double.parseDouble(v2.get("recommendationScore")), 
-                        Double.parseDouble(v1.get("recommendationScore"))
-                    )) // 추천 점수 기준 정렬
-                    .limit(limit)
-                    .toList();
-            }
-            
-            String message = videos.isEmpty() 
-                ? "새로운 추천 동영상이 없습니다. 모든 동영상을 시청하셨거나 조건에 맞는 동영상이 없습니다."
-                : String.format("%s 감정 기반으로 %d개의 개인화된 동영상을 추천합니다.", emotion, videos.size());
-            
-            return ResponseEntity.ok(new ApiResponse<>(true, message, videos));
-            
-        } catch (IOException e) {
-            return ResponseEntity.ok(new ApiResponse<>(false, "추천 동영상을 가져오는데 실패했습니다: " + e.getMessage(), null));
+        if (!videoCatalog.isAvailable() && videoCatalog.all().isEmpty()) {
+            return ResponseEntity.ok(new ApiResponse<>(false, "아카이브 폴더를 찾을 수 없습니다.", null));
+        }
+        
+        // 제외할 ID들 파싱
+        final Set<String> excludeIdSet;
+        if (excludeIds != null && !excludeIds.trim().isEmpty()) {
+            excludeIdSet = Set.of(excludeIds.split(","));
+        } else {
+            excludeIdSet = new HashSet<>();
+        }
+        
+        List<Map<String, String>> videos = videoCatalog.all().stream()
+            .filter(entry -> !excludeIdSet.contains(entry.getId())) // 이미 본 동영상 제외
+            .map(entry -> {
+                Map<String, String> video = toVideoMap(entry);
+                video.put("type", "local");
+                video.put("emotion", emotion);
+                video.put("chatContext", chatContext != null ? chatContext : "");
+                video.put("recommendationScore", calculateRecommendationScore(entry, emotion, chatContext));
+                return video;
+            })
+            .sorted((v1, v2) -> Double.compare(
+                Double.parseDouble(v2.get("recommendationScore")), 
+                Double.parseDouble(v1.get("recommendationScore"))
+            )) // 추천 점수 기준 정렬
+            .limit(limit)
+            .toList();
+        
+        String message = videos.isEmpty() 
+            ? "새로운 추천 동영상이 없습니다. 모든 동영상을 시청하셨거나 조건에 맞는 동영상이 없습니다."
+            : String.format("%s 감정 기반으로 %d개의 개인화된 동영상을 추천합니다.", emotion, videos.size());
+        
+        return ResponseEntity.ok(new ApiResponse<>(true, message, videos));
+    }
+    
+    private Map<String, String> toVideoMap(VideoCatalog.Entry entry) {
+        Map<String, String> video = new LinkedHashMap<>();
+        video.put("id", entry.getId());
+        video.put("title", entry.getTitle());
+        video.put("filename", entry.getFilename());
+        video.put("url", "/api/videos/stream/" + entry.getFilename());
+        // ffprobe 메타데이터는 있을 때만
+        if (entry.getDurationSeconds() != null) {
+            video.put("duration", String.format("%.1f", entry.getDurationSeconds()));
+        }
+        if (entry.getWidth() != null) {
+            video.put("resolution", entry.getWidth() + "x" + entry.getHeight());
         }
+        return video;
     }
     
-    private String calculateRecommendationScore(String title, String emotion, String chatContext) {
+    private String calculateRecommendationScore(VideoCatalog.Entry entry, String emotion, String chatContext) {
         double score = 0.5; // 기본 점수
         
         // 1. 감정 기반 점수 계산
-        score += calculateEmotionScore(title, emotion) * 0.4; // 40% 가중치
+        score += calculateEmotionScore(entry.getNormalizedTitle(), emotion) * 0.4; // 40% 가중치
         
         // 2. 채팅 컨텍스트 기반 점수
         if (chatContext != null && !chatContext.trim().isEmpty()) {
-            score += calculateContextScore(title, chatContext) * 0.3; // 30% 가중치
+            score += calculateContextScore(entry.getNormalizedTitle(), chatContext) * 0.3; // 30% 가중치
         }
         
         // 3. 다양성을 위한 랜덤 점수
@@ -158,7 +267,8 @@ public class VideoController {
         return String.format("%.2f", Math.max(0.0, Math.min(1.0, score)));
     }
     
-    private double calculateEmotionScore(String title, String emotion) {
+    // normalizedTitle은 카탈로그에서 미리 소문자로 정규화해 둔 제목
+    private double calculateEmotionScore(String normalizedTitle, String emotion) {
         Map<String, List<String>> emotionKeywords = Map.of(
             "기쁨", List.of("웃음", "코미디", "재미", "유머", "즐거운", "happy", "funny", "comedy"),
             "슬픔", List.of("감동", "눈물", "드라마", "슬픈", "sad", "drama", "emotional"),
@@ -170,28 +280,22 @@ public class VideoController {
         );
         
         List<String> keywords = emotionKeywords.getOrDefault(emotion, List.of());
-        String lowerTitle = title.toLowerCase();
         
         long matchCount = keywords.stream()
-            .mapToLong(keyword -> lowerTitle.contains(keyword.toLowerCase()) ? 1 : 0)
+            .mapToLong(keyword -> normalizedTitle.contains(VideoCatalog.normalize(keyword)) ? 1 : 0)
             .sum();
             
         return matchCount > 0 ? Math.min(1.0, matchCount * 0.3) : 0.0;
     }
     
-    private double calculateContextScore(String title, String chatContext) {
+    private double calculateContextScore(String normalizedTitle, String chatContext) {
         if (chatContext == null || chatContext.trim().isEmpty()) {
             return 0.0;
         }
         
-        String lowerTitle = title.toLowerCase();
-        String lowerContext = chatContext.toLowerCase();
-        
-        // 간단한 키워드 매칭
-        String[] contextWords = lowerContext.split("\\s+");
-        long matchCount = Arrays.stream(contextWords)
-            .filter(word -> word.length() > 1) // 1글자 단어 제외
-            .mapToLong(word -> lowerTitle.contains(word) ? 1 : 0)
+        // 간단한 키워드 매칭 (제목과 같은 방식으로 정규화, 1글자 단어 제외)
+        long matchCount = VideoCatalog.tokens(VideoCatalog.normalize(chatContext)).stream()
+            .mapToLong(word -> normalizedTitle.contains(word) ? 1 : 0)
             .sum();
             
         return matchCount > 0 ? Math.min(1.0, matchCount * 0.2) : 0.0;
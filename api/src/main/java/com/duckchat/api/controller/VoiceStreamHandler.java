@@ -0,0 +1,332 @@
+package com.duckchat.api.controller;
+
+import com.duckchat.api.dto.ChatMessageRequest;
+import com.duckchat.api.dto.ChatResponse;
+import com.duckchat.api.dto.EmotionAnalysisResult;
+import com.duckchat.api.dto.VoiceTurnResult;
+import com.duckchat.api.dto.openai.ChatCompletionRequest;
+import com.duckchat.api.entity.ChatMessage;
+import com.duckchat.api.entity.ChatSession;
+import com.duckchat.api.entity.User;
+import com.duckchat.api.repository.UserRepository;
+import com.duckchat.api.service.ChatService;
+import com.duckchat.api.service.ConversationContextService;
+import com.duckchat.api.service.DecodedAudio;
+import com.duckchat.api.service.OpenAICallExecutor;
+import com.duckchat.api.service.OpenAIService;
+import com.duckchat.api.service.VoiceActivityDetector;
+import com.duckchat.api.service.VoiceTurnService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 실시간 음성 채널 (/api/chatgpt/chat/voice/ws). POST SSE 엔드포인트(/chat/voice/stream)와 경로가 겹치면 GET 업그레이드 요청이 405로 끝나므로 별도 경로를 씁니다.
+ * 클라이언트는 16kHz mono 16-bit little-endian PCM 청크를 바이너리 메시지로 보내고, 녹음을 끝내면 {"type":"end"}를 보냅니다.
+ * 서버는 에너지 기반 VAD로 구간을 나눠 닫히는 즉시 전사하고(partial), 발화 끝이 감지되면 바로 응답을 생성해 한 턴으로 저장한 뒤
+ * 같은 소켓으로 ChatResponse(final)를 보냅니다. 업로드, 전사, 응답 생성이 겹쳐서 진행됩니다.
+ * 한 소켓의 턴은 순서대로 처리해, 다음 발화의 히스토리에는 항상 앞 턴의 저장 결과와 최신 세션 요약이 들어갑니다.
+ */
+@Slf4j
+@Component
+public class VoiceStreamHandler extends AbstractWebSocketHandler {
+
+    public static final String ATTR_EMAIL = "voiceStream.email";
+    public static final String ATTR_CHAT_SESSION_ID = "voiceStream.chatSessionId";
+
+    private static final String LANGUAGE = "ko";
+    private static final int SEND_TIME_LIMIT_MS = 5_000;
+    private static final int SEND_BUFFER_LIMIT = 256 * 1024;
+    private static final String TRANSCRIBE_UNAVAILABLE_MESSAGE = "음성 인식이 지연되고 있어요. 잠시 후 다시 말씀해주세요.";
+
+    private final OpenAIService openAIService;
+    private final ChatService chatService;
+    private final UserRepository userRepository;
+    private final ConversationContextService conversationContextService;
+    private final VoiceTurnService voiceTurnService;
+    private final OpenAICallExecutor openAICallExecutor;
+    private final Executor taskExecutor;
+    private final ObjectMapper objectMapper;
+
+    private final double vadThreshold;
+    private final int segmentSilenceMs;
+    private final int endSilenceMs;
+    private final int minSpeechMs;
+    private final int maxSegmentMs;
+    private final int maxSegmentsPerUtterance;
+    private final long transcribeTimeoutMs;
+
+    private final Map<String, StreamState> streams = new ConcurrentHashMap<>();
+
+    public VoiceStreamHandler(OpenAIService openAIService,
+                              ChatService chatService,
+                              UserRepository userRepository,
+                              ConversationContextService conversationContextService,
+                              VoiceTurnService voiceTurnService,
+                              OpenAICallExecutor openAICallExecutor,
+                              @Qualifier("taskExecutor") Executor taskExecutor,
+                              ObjectMapper objectMapper,
+                              @Value("${app.voice-stream.vad-threshold:0.02}") double vadThreshold,
+                              @Value("${app.voice-stream.segment-silence-ms:300}") int segmentSilenceMs,
+                              @Value("${app.voice-stream.end-silence-ms:900}") int endSilenceMs,
+                              @Value("${app.voice-stream.min-speech-ms:200}") int minSpeechMs,
+                              @Value("${app.voice-stream.max-segment-ms:8000}") int maxSegmentMs,
+                              @Value("${app.voice-stream.max-segments-per-utterance:30}") int maxSegmentsPerUtterance,
+                              @Value("${app.voice-stream.transcribe-timeout-ms:15000}") long transcribeTimeoutMs) {
+        this.openAIService = openAIService;
+        this.chatService = chatService;
+        this.userRepository = userRepository;
+        this.conversationContextService = conversationContextService;
+        this.voiceTurnService = voiceTurnService;
+        this.openAICallExecutor = openAICallExecutor;
+        this.taskExecutor = taskExecutor;
+        this.objectMapper = objectMapper;
+        this.vadThreshold = vadThreshold;
+        this.segmentSilenceMs = segmentSilenceMs;
+        this.endSilenceMs = endSilenceMs;
+        this.minSpeechMs = minSpeechMs;
+        this.maxSegmentMs = maxSegmentMs;
+        this.maxSegmentsPerUtterance = maxSegmentsPerUtterance;
+        this.transcribeTimeoutMs = transcribeTimeoutMs;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession rawSession) throws Exception {
+        // 전사/응답 콜백이 여러 스레드에서 보내므로 전송을 직렬화
+        WebSocketSession session = new ConcurrentWebSocketSessionDecorator(rawSession, SEND_TIME_LIMIT_MS, SEND_BUFFER_LIMIT);
+        User user = userRepository.findByEmail((String) rawSession.getAttributes().get(ATTR_EMAIL)).orElse(null);
+        if (user == null) {
+            rawSession.close(CloseStatus.POLICY_VIOLATION.withReason("사용자를 찾을 수 없습니다."));
+            return;
+        }
+
+        ChatSession chatSession;
+        Object requestedId = rawSession.getAttributes().get(ATTR_CHAT_SESSION_ID);
+        if (requestedId != null) {
+            chatSession = chatService.getChatSession(Long.valueOf(requestedId.toString()), user).orElse(null);
+            if (chatSession == null) {
+                rawSession.close(CloseStatus.POLICY_VIOLATION.withReason("채팅 세션을 찾을 수 없습니다."));
+                return;
+            }
+        } else {
+            chatSession = chatService.createChatSession(user, "Voice Chat Session");
+        }
+
+        StreamState state = new StreamState(session, user, chatSession.getId(),
+                new VoiceActivityDetector(vadThreshold, segmentSilenceMs, endSilenceMs, minSpeechMs, maxSegmentMs));
+        streams.put(rawSession.getId(), state);
+        send(state, Map.of("type", "ready", "chatSessionId", chatSession.getId()));
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) {
+        StreamState state = streams.get(session.getId());
+        if (state == null) {
+            return;
+        }
+        byte[] chunk = new byte[message.getPayloadLength()];
+        message.getPayload().get(chunk);
+        handleEvents(state, state.vad.feed(chunk));
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        StreamState state = streams.get(session.getId());
+        if (state == null) {
+            return;
+        }
+        JsonNode node = objectMapper.readTree(message.getPayload());
+        if ("end".equals(node.path("type").asText())) {
+            handleEvents(state, state.vad.flush());
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        streams.remove(session.getId());
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.warn("음성 스트림 전송 오류: {}", exception.getMessage());
+        streams.remove(session.getId());
+    }
+
+    // 바이너리 메시지는 컨테이너가 한 연결에서 순서대로 전달하므로 VAD 상태는 연결 스레드에서만 바뀜
+    private void handleEvents(StreamState state, List<VoiceActivityDetector.Event> events) {
+        for (VoiceActivityDetector.Event event : events) {
+            if (event.type() == VoiceActivityDetector.EventType.SEGMENT) {
+                transcribeSegment(state, event.pcm());
+                if (state.segments.size() >= maxSegmentsPerUtterance) {
+                    // 너무 긴 발화는 여기서 끊고 응답 생성
+                    handleEvents(state, state.vad.flush());
+                    return;
+                }
+            } else if (!state.segments.isEmpty()) {
+                reply(state, state.segments);
+                state.segments = new ArrayList<>();
+            }
+        }
+    }
+
+    /**
+     * 구간 전사는 데드라인을 건 future로 실행합니다. 데드라인이 지나면 작업 스레드를 인터럽트해 Whisper 요청을 끊고,
+     * 풀이 포화돼 거절되면 연결 스레드로 예외를 올리지 않습니다. 두 경우 모두 구간을 IllegalArgumentException으로 실패시켜
+     * 발화 끝에서 error 메시지로 알립니다 (응답 생성의 데드라인 초과와 구분되도록 TimeoutException을 그대로 넘기지 않음).
+     */
+    private void transcribeSegment(StreamState state, byte[] pcm) {
+        int index = state.segments.size();
+        CompletableFuture<String> transcript;
+        try {
+            transcript = OpenAICallExecutor.withDeadline(openAICallExecutor.submit(
+                    () -> openAIService.transcribeAudio(new DecodedAudio(pcm).asWavResource("segment-" + index + ".wav"), LANGUAGE)),
+                    transcribeTimeoutMs);
+        } catch (RejectedExecutionException e) {
+            log.warn("음성 구간 전사를 시작하지 못했습니다 (OpenAI 풀 포화): {}", e.getMessage());
+            transcript = CompletableFuture.failedFuture(e);
+        }
+        transcript = transcript.exceptionallyCompose(e -> {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof TimeoutException) {
+                log.warn("음성 구간 전사가 {}ms 데드라인을 넘었습니다.", transcribeTimeoutMs);
+            }
+            return CompletableFuture.failedFuture(new IllegalArgumentException(TRANSCRIBE_UNAVAILABLE_MESSAGE, cause));
+        });
+        state.segments.add(transcript);
+        transcript.thenAccept(text -> {
+            Map<String, Object> partial = new LinkedHashMap<>();
+            partial.put("type", "partial");
+            partial.put("segment", index);
+            partial.put("text", text != null ? text : "");
+            send(state, partial);
+        });
+    }
+
+    /**
+     * 발화 끝: 구간 전사를 순서대로 이어 붙이고, 세션 히스토리와 함께 감정 분석/응답 생성 후 한 턴으로 저장합니다.
+     * 전사는 바로 진행하되 히스토리 조회부터는 앞 턴이 끝난 뒤 시작합니다 (소켓별 턴 체인).
+     */
+    private void reply(StreamState state, List<CompletableFuture<String>> segments) {
+        CompletableFuture<String> transcriptFuture = CompletableFuture
+                .allOf(segments.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> {
+                    StringBuilder text = new StringBuilder();
+                    for (CompletableFuture<String> segment : segments) {
+                        String part = segment.join();
+                        if (part != null && !part.isBlank()) {
+                            if (text.length() > 0) text.append(' ');
+                            text.append(part.trim());
+                        }
+                    }
+                    if (text.length() == 0) {
+                        throw new IllegalArgumentException("음성을 인식하지 못했습니다. 다시 말씀해주세요.");
+                    }
+                    return text.toString();
+                });
+        // 연결 스레드에서만 호출되므로 체인 갱신은 경쟁하지 않음. 앞 턴이 실패해도 다음 턴은 진행
+        CompletableFuture<ChatMessage> turn = state.lastTurn
+                .handle((previous, error) -> null)
+                .thenCompose(ignored -> {
+                    // 세션 요약은 턴마다 갱신되므로 연결 시점의 엔티티 대신 매번 다시 읽음
+                    CompletableFuture<List<ChatCompletionRequest.Message>> historyFuture = CompletableFuture
+                            .supplyAsync(() -> conversationContextService.buildHistory(loadChatSession(state)), taskExecutor);
+                    return voiceTurnService.analyzeAndReplyAsync(null, historyFuture, transcriptFuture, null)
+                            .thenCombine(transcriptFuture, (result, transcript) -> saveTurn(state, transcript, result));
+                });
+        state.lastTurn = turn;
+        turn.whenComplete((saved, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                if (cause instanceof IllegalArgumentException) {
+                    send(state, Map.of("type", "error", "message", cause.getMessage()));
+                } else {
+                    log.error("음성 스트림 응답 생성 실패: {}", cause.getMessage());
+                    send(state, Map.of("type", "error", "message", "응답 생성 중 오류가 발생했습니다."));
+                }
+                return;
+            }
+            ChatResponse response = ChatResponse.builder()
+                    .id(saved.getId())
+                    .content(saved.getContent())
+                    .type(saved.getType())
+                    .timestamp(saved.getCreatedAt())
+                    .chatSessionId(state.chatSessionId)
+                    .build();
+            send(state, Map.of("type", "final", "data", response));
+        });
+    }
+
+    private ChatSession loadChatSession(StreamState state) {
+        return chatService.getChatSession(state.chatSessionId, state.user)
+                .orElseThrow(() -> new IllegalArgumentException("채팅 세션을 찾을 수 없습니다."));
+    }
+
+    private ChatMessage saveTurn(StreamState state, String transcript, VoiceTurnResult turn) {
+        EmotionAnalysisResult analysis = turn.getAnalysis();
+        Long chatSessionId = state.chatSessionId;
+        ChatMessageRequest userMessage = ChatMessageRequest.builder()
+                .content(transcript)
+                .type(ChatMessage.MessageType.USER)
+                .chatSessionId(chatSessionId)
+                .emotionType(analysis != null ? analysis.getPrimaryEmotion() : null)
+                .emotionScore(analysis != null ? analysis.getConfidence() : null)
+                .isVoiceInput(true)
+                .build();
+        ChatMessageRequest assistantMessage = ChatMessageRequest.builder()
+                .content(turn.getReply())
+                .type(ChatMessage.MessageType.ASSISTANT)
+                .chatSessionId(chatSessionId)
+                .isVoiceInput(false)
+                .build();
+        return chatService.saveTurn(state.user, userMessage, assistantMessage, chatSessionId);
+    }
+
+    private void send(StreamState state, Object payload) {
+        if (!state.session.isOpen()) {
+            return;
+        }
+        try {
+            state.session.sendMessage(new TextMessage(objectMapper.writeValueAsString(payload)));
+        } catch (Exception e) {
+            log.warn("음성 스트림 메시지 전송 실패: {}", e.getMessage());
+        }
+    }
+
+    private static final class StreamState {
+        private final WebSocketSession session;
+        private final User user;
+        private final Long chatSessionId;
+        private final VoiceActivityDetector vad;
+        // 현재 발화의 구간별 전사 (도착 순서 유지)
+        private List<CompletableFuture<String>> segments = new ArrayList<>();
+        // 마지막으로 시작한 턴 (다음 턴은 이 턴이 끝난 뒤 히스토리를 읽음)
+        private CompletableFuture<?> lastTurn = CompletableFuture.completedFuture(null);
+
+        private StreamState(WebSocketSession session, User user, Long chatSessionId, VoiceActivityDetector vad) {
+            this.session = session;
+            this.user = user;
+            this.chatSessionId = chatSessionId;
+            this.vad = vad;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.duckchat.api.dto;
+
+import com.duckchat.api.entity.ProcessingJob;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * 음성 작업 단계 전환 이벤트 (PENDING → RUNNING → TRANSCRIBED → DONE/FAILED, 다른 노드로 넘어가면 MOVED).
+ * 중간 단계는 상태만 담고, 큰 필드(응답, 분석 JSON)는 완료 이벤트에만 담습니다.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class JobEvent {
+
+    public static final String DONE = "DONE";
+    public static final String FAILED = "FAILED";
+    // 작업이 다른 노드로 넘어가 이 노드에서는 더 이상 전환 이벤트가 없음 - 클라이언트는 상태 조회(GET)로 확인
+    public static final String MOVED = "MOVED";
+
+    private String jobId;
+    private String status;
+    private Instant timestamp;
+    private String chatSessionId;
+    private String transcript;
+    private String assistantResponse;
+    private String analysisJson;
+    private String errorMessage;
+
+    public static JobEvent from(ProcessingJob job) {
+        JobEvent event = JobEvent.builder()
+                .jobId(job.getId())
+                .status(job.getStatus())
+                .timestamp(Instant.now())
+                .build();
+        switch (String.valueOf(job.getStatus())) {
+            case "TRANSCRIBED" -> event.setTranscript(job.getTranscript());
+            case DONE -> {
+                event.setChatSessionId(job.getChatSessionId());
+                event.setTranscript(job.getTranscript());
+                event.setAssistantResponse(job.getAssistantResponse());
+                event.setAnalysisJson(job.getAnalysisJson());
+                event.setErrorMessage(job.getErrorMessage());
+            }
+            case FAILED -> event.setErrorMessage(job.getErrorMessage());
+            default -> { }
+        }
+        return event;
+    }
+
+    public static JobEvent moved(String jobId) {
+        return JobEvent.builder()
+                .jobId(jobId)
+                .status(MOVED)
+                .timestamp(Instant.now())
+                .build();
+    }
+
+    // 이 노드의 구독(SSE/롱폴)이 끝나는 상태
+    @JsonIgnore
+    public boolean isTerminal() {
+        return DONE.equals(status) || FAILED.equals(status) || MOVED.equals(status);
+    }
+}
@@ -0,0 +1,17 @@
+package com.duckchat.api.dto;
+
+import com.duckchat.api.entity.User;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 사용자 메시지를 LLM 호출 전에 저장한 턴. 응답을 받으면 예약해 둔 순서로 어시스턴트 메시지를 저장합니다.
+ */
+@Getter
+@AllArgsConstructor
+public class PendingTurn {
+    private User user;
+    private Long chatSessionId;
+    // 세션이 없으면 null
+    private Integer assistantOrder;
+}
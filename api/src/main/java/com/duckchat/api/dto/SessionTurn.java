@@ -0,0 +1,22 @@
+package com.duckchat.api.dto;
+
+import com.duckchat.api.entity.ChatMessage;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 프롬프트 히스토리 구성용 세션 메시지 경량 프로젝션 (엔티티를 로딩하지 않음).
+ */
+@Getter
+@AllArgsConstructor
+public class SessionTurn {
+    private Integer order;
+    private ChatMessage.MessageType type;
+    private String content;
+    private String emotionType;
+    private Double emotionScore;
+
+    public String getRole() {
+        return type == ChatMessage.MessageType.USER ? "user" : "assistant";
+    }
+}
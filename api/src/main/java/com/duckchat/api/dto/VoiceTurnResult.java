@@ -0,0 +1,16 @@
+package com.duckchat.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 음성 턴 하나의 감정 분석 결과와 어시스턴트 응답.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class VoiceTurnResult {
+    private EmotionAnalysisResult analysis;
+    private String reply;
+}
@@ -0,0 +1,36 @@
+package com.duckchat.api.dto.openai;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// stream=true 요청 시 "data: {...}" 라인마다 전달되는 청크
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChatCompletionChunk {
+    private String id;
+    private String object;
+    private long created;
+    private String model;
+    private List<Choice> choices;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Choice {
+        private int index;
+        private Delta delta;
+        private String finish_reason;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Delta {
+        private String role;
+        private String content;
+    }
+}
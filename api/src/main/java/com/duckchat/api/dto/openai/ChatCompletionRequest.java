@@ -1,16 +1,19 @@
 package com.duckchat.api.dto.openai;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
+import java.util.Map;
 
 @Data
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class ChatCompletionRequest {
     private String model;
     private List<Message> messages;
@@ -19,6 +22,8 @@ public class ChatCompletionRequest {
     private Double top_p;
     private Double frequency_penalty;
     private Double presence_penalty;
+    private Boolean stream; // true면 SSE(data: ...) 청크로 응답
+    private Map<String, String> response_format; // {"type": "json_object"}면 JSON 모드
     
     @Data
     @Builder
@@ -17,8 +17,10 @@ import java.time.LocalDateTime;
 @Builder
 public class ChatMessage {
 
+    // IDENTITY는 JDBC 배치 삽입을 막으므로 pooled 시퀀스(MySQL에서는 테이블 에뮬레이션) 사용
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "chat_messages_seq")
+    @SequenceGenerator(name = "chat_messages_seq", sequenceName = "chat_messages_seq", allocationSize = 50)
     private Long id;
 
     @JsonIgnore
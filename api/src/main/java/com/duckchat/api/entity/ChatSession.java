@@ -40,6 +40,21 @@ public class ChatSession {
     @Column(name = "is_active")
     private Boolean isActive;
 
+    // 프롬프트 창 밖으로 밀려난 오래된 턴들의 누적 요약
+    @JsonIgnore
+    @Column(name = "summary", columnDefinition = "TEXT")
+    private String summary;
+
+    // summary에 반영된 마지막 메시지 순서
+    @JsonIgnore
+    @Column(name = "summarized_until_order")
+    private Integer summarizedUntilOrder;
+
+    // 다음에 배정할 메시지 순서. ChatSessionRepository.incrementNextMessageOrder로만 증가시키며 엔티티에서는 쓰지 않음
+    @JsonIgnore
+    @Column(name = "next_message_order", insertable = false, updatable = false)
+    private Integer nextMessageOrder;
+
     @JsonIgnore
     @Builder.Default
     @OneToMany(mappedBy = "chatSession", cascade = CascadeType.ALL, orphanRemoval = true)
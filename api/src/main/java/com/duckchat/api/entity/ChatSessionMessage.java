@@ -10,7 +10,9 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "chat_session_messages")
+@Table(name = "chat_session_messages", indexes = {
+        @Index(name = "idx_chat_session_messages_session_order", columnList = "chat_session_id, message_order")
+})
 @Getter
 @NoArgsConstructor
 @AllArgsConstructor
@@ -18,7 +20,8 @@ import java.time.LocalDateTime;
 public class ChatSessionMessage {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "chat_session_messages_seq")
+    @SequenceGenerator(name = "chat_session_messages_seq", sequenceName = "chat_session_messages_seq", allocationSize = 50)
     private Long id;
 
     @JsonIgnore
@@ -19,7 +19,7 @@ public class ProcessingJob {
     @Id
     private String id;
 
-    private String status; // PENDING, RUNNING, DONE, FAILED
+    private String status; // PENDING, RUNNING, TRANSCRIBED, DONE, FAILED
 
     private Long userId; // 사용자 ID 추가
 
@@ -38,6 +38,33 @@ public class ProcessingJob {
 
     private String chatSessionId; // 대화 세션 ID 추가
 
+    // 재시도/다른 노드에서 이어서 처리할 때 필요한 입력
+    private String filePath;
+    private String language;
+
+    // filePath가 가리키는 업로드 디렉터리를 가진 노드 (전사 체크포인트가 없으면 이 노드만 이어서 처리)
+    @Column(updatable = false)
+    private String uploadNode;
+
+    // 단계 체크포인트: transcript, analysisJson과 함께 openSMILE 피처 결과
+    @Lob
+    @Column(columnDefinition = "LONGTEXT")
+    private String featuresJson;
+
+    // 리스(작업 점유) 정보는 생성 시 한 번 넣고 이후에는 JobLeaseService의 쿼리로만 갱신 (엔티티 저장이 덮어쓰지 않도록)
+    @Column(updatable = false)
+    private String leaseOwner;
+
+    @Column(updatable = false)
+    private Instant leaseExpiresAt;
+
+    @Column(updatable = false)
+    private Integer attempts; // 실제로 실행을 시작한 횟수
+
+    // 채팅 히스토리에 턴을 저장한 시각 (재시도 시 중복 저장 방지, ChatService.saveJobTurn에서만 갱신)
+    @Column(insertable = false, updatable = false)
+    private Instant turnSavedAt;
+
     private Instant createdAt;
     private Instant updatedAt;
 
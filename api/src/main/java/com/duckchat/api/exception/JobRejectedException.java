@@ -0,0 +1,20 @@
+package com.duckchat.api.exception;
+
+/**
+ * 작업 큐가 가득 차 요청을 받을 수 없을 때. 429 Too Many Requests + Retry-After로 응답합니다.
+ */
+public class JobRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    public JobRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
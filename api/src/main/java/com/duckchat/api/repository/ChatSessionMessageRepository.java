@@ -1,7 +1,9 @@
 package com.duckchat.api.repository;
 
+import com.duckchat.api.dto.SessionTurn;
 import com.duckchat.api.entity.ChatSession;
 import com.duckchat.api.entity.ChatSessionMessage;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -14,4 +16,20 @@ public interface ChatSessionMessageRepository extends JpaRepository<ChatSessionM
     @Query("SELECT csm FROM ChatSessionMessage csm JOIN FETCH csm.message WHERE csm.chatSession = :chatSession ORDER BY csm.order ASC")
     List<ChatSessionMessage> findByChatSessionOrderByOrderAsc(@Param("chatSession") ChatSession chatSession);
     void deleteByChatSession(ChatSession chatSession);
+
+    // afterOrder 이후의 턴을 최신순으로 (Pageable로 개수 제한)
+    @Query("SELECT new com.duckchat.api.dto.SessionTurn(csm.order, m.type, m.content, m.emotionType, m.emotionScore) " +
+           "FROM ChatSessionMessage csm JOIN csm.message m " +
+           "WHERE csm.chatSession = :chatSession AND csm.order > :afterOrder ORDER BY csm.order DESC")
+    List<SessionTurn> findRecentTurns(@Param("chatSession") ChatSession chatSession,
+                                      @Param("afterOrder") int afterOrder,
+                                      Pageable pageable);
+
+    // afterOrder 이후의 턴을 오래된 순으로 (Pageable로 개수 제한)
+    @Query("SELECT new com.duckchat.api.dto.SessionTurn(csm.order, m.type, m.content, m.emotionType, m.emotionScore) " +
+           "FROM ChatSessionMessage csm JOIN csm.message m " +
+           "WHERE csm.chatSession = :chatSession AND csm.order > :afterOrder ORDER BY csm.order ASC")
+    List<SessionTurn> findTurnsAfter(@Param("chatSession") ChatSession chatSession,
+                                     @Param("afterOrder") int afterOrder,
+                                     Pageable pageable);
 }
@@ -5,6 +5,10 @@ import com.duckchat.api.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -17,4 +21,25 @@ public interface ChatSessionRepository extends JpaRepository<ChatSession, Long>
     List<ChatSession> findByUserAndIsActiveTrue(User user);
     Optional<ChatSession> findByIdAndUser(Long id, User user);
     void deleteByUser(User user);
+
+    /**
+     * 세션의 메시지 순서 카운터를 count만큼 원자적으로 증가시킵니다. 행 잠금으로 동시 삽입끼리 직렬화되며,
+     * 카운터가 없는 기존 세션은 현재 최대 순서에서 이어갑니다. 세션이 없거나 사용자 소유가 아니면 0을 반환합니다.
+     */
+    @Modifying
+    @Query(value = "UPDATE chat_sessions SET next_message_order = COALESCE(next_message_order, " +
+                   "(SELECT COALESCE(MAX(csm.message_order), 0) + 1 FROM chat_session_messages csm WHERE csm.chat_session_id = :id)) + :count " +
+                   "WHERE id = :id AND user_id = :userId", nativeQuery = true)
+    int incrementNextMessageOrder(@Param("id") Long id, @Param("userId") Long userId, @Param("count") int count);
+
+    // incrementNextMessageOrder 직후 같은 트랜잭션에서 호출하면 방금 배정된 구간의 끝(다음 순서)
+    @Query(value = "SELECT next_message_order FROM chat_sessions WHERE id = :id", nativeQuery = true)
+    int findNextMessageOrder(@Param("id") Long id);
+
+    // 더 앞선 순서까지 요약된 결과가 이미 저장돼 있으면 덮어쓰지 않음
+    @Transactional
+    @Modifying
+    @Query("UPDATE ChatSession s SET s.summary = :summary, s.summarizedUntilOrder = :untilOrder " +
+           "WHERE s.id = :id AND (s.summarizedUntilOrder IS NULL OR s.summarizedUntilOrder < :untilOrder)")
+    int updateSummary(@Param("id") Long id, @Param("summary") String summary, @Param("untilOrder") Integer untilOrder);
 }
@@ -2,6 +2,73 @@ package com.duckchat.api.repository;
 
 import com.duckchat.api.entity.ProcessingJob;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 
 public interface ProcessingJobRepository extends JpaRepository<ProcessingJob, String> {
+
+    // 리스가 없거나 만료된 미완료 작업을 다른 노드와 겹치지 않게 잠금 (id가 시간순이므로 오래된 작업부터).
+    // 전사 체크포인트가 없는 작업은 업로드 파일이 있는 노드(uploadNode)만 가져가고, orphanBefore 전에 만든 작업은 누구나 가져감
+    @Query(value = "SELECT id FROM processing_job " +
+            "WHERE status NOT IN ('DONE', 'FAILED') AND (lease_expires_at IS NULL OR lease_expires_at < :now) " +
+            "AND (transcript IS NOT NULL OR upload_node IS NULL OR upload_node = :uploadNode OR created_at < :orphanBefore) " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<String> lockClaimable(@Param("now") Instant now, @Param("uploadNode") String uploadNode,
+                               @Param("orphanBefore") Instant orphanBefore, @Param("limit") int limit);
+
+    // 점유만 하고 시도 횟수는 올리지 않음 (큐가 가득 차 바로 반납하는 경우가 재시도 한도를 쓰지 않도록)
+    @Modifying
+    @Query(value = "UPDATE processing_job SET lease_owner = :owner, lease_expires_at = :expiresAt " +
+            "WHERE id IN (:ids)", nativeQuery = true)
+    int lease(@Param("ids") Collection<String> ids, @Param("owner") String owner, @Param("expiresAt") Instant expiresAt);
+
+    // 실제 실행을 시작할 때 시도 횟수 증가. 리스를 잃었으면(다른 노드가 가져감) 0
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE processing_job SET attempts = COALESCE(attempts, 0) + 1 " +
+            "WHERE id = :id AND lease_owner = :owner", nativeQuery = true)
+    int startAttempt(@Param("id") String id, @Param("owner") String owner);
+
+    // ids 중 아직 owner가 점유한 작업
+    @Query(value = "SELECT id FROM processing_job WHERE lease_owner = :owner AND id IN (:ids)", nativeQuery = true)
+    List<String> findLeasedBy(@Param("ids") Collection<String> ids, @Param("owner") String owner);
+
+    // 턴 저장 표시. 이미 저장된 작업이면 0 (ChatService.saveJobTurn의 트랜잭션 안에서 호출)
+    @Modifying
+    @Query(value = "UPDATE processing_job SET turn_saved_at = :now WHERE id = :id AND turn_saved_at IS NULL", nativeQuery = true)
+    int markTurnSaved(@Param("id") String id, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE processing_job SET lease_expires_at = :expiresAt " +
+            "WHERE lease_owner = :owner AND id IN (:ids)", nativeQuery = true)
+    int renewLeases(@Param("ids") Collection<String> ids, @Param("owner") String owner, @Param("expiresAt") Instant expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE processing_job SET lease_owner = NULL, lease_expires_at = NULL " +
+            "WHERE id = :id AND lease_owner = :owner", nativeQuery = true)
+    int releaseLease(@Param("id") String id, @Param("owner") String owner);
+
+    // 단계 체크포인트 - 해당 컬럼만 갱신해 다른 LOB 컬럼을 다시 쓰지 않음
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProcessingJob j SET j.status = :status, j.transcript = :transcript, j.updatedAt = :now WHERE j.id = :id")
+    int saveTranscript(@Param("id") String id, @Param("status") String status, @Param("transcript") String transcript, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProcessingJob j SET j.featuresJson = :featuresJson, j.updatedAt = :now WHERE j.id = :id")
+    int saveFeatures(@Param("id") String id, @Param("featuresJson") String featuresJson, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProcessingJob j SET j.analysisJson = :analysisJson, j.updatedAt = :now WHERE j.id = :id")
+    int saveAnalysis(@Param("id") String id, @Param("analysisJson") String analysisJson, @Param("now") Instant now);
 }
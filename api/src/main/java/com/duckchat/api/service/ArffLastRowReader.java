@@ -0,0 +1,69 @@
+package com.duckchat.api.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * openSMILE ARFF 출력을 한 줄씩 읽어, 요청한 피처만 마지막 데이터 행에서 꺼냅니다.
+ * 컬럼 위치는 @attribute 헤더에서 한 번만 찾고, 데이터 행은 마지막 한 줄만 들고 있다가 끝에서 한 번만 나눕니다.
+ */
+public final class ArffLastRowReader {
+
+    private ArffLastRowReader() {
+    }
+
+    /**
+     * 요청 피처 → 값. 값이 없거나 "?"인 피처는 빠지고, 데이터 행이 없으면 "error" 키를 담아 반환합니다.
+     */
+    public static Map<String, String> read(BufferedReader reader, Collection<String> features) throws IOException {
+        Map<String, Integer> columns = new HashMap<>();
+        int attributeCount = 0;
+        boolean inData = false;
+        String lastRow = null;
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (inData) {
+                String row = line.trim();
+                if (!row.isEmpty() && row.charAt(0) != '%') {
+                    lastRow = row;
+                }
+            } else {
+                String header = line.trim();
+                if (startsWithIgnoreCase(header, "@attribute")) {
+                    String[] parts = header.split("\\s+", 3);
+                    if (parts.length >= 3 && features.contains(parts[1])) {
+                        columns.put(parts[1], attributeCount);
+                    }
+                    attributeCount++;
+                } else if (startsWithIgnoreCase(header, "@data")) {
+                    inData = true;
+                }
+            }
+        }
+
+        Map<String, String> result = new HashMap<>();
+        if (lastRow == null) {
+            result.put("error", "ARFF 파일에 데이터가 없습니다");
+            return result;
+        }
+        String[] values = lastRow.split(",", -1);
+        for (Map.Entry<String, Integer> column : columns.entrySet()) {
+            int index = column.getValue();
+            if (index < values.length) {
+                String value = values[index].trim();
+                if (!value.isEmpty() && !value.equals("?")) {
+                    result.put(column.getKey(), value);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean startsWithIgnoreCase(String line, String prefix) {
+        return line.regionMatches(true, 0, prefix, 0, prefix.length());
+    }
+}
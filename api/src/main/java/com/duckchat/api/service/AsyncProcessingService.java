@@ -1,22 +1,23 @@
 package com.duckchat.api.service;
 
 import com.duckchat.api.dto.EmotionAnalysisResult;
+import com.duckchat.api.dto.JobEvent;
+import com.duckchat.api.dto.SessionTurn;
+import com.duckchat.api.dto.VoiceTurnResult;
 import com.duckchat.api.entity.ProcessingJob;
-import com.duckchat.api.repository.ProcessingJobRepository;
+import com.duckchat.api.exception.JobRejectedException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import java.util.Map;
-import org.springframework.scheduling.annotation.Async;
-import org.springframework.scheduling.annotation.AsyncResult;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
-import java.util.concurrent.Future;
-import java.util.UUID;
 import java.util.List;
 import java.util.ArrayList;
 import com.duckchat.api.entity.ChatSession;
-import com.duckchat.api.entity.ChatSessionMessage;
-import com.duckchat.api.entity.ChatMessage;
 import com.duckchat.api.entity.User;
 import com.duckchat.api.repository.UserRepository;
 import com.duckchat.api.dto.openai.ChatCompletionRequest;
@@ -26,62 +27,173 @@ import com.duckchat.api.entity.ChatMessage.MessageType;
 @Service
 public class AsyncProcessingService {
 
-    private final ProcessingJobRepository jobRepository;
     private final ChatService chatService;
     private final UserRepository userRepository;
-    private final OpenSmileService openSmileService;
+    private final ProsodyFeatureService prosodyFeatureService;
+    private final AudioDecoder audioDecoder;
+    private final TranscriptionService transcriptionService;
+    private final AudioAnalysisCache audioAnalysisCache;
+    private final ConversationContextService conversationContextService;
+    private final VoiceTurnService voiceTurnService;
+    private final VoiceJobScheduler voiceJobScheduler;
+    private final JobEventBus jobEventBus;
+    private final JobStateStore jobStateStore;
+    private final JobLeaseService jobLeaseService;
+    private final OpenAIService openAIService;
+    private final ObjectMapper objectMapper;
+    private final int maxAttempts;
 
     @Autowired
-    public AsyncProcessingService(ProcessingJobRepository jobRepository, ChatService chatService, UserRepository userRepository, OpenSmileService openSmileService) {
-        this.jobRepository = jobRepository;
+    public AsyncProcessingService(ChatService chatService, UserRepository userRepository, ProsodyFeatureService prosodyFeatureService, AudioDecoder audioDecoder, TranscriptionService transcriptionService, AudioAnalysisCache audioAnalysisCache, ConversationContextService conversationContextService, VoiceTurnService voiceTurnService, VoiceJobScheduler voiceJobScheduler, JobEventBus jobEventBus, JobStateStore jobStateStore, JobLeaseService jobLeaseService, OpenAIService openAIService, ObjectMapper objectMapper, @Value("${app.jobs.max-attempts:3}") int maxAttempts) {
         this.chatService = chatService;
         this.userRepository = userRepository;
-        this.openSmileService = openSmileService;
+        this.prosodyFeatureService = prosodyFeatureService;
+        this.audioDecoder = audioDecoder;
+        this.transcriptionService = transcriptionService;
+        this.audioAnalysisCache = audioAnalysisCache;
+        this.conversationContextService = conversationContextService;
+        this.voiceTurnService = voiceTurnService;
+        this.voiceJobScheduler = voiceJobScheduler;
+        this.jobEventBus = jobEventBus;
+        this.jobStateStore = jobStateStore;
+        this.jobLeaseService = jobLeaseService;
+        this.openAIService = openAIService;
+        this.objectMapper = objectMapper;
+        this.maxAttempts = maxAttempts;
     }
 
-    public ProcessingJob createJob(Long userId) {
+    /**
+     * 작업을 이 노드가 점유한 상태로 만들고 스케줄러 큐에 넣습니다. 큐가 가득 차면 작업 행을 지우고 JobRejectedException을 그대로 던집니다.
+     */
+    public ProcessingJob submitJob(Long userId, String filePath, String language, Long chatSessionId, VoiceJobScheduler.Priority priority) {
+        ProcessingJob job = createJob(userId, filePath, language, chatSessionId);
+        try {
+            voiceJobScheduler.submit(userId, priority, () -> runTranscriptionAndAnalysis(job.getId()));
+        } catch (JobRejectedException e) {
+            // 행을 먼저 지워야 리스를 놓는 순간 다른 노드의 폴러가 (곧 지워질 파일을 가리키는) 작업을 가져가지 않음
+            jobStateStore.discard(job.getId());
+            jobLeaseService.release(job.getId());
+            throw e;
+        }
+        return job;
+    }
+
+    /**
+     * 리스가 없거나 만료된 작업(다른 노드가 죽었거나 재시작 전에 처리 중이던 작업)을 이 노드의 빈 자리만큼 가져와 실행합니다.
+     * 시도 횟수는 실행을 시작할 때만 올라가므로, 큐가 가득 차 바로 반납한 작업은 재시도 한도를 쓰지 않습니다.
+     */
+    @Scheduled(fixedDelayString = "${app.jobs.poll-interval-ms:2000}")
+    public void pollClaimableJobs() {
+        int slots = voiceJobScheduler.availableSlots();
+        if (slots <= 0) {
+            return;
+        }
+        for (ProcessingJob job : jobLeaseService.claim(slots)) {
+            if (job.getAttempts() != null && job.getAttempts() >= maxAttempts) {
+                job.setStatus("FAILED");
+                job.setErrorMessage("재시도 한도(" + maxAttempts + "회)를 넘어 작업을 중단했습니다.");
+                finishAndPublish(job);
+                continue;
+            }
+            System.out.println("[AsyncProcessing] 작업 재개 - jobId: " + job.getId() + ", 이전 시도: " + job.getAttempts());
+            try {
+                voiceJobScheduler.submit(job.getUserId(), VoiceJobScheduler.Priority.NORMAL, () -> runTranscriptionAndAnalysis(job.getId()));
+            } catch (JobRejectedException e) {
+                jobLeaseService.release(job.getId());
+            }
+        }
+    }
+
+    // 리스를 채운 채로 삽입해 만드는 순간부터 이 노드가 점유 (다른 노드의 폴러가 가져가지 못함)
+    private ProcessingJob createJob(Long userId, String filePath, String language, Long chatSessionId) {
         ProcessingJob j = new ProcessingJob();
-        j.setId(UUID.randomUUID().toString());
+        j.setId(JobStateStore.newJobId());
         j.setStatus("PENDING");
         j.setUserId(userId);
-        jobRepository.save(j);
+        j.setFilePath(filePath);
+        j.setLanguage(language);
+        j.setChatSessionId(chatSessionId != null ? chatSessionId.toString() : null);
+        jobLeaseService.stampNewLease(j);
+        jobStateStore.create(j);
+        jobLeaseService.hold(j.getId());
+        jobEventBus.publish(JobEvent.from(j));
         return j;
     }
 
+    /**
+     * 이 노드가 점유하지 않은 작업은 메모리 상태가 낡았을 수 있으므로(다른 노드가 이어서 처리 중) DB에서 읽습니다.
+     */
     public ProcessingJob getJob(String id) {
-        Optional<ProcessingJob> opt = jobRepository.findById(id);
-        return opt.orElse(null);
+        if (!jobLeaseService.holds(id)) {
+            jobStateStore.evictUnfinished(id);
+        }
+        return jobStateStore.get(id);
     }
 
-    @Async("taskExecutor")
-    public Future<ProcessingJob> runTranscriptionAndAnalysis(String jobId, String filePath, String language, Long chatSessionId, OpenAIService openAIService) {
-    // openSMILE 실행파일 및 config 경로 (macOS 빌드 기준)
-    final String openSmileConfigPath = "/Users/ryugi62/Desktop/해커톤/opensmile/config/is09-13/IS13_ComParE.conf";
-        System.out.println("[AsyncProcessing] 작업 시작 - jobId: " + jobId + ", filePath: " + filePath);
+    /** 이 노드가 실행 중인(점유한) 작업인지 - 아니면 이 노드의 이벤트 버스로는 전환 알림이 오지 않음 */
+    public boolean isRunningHere(String id) {
+        return jobLeaseService.holds(id);
+    }
 
-        ProcessingJob j = jobRepository.findById(jobId).orElse(null);
+    /**
+     * 점유한 작업을 실행합니다. 입력(파일 경로, 언어, 세션)은 작업 행에서 읽고,
+     * 이전 시도에서 끝난 단계(전사, 피처, 감정분석)는 체크포인트를 재사용해 첫 미완료 단계부터 이어서 처리합니다.
+     */
+    public ProcessingJob runTranscriptionAndAnalysis(String jobId) {
+        ProcessingJob j = jobStateStore.get(jobId);
         if (j == null) {
             System.out.println("[AsyncProcessing] Job을 찾을 수 없음: " + jobId);
-            return new AsyncResult<>(null);
+            jobLeaseService.release(jobId);
+            return null;
         }
-
-        // chatSessionId 설정
-        j.setChatSessionId(chatSessionId != null ? chatSessionId.toString() : null);
-        jobRepository.save(j);
+        if (!jobLeaseService.startAttempt(jobId)) {
+            System.out.println("[AsyncProcessing] 리스를 잃어 실행하지 않음 - jobId: " + jobId);
+            return j;
+        }
+        final String filePath = j.getFilePath();
+        final String language = j.getLanguage() != null ? j.getLanguage() : "ko";
+        final Long chatSessionId = j.getChatSessionId() != null ? Long.valueOf(j.getChatSessionId()) : null;
+        System.out.println("[AsyncProcessing] 작업 시작 - jobId: " + jobId + ", filePath: " + filePath);
 
         System.out.println("🟡 [AsyncProcessing] Job 상태를 RUNNING으로 변경: " + jobId);
         j.setStatus("RUNNING");
-        jobRepository.save(j);
+        updateAndPublish(j);
 
         try {
-            // Whisper, 감정분석, openSMILE, AI 응답을 병렬로 처리
-            java.util.concurrent.ExecutorService executor = java.util.concurrent.Executors.newFixedThreadPool(4);
-            java.util.concurrent.Future<String> transcriptFuture = executor.submit(() -> openAIService.transcribeAudioFile(filePath, language));
-            // transcript가 준비되어야 감정분석/AI 응답이 가능하므로, transcript만 우선 빠르게 처리
-            String transcript = transcriptFuture.get();
-            System.out.println("[AsyncProcessing] 전사 완료: " + (transcript != null ? transcript.substring(0, Math.min(50, transcript.length())) + "..." : "null"));
-            j.setTranscript(transcript);
-            jobRepository.save(j);
+            boolean fileAvailable = filePath != null && java.nio.file.Files.exists(java.nio.file.Paths.get(filePath));
+            if (!fileAvailable && j.getTranscript() == null) {
+                throw new IllegalStateException("업로드 파일이 없어 작업을 진행할 수 없습니다: " + filePath);
+            }
+            // 같은 오디오가 재업로드된 경우 캐시된 단계는 건너뜀
+            final String audioKey = fileAvailable ? audioAnalysisCache.fingerprint(java.nio.file.Paths.get(filePath)) : null;
+            // 업로드당 한 번만 16kHz mono PCM으로 디코딩해 Whisper와 openSMILE이 같은 버퍼를 사용 (캐시/체크포인트로 둘 다 건너뛰면 디코딩하지 않음)
+            // 데드라인으로 넘어온 동기 턴이면 그쪽에서 디코딩한 PCM을 재사용
+            final java.util.function.Supplier<DecodedAudio> lazyDecode = fileAvailable
+                    ? audioDecoder.lazy(java.nio.file.Paths.get(filePath))
+                    : () -> null;
+            final java.util.function.Supplier<DecodedAudio> decoded = () -> transcriptionService.decoded(audioKey, lazyDecode);
+
+            // Whisper, 감정분석, AI 응답은 네트워크 풀, ffmpeg/openSMILE은 CPU 풀에서 병렬로 처리
+            java.util.concurrent.Executor network = voiceJobScheduler.networkExecutor();
+            java.util.concurrent.Executor cpu = voiceJobScheduler.cpuExecutor();
+            String transcript = j.getTranscript();
+            if (transcript == null) {
+                java.util.concurrent.Future<String> transcriptFuture = java.util.concurrent.CompletableFuture.supplyAsync(() ->
+                        audioAnalysisCache.transcript(audioKey, language, () -> transcribe(audioKey, decoded, filePath, language)), network);
+                // transcript가 준비되어야 감정분석/AI 응답이 가능하므로, transcript만 우선 빠르게 처리
+                transcript = transcriptFuture.get();
+                System.out.println("[AsyncProcessing] 전사 완료: " + (transcript != null ? transcript.substring(0, Math.min(50, transcript.length())) + "..." : "null"));
+                j.setTranscript(transcript);
+                j.setStatus("TRANSCRIBED");
+                // 재시도 때 Whisper를 다시 호출하지 않도록 바로 체크포인트
+                jobStateStore.checkpointTranscript(j);
+                jobEventBus.publish(JobEvent.from(j));
+            } else {
+                System.out.println("[AsyncProcessing] 전사 체크포인트 재사용: " + jobId);
+                j.setStatus("TRANSCRIBED");
+                updateAndPublish(j);
+            }
+            final String transcriptText = transcript;
 
             // 대화 히스토리 구성 (chatSessionId가 있는 경우)
             List<ChatCompletionRequest.Message> messageHistory = new ArrayList<>();
@@ -93,25 +205,29 @@ public class AsyncProcessingService {
                         Optional<ChatSession> sessionOpt = chatService.getChatSession(chatSessionId, user);
                         if (sessionOpt.isPresent()) {
                             ChatSession session = sessionOpt.get();
-                            List<ChatSessionMessage> sessionMessages = chatService.getSessionMessages(session);
+                            // 토큰 예산 안의 최근 턴만 사용하고, 그 이전은 세션 요약으로 대체
+                            List<SessionTurn> sessionTurns = conversationContextService.selectWindow(session);
 
                             // 시스템 메시지 추가 (히스토리에 추가하지 않음 - generateResponseWithHistoryAndVoice에서 처리)
+                            ChatCompletionRequest.Message summaryMessage = conversationContextService.summaryMessage(session);
+                            if (summaryMessage != null) {
+                                messageHistory.add(summaryMessage);
+                            }
 
                             // 이전 메시지 히스토리 추가 (감정 정보 포함)
-                            for (ChatSessionMessage sessionMessage : sessionMessages) {
-                                ChatMessage message = sessionMessage.getMessage();
-                                String role = message.getType() == ChatMessage.MessageType.USER ? "user" : "assistant";
-                                String content = message.getContent();
+                            for (SessionTurn turn : sessionTurns) {
+                                String role = turn.getRole();
+                                String content = turn.getContent();
 
                                 // 감정 정보가 있으면 내용에 포함하고 요약에도 추가
-                                if (message.getEmotionType() != null && !message.getEmotionType().isEmpty()) {
-                                    content += " [감정: " + message.getEmotionType() +
-                                              (message.getEmotionScore() != null ? ", 점수: " + String.format("%.2f", message.getEmotionScore()) : "") + "]";
+                                if (turn.getEmotionType() != null && !turn.getEmotionType().isEmpty()) {
+                                    content += " [감정: " + turn.getEmotionType() +
+                                              (turn.getEmotionScore() != null ? ", 점수: " + String.format("%.2f", turn.getEmotionScore()) : "") + "]";
 
                                     // 최근 3개의 사용자 메시지 감정 요약
                                     if (role.equals("user") && emotionSummary.length() < 200) { // 요약 길이 제한
                                         if (emotionSummary.length() > 0) emotionSummary.append(", ");
-                                        emotionSummary.append(message.getEmotionType());
+                                        emotionSummary.append(turn.getEmotionType());
                                     }
                                 }
 
@@ -127,34 +243,46 @@ public class AsyncProcessingService {
                 }
             }
 
-            // webm → wav 변환 (ffmpeg 필요)
-            String wavPath = filePath.replaceAll("\\.webm$", ".wav");
-            try {
-                ProcessBuilder pb = new ProcessBuilder(
-                    "ffmpeg", "-y", "-i", filePath, "-ar", "16000", "-ac", "1", wavPath
-                );
-                pb.redirectErrorStream(true);
-                Process process = pb.start();
-                java.io.BufferedReader reader = new java.io.BufferedReader(new java.io.InputStreamReader(process.getInputStream()));
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    System.out.println("[ffmpeg] " + line);
-                }
-                int exitCode = process.waitFor();
-                if (exitCode != 0) {
-                    System.out.println("[ffmpeg] 변환 실패: " + filePath + " → " + wavPath);
-                } else {
-                    System.out.println("[ffmpeg] 변환 성공: " + wavPath);
-                }
-            } catch (Exception e) {
-                System.out.println("[ffmpeg] 변환 예외: " + e.getMessage());
+            // 운율 피처(비언어적 신호) - 체크포인트/캐시에 없을 때만 공유 디코딩 버퍼로 추출 (백엔드는 app.prosody.backend)
+            java.util.concurrent.Future<Map<String, String>> openSmileFuture;
+            Map<String, String> checkpointedFeatures = readFeatures(j.getFeaturesJson());
+            if (checkpointedFeatures != null) {
+                openSmileFuture = java.util.concurrent.CompletableFuture.completedFuture(checkpointedFeatures);
+            } else if (!fileAvailable) {
+                openSmileFuture = java.util.concurrent.CompletableFuture.completedFuture(null);
+            } else {
+                openSmileFuture = java.util.concurrent.CompletableFuture.supplyAsync(() ->
+                        audioAnalysisCache.prosodyFeatures(audioKey, () -> {
+                            DecodedAudio audio = decoded.get();
+                            if (audio == null) {
+                                return Map.of("error", "오디오 디코딩 실패");
+                            }
+                            return prosodyFeatureService.extract(audio);
+                        }), cpu)
+                        .thenApply(features -> {
+                            if (features != null && !features.isEmpty() && !features.containsKey("error")) {
+                                jobStateStore.checkpointFeatures(jobId, writeJson(features));
+                            }
+                            return features;
+                        });
             }
 
-            // openSMILE 음성 감정 분석(비언어적 신호) - 변환된 wav 파일 사용
-            java.util.concurrent.Future<Map<String, String>> openSmileFuture = executor.submit(() -> openSmileService.analyzeEmotionWithOpenSmile(wavPath, openSmileConfigPath));
-
-            // 감정분석, openSMILE, AI 응답을 동시에 시작
-            java.util.concurrent.Future<EmotionAnalysisResult> analysisFuture = executor.submit(() -> openAIService.analyzeTranscriptEmotion(transcript, null));
+            // 통합 모드에서는 감정분석을 응답 생성과 한 번의 호출로 처리하므로 따로 시작하지 않음
+            EmotionAnalysisResult checkpointedAnalysis = readAnalysis(j.getAnalysisJson());
+            boolean combined = checkpointedAnalysis == null && voiceTurnService.isCombinedEnabled();
+            java.util.concurrent.Future<EmotionAnalysisResult> analysisFuture;
+            if (checkpointedAnalysis != null) {
+                analysisFuture = java.util.concurrent.CompletableFuture.completedFuture(checkpointedAnalysis);
+            } else if (combined) {
+                analysisFuture = null;
+            } else {
+                analysisFuture = java.util.concurrent.CompletableFuture.supplyAsync(() ->
+                        audioAnalysisCache.emotion(audioKey, transcriptText, () -> openAIService.analyzeTranscriptEmotion(transcriptText, null)), network)
+                        .thenApply(result -> {
+                            checkpointAnalysis(jobId, result);
+                            return result;
+                        });
+            }
             // openSmileResult를 LLM 프롬프트에 반영하기 위해 전달
             // openSmileResult(Map) → VoiceMetadata 변환 (try-catch 블록 이후, openSmileResult가 할당된 뒤)
             EmotionAnalysisResult analysis = null;
@@ -162,7 +290,9 @@ public class AsyncProcessingService {
             StringBuilder errorBuilder = new StringBuilder();
             com.duckchat.api.dto.VoiceMetadata voiceMetadata = null;
             try {
-                analysis = analysisFuture.get();
+                if (analysisFuture != null) {
+                    analysis = analysisFuture.get();
+                }
             } catch (Exception e) {
                 errorBuilder.append("[감정분석 예외] ").append(e.getMessage()).append("; ");
                 System.out.println("[AsyncProcessing] 감정분석 예외: " + e.getMessage());
@@ -209,17 +339,25 @@ public class AsyncProcessingService {
                     voiceMetadata.setDetectedEmotions("{" + emotionContext + "}");
                 }
             }
-            final String transcriptFinal = transcript;
+            final String transcriptFinal = transcriptText;
             System.out.println("[AsyncProcessing] 대화 히스토리 개수: " + messageHistory.size());
             final com.duckchat.api.dto.VoiceMetadata voiceMetadataFinal = voiceMetadata;
             final List<ChatCompletionRequest.Message> messageHistoryFinal = messageHistory;
-            java.util.concurrent.Future<String> assistantFuture = executor.submit(() -> openAIService.generateResponseWithHistoryAndVoice(messageHistoryFinal, transcriptFinal, voiceMetadataFinal));
+            java.util.concurrent.Future<String> assistantFuture;
+            if (combined) {
+                VoiceTurnResult turn = voiceTurnService.analyzeAndReply(audioKey, messageHistoryFinal, transcriptFinal, voiceMetadataFinal);
+                analysis = turn.getAnalysis();
+                checkpointAnalysis(jobId, analysis);
+                assistantFuture = java.util.concurrent.CompletableFuture.completedFuture(turn.getReply());
+            } else {
+                assistantFuture = java.util.concurrent.CompletableFuture.supplyAsync(() -> openAIService.generateResponseWithHistoryAndVoice(messageHistoryFinal, transcriptFinal, voiceMetadataFinal), network);
+            }
             if (analysis != null) {
                 System.out.println("[AsyncProcessing] 감정 분석 완료: " + analysis.getRawJson());
                 // openSMILE 결과를 analysisJson에 함께 저장(필요시 별도 필드 추가 가능)
                 String combinedJson = analysis.getRawJson();
                 if (openSmileResult != null && !openSmileResult.isEmpty()) {
-                    combinedJson = combinedJson.replaceFirst("}$", ", \"openSmile\": " + new com.fasterxml.jackson.databind.ObjectMapper().writeValueAsString(openSmileResult) + "}");
+                    combinedJson = combinedJson.replaceFirst("}$", ", \"openSmile\": " + objectMapper.writeValueAsString(openSmileResult) + "}");
                 }
                 j.setAnalysisJson(combinedJson);
             } else {
@@ -239,7 +377,7 @@ public class AsyncProcessingService {
                 try {
                     User user = userRepository.findById(j.getUserId()).orElse(null);
                     if (user != null) {
-                        // 사용자 메시지 저장
+                        // 사용자 메시지
                         ChatMessageRequest userMessageRequest = ChatMessageRequest.builder()
                                 .content(transcript)
                                 .type(MessageType.USER)
@@ -248,16 +386,17 @@ public class AsyncProcessingService {
                                 .emotionScore(analysis != null && analysis.getConfidence() != null ? analysis.getConfidence() : 0.0)
                                 .isVoiceInput(true)
                                 .build();
-                        chatService.saveMessage(user, userMessageRequest);
 
-                        // AI 응답 저장
+                        // AI 응답
                         ChatMessageRequest aiMessageRequest = ChatMessageRequest.builder()
                                 .content(assistant)
                                 .type(MessageType.ASSISTANT)
                                 .chatSessionId(chatSessionId)
                                 .isVoiceInput(false)
                                 .build();
-                        chatService.saveMessage(user, aiMessageRequest);
+
+                        // 한 트랜잭션에서 배치로 저장 (재시도된 작업이 같은 턴을 다시 쓰지 않도록 jobId로 한 번만)
+                        chatService.saveJobTurn(jobId, user, userMessageRequest, aiMessageRequest, chatSessionId);
                     }
                 } catch (Exception e) {
                     System.out.println("[AsyncProcessing] 메시지 저장 실패: " + e.getMessage());
@@ -265,8 +404,7 @@ public class AsyncProcessingService {
             }
 
             j.setStatus("DONE");
-            jobRepository.save(j);
-            executor.shutdown();
+            finishAndPublish(j);
             System.out.println("[AsyncProcessing] 작업 완료: " + jobId);
 
         } catch (Exception e) {
@@ -274,8 +412,77 @@ public class AsyncProcessingService {
             e.printStackTrace();
             j.setStatus("FAILED");
             j.setErrorMessage(e.getMessage());
-            jobRepository.save(j);
+            finishAndPublish(j);
+        }
+        return j;
+    }
+
+    // 중간 상태는 메모리에만 반영하고(DB는 지연 기록) 구독자(SSE/롱폴)에게 알림
+    private void updateAndPublish(ProcessingJob j) {
+        jobStateStore.update(j);
+        jobEventBus.publish(JobEvent.from(j));
+    }
+
+    // 종료 상태는 바로 저장하고 리스를 반납한 뒤 알림. 그 사이 리스를 잃었으면 이어받은 노드의 결과를 덮어쓰지 않음
+    private void finishAndPublish(ProcessingJob j) {
+        if (!jobLeaseService.holds(j.getId())) {
+            System.out.println("[AsyncProcessing] 리스를 잃어 결과를 저장하지 않음 - jobId: " + j.getId());
+            return;
+        }
+        jobStateStore.finish(j);
+        jobLeaseService.release(j.getId());
+        jobEventBus.publish(JobEvent.from(j));
+    }
+
+    private void checkpointAnalysis(String jobId, EmotionAnalysisResult analysis) {
+        if (analysis != null && analysis.getRawJson() != null) {
+            jobStateStore.checkpointAnalysis(jobId, analysis.getRawJson());
+        }
+    }
+
+    private EmotionAnalysisResult readAnalysis(String json) {
+        if (json == null || json.isBlank()) {
+            return null;
+        }
+        try {
+            EmotionAnalysisResult result = objectMapper.readValue(json, EmotionAnalysisResult.class);
+            result.setRawJson(json);
+            return result;
+        } catch (Exception e) {
+            System.out.println("[AsyncProcessing] 감정분석 체크포인트 파싱 실패: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private Map<String, String> readFeatures(String json) {
+        if (json == null || json.isBlank()) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, new TypeReference<Map<String, String>>() {});
+        } catch (Exception e) {
+            System.out.println("[AsyncProcessing] 피처 체크포인트 파싱 실패: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private String writeJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // 디코딩 버퍼에서 무음을 잘라 압축해 업로드하고, 디코딩에 실패했으면 원본 파일을 업로드 (Whisper 쪽에서 디코딩)
+    private String transcribe(String audioKey, java.util.function.Supplier<DecodedAudio> audio, String filePath, String language) {
+        java.nio.file.Path path = java.nio.file.Paths.get(filePath);
+        long originalSize;
+        try {
+            originalSize = java.nio.file.Files.size(path);
+        } catch (java.io.IOException e) {
+            originalSize = 0;
         }
-        return new AsyncResult<>(j);
+        return transcriptionService.transcribe(audioKey, audio, new org.springframework.core.io.FileSystemResource(path), originalSize, language);
     }
 }
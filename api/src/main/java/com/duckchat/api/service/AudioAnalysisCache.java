@@ -0,0 +1,370 @@
+package com.duckchat.api.service;
+
+import com.duckchat.api.config.OpenAIConfig;
+import com.duckchat.api.dto.EmotionAnalysisResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * 업로드된 오디오 바이트의 SHA-256을 키로 하는 분석 결과 캐시.
+ * 전사 텍스트, openSMILE 운율 피처, 감정 분석 결과를 단계별로 저장해 같은 파일이 재업로드되면 해당 단계를 건너뜁니다.
+ * 메모리(LRU) 계층과 app.upload.dir 아래의 선택적 디스크 계층으로 구성되며, 두 계층 모두 같은 TTL을 적용합니다.
+ * 디스크 계층은 주기적으로 만료 파일을 지우고 전체 크기가 한도를 넘으면 오래된 파일부터 지웁니다.
+ */
+@Slf4j
+@Component
+public class AudioAnalysisCache {
+
+    // 쓰는 도중인 임시 파일을 지우지 않도록 두는 여유
+    private static final long TMP_FILE_GRACE_MILLIS = 10 * 60 * 1000L;
+
+    private final ObjectMapper objectMapper;
+    private final int maxEntries;
+    private final Path diskDir;
+    private final long ttlMillis;
+    private final long diskMaxBytes;
+
+    private final LinkedHashMap<String, Entry> memory = new LinkedHashMap<>(16, 0.75f, true);
+    // 같은 키의 파일 교체를 직렬화하는 스트라이프 락 (버전 비교 + 이동)
+    private final Object[] diskLocks = new Object[32];
+
+    private final MeterRegistry meterRegistry;
+
+    public AudioAnalysisCache(ObjectMapper objectMapper,
+                              OpenAIConfig openAIConfig,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.audio-cache.max-entries:500}") int maxEntries,
+                              @Value("${app.audio-cache.disk-enabled:true}") boolean diskEnabled,
+                              @Value("${app.audio-cache.ttl-hours:24}") long ttlHours,
+                              @Value("${app.audio-cache.disk-max-mb:512}") long diskMaxMb) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.maxEntries = maxEntries;
+        // TempFileCleanupService는 업로드 디렉토리 바로 아래 파일만 지우므로 하위 디렉토리에 둠
+        this.diskDir = diskEnabled ? Path.of(openAIConfig.getUploadDir(), "analysis-cache") : null;
+        this.ttlMillis = ttlHours * 3_600_000L;
+        this.diskMaxBytes = diskMaxMb * 1024 * 1024;
+        for (int i = 0; i < diskLocks.length; i++) {
+            diskLocks[i] = new Object();
+        }
+    }
+
+    /**
+     * 오디오 파일 내용의 SHA-256 (hex). 실패하면 null을 반환하며, 이 경우 캐시를 사용하지 않습니다.
+     */
+    public String fingerprint(Path audioFile) {
+        try (InputStream in = Files.newInputStream(audioFile)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            log.warn("오디오 해시 계산 실패: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /** 메모리에 있는 업로드(direct 버퍼 포함)의 해시. 버퍼 위치는 바꾸지 않음 */
+    public String fingerprint(ByteBuffer content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(content.duplicate());
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            log.warn("오디오 해시 계산 실패: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 캐시된 전사 결과가 있으면 반환하고, 없으면 loader를 실행해 비어 있지 않은 결과만 저장합니다.
+     */
+    public String transcript(String key, String language, Supplier<String> loader) {
+        if (key != null) {
+            Entry entry = load(key);
+            if (entry != null && entry.getTranscript() != null && equalsNullable(language, entry.getTranscriptLanguage())) {
+                record("transcript", true);
+                return entry.getTranscript();
+            }
+            record("transcript", false);
+        }
+        String transcript = loader.get();
+        if (key != null && transcript != null && !transcript.isBlank()) {
+            update(key, entry -> {
+                entry.setTranscript(transcript);
+                entry.setTranscriptLanguage(language);
+            });
+        }
+        return transcript;
+    }
+
+    /**
+     * openSMILE 피처. 오류 키가 포함된 결과나 빈 결과는 저장하지 않습니다.
+     */
+    public Map<String, String> prosodyFeatures(String key, Supplier<Map<String, String>> loader) {
+        if (key != null) {
+            Entry entry = load(key);
+            if (entry != null && entry.getProsodyFeatures() != null) {
+                record("prosody", true);
+                return entry.getProsodyFeatures();
+            }
+            record("prosody", false);
+        }
+        Map<String, String> features = loader.get();
+        if (key != null && features != null && !features.isEmpty() && !features.containsKey("error")) {
+            update(key, entry -> entry.setProsodyFeatures(features));
+        }
+        return features;
+    }
+
+    /**
+     * 전사 텍스트 기반 감정 분석. 같은 전사 텍스트로 계산된 결과만 재사용합니다
+     * (전사 실패로 기본 텍스트를 분석한 결과가 재시도 때 섞이지 않도록).
+     */
+    public EmotionAnalysisResult emotion(String key, String transcript, Supplier<EmotionAnalysisResult> loader) {
+        if (key != null) {
+            Entry entry = load(key);
+            if (entry != null && entry.getEmotion() != null && equalsNullable(transcript, entry.getEmotionTranscript())) {
+                record("emotion", true);
+                return entry.getEmotion();
+            }
+            record("emotion", false);
+        }
+        EmotionAnalysisResult result = loader.get();
+        if (key != null && result != null) {
+            update(key, entry -> {
+                entry.setEmotion(result);
+                entry.setEmotionTranscript(transcript);
+            });
+        }
+        return result;
+    }
+
+    private Entry load(String key) {
+        synchronized (memory) {
+            Entry entry = memory.get(key);
+            if (entry != null && !isExpired(entry, System.currentTimeMillis())) {
+                return entry;
+            }
+            memory.remove(key);
+        }
+        Entry fromDisk = readDisk(key);
+        if (fromDisk != null) {
+            putMemory(key, fromDisk);
+        }
+        return fromDisk;
+    }
+
+    private void update(String key, Consumer<Entry> mutation) {
+        Entry snapshot;
+        synchronized (memory) {
+            Entry entry = memory.get(key);
+            if (entry == null || isExpired(entry, System.currentTimeMillis())) {
+                // 메모리에서 밀려난 경우 디스크의 다른 단계 결과를 덮어쓰지 않도록 먼저 읽음
+                entry = readDisk(key);
+                if (entry == null) {
+                    entry = new Entry();
+                }
+                putMemory(key, entry);
+            }
+            mutation.accept(entry);
+            entry.setVersion(entry.getVersion() + 1);
+            entry.setUpdatedAt(System.currentTimeMillis());
+            snapshot = entry.copy(); // 디스크 쓰기는 락 밖에서
+        }
+        writeDisk(key, snapshot);
+    }
+
+    private void putMemory(String key, Entry entry) {
+        synchronized (memory) {
+            memory.put(key, entry);
+            var eldest = memory.keySet().iterator();
+            while (memory.size() > maxEntries && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+
+    private Entry readDisk(String key) {
+        if (diskDir == null) {
+            return null;
+        }
+        Path file = diskDir.resolve(key + ".json");
+        try {
+            if (!Files.isRegularFile(file)) {
+                return null;
+            }
+            long modified = Files.getLastModifiedTime(file).toMillis();
+            if (System.currentTimeMillis() - modified > ttlMillis) {
+                Files.deleteIfExists(file);
+                return null;
+            }
+            Entry entry = objectMapper.readValue(file.toFile(), Entry.class);
+            if (entry.getUpdatedAt() == 0) {
+                entry.setUpdatedAt(modified); // updatedAt 필드가 생기기 전에 쓴 파일
+            }
+            return entry;
+        } catch (IOException e) {
+            log.warn("분석 캐시 파일 읽기 실패: {} ({})", file, e.getMessage());
+            return null;
+        }
+    }
+
+    void writeDisk(String key, Entry entry) {
+        if (diskDir == null) {
+            return;
+        }
+        Path tmp = null;
+        try {
+            Files.createDirectories(diskDir);
+            tmp = Files.createTempFile(diskDir, key, ".tmp");
+            objectMapper.writeValue(tmp.toFile(), entry);
+            Path file = diskDir.resolve(key + ".json");
+            // 직렬화는 락 밖에서 하므로 먼저 시작한 쓰기가 나중에 끝날 수 있음. 더 새로운 버전이 이미 있으면 버림
+            synchronized (diskLocks[Math.floorMod(key.hashCode(), diskLocks.length)]) {
+                if (diskVersion(file) < entry.getVersion()) {
+                    Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    tmp = null;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("분석 캐시 파일 쓰기 실패: {}", e.getMessage());
+        } finally {
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException ignored) {
+                    // 남은 임시 파일은 sweep에서 정리
+                }
+            }
+        }
+    }
+
+    private long diskVersion(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return -1;
+        }
+        try {
+            return objectMapper.readTree(file.toFile()).path("version").asLong(0);
+        } catch (IOException e) {
+            return -1; // 깨진 파일은 덮어씀
+        }
+    }
+
+    /**
+     * 만료된 메모리 항목과 디스크 파일(남은 임시 파일 포함)을 지우고, 디스크 전체 크기가 한도를 넘으면 오래된 파일부터 지웁니다.
+     */
+    @Scheduled(fixedDelayString = "${app.audio-cache.sweep-interval-ms:600000}")
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        synchronized (memory) {
+            memory.values().removeIf(entry -> isExpired(entry, now));
+        }
+        if (diskDir == null || !Files.isDirectory(diskDir)) {
+            return;
+        }
+        List<Path> kept = new ArrayList<>();
+        Map<Path, long[]> stats = new HashMap<>(); // 경로 → {수정 시각, 크기}
+        try (Stream<Path> files = Files.list(diskDir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                long modified = Files.getLastModifiedTime(file).toMillis();
+                boolean tmp = file.getFileName().toString().endsWith(".tmp");
+                if (now - modified > (tmp ? TMP_FILE_GRACE_MILLIS : ttlMillis)) {
+                    Files.deleteIfExists(file);
+                } else if (!tmp) {
+                    kept.add(file);
+                    stats.put(file, new long[]{modified, Files.size(file)});
+                }
+            }
+        } catch (IOException e) {
+            log.warn("분석 캐시 디렉토리 정리 실패: {}", e.getMessage());
+            return;
+        }
+
+        long total = stats.values().stream().mapToLong(stat -> stat[1]).sum();
+        if (total <= diskMaxBytes) {
+            return;
+        }
+        kept.sort(Comparator.comparingLong(file -> stats.get(file)[0]));
+        for (Path file : kept) {
+            if (total <= diskMaxBytes) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(file);
+                total -= stats.get(file)[1];
+            } catch (IOException e) {
+                log.warn("분석 캐시 파일 삭제 실패: {} ({})", file, e.getMessage());
+            }
+        }
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return entry.getUpdatedAt() > 0 && now - entry.getUpdatedAt() > ttlMillis;
+    }
+
+    private void record(String stage, boolean hit) {
+        Counter.builder("audio.analysis.cache.requests")
+                .tag("stage", stage)
+                .tag("result", hit ? "hit" : "miss")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static boolean equalsNullable(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    @Data
+    public static class Entry {
+        private String transcript;
+        private String transcriptLanguage;
+        private Map<String, String> prosodyFeatures;
+        private String emotionTranscript;
+        private EmotionAnalysisResult emotion;
+        // 수정할 때마다 증가. 디스크에는 더 높은 버전만 덮어씀
+        private long version;
+        private long updatedAt;
+
+        Entry copy() {
+            Entry copy = new Entry();
+            copy.setTranscript(transcript);
+            copy.setTranscriptLanguage(transcriptLanguage);
+            copy.setProsodyFeatures(prosodyFeatures);
+            copy.setEmotionTranscript(emotionTranscript);
+            copy.setEmotion(emotion);
+            copy.setVersion(version);
+            copy.setUpdatedAt(updatedAt);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.duckchat.api.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * ffmpeg 한 번으로 업로드를 16kHz mono PCM으로 디코딩합니다.
+ * 파일 입력은 경로를 -i로 넘기고(mp4/m4a처럼 moov 아톰이 끝에 있는 컨테이너는 탐색 가능한 입력이 필요),
+ * 메모리 업로드만 stdin으로 흘려 넣습니다. 출력은 stdout 파이프로 받아 중간 파일을 만들지 않고, ffmpeg 로그는 실패했을 때만 남깁니다.
+ */
+@Slf4j
+@Component
+public class AudioDecoder {
+
+    private static final String PIPE_INPUT = "pipe:0";
+
+    private final ProcessSupervisor processSupervisor;
+    private final long timeoutMs;
+
+    public AudioDecoder(ProcessSupervisor processSupervisor,
+                        @Value("${app.process.ffmpeg-timeout-ms:60000}") long timeoutMs) {
+        this.processSupervisor = processSupervisor;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * 디코딩 결과. ffmpeg가 없거나 실패하면 null.
+     */
+    public DecodedAudio decode(Path input) {
+        // file: 프로토콜을 명시해 경로의 ':'가 다른 프로토콜로 해석되지 않게 함
+        return run(decoderProcess("file:" + input.toAbsolutePath()), null, input);
+    }
+
+    /** 메모리에 있는 업로드는 버퍼를 그대로 stdin으로 흘려 넣음 */
+    public DecodedAudio decode(VoiceUpload upload) {
+        if (!upload.isInMemory()) {
+            return decode(upload.file());
+        }
+        ByteBuffer content = upload.content();
+        return run(decoderProcess(PIPE_INPUT), stdin -> Channels.newChannel(stdin).write(content), upload.filename());
+    }
+
+    // input: 파일 경로 또는 pipe:0. 파일 입력이면 ffmpeg가 stdin을 키 입력으로 읽지 않도록 -nostdin
+    static ProcessBuilder decoderProcess(String input) {
+        List<String> command = new ArrayList<>(List.of("ffmpeg", "-hide_banner", "-loglevel", "error"));
+        if (!PIPE_INPUT.equals(input)) {
+            command.add("-nostdin");
+        }
+        command.addAll(List.of(
+                "-i", input,
+                "-f", "s16le", "-acodec", "pcm_s16le",
+                "-ar", String.valueOf(DecodedAudio.SAMPLE_RATE), "-ac", String.valueOf(DecodedAudio.CHANNELS),
+                "pipe:1"));
+        return new ProcessBuilder(command);
+    }
+
+    private DecodedAudio run(ProcessBuilder pb, ProcessSupervisor.StdinWriter stdin, Object input) {
+        try {
+            ProcessSupervisor.Result<byte[]> result = processSupervisor.run("ffmpeg", pb, timeoutMs, stdin, InputStream::readAllBytes);
+            if (!result.succeeded() || result.value() == null || result.value().length == 0) {
+                log.warn("ffmpeg 디코딩 실패 (종료 코드 {}, 시간 초과 {}): {} | {}",
+                        result.exitCode(), result.timedOut(), input, result.outputTail());
+                return null;
+            }
+            return new DecodedAudio(result.value());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            log.warn("ffmpeg 디코딩 예외: {} | {}", input, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 처음 필요할 때 한 번만 디코딩하는 공급자 (전사/피처가 모두 캐시에 있으면 ffmpeg를 실행하지 않음).
+     */
+    public Supplier<DecodedAudio> lazy(Path input) {
+        return new Supplier<>() {
+            private boolean decoded;
+            private DecodedAudio audio;
+
+            @Override
+            public synchronized DecodedAudio get() {
+                if (!decoded) {
+                    audio = decode(input);
+                    decoded = true;
+                }
+                return audio;
+            }
+        };
+    }
+}
@@ -1,6 +1,8 @@
 package com.duckchat.api.service;
 
 import com.duckchat.api.dto.ChatMessageRequest;
+import com.duckchat.api.dto.PendingTurn;
+import com.duckchat.api.dto.SessionTurn;
 import com.duckchat.api.entity.ChatMessage;
 import com.duckchat.api.entity.ChatSession;
 import com.duckchat.api.entity.ChatSessionMessage;
@@ -8,13 +10,19 @@ import com.duckchat.api.entity.User;
 import com.duckchat.api.repository.ChatMessageRepository;
 import com.duckchat.api.repository.ChatSessionMessageRepository;
 import com.duckchat.api.repository.ChatSessionRepository;
+import com.duckchat.api.repository.ProcessingJobRepository;
 import com.duckchat.api.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,40 +34,119 @@ public class ChatService {
     private final ChatSessionRepository chatSessionRepository;
     private final ChatSessionMessageRepository chatSessionMessageRepository;
     private final UserRepository userRepository;
+    private final ProcessingJobRepository processingJobRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public ChatMessage saveMessage(User user, ChatMessageRequest request) {
-        ChatMessage message = ChatMessage.builder()
+        // 세션 카운터로 순서 배정 (소유권 확인 겸용)
+        Long sessionId = request.getChatSessionId();
+        Integer order = sessionId != null ? allocateMessageOrders(sessionId, user, 1) : null;
+
+        ChatMessage savedMessage = chatMessageRepository.save(toEntity(user, request));
+
+        // 채팅 세션이 지정된 경우 세션에 메시지 추가
+        if (sessionId != null) {
+            chatSessionMessageRepository.save(toSessionMessage(sessionId, savedMessage, order));
+
+            if (request.getType() == ChatMessage.MessageType.ASSISTANT) {
+                eventPublisher.publishEvent(new ChatTurnCompletedEvent(sessionId));
+            }
+        }
+
+        return savedMessage;
+    }
+
+    /**
+     * 한 턴(사용자 메시지 + 어시스턴트 응답)을 한 트랜잭션에 저장합니다.
+     * 순서 배정(UPDATE/SELECT) 후 메시지 2건과 세션 연결 2건은 커밋 시 JDBC 배치로 함께 삽입됩니다.
+     * 전사와 응답이 함께 나오는 음성 턴용이며, 사용자 입력을 미리 알고 있으면 saveUserMessage/saveAssistantReply를 씁니다.
+     *
+     * @return 저장된 어시스턴트 메시지
+     */
+    @Transactional
+    public ChatMessage saveTurn(User user, ChatMessageRequest userMessage, ChatMessageRequest assistantMessage, Long chatSessionId) {
+        Integer firstOrder = chatSessionId != null ? allocateMessageOrders(chatSessionId, user, 2) : null;
+
+        ChatMessage savedUserMessage = chatMessageRepository.save(toEntity(user, userMessage));
+        ChatMessage savedAssistantMessage = chatMessageRepository.save(toEntity(user, assistantMessage));
+
+        if (chatSessionId != null) {
+            chatSessionMessageRepository.saveAll(List.of(
+                    toSessionMessage(chatSessionId, savedUserMessage, firstOrder),
+                    toSessionMessage(chatSessionId, savedAssistantMessage, firstOrder + 1)));
+            eventPublisher.publishEvent(new ChatTurnCompletedEvent(chatSessionId));
+        }
+
+        return savedAssistantMessage;
+    }
+
+    /**
+     * LLM 호출 전에 사용자 메시지를 저장하고, 바로 다음 순서를 응답용으로 예약합니다.
+     * 응답 생성이 실패해도 사용자 메시지는 남으며, 비어 있는 예약 순서는 정렬에 영향을 주지 않습니다.
+     */
+    @Transactional
+    public PendingTurn saveUserMessage(User user, ChatMessageRequest userMessage, Long chatSessionId) {
+        Integer firstOrder = chatSessionId != null ? allocateMessageOrders(chatSessionId, user, 2) : null;
+
+        ChatMessage savedUserMessage = chatMessageRepository.save(toEntity(user, userMessage));
+        if (chatSessionId != null) {
+            chatSessionMessageRepository.save(toSessionMessage(chatSessionId, savedUserMessage, firstOrder));
+        }
+        return new PendingTurn(user, chatSessionId, firstOrder != null ? firstOrder + 1 : null);
+    }
+
+    /**
+     * saveUserMessage로 시작한 턴의 어시스턴트 응답을 예약된 순서로 저장합니다.
+     */
+    @Transactional
+    public ChatMessage saveAssistantReply(PendingTurn turn, ChatMessageRequest assistantMessage) {
+        ChatMessage savedAssistantMessage = chatMessageRepository.save(toEntity(turn.getUser(), assistantMessage));
+        if (turn.getChatSessionId() != null) {
+            chatSessionMessageRepository.save(toSessionMessage(turn.getChatSessionId(), savedAssistantMessage, turn.getAssistantOrder()));
+            eventPublisher.publishEvent(new ChatTurnCompletedEvent(turn.getChatSessionId()));
+        }
+        return savedAssistantMessage;
+    }
+
+    /**
+     * 음성 작업의 턴 저장. 작업 행에 저장 표시를 먼저 남기고 같은 트랜잭션에서 턴을 저장하므로,
+     * 다른 노드에서 재시도된 같은 작업은 턴을 다시 쓰지 않습니다.
+     *
+     * @return 이미 저장된 작업이면 empty
+     */
+    @Transactional
+    public Optional<ChatMessage> saveJobTurn(String jobId, User user, ChatMessageRequest userMessage, ChatMessageRequest assistantMessage, Long chatSessionId) {
+        if (processingJobRepository.markTurnSaved(jobId, Instant.now()) == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(saveTurn(user, userMessage, assistantMessage, chatSessionId));
+    }
+
+    // count개의 연속된 순서를 배정하고 첫 번째 순서를 반환
+    private int allocateMessageOrders(Long sessionId, User user, int count) {
+        if (chatSessionRepository.incrementNextMessageOrder(sessionId, user.getId(), count) == 0) {
+            throw new IllegalArgumentException("채팅 세션을 찾을 수 없습니다.");
+        }
+        return chatSessionRepository.findNextMessageOrder(sessionId) - count;
+    }
+
+    private ChatMessage toEntity(User user, ChatMessageRequest request) {
+        return ChatMessage.builder()
                 .user(user)
                 .content(request.getContent())
                 .type(request.getType())
                 .emotionType(request.getEmotionType())
                 .emotionScore(request.getEmotionScore())
                 .build();
+    }
 
-        ChatMessage savedMessage = chatMessageRepository.save(message);
-
-        // 채팅 세션이 지정된 경우 세션에 메시지 추가
-        if (request.getChatSessionId() != null) {
-            ChatSession session = chatSessionRepository.findByIdAndUser(request.getChatSessionId(), user)
-                    .orElseThrow(() -> new IllegalArgumentException("채팅 세션을 찾을 수 없습니다."));
-
-            // 세션의 마지막 메시지 순서 조회
-            int lastOrder = chatSessionMessageRepository.findByChatSessionOrderByOrderAsc(session).stream()
-                    .mapToInt(ChatSessionMessage::getOrder)
-                    .max()
-                    .orElse(0);
-
-            ChatSessionMessage sessionMessage = ChatSessionMessage.builder()
-                    .chatSession(session)
-                    .message(savedMessage)
-                    .order(lastOrder + 1)
-                    .build();
-
-            chatSessionMessageRepository.save(sessionMessage);
-        }
-
-        return savedMessage;
+    private ChatSessionMessage toSessionMessage(Long sessionId, ChatMessage message, int order) {
+        return ChatSessionMessage.builder()
+                .chatSession(chatSessionRepository.getReferenceById(sessionId))
+                .message(message)
+                .order(order)
+                .build();
     }
 
     @Transactional(readOnly = true)
@@ -103,6 +190,25 @@ public class ChatService {
         return chatSessionMessageRepository.findByChatSessionOrderByOrderAsc(session);
     }
 
+    /**
+     * afterOrder 이후의 최근 턴을 최대 limit개, 오래된 순으로 반환합니다 (afterOrder가 null이면 처음부터).
+     */
+    @Transactional(readOnly = true)
+    public List<SessionTurn> getRecentTurns(ChatSession session, Integer afterOrder, int limit) {
+        List<SessionTurn> turns = new ArrayList<>(chatSessionMessageRepository.findRecentTurns(
+                session, afterOrder != null ? afterOrder : 0, PageRequest.of(0, limit)));
+        Collections.reverse(turns);
+        return turns;
+    }
+
+    /**
+     * afterOrder 이후의 가장 오래된 턴부터 최대 limit개를 반환합니다 (afterOrder가 null이면 처음부터).
+     */
+    @Transactional(readOnly = true)
+    public List<SessionTurn> getTurnsAfter(ChatSession session, Integer afterOrder, int limit) {
+        return chatSessionMessageRepository.findTurnsAfter(session, afterOrder != null ? afterOrder : 0, PageRequest.of(0, limit));
+    }
+
     @Transactional
     public ChatSession updateSessionTitle(Long sessionId, User user, String title) {
         ChatSession session = chatSessionRepository.findByIdAndUser(sessionId, user)
@@ -0,0 +1,7 @@
+package com.duckchat.api.service;
+
+/**
+ * 세션에 어시스턴트 응답이 저장되어 한 턴이 끝났음을 알리는 이벤트 (커밋 후 처리).
+ */
+public record ChatTurnCompletedEvent(Long chatSessionId) {
+}
@@ -0,0 +1,178 @@
+package com.duckchat.api.service;
+
+import com.duckchat.api.config.OpenAIConfig;
+import com.duckchat.api.dto.SessionTurn;
+import com.duckchat.api.dto.openai.ChatCompletionRequest;
+import com.duckchat.api.entity.ChatSession;
+import com.duckchat.api.repository.ChatSessionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 세션 대화 히스토리를 토큰 예산 안에서 구성합니다. 예산은 여기서 한 번만 적용하며 OpenAIService는 받은 히스토리를 그대로 씁니다.
+ * 예산을 넘는 오래된 턴은 ChatSession에 저장된 누적 요약으로 대체하고, 요약은 턴이 끝난 뒤 비동기로 갱신합니다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ConversationContextService {
+
+    // 요약 갱신 시 최근 턴이 예산의 이 비율만 차지하도록 앞쪽을 요약으로 넘겨, 다음 몇 턴 동안은 창 밖으로 밀리는 턴이 없게 함
+    private static final double SUMMARY_RETAIN_RATIO = 0.75;
+
+    private final ChatSessionRepository chatSessionRepository;
+    private final ChatService chatService;
+    private final OpenAIService openAIService;
+    private final TokenCounter tokenCounter;
+    private final OpenAIConfig openAIConfig;
+
+    // 이 노드 안에서만 같은 세션의 동시 갱신을 막음. 여러 노드가 같은 세션을 동시에 갱신하면 LLM 호출은 중복될 수 있지만,
+    // updateSummary가 summarizedUntilOrder가 더 앞설 때만 쓰므로 요약이 뒤로 돌아가지는 않음
+    private final Set<Long> refreshing = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 요약(있으면 system 메시지) + 예산 안에 들어가는 최근 턴들.
+     */
+    public List<ChatCompletionRequest.Message> buildHistory(ChatSession session) {
+        List<ChatCompletionRequest.Message> history = new ArrayList<>();
+        ChatCompletionRequest.Message summary = summaryMessage(session);
+        if (summary != null) {
+            history.add(summary);
+        }
+        for (SessionTurn turn : selectWindow(session)) {
+            history.add(toMessage(turn));
+        }
+        return history;
+    }
+
+    public ChatCompletionRequest.Message summaryMessage(ChatSession session) {
+        if (session.getSummary() == null || session.getSummary().isBlank()) {
+            return null;
+        }
+        return ChatCompletionRequest.Message.builder()
+                .role("system")
+                .content("이전 대화 요약: " + session.getSummary())
+                .build();
+    }
+
+    /**
+     * 요약되지 않은 턴 중 (요약을 뺀) 토큰 예산 안에 들어가는 최근 턴들을 순서대로 반환합니다.
+     */
+    public List<SessionTurn> selectWindow(ChatSession session) {
+        List<SessionTurn> unsummarized = unsummarizedTurns(session);
+        int budget = openAIConfig.getHistoryTokenBudget() - tokenCounter.count(session.getSummary());
+        return tail(unsummarized, budget);
+    }
+
+    @Async("taskExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onTurnCompleted(ChatTurnCompletedEvent event) {
+        refreshSummary(event.chatSessionId());
+    }
+
+    /**
+     * 요약되지 않은 턴이 예산을 넘으면 최근 턴(예산의 SUMMARY_RETAIN_RATIO)만 남기고 나머지를 요약에 합칩니다.
+     * 히스토리 창은 최근 max-turns개만 보므로, 그보다 오래된 미요약 턴이 있으면 예산과 관계없이 요약을 진행하고
+     * 오래된 턴부터 max-turns개씩 차례로 합쳐 어떤 턴도 요약 없이 버려지지 않게 합니다.
+     */
+    public void refreshSummary(Long sessionId) {
+        if (sessionId == null || !refreshing.add(sessionId)) {
+            return;
+        }
+        try {
+            ChatSession session = chatSessionRepository.findById(sessionId).orElse(null);
+            if (session == null) {
+                return;
+            }
+            List<SessionTurn> unsummarized = unsummarizedTurns(session);
+            if (unsummarized.isEmpty()) {
+                return;
+            }
+            int budget = openAIConfig.getHistoryTokenBudget() - tokenCounter.count(session.getSummary());
+            boolean beyondWindow = hasTurnsBefore(session, unsummarized.get(0));
+            if (!beyondWindow && tail(unsummarized, budget).size() == unsummarized.size()) {
+                return; // 아직 전부 창 안에 들어감
+            }
+
+            List<SessionTurn> retained = tail(unsummarized, (int) (budget * SUMMARY_RETAIN_RATIO));
+            int retainFrom = retained.isEmpty() ? Integer.MAX_VALUE : retained.get(0).getOrder();
+            String summary = session.getSummary();
+            Integer untilOrder = session.getSummarizedUntilOrder();
+            int batch = openAIConfig.getHistoryMaxTurns();
+            while (true) {
+                List<SessionTurn> overflow = new ArrayList<>();
+                for (SessionTurn turn : chatService.getTurnsAfter(session, untilOrder, batch)) {
+                    if (turn.getOrder() < retainFrom) {
+                        overflow.add(turn);
+                    }
+                }
+                if (overflow.isEmpty()) {
+                    return;
+                }
+
+                List<ChatCompletionRequest.Message> turns = new ArrayList<>(overflow.size());
+                for (SessionTurn turn : overflow) {
+                    turns.add(toMessage(turn));
+                }
+                String next = openAIService.summarizeConversation(summary, turns);
+                if (next == null || next.isBlank()) {
+                    return;
+                }
+                int nextUntil = overflow.get(overflow.size() - 1).getOrder();
+                if (chatSessionRepository.updateSummary(sessionId, next, nextUntil) == 0) {
+                    return; // 다른 갱신이 먼저 더 앞까지 요약함
+                }
+                log.info("세션 {} 요약 갱신: {}번째 메시지까지 ({}개 턴 추가)", sessionId, nextUntil, overflow.size());
+                summary = next;
+                untilOrder = nextUntil;
+            }
+        } catch (Exception e) {
+            log.error("세션 요약 갱신 실패 (sessionId={}): {}", sessionId, e.getMessage());
+        } finally {
+            refreshing.remove(sessionId);
+        }
+    }
+
+    // 요약 이후의 턴 중 최근 max-turns개만 조회. 그보다 오래된 미요약 턴은 refreshSummary가 요약으로 옮길 때까지 창에 들어가지 않음
+    private List<SessionTurn> unsummarizedTurns(ChatSession session) {
+        return chatService.getRecentTurns(session, session.getSummarizedUntilOrder(), openAIConfig.getHistoryMaxTurns());
+    }
+
+    // 최근 창의 첫 턴보다 오래된 미요약 턴이 있는지
+    private boolean hasTurnsBefore(ChatSession session, SessionTurn firstInWindow) {
+        List<SessionTurn> oldest = chatService.getTurnsAfter(session, session.getSummarizedUntilOrder(), 1);
+        return !oldest.isEmpty() && oldest.get(0).getOrder() < firstInWindow.getOrder();
+    }
+
+    // 뒤에서부터 budget 안에 들어가는 만큼
+    private List<SessionTurn> tail(List<SessionTurn> turns, int budget) {
+        int used = 0;
+        int start = turns.size();
+        while (start > 0) {
+            int tokens = tokenCounter.count(toMessage(turns.get(start - 1)));
+            if (used + tokens > budget) {
+                break;
+            }
+            used += tokens;
+            start--;
+        }
+        return start == 0 ? turns : Collections.unmodifiableList(turns.subList(start, turns.size()));
+    }
+
+    private ChatCompletionRequest.Message toMessage(SessionTurn turn) {
+        return ChatCompletionRequest.Message.builder()
+                .role(turn.getRole())
+                .content(turn.getContent())
+                .build();
+    }
+}
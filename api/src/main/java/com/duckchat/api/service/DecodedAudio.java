@@ -0,0 +1,91 @@
+package com.duckchat.api.service;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 업로드 한 건을 16kHz mono 16-bit little-endian PCM으로 한 번 디코딩한 결과.
+ * Whisper 업로드, openSMILE 입력, Java 쪽 피처 추출이 모두 이 버퍼를 공유합니다.
+ */
+public class DecodedAudio {
+
+    public static final int SAMPLE_RATE = 16_000;
+    public static final int CHANNELS = 1;
+    public static final int BITS_PER_SAMPLE = 16;
+
+    private static final int WAV_HEADER_BYTES = 44;
+
+    private final byte[] pcm;
+
+    public DecodedAudio(byte[] pcm) {
+        this.pcm = pcm;
+    }
+
+    public byte[] pcm() {
+        return pcm;
+    }
+
+    public int sampleCount() {
+        return pcm.length / 2;
+    }
+
+    public double durationSeconds() {
+        return sampleCount() / (double) SAMPLE_RATE;
+    }
+
+    /** -1.0 ~ 1.0 범위 샘플 */
+    public float[] samples() {
+        ByteBuffer buffer = ByteBuffer.wrap(pcm).order(ByteOrder.LITTLE_ENDIAN);
+        float[] samples = new float[sampleCount()];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = buffer.getShort() / 32768f;
+        }
+        return samples;
+    }
+
+    /** 멀티파트 업로드용 WAV (헤더 44바이트 + PCM) */
+    public Resource asWavResource(String filename) {
+        byte[] wav = new byte[WAV_HEADER_BYTES + pcm.length];
+        ByteBuffer.wrap(wav).order(ByteOrder.LITTLE_ENDIAN).put(wavHeader());
+        System.arraycopy(pcm, 0, wav, WAV_HEADER_BYTES, pcm.length);
+        return new ByteArrayResource(wav) {
+            @Override
+            public String getFilename() {
+                return filename;
+            }
+        };
+    }
+
+    /** 파일 경로만 받는 외부 도구(openSMILE)용 */
+    public void writeWav(Path target) throws IOException {
+        try (OutputStream out = Files.newOutputStream(target)) {
+            out.write(wavHeader());
+            out.write(pcm);
+        }
+    }
+
+    private byte[] wavHeader() {
+        int byteRate = SAMPLE_RATE * CHANNELS * BITS_PER_SAMPLE / 8;
+        ByteBuffer header = ByteBuffer.allocate(WAV_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(new byte[]{'R', 'I', 'F', 'F'});
+        header.putInt(36 + pcm.length);
+        header.put(new byte[]{'W', 'A', 'V', 'E', 'f', 'm', 't', ' '});
+        header.putInt(16);
+        header.putShort((short) 1); // PCM
+        header.putShort((short) CHANNELS);
+        header.putInt(SAMPLE_RATE);
+        header.putInt(byteRate);
+        header.putShort((short) (CHANNELS * BITS_PER_SAMPLE / 8));
+        header.putShort((short) BITS_PER_SAMPLE);
+        header.put(new byte[]{'d', 'a', 't', 'a'});
+        header.putInt(pcm.length);
+        return header.array();
+    }
+}
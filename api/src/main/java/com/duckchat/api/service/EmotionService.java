@@ -14,6 +14,7 @@ import java.util.Map;
 public class EmotionService {
 
     private final OpenSmileService openSmileService;
+    private final AudioDecoder audioDecoder;
     private final UserPreferenceRepository userPreferenceRepository;
 
     // 감정 분석 및 추천
@@ -21,7 +22,11 @@ public class EmotionService {
         // openSMILE config 경로 (emobase.conf 사용)
         String configPath = "/Users/ryugi62/Desktop/해커톤/opensmile/config/emobase/emobase.conf";
 
-        Map<String, String> features = openSmileService.analyzeEmotionWithOpenSmile(wavFilePath, configPath);
+        DecodedAudio audio = audioDecoder.decode(java.nio.file.Paths.get(wavFilePath));
+        if (audio == null) {
+            return "감정 분석 실패: 오디오를 디코딩할 수 없습니다";
+        }
+        Map<String, String> features = openSmileService.analyzeEmotion(audio, configPath);
 
         if (features.containsKey("error")) {
             return "감정 분석 실패: " + features.get("error");
@@ -0,0 +1,189 @@
+package com.duckchat.api.service;
+
+import com.duckchat.api.dto.JobEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 음성 작업 상태 전환을 구독자(SSE, 롱폴)에게 밀어주는 프로세스 내 이벤트 버스.
+ * 작업별 마지막 이벤트를 보관해 늦게 붙은 구독자도 DB 조회 없이 현재 상태를 받고,
+ * 끝난 작업은 일정 시간 뒤 정리합니다.
+ * SSE 전송은 채널 잠금 밖에서 하므로(느린 클라이언트가 작업 스레드를 막지 않도록) 이벤트마다 채널 순번을 붙이고,
+ * 구독자는 이미 보낸 것보다 오래된 순번을 버립니다. 동시에 발행된 전환이 뒤섞여도 구독자가 이전 상태로 되돌아가지 않습니다.
+ */
+@Slf4j
+@Component
+public class JobEventBus {
+
+    // 끝난 작업의 마지막 이벤트를 보관하는 시간 (완료 직후 붙는 구독자용)
+    private static final long TERMINAL_RETENTION_MS = 5 * 60_000L;
+    // 이벤트 없이 오래된 채널 정리 기준
+    private static final long IDLE_RETENTION_MS = 60 * 60_000L;
+
+    private final Map<String, Channel> channels = new ConcurrentHashMap<>();
+
+    public void publish(JobEvent event) {
+        Channel channel = channels.computeIfAbsent(event.getJobId(), id -> new Channel());
+        long sequence;
+        List<Subscriber> subscribers;
+        List<CompletableFuture<JobEvent>> waiters;
+        synchronized (channel) {
+            sequence = channel.advance(event);
+            subscribers = new ArrayList<>(channel.subscribers);
+            waiters = new ArrayList<>(channel.waiters);
+            channel.waiters.clear();
+            if (event.isTerminal()) {
+                channel.subscribers.clear();
+            }
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.deliver(sequence, event);
+        }
+        for (CompletableFuture<JobEvent> waiter : waiters) {
+            waiter.complete(event);
+        }
+        if (event.isTerminal()) {
+            evictExpired();
+        }
+    }
+
+    /**
+     * 버스가 알고 있는 작업의 마지막 이벤트. 모르는 작업(재시작 이후 등)이면 null.
+     */
+    public JobEvent latest(String jobId) {
+        Channel channel = channels.get(jobId);
+        if (channel == null) {
+            return null;
+        }
+        synchronized (channel) {
+            return channel.latest;
+        }
+    }
+
+    /**
+     * 현재 상태를 바로 보내고 이후 전환을 이어서 보냅니다. 이미 끝난 작업이면 마지막 이벤트만 보내고 닫습니다.
+     * snapshot은 버스에 상태가 없을 때 DB에서 읽은 현재 상태입니다.
+     */
+    public void subscribe(String jobId, SseEmitter emitter, JobEvent snapshot) {
+        Channel channel = channels.computeIfAbsent(jobId, id -> new Channel());
+        Subscriber subscriber = new Subscriber(emitter);
+        JobEvent current;
+        long sequence;
+        synchronized (channel) {
+            if (channel.latest == null && snapshot != null) {
+                channel.advance(snapshot);
+            }
+            current = channel.latest;
+            sequence = channel.sequence;
+            if (current == null || !current.isTerminal()) {
+                channel.subscribers.add(subscriber);
+            }
+        }
+        Runnable remove = () -> {
+            synchronized (channel) {
+                channel.subscribers.remove(subscriber);
+            }
+        };
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+        if (current != null) {
+            // 그사이 발행된 더 새 이벤트를 이미 보냈으면 버려짐
+            subscriber.deliver(sequence, current);
+        }
+    }
+
+    /**
+     * 상태가 sinceStatus와 달라지면 완료되는 future. 이미 다르면 바로 완료됩니다.
+     */
+    public CompletableFuture<JobEvent> awaitChange(String jobId, String sinceStatus, JobEvent snapshot) {
+        Channel channel = channels.computeIfAbsent(jobId, id -> new Channel());
+        synchronized (channel) {
+            if (channel.latest == null && snapshot != null) {
+                channel.advance(snapshot);
+            }
+            JobEvent current = channel.latest;
+            if (current != null && (current.isTerminal() || !current.getStatus().equals(sinceStatus))) {
+                return CompletableFuture.completedFuture(current);
+            }
+            CompletableFuture<JobEvent> waiter = new CompletableFuture<>();
+            channel.waiters.add(waiter);
+            waiter.whenComplete((event, e) -> {
+                synchronized (channel) {
+                    channel.waiters.remove(waiter);
+                }
+            });
+            return waiter;
+        }
+    }
+
+    private void evictExpired() {
+        long now = System.currentTimeMillis();
+        channels.entrySet().removeIf(entry -> {
+            Channel channel = entry.getValue();
+            synchronized (channel) {
+                long age = now - channel.updatedAt;
+                boolean terminal = channel.latest != null && channel.latest.isTerminal();
+                return (terminal && age > TERMINAL_RETENTION_MS)
+                        || (age > IDLE_RETENTION_MS && channel.subscribers.isEmpty() && channel.waiters.isEmpty());
+            }
+        });
+    }
+
+    private static final class Channel {
+        private JobEvent latest;
+        // latest의 순번 (채널 잠금 안에서만 증가)
+        private long sequence;
+        private long updatedAt = System.currentTimeMillis();
+        private final List<Subscriber> subscribers = new ArrayList<>();
+        private final List<CompletableFuture<JobEvent>> waiters = new ArrayList<>();
+
+        // 채널 잠금 안에서 호출
+        private long advance(JobEvent event) {
+            latest = event;
+            updatedAt = System.currentTimeMillis();
+            return ++sequence;
+        }
+    }
+
+    /**
+     * SSE 구독자 하나. 전송을 직렬화하고 마지막으로 보낸 순번보다 오래된 이벤트는 보내지 않습니다.
+     * 순번은 SSE 이벤트 id로도 보내 클라이언트가 순서를 확인할 수 있습니다.
+     */
+    static final class Subscriber {
+        private final SseEmitter emitter;
+        private long lastSent;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        synchronized void deliver(long sequence, JobEvent event) {
+            if (sequence <= lastSent) {
+                return;
+            }
+            lastSent = sequence;
+            try {
+                emitter.send(SseEmitter.event()
+                        .id(Long.toString(sequence))
+                        .name(event.getStatus())
+                        .data(event, MediaType.APPLICATION_JSON));
+                if (event.isTerminal()) {
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // 클라이언트가 이미 연결을 끊음
+                log.debug("작업 이벤트 전송 실패 (jobId={}): {}", event.getJobId(), e.getMessage());
+            }
+        }
+    }
+}
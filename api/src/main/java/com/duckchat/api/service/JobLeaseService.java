@@ -0,0 +1,153 @@
+package com.duckchat.api.service;
+
+import com.duckchat.api.dto.JobEvent;
+import com.duckchat.api.entity.ProcessingJob;
+import com.duckchat.api.repository.ProcessingJobRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.net.InetAddress;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * processing_job 행 단위 리스(점유) 관리.
+ * 노드는 SELECT ... FOR UPDATE SKIP LOCKED로 겹치지 않게 작업을 가져가고, 처리 중에는 하트비트로 리스를 연장합니다.
+ * 노드가 죽어 하트비트가 끊기면 리스가 만료되어 다른 노드(또는 재시작한 노드)가 이어서 처리합니다.
+ * 새 작업 행은 만든 노드의 리스를 담은 채로 삽입되므로 다른 노드의 폴러가 가로채지 못하고,
+ * 시도 횟수는 점유할 때가 아니라 실제로 실행을 시작할 때 올립니다.
+ * 업로드 파일은 노드 로컬 app.upload.dir에 있으므로, 전사 체크포인트가 없는 작업은 파일을 가진 노드(같은 호스트에서 재시작한 프로세스 포함)만 가져갑니다.
+ * 업로드 디렉터리를 노드끼리 공유하면 app.upload.shared-dir=true로 이 제한을 끄고, 파일을 가진 노드가 orphan-after-ms 동안
+ * 돌아오지 않으면 다른 노드가 가져가 재시도 한도 안에서 실패로 마무리합니다.
+ * 만료된 리스는 lockClaimable이 바로 점유 대상으로 보므로 기동 시 따로 풀지 않습니다.
+ */
+@Slf4j
+@Service
+public class JobLeaseService {
+
+    private final ProcessingJobRepository jobRepository;
+    private final JobStateStore jobStateStore;
+    private final JobEventBus jobEventBus;
+    private final long leaseMs;
+    private final String nodeId;
+    private final String uploadNode;
+    private final boolean sharedUploadDir;
+    private final long orphanAfterMs;
+    private final Set<String> held = ConcurrentHashMap.newKeySet();
+
+    public JobLeaseService(ProcessingJobRepository jobRepository,
+                           JobStateStore jobStateStore,
+                           JobEventBus jobEventBus,
+                           @Value("${app.jobs.lease-ms:30000}") long leaseMs,
+                           @Value("${app.upload.node-name:}") String uploadNode,
+                           @Value("${app.upload.shared-dir:false}") boolean sharedUploadDir,
+                           @Value("${app.jobs.orphan-after-ms:600000}") long orphanAfterMs) {
+        this.jobRepository = jobRepository;
+        this.jobStateStore = jobStateStore;
+        this.jobEventBus = jobEventBus;
+        this.leaseMs = leaseMs;
+        // 리스 소유자는 프로세스마다 다르지만, 업로드 디렉터리 소유자는 재시작해도 같은 이름이어야 함
+        this.uploadNode = uploadNode == null || uploadNode.isBlank() ? hostName() : uploadNode;
+        this.sharedUploadDir = sharedUploadDir;
+        this.orphanAfterMs = orphanAfterMs;
+        this.nodeId = this.uploadNode + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    /**
+     * 새 작업에 이 노드의 리스를 채웁니다. 행을 삽입하는 저장과 같은 INSERT로 들어가므로 만드는 순간부터 이 노드가 점유하며,
+     * 행을 저장한 뒤 hold(jobId)로 하트비트 대상에 넣습니다.
+     */
+    public void stampNewLease(ProcessingJob job) {
+        job.setLeaseOwner(nodeId);
+        job.setLeaseExpiresAt(Instant.now().plusMillis(leaseMs));
+        job.setAttempts(0);
+        job.setUploadNode(uploadNode);
+    }
+
+    public void hold(String jobId) {
+        held.add(jobId);
+    }
+
+    public boolean holds(String jobId) {
+        return held.contains(jobId);
+    }
+
+    /**
+     * 리스가 없거나 만료된 작업을 최대 limit개 점유해 반환합니다.
+     * 다른 노드에서 올라온 작업은 전사 체크포인트가 있거나, 업로드 디렉터리를 공유하거나, orphan-after-ms가 지난 경우만 가져갑니다.
+     */
+    @Transactional
+    public List<ProcessingJob> claim(int limit) {
+        Instant now = Instant.now();
+        Instant orphanBefore = sharedUploadDir ? now : now.minusMillis(orphanAfterMs);
+        List<String> ids = jobRepository.lockClaimable(now, uploadNode, orphanBefore, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        jobRepository.lease(ids, nodeId, now.plusMillis(leaseMs));
+        held.addAll(ids);
+        return new ArrayList<>(jobRepository.findAllById(ids));
+    }
+
+    /**
+     * 실행 시작 기록(시도 횟수 +1). 그 사이 리스를 잃었으면 false이고 실행하지 않아야 합니다.
+     */
+    public boolean startAttempt(String jobId) {
+        if (jobRepository.startAttempt(jobId, nodeId) == 0) {
+            leaseLost(jobId);
+            return false;
+        }
+        return true;
+    }
+
+    public void release(String jobId) {
+        if (held.remove(jobId)) {
+            jobRepository.releaseLease(jobId, nodeId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.jobs.heartbeat-ms:10000}")
+    public void heartbeat() {
+        if (held.isEmpty()) {
+            return;
+        }
+        List<String> ids = new ArrayList<>(held);
+        int renewed = jobRepository.renewLeases(ids, nodeId, Instant.now().plusMillis(leaseMs));
+        if (renewed < ids.size()) {
+            Set<String> still = Set.copyOf(jobRepository.findLeasedBy(ids, nodeId));
+            ids.stream().filter(id -> !still.contains(id)).forEach(this::leaseLost);
+        }
+    }
+
+    /**
+     * 리스가 만료되어 다른 노드가 가져간 작업. 이 노드의 메모리 상태는 더 이상 갱신되지 않으므로 버리고(이후 조회는 DB),
+     * 이 노드에 붙어 있는 SSE/롱폴 구독자에게 MOVED를 보내 닫습니다.
+     */
+    private void leaseLost(String jobId) {
+        if (!held.remove(jobId)) {
+            return;
+        }
+        log.warn("작업 리스를 잃었습니다 (다른 노드가 이어서 처리): jobId={}", jobId);
+        jobStateStore.evictUnfinished(jobId);
+        jobEventBus.publish(JobEvent.moved(jobId));
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "node";
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.duckchat.api.service;
+
+import com.duckchat.api.entity.ProcessingJob;
+import com.duckchat.api.repository.ProcessingJobRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 실행 중인 ProcessingJob 상태를 메모리에 두고 DB에는 지연 기록(write-behind)합니다.
+ * 생성과 종료(DONE/FAILED)만 즉시 저장하고, 중간 진행 상태는 주기적으로 모아서 저장합니다.
+ * 끝난 작업은 TTL이 지나면 메모리에서 빠지고 이후 조회는 DB로 갑니다.
+ * 이 노드에서 끝나지 않는 작업(다른 노드로 넘어갔거나 실행이 중단된 작업)도 저장을 마친 뒤 idle TTL 동안 갱신이 없으면 뺍니다.
+ */
+@Slf4j
+@Component
+public class JobStateStore {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final ProcessingJobRepository jobRepository;
+    private final long finishedTtlMs;
+    private final long idleTtlMs;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public JobStateStore(ProcessingJobRepository jobRepository,
+                         @Value("${app.jobs.finished-ttl-minutes:10}") long finishedTtlMinutes,
+                         @Value("${app.jobs.idle-ttl-minutes:30}") long idleTtlMinutes) {
+        this.jobRepository = jobRepository;
+        this.finishedTtlMs = finishedTtlMinutes * 60_000L;
+        this.idleTtlMs = idleTtlMinutes * 60_000L;
+    }
+
+    /**
+     * 시간 순으로 정렬되는 작업 id (UUIDv7 형식: 앞 48비트가 밀리초 타임스탬프).
+     * 랜덤 UUID와 달리 새 행이 PK 인덱스 끝에 붙어 삽입 시 페이지 분할이 생기지 않습니다.
+     */
+    public static String newJobId() {
+        long millis = System.currentTimeMillis();
+        long msb = (millis << 16) | 0x7000L | (RANDOM.nextInt() & 0x0FFFL);
+        long lsb = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb).toString();
+    }
+
+    public void create(ProcessingJob job) {
+        Entry entry = new Entry();
+        synchronized (entry) {
+            entries.put(job.getId(), entry);
+            // 저장 결과를 보관해야 @PrePersist로 채워진 createdAt이 이후 저장에서 지워지지 않음
+            entry.snapshot = jobRepository.save(copy(job, null));
+        }
+    }
+
+    /** 중간 진행 상태. 다음 flush 때 저장됩니다. */
+    public void update(ProcessingJob job) {
+        Entry entry = entries.computeIfAbsent(job.getId(), id -> new Entry());
+        synchronized (entry) {
+            if (entry.finishedAt > 0) {
+                return; // 종료 상태를 중간 상태로 덮어쓰지 않음
+            }
+            entry.snapshot = copy(job, entry.snapshot);
+            entry.dirty = true;
+            entry.touchedAt = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * 전사 단계 체크포인트. 재시도 때 Whisper를 다시 호출하지 않도록 바로 저장하되, 해당 컬럼만 갱신합니다.
+     */
+    public void checkpointTranscript(ProcessingJob job) {
+        Entry entry = entries.computeIfAbsent(job.getId(), id -> new Entry());
+        synchronized (entry) {
+            jobRepository.saveTranscript(job.getId(), job.getStatus(), job.getTranscript(), Instant.now());
+            entry.snapshot = copy(job, entry.snapshot);
+            entry.touchedAt = System.currentTimeMillis();
+        }
+    }
+
+    /** openSMILE 피처 체크포인트 */
+    public void checkpointFeatures(String id, String featuresJson) {
+        jobRepository.saveFeatures(id, featuresJson, Instant.now());
+        Entry entry = entries.get(id);
+        if (entry != null) {
+            synchronized (entry) {
+                if (entry.snapshot != null) {
+                    entry.snapshot.setFeaturesJson(featuresJson);
+                }
+            }
+        }
+    }
+
+    /** 감정 분석 체크포인트 (완료 시에는 openSMILE 결과를 합친 JSON으로 덮어씀) */
+    public void checkpointAnalysis(String id, String analysisJson) {
+        jobRepository.saveAnalysis(id, analysisJson, Instant.now());
+        Entry entry = entries.get(id);
+        if (entry != null) {
+            synchronized (entry) {
+                if (entry.snapshot != null && entry.finishedAt == 0) {
+                    entry.snapshot.setAnalysisJson(analysisJson);
+                }
+            }
+        }
+    }
+
+    /** 종료 상태(DONE/FAILED). 바로 저장합니다. */
+    public void finish(ProcessingJob job) {
+        Entry entry = entries.computeIfAbsent(job.getId(), id -> new Entry());
+        synchronized (entry) {
+            entry.snapshot = jobRepository.save(copy(job, entry.snapshot));
+            entry.dirty = false;
+            entry.finishedAt = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * 아직 끝나지 않은 작업의 메모리 상태를 버립니다 (다른 노드로 넘어간 작업 - 지연 저장이 그 노드의 진행 상태를 덮어쓰지 않도록).
+     */
+    public void evictUnfinished(String id) {
+        Entry entry = entries.get(id);
+        if (entry != null) {
+            synchronized (entry) {
+                if (entry.finishedAt == 0) {
+                    entries.remove(id, entry);
+                }
+            }
+        }
+    }
+
+    /** 큐에 넣지 못한 작업 행 제거 */
+    public void discard(String id) {
+        entries.remove(id);
+        jobRepository.deleteById(id);
+    }
+
+    public ProcessingJob get(String id) {
+        Entry entry = entries.get(id);
+        if (entry != null) {
+            synchronized (entry) {
+                if (entry.snapshot != null) {
+                    return copy(entry.snapshot, null);
+                }
+            }
+        }
+        return jobRepository.findById(id).orElse(null);
+    }
+
+    @Scheduled(fixedDelayString = "${app.jobs.flush-interval-ms:2000}")
+    public void flush() {
+        flush(System.currentTimeMillis());
+    }
+
+    void flush(long now) {
+        entries.forEach((id, entry) -> {
+            synchronized (entry) {
+                if (entry.dirty) {
+                    try {
+                        entry.snapshot = jobRepository.save(entry.snapshot);
+                        entry.dirty = false;
+                    } catch (Exception e) {
+                        log.warn("작업 상태 지연 저장 실패 (jobId={}): {}", id, e.getMessage());
+                    }
+                }
+                if (entry.finishedAt > 0 && now - entry.finishedAt > finishedTtlMs) {
+                    entries.remove(id, entry);
+                } else if (entry.finishedAt == 0 && !entry.dirty && now - entry.touchedAt > idleTtlMs) {
+                    // 이 노드에서 끝나지 않은 작업 - 마지막 상태는 이미 저장했으므로 이후 조회는 DB로
+                    entries.remove(id, entry);
+                }
+            }
+        });
+    }
+
+    // 체크포인트 컬럼과 createdAt은 호출자가 들고 있는 객체에 없으면 이전 스냅샷 값을 유지 (지연 저장이 체크포인트를 지우지 않도록)
+    private static ProcessingJob copy(ProcessingJob job, ProcessingJob previous) {
+        return ProcessingJob.builder()
+                .id(job.getId())
+                .status(job.getStatus())
+                .userId(job.getUserId())
+                .transcript(job.getTranscript() != null || previous == null ? job.getTranscript() : previous.getTranscript())
+                .analysisJson(job.getAnalysisJson() != null || previous == null ? job.getAnalysisJson() : previous.getAnalysisJson())
+                .assistantResponse(job.getAssistantResponse())
+                .errorMessage(job.getErrorMessage())
+                .chatSessionId(job.getChatSessionId())
+                .filePath(job.getFilePath())
+                .language(job.getLanguage())
+                .uploadNode(job.getUploadNode())
+                .featuresJson(job.getFeaturesJson() != null || previous == null ? job.getFeaturesJson() : previous.getFeaturesJson())
+                .leaseOwner(job.getLeaseOwner())
+                .leaseExpiresAt(job.getLeaseExpiresAt())
+                .attempts(job.getAttempts())
+                .createdAt(job.getCreatedAt() != null || previous == null ? job.getCreatedAt() : previous.getCreatedAt())
+                .updatedAt(job.getUpdatedAt())
+                .build();
+    }
+
+    private static final class Entry {
+        private ProcessingJob snapshot;
+        private boolean dirty;
+        private long finishedAt;
+        // 마지막으로 상태를 받은 시각 (computeIfAbsent로 처음 만들어진 항목은 생성 시각)
+        private long touchedAt = System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,100 @@
+package com.duckchat.api.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * OpenAI 호출에 데드라인을 거는 공유 실행기.
+ * 요청마다 스레드 풀을 만들지 않고 openAiExecutor 풀을 재사용하며,
+ * 데드라인이 지나면 작업 스레드를 인터럽트해 진행 중인 HTTP 요청까지 취소합니다.
+ */
+@Slf4j
+@Component
+public class OpenAICallExecutor {
+
+    public static final long DEFAULT_TIMEOUT_MS = 7_000L; // 7초 제한
+
+    private final ThreadPoolTaskExecutor openAiExecutor;
+    private final Counter timeoutCounter;
+
+    public OpenAICallExecutor(@Qualifier("openAiExecutor") ThreadPoolTaskExecutor openAiExecutor, MeterRegistry meterRegistry) {
+        this.openAiExecutor = openAiExecutor;
+        this.timeoutCounter = Counter.builder("openai.call.timeouts")
+                .description("데드라인 초과로 취소된 OpenAI 호출 수")
+                .register(meterRegistry);
+    }
+
+    /**
+     * CompletableFuture 단계 그래프에서 OpenAI 호출 단계를 실행할 풀.
+     * 그래프 전체의 데드라인은 호출자가 최종 future에 겁니다.
+     */
+    public Executor executor() {
+        return openAiExecutor;
+    }
+
+    /**
+     * 블로킹 OpenAI 호출을 단계 그래프에 넣을 때 사용. supplyAsync와 달리 반환된 future를 취소하면
+     * 작업 스레드를 인터럽트하므로 진행 중인 HTTP 요청(RestTemplate의 블로킹 send)까지 중단됩니다.
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> running = openAiExecutor.submit(() -> {
+            if (result.isDone()) {
+                return; // 시작 전에 취소됨
+            }
+            try {
+                result.complete(task.call());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        result.whenComplete((value, ex) -> {
+            if (result.isCancelled()) {
+                running.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 데드라인이 지나면 원본 future를 취소해 TimeoutException으로 끝나는 future를 반환합니다.
+     * 원본이 submit이나 cancelExchangeWith로 만든 future면 취소가 작업 스레드/HTTP 교환까지 전달됩니다.
+     */
+    public static <T> CompletableFuture<T> withDeadline(CompletableFuture<T> source, long timeoutMs) {
+        CompletableFuture<T> bounded = source.copy().orTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+        bounded.whenComplete((result, ex) -> {
+            if (ex != null) {
+                source.cancel(true);
+            }
+        });
+        return bounded;
+    }
+
+    public <T> T callWithTimeout(Callable<T> task, long timeoutMs) throws TimeoutException, ExecutionException, InterruptedException {
+        Future<T> future = openAiExecutor.submit(task);
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timeoutCounter.increment();
+            log.warn("OpenAI 호출이 {}ms 데드라인을 넘어 취소되었습니다.", timeoutMs);
+            throw e;
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package com.duckchat.api.service;
 
 import com.duckchat.api.config.OpenAIConfig;
+import com.duckchat.api.config.OutboundHttpClients;
+import com.duckchat.api.config.OutboundConcurrencyLimiter;
 import com.duckchat.api.dto.VoiceMetadata;
 import com.duckchat.api.dto.EmotionAnalysisResult;
+import com.duckchat.api.dto.VoiceTurnResult;
+import com.duckchat.api.dto.openai.ChatCompletionChunk;
 import com.duckchat.api.dto.openai.ChatCompletionRequest;
 import com.duckchat.api.dto.openai.ChatCompletionResponse;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -11,33 +15,54 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.client.MultipartBodyBuilder;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.core.io.FileSystemResource;
-
+import org.springframework.core.io.Resource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class OpenAIService {
 
-    private final RestTemplate restTemplate;
+    private final OutboundHttpClients outboundHttpClients;
     private final OpenAIConfig openAIConfig;
     private final ObjectMapper objectMapper;
+    private final OpenAICallExecutor openAICallExecutor;
+    private final SemanticResponseCache semanticResponseCache;
 
-    public ChatCompletionResponse createChatCompletion(List<ChatCompletionRequest.Message> messages) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setBearerAuth(openAIConfig.getOpenaiApiKey());
+    private static final String BASIC_CACHE_PARTITION = "basic";
 
-    ChatCompletionRequest request = ChatCompletionRequest.builder()
+    // 통합 호출은 분석 JSON과 답변을 함께 담으므로 일반 응답보다 넉넉하게
+    private static final int COMBINED_MAX_TOKENS = 512;
+
+    private ChatCompletionRequest buildChatCompletionRequest(List<ChatCompletionRequest.Message> messages, Boolean stream) {
+    return ChatCompletionRequest.builder()
     .model("gpt-3.5-turbo") // turbo-instant -> turbo (실제 사용 가능한 모델)
         .messages(messages)
         .temperature(0.5) // 더 빠른 응답을 위해 낮춤
@@ -45,12 +70,23 @@ public class OpenAIService {
         .top_p(0.8) // 다양성 제한
         .frequency_penalty(0.0)
         .presence_penalty(0.0)
+        .stream(stream)
         .build();
+    }
+
+    public ChatCompletionResponse createChatCompletion(List<ChatCompletionRequest.Message> messages) {
+        return createChatCompletion(buildChatCompletionRequest(messages, null));
+    }
+
+    private ChatCompletionResponse createChatCompletion(ChatCompletionRequest request) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setBearerAuth(openAIConfig.getOpenaiApiKey());
 
         HttpEntity<ChatCompletionRequest> entity = new HttpEntity<>(request, headers);
 
         try {
-            return restTemplate.postForObject(
+            return outboundHttpClients.getChat().postForObject(
                     openAIConfig.getOpenaiApiUrl(),
                     entity,
                     ChatCompletionResponse.class
@@ -61,7 +97,106 @@ public class OpenAIService {
         }
     }
 
-    public String generateResponse(String userMessage) {
+    /**
+     * stream=true로 chat completion을 호출하고, 델타가 도착할 때마다 onDelta로 전달합니다.
+     *
+     * @return 스트림 종료 시점까지 조립된 전체 응답
+     */
+    public String streamChatCompletion(List<ChatCompletionRequest.Message> messages, Consumer<String> onDelta) {
+        ChatCompletionRequest request = buildChatCompletionRequest(messages, true);
+
+        try {
+            return outboundHttpClients.getChat().execute(
+                    openAIConfig.getOpenaiApiUrl(),
+                    HttpMethod.POST,
+                    httpRequest -> {
+                        httpRequest.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                        httpRequest.getHeaders().setAccept(List.of(MediaType.TEXT_EVENT_STREAM));
+                        httpRequest.getHeaders().setBearerAuth(openAIConfig.getOpenaiApiKey());
+                        objectMapper.writeValue(httpRequest.getBody(), request);
+                    },
+                    httpResponse -> readCompletionStream(httpResponse.getBody(), onDelta)
+            );
+        } catch (Exception e) {
+            log.error("OpenAI 스트리밍 API 호출 중 오류 발생", e);
+            throw new RuntimeException("OpenAI 스트리밍 API 호출 중 오류가 발생했습니다.", e);
+        }
+    }
+
+    private String readCompletionStream(InputStream body, Consumer<String> onDelta) throws IOException {
+        StringBuilder assembled = new StringBuilder();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (!line.startsWith("data:")) {
+                continue; // 빈 줄(이벤트 구분자) 및 주석 무시
+            }
+            String payload = line.substring(5).trim();
+            if ("[DONE]".equals(payload)) {
+                break;
+            }
+            ChatCompletionChunk chunk = objectMapper.readValue(payload, ChatCompletionChunk.class);
+            if (chunk.getChoices() == null || chunk.getChoices().isEmpty()) {
+                continue;
+            }
+            ChatCompletionChunk.Delta delta = chunk.getChoices().get(0).getDelta();
+            if (delta != null && delta.getContent() != null && !delta.getContent().isEmpty()) {
+                assembled.append(delta.getContent());
+                onDelta.accept(delta.getContent());
+            }
+        }
+        return assembled.toString();
+    }
+
+    // 스트리밍 응답 생성: 델타를 하나도 받지 못하고 실패하면 기본 응답을 한 번에 전달
+    private String streamOrDefault(List<ChatCompletionRequest.Message> messages, Consumer<String> onDelta, Supplier<String> defaultResponse) {
+        StringBuilder sent = new StringBuilder();
+        Consumer<String> tracking = delta -> {
+            sent.append(delta);
+            onDelta.accept(delta);
+        };
+        try {
+            String content = streamChatCompletion(messages, tracking);
+            if (content != null && !content.isEmpty()) {
+                log.info("OpenAI streaming response: {}", content);
+                return content;
+            }
+            log.warn("OpenAI 스트리밍 응답이 비어 있습니다.");
+        } catch (Exception e) {
+            log.error("OpenAI 스트리밍 호출 중 오류 발생: {}", e.getMessage());
+            if (sent.length() > 0) {
+                return sent.toString(); // 이미 전달된 부분 응답은 그대로 유지
+            }
+        }
+        String fallback = defaultResponse.get();
+        onDelta.accept(fallback);
+        return fallback;
+    }
+
+    // generateResponse / generateResponseWithVoice 의 스트리밍 버전
+    public String streamResponseWithVoice(String userMessage, VoiceMetadata voiceMetadata, Consumer<String> onDelta) {
+        List<ChatCompletionRequest.Message> messages = voiceMetadata != null
+                ? buildVoiceMessages(userMessage, voiceMetadata)
+                : buildBasicMessages(userMessage);
+        return streamOrDefault(messages, onDelta, () -> getDefaultResponse(userMessage));
+    }
+
+    // generateResponseWithHistory / generateResponseWithHistoryAndVoice 의 스트리밍 버전
+    public String streamResponseWithHistoryAndVoice(List<ChatCompletionRequest.Message> messageHistory, String userMessage, VoiceMetadata voiceMetadata, Consumer<String> onDelta) {
+        List<ChatCompletionRequest.Message> messages;
+        if (voiceMetadata != null) {
+            messages = buildHistoryVoiceMessages(messageHistory, userMessage, voiceMetadata);
+        } else {
+            messages = new ArrayList<>(messageHistory);
+            messages.add(ChatCompletionRequest.Message.builder()
+                    .role("user")
+                    .content(userMessage)
+                    .build());
+        }
+        return streamOrDefault(messages, onDelta, () -> getDefaultResponseWithHistory(messageHistory, userMessage));
+    }
+
+    private List<ChatCompletionRequest.Message> buildBasicMessages(String userMessage) {
         List<ChatCompletionRequest.Message> messages = new ArrayList<>();
 
     // 시스템 메시지 추가 - 프롬프트 단순화
@@ -75,12 +210,23 @@ public class OpenAIService {
                 .role("user")
                 .content(userMessage)
                 .build());
+        return messages;
+    }
+
+    public String generateResponse(String userMessage) {
+        Optional<String> cached = semanticResponseCache.get(BASIC_CACHE_PARTITION, userMessage);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        List<ChatCompletionRequest.Message> messages = buildBasicMessages(userMessage);
 
         try {
             ChatCompletionResponse response = createChatCompletion(messages);
 
             if (response != null && response.getChoices() != null && !response.getChoices().isEmpty()) {
-                return response.getChoices().get(0).getMessage().getContent();
+                String content = response.getChoices().get(0).getMessage().getContent();
+                semanticResponseCache.put(BASIC_CACHE_PARTITION, userMessage, content);
+                return content;
             } else {
                 log.warn("OpenAI API 응답이 비어 있습니다.");
                 return getDefaultResponse(userMessage);
@@ -91,8 +237,111 @@ public class OpenAIService {
         }
     }
 
+    /**
+     * createChatCompletion의 논블로킹 버전. 공유 HttpClient의 sendAsync를 사용하므로 응답을 기다리는 동안 스레드를 점유하지 않습니다.
+     * 반환된 future를 취소하면 진행 중인 HTTP 교환도 중단됩니다.
+     */
+    public CompletableFuture<ChatCompletionResponse> createChatCompletionAsync(List<ChatCompletionRequest.Message> messages) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(buildChatCompletionRequest(messages, null));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        URI uri = URI.create(openAIConfig.getOpenaiApiUrl());
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(outboundHttpClients.getChatResponseTimeout())
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + openAIConfig.getOpenaiApiKey())
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+
+        // 허가는 sendAsync 교환 future가 끝날 때 반납되고, 결과 future가 취소/시간 초과되면 교환 future를 취소해 요청을 중단
+        CompletableFuture<HttpResponse<byte[]>> exchange = outboundHttpClients.getConcurrencyLimiter().limitAsync(uri,
+                () -> outboundHttpClients.getHttpClient().sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()));
+        CompletableFuture<ChatCompletionResponse> parsed = exchange.thenApply(response -> {
+            if (response.statusCode() / 100 != 2) {
+                throw new IllegalStateException("OpenAI API 오류 응답: " + response.statusCode());
+            }
+            try {
+                return objectMapper.readValue(response.body(), ChatCompletionResponse.class);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return OutboundConcurrencyLimiter.cancelExchangeWith(parsed, exchange);
+    }
+
+    private CompletableFuture<String> completeAsync(List<ChatCompletionRequest.Message> messages, Supplier<String> defaultResponse, Long timeoutMs) {
+        return completeAsync(messages, defaultResponse, timeoutMs, null, null);
+    }
+
+    // cachePartition이 null이 아니면 의미 캐시를 먼저 조회하고, API가 실제로 돌려준 응답만 캐시에 저장 (기본 응답은 저장하지 않음)
+    private CompletableFuture<String> completeAsync(List<ChatCompletionRequest.Message> messages, Supplier<String> defaultResponse, Long timeoutMs,
+                                                    String cachePartition, String userMessage) {
+        if (cachePartition != null) {
+            Optional<String> cached = semanticResponseCache.get(cachePartition, userMessage);
+            if (cached.isPresent()) {
+                return CompletableFuture.completedFuture(cached.get());
+            }
+        }
+        CompletableFuture<ChatCompletionResponse> call = createChatCompletionAsync(messages);
+        if (timeoutMs != null) {
+            // createChatCompletionAsync의 결과 future는 취소를 HTTP 교환 future까지 전달
+            call = OpenAICallExecutor.withDeadline(call, timeoutMs);
+        }
+        // 결과 future를 취소하면(음성 턴 데드라인 전환 등) HTTP 교환까지 취소되도록 원본 호출에 전달
+        CompletableFuture<String> result = call.handle((response, ex) -> {
+            if (ex != null) {
+                log.error("OpenAI API 비동기 호출 중 오류 발생: {}", ex.getMessage());
+                return defaultResponse.get();
+            }
+            if (response != null && response.getChoices() != null && !response.getChoices().isEmpty()) {
+                String content = response.getChoices().get(0).getMessage().getContent();
+                log.info("OpenAI API async response: {}", content);
+                if (cachePartition != null) {
+                    semanticResponseCache.put(cachePartition, userMessage, content);
+                }
+                return content;
+            }
+            log.warn("OpenAI API 응답이 비어 있습니다.");
+            return defaultResponse.get();
+        });
+        return OutboundConcurrencyLimiter.cancelExchangeWith(result, call);
+    }
+
+    public CompletableFuture<String> generateResponseAsync(String userMessage) {
+        return completeAsync(buildBasicMessages(userMessage), () -> getDefaultResponse(userMessage), null,
+                BASIC_CACHE_PARTITION, userMessage);
+    }
+
+    public CompletableFuture<String> generateResponseWithVoiceAsync(String userMessage, VoiceMetadata voiceMetadata) {
+        return completeAsync(buildVoiceMessages(userMessage, voiceMetadata), () -> getDefaultResponse(userMessage),
+                OpenAICallExecutor.DEFAULT_TIMEOUT_MS, voiceCachePartition(voiceMetadata), userMessage);
+    }
+
+    public CompletableFuture<String> generateResponseWithHistoryAsync(List<ChatCompletionRequest.Message> messageHistory, String userMessage) {
+        List<ChatCompletionRequest.Message> messages = new ArrayList<>(messageHistory);
+        messages.add(ChatCompletionRequest.Message.builder()
+                .role("user")
+                .content(userMessage)
+                .build());
+        return completeAsync(messages, () -> getDefaultResponseWithHistory(messageHistory, userMessage), null);
+    }
+
+    public CompletableFuture<String> generateResponseWithHistoryAndVoiceAsync(List<ChatCompletionRequest.Message> messageHistory, String userMessage, VoiceMetadata voiceMetadata) {
+        return completeAsync(buildHistoryVoiceMessages(messageHistory, userMessage, voiceMetadata),
+                () -> getDefaultResponseWithHistory(messageHistory, userMessage), null);
+    }
+
+    public CompletableFuture<String> generateDuckyResponseAsync(String userMessage, String characterProfile, String extractedLabelsJson, List<Map<String, Object>> conversationHistory) {
+        return completeAsync(buildDuckyMessages(userMessage, characterProfile, extractedLabelsJson, conversationHistory),
+                () -> "죄송해요, 지금은 답변을 드리기 어렵네요.", null,
+                duckyCachePartition(characterProfile, extractedLabelsJson, conversationHistory), userMessage);
+    }
+
     // 음성 메타데이터를 활용한 응답 생성
-    public String generateResponseWithVoice(String userMessage, VoiceMetadata voiceMetadata) {
+    private List<ChatCompletionRequest.Message> buildVoiceMessages(String userMessage, VoiceMetadata voiceMetadata) {
         List<ChatCompletionRequest.Message> messages = new ArrayList<>();
 
         // 음성 메타데이터를 고려한 시스템 메시지 생성
@@ -108,29 +357,111 @@ public class OpenAIService {
                 .role("user")
                 .content(userMessage)
                 .build());
+        return messages;
+    }
+
+    public String generateResponseWithVoice(String userMessage, VoiceMetadata voiceMetadata) {
+        String cachePartition = voiceCachePartition(voiceMetadata);
+        if (cachePartition != null) {
+            Optional<String> cached = semanticResponseCache.get(cachePartition, userMessage);
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+        }
+        List<ChatCompletionRequest.Message> messages = buildVoiceMessages(userMessage, voiceMetadata);
 
-        java.util.concurrent.ExecutorService executor = java.util.concurrent.Executors.newSingleThreadExecutor();
         try {
-            java.util.concurrent.Future<String> future = executor.submit(() -> {
+            return openAICallExecutor.callWithTimeout(() -> {
                 ChatCompletionResponse response = createChatCompletion(messages);
                 if (response != null && response.getChoices() != null && !response.getChoices().isEmpty()) {
                     String content = response.getChoices().get(0).getMessage().getContent();
                     log.info("OpenAI API response with voice metadata: {}", content);
+                    if (cachePartition != null) {
+                        semanticResponseCache.put(cachePartition, userMessage, content);
+                    }
                     return content;
                 } else {
                     log.warn("OpenAI API 응답이 비어 있습니다.");
                     return getDefaultResponse(userMessage);
                 }
-            });
-            return future.get(7, java.util.concurrent.TimeUnit.SECONDS); // 7초 제한
-        } catch (java.util.concurrent.TimeoutException e) {
+            }, OpenAICallExecutor.DEFAULT_TIMEOUT_MS);
+        } catch (TimeoutException e) {
             log.warn("OpenAI 응답 생성 타임아웃, 기본 응답 반환");
             return getDefaultResponse(userMessage);
         } catch (Exception e) {
             log.error("OpenAI API 호출 중 오류 발생: {}", e.getMessage());
             return getDefaultResponse(userMessage);
-        } finally {
-            executor.shutdown();
+        }
+    }
+
+    /**
+     * 음성 응답용 캐시 파티션. buildSystemMessageWithVoiceMetadata와 같은 임계값으로 스타일 버킷을 만들어,
+     * 시스템 프롬프트가 같은 지시를 담게 되는 요청끼리만 응답을 공유합니다.
+     * 세션 감정 요약(emotionSummary)이 포함된 경우는 대화 맥락에 의존하므로 null(캐시 미사용)을 반환합니다.
+     */
+    private String voiceCachePartition(VoiceMetadata metadata) {
+        if (metadata == null) {
+            return "voice|-";
+        }
+        String emotions = metadata.getDetectedEmotions();
+        if (emotions != null && emotions.contains("emotionSummary")) {
+            return null;
+        }
+        StringBuilder bucket = new StringBuilder("voice|");
+        bucket.append(level(metadata.getPitch(), 0.8, 1.2))
+                .append(level(metadata.getSpeed(), 0.7, 1.3))
+                .append(level(metadata.getVolume(), 0.5, 1.5))
+                .append(level(metadata.getDuration(), 5.0, 30.0))
+                .append(metadata.getConfidence() != null && metadata.getConfidence() != 0.0 && metadata.getConfidence() < 0.7 ? 'U' : '-')
+                .append(Boolean.TRUE.equals(metadata.getIsQuestion()) ? 'Q' : '-')
+                .append('|');
+        if (emotions == null || emotions.isEmpty()) {
+            bucket.append("none");
+        } else if (emotions.contains("비꼬는") || emotions.contains("반어") || emotions.contains("풍자")) {
+            bucket.append("sarcasm");
+        } else if (emotions.contains("화남") || emotions.contains("분노")) {
+            bucket.append("anger");
+        } else if (emotions.contains("슬픔") || emotions.contains("우울")) {
+            bucket.append("sad");
+        } else if (emotions.contains("기쁨") || emotions.contains("행복")) {
+            bucket.append("joy");
+        } else {
+            bucket.append("other");
+        }
+        return bucket.toString();
+    }
+
+    private static char level(Double value, double low, double high) {
+        if (value == null || value == 0.0) {
+            return '-';
+        }
+        if (value < low) {
+            return 'L';
+        }
+        return value > high ? 'H' : 'M';
+    }
+
+    // 대화 히스토리가 있으면 null(캐시 미사용)
+    private String duckyCachePartition(String characterProfile, String extractedLabelsJson, List<Map<String, Object>> conversationHistory) {
+        if (conversationHistory != null && !conversationHistory.isEmpty()) {
+            return null;
+        }
+        String labels = extractedLabelsJson != null ? extractedLabelsJson : "{}";
+        try {
+            labels = objectMapper.readTree(labels).toString();
+        } catch (Exception e) {
+            labels = labels.trim();
+        }
+        // 원본 JSON 대신 정규화한 라벨의 해시 앞 16자리만 키에 넣어 파티션 키 길이를 고정
+        return "ducky|" + characterProfile + "|" + labelsHash(labels);
+    }
+
+    private static String labelsHash(String labels) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(labels.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest).substring(0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
     }
 
@@ -278,26 +609,7 @@ public class OpenAIService {
 
     // 음성 메타데이터를 활용한 대화 히스토리 기반 응답 생성
     public String generateResponseWithHistoryAndVoice(List<ChatCompletionRequest.Message> messageHistory, String userMessage, VoiceMetadata voiceMetadata) {
-        List<ChatCompletionRequest.Message> messages = new ArrayList<>();
-
-        // 음성 메타데이터를 고려한 시스템 메시지 추가
-        String systemMessage = buildSystemMessageWithVoiceMetadata(voiceMetadata);
-        messages.add(ChatCompletionRequest.Message.builder()
-                .role("system")
-                .content(systemMessage + " 이전 대화 내용을 반드시 기억하고 맥락을 유지하며 답변해줘. 사용자가 이전 대화를 언급하면 구체적으로 회상해서 응답해줘. 사용자의 감정 상태 변화를 파악하고, 이전 감정(예: 슬픔, 화남)을 고려하여 공감하고 적절한 응답을 해줘. 대화의 연속성을 유지하면서 자연스럽게 이어가줘.")
-                .build());
-
-        // 이전 메시지 히스토리 추가 (최근 50개만)
-        int startIndex = Math.max(0, messageHistory.size() - 50);
-        for (int i = startIndex; i < messageHistory.size(); i++) {
-            messages.add(messageHistory.get(i));
-        }
-
-        // 새로운 사용자 메시지 추가
-        messages.add(ChatCompletionRequest.Message.builder()
-                .role("user")
-                .content(userMessage)
-                .build());
+        List<ChatCompletionRequest.Message> messages = buildHistoryVoiceMessages(messageHistory, userMessage, voiceMetadata);
 
         try {
             ChatCompletionResponse response = createChatCompletion(messages);
@@ -316,15 +628,76 @@ public class OpenAIService {
         }
     }
 
+    /**
+     * 이전 요약과 새로 밀려난 턴들을 합쳐 세션 요약을 다시 만듭니다. 실패하면 null을 반환합니다.
+     */
+    public String summarizeConversation(String previousSummary, List<ChatCompletionRequest.Message> turns) {
+        StringBuilder transcript = new StringBuilder();
+        if (previousSummary != null && !previousSummary.isBlank()) {
+            transcript.append("[기존 요약]\n").append(previousSummary).append("\n\n");
+        }
+        transcript.append("[이어지는 대화]\n");
+        for (ChatCompletionRequest.Message turn : turns) {
+            transcript.append("user".equals(turn.getRole()) ? "사용자: " : "덕키: ").append(turn.getContent()).append("\n");
+        }
+
+        List<ChatCompletionRequest.Message> messages = new ArrayList<>();
+        messages.add(ChatCompletionRequest.Message.builder()
+                .role("system")
+                .content("너는 대화 요약가야. 기존 요약과 이어지는 대화를 합쳐 한국어로 5문장 이내로 요약해줘. 사용자의 감정 변화, 고민, 언급한 취향과 추천받은 콘텐츠는 반드시 남겨줘. 요약문만 출력해.")
+                .build());
+        messages.add(ChatCompletionRequest.Message.builder()
+                .role("user")
+                .content(transcript.toString())
+                .build());
+
+        try {
+            ChatCompletionResponse response = createChatCompletion(messages);
+            if (response != null && response.getChoices() != null && !response.getChoices().isEmpty()) {
+                return response.getChoices().get(0).getMessage().getContent();
+            }
+            log.warn("OpenAI API 응답이 비어 있습니다. (summarizeConversation)");
+        } catch (Exception e) {
+            log.error("대화 요약 생성 중 오류 발생: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    private List<ChatCompletionRequest.Message> buildHistoryVoiceMessages(List<ChatCompletionRequest.Message> messageHistory, String userMessage, VoiceMetadata voiceMetadata) {
+        List<ChatCompletionRequest.Message> messages = new ArrayList<>();
+
+        // 음성 메타데이터를 고려한 시스템 메시지 추가
+        String systemMessage = buildSystemMessageWithVoiceMetadata(voiceMetadata);
+        messages.add(ChatCompletionRequest.Message.builder()
+                .role("system")
+                .content(systemMessage + " 이전 대화 내용을 반드시 기억하고 맥락을 유지하며 답변해줘. 사용자가 이전 대화를 언급하면 구체적으로 회상해서 응답해줘. 사용자의 감정 상태 변화를 파악하고, 이전 감정(예: 슬픔, 화남)을 고려하여 공감하고 적절한 응답을 해줘. 대화의 연속성을 유지하면서 자연스럽게 이어가줘.")
+                .build());
+
+        // 이전 메시지 히스토리 추가 (ConversationContextService가 토큰 예산에 맞춰 고른 요약 + 최근 턴)
+        messages.addAll(messageHistory);
+
+        // 새로운 사용자 메시지 추가
+        messages.add(ChatCompletionRequest.Message.builder()
+                .role("user")
+                .content(userMessage)
+                .build());
+        return messages;
+    }
+
     // 오디오 파일을 전사(Whisper) 호출
     // filePath는 서버에 임시 저장된 오디오 파일 경로
     public String transcribeAudioFile(String filePath, String language) {
+        return transcribeAudio(new FileSystemResource(filePath), language);
+    }
+
+    // 이미 디코딩된 오디오(메모리 버퍼)를 그대로 업로드해 전사. audio는 파일 이름이 있는 Resource여야 함
+    public String transcribeAudio(Resource audio, String language) {
         try {
             HttpHeaders headers = new HttpHeaders();
             headers.setBearerAuth(openAIConfig.getOpenaiApiKey());
             // multipart/form-data
             MultipartBodyBuilder builder = new MultipartBodyBuilder();
-            builder.part("file", new FileSystemResource(filePath));
+            builder.part("file", audio);
             if (openAIConfig.getOpenaiTranscriptionModel() != null) {
                 builder.part("model", openAIConfig.getOpenaiTranscriptionModel());
             }
@@ -337,7 +710,7 @@ public class OpenAIService {
             HttpEntity<MultiValueMap<String, HttpEntity<?>>> requestEntity = new HttpEntity(multipart, headers);
 
             // OpenAI의 transcription endpoint에 POST
-            String response = restTemplate.postForObject(openAIConfig.getOpenaiTranscriptionUrl(), requestEntity, String.class);
+            String response = outboundHttpClients.getTranscription().postForObject(openAIConfig.getOpenaiTranscriptionUrl(), requestEntity, String.class);
             if (response == null) return null;
             // OpenAI transcription 응답에는 일반적으로 JSON { "text": "..." } 형태가 돌아옵니다.
             try {
@@ -358,84 +731,130 @@ public class OpenAIService {
     }
 
     // 전사 텍스트와 옵션의 VoiceMetadata를 사용해 감정/상황 분석을 수행
-    public EmotionAnalysisResult analyzeTranscriptEmotion(String transcript, VoiceMetadata metadata) {
-        java.util.concurrent.ExecutorService executor = java.util.concurrent.Executors.newSingleThreadExecutor();
-        try {
-            java.util.concurrent.Future<EmotionAnalysisResult> future = executor.submit(() -> {
-                try {
-                    // 프롬프트를 더 강하게: 반드시 JSON만, 예시 포함, 추가 텍스트 금지
-                    List<ChatCompletionRequest.Message> messages = new ArrayList<>();
-                    messages.add(ChatCompletionRequest.Message.builder()
-                            .role("system")
-                            .content("당신은 감정 분석가입니다. 아래 사용자의 전사 텍스트를 분석하여 반드시 JSON만 반환하세요. 다음 필드를 포함해야 합니다: primaryEmotion (string), emotionScores (map string->float), situationLabel (string), confidence (0.0-1.0), recommendationKeywords (list). 감정은 긍정, 부정, 중립 외에 비꼬는, 반어, 풍자, 아이러니, 유머러스, 진지, 화남, 슬픔, 기쁨, 불안, 혼란, 당황, 놀람, 실망, 희망, 사랑, 증오, 질투, 자부심, 수치심, 죄책감, 감사, 동정, 공감, 무관심 등 세부적으로 분류하세요. 예시: {\"primaryEmotion\":\"비꼬는\",\"emotionScores\":{\"비꼬는\":0.7,\"불쾌\":0.2,\"유머\":0.1},\"situationLabel\":\"반어적 상황\",\"confidence\":0.85,\"recommendationKeywords\":[\"유머\",\"공감\",\"진지하게 응답\"]}. JSON 외 텍스트, 설명, 인사말, 마크다운, 코드블록, 따옴표 등은 절대 포함하지 마세요.")
-                            .build());
+    private void applyEmotionFields(EmotionAnalysisResult result, JsonNode root) {
+        if (root.has("primaryEmotion")) {
+            result.setPrimaryEmotion(root.get("primaryEmotion").asText());
+        }
+        if (root.has("confidence")) {
+            result.setConfidence(root.get("confidence").asDouble());
+        }
+        if (root.has("situationLabel")) {
+            result.setSituationLabel(root.get("situationLabel").asText());
+        }
+        if (root.has("recommendationKeywords") && root.get("recommendationKeywords").isArray()) {
+            List<String> keywords = new ArrayList<>();
+            for (JsonNode kn : root.get("recommendationKeywords")) {
+                keywords.add(kn.asText());
+            }
+            result.setRecommendationKeywords(keywords);
+        }
+        if (root.has("emotionScores") && root.get("emotionScores").isObject()) {
+            var map = objectMapper.convertValue(root.get("emotionScores"), java.util.Map.class);
+            result.setEmotionScores(map);
+        }
+    }
 
-                    String userContent = "Transcript: " + transcript;
-                    if (metadata != null) {
-                        userContent += "\nVoiceMetadata: " + metadata.toString();
-                    }
+    /**
+     * 감정 분석과 응답을 JSON 모드 호출 한 번으로 생성합니다. 응답 형식은 {"analysis": {...}, "reply": "..."}.
+     * 호출이나 파싱에 실패하면 null을 반환하므로 호출자는 analyzeTranscriptEmotion + generateResponseWithHistoryAndVoice로 대체해야 합니다.
+     */
+    public VoiceTurnResult generateAnalyzedResponse(List<ChatCompletionRequest.Message> messageHistory, String transcript, VoiceMetadata voiceMetadata) {
+        List<ChatCompletionRequest.Message> messages = buildHistoryVoiceMessages(messageHistory, transcript, voiceMetadata);
+        messages.add(1, ChatCompletionRequest.Message.builder()
+                .role("system")
+                .content("반드시 JSON 객체 하나만 반환해. 형식: {\"analysis\": {\"primaryEmotion\": string, \"emotionScores\": {string: float}, \"situationLabel\": string, \"confidence\": 0.0-1.0, \"recommendationKeywords\": [string]}, \"reply\": string}. analysis는 사용자의 마지막 발화를 세부 감정(비꼬는, 반어, 화남, 슬픔, 기쁨, 불안 등)으로 분석한 결과이고, reply는 위 지시에 따라 사용자에게 할 답변이야.")
+                .build());
 
-                    messages.add(ChatCompletionRequest.Message.builder()
-                            .role("user")
-                            .content(userContent)
-                            .build());
+        ChatCompletionRequest request = buildChatCompletionRequest(messages, null);
+        request.setMax_tokens(COMBINED_MAX_TOKENS);
+        request.setResponse_format(Map.of("type", "json_object"));
 
-                    ChatCompletionResponse response = createChatCompletion(messages);
-                    if (response != null && response.getChoices() != null && !response.getChoices().isEmpty()) {
-                        String content = response.getChoices().get(0).getMessage().getContent();
-                        EmotionAnalysisResult result = new EmotionAnalysisResult();
-                        result.setRawJson(content);
-                        // 반드시 JSON만 반환하도록 프롬프트를 강화했지만, 혹시 모를 예외 처리
-                        try {
-                            int start = content.indexOf('{');
-                            int end = content.lastIndexOf('}');
-                            String jsonPart = content;
-                            if (start >= 0 && end > start) {
-                                jsonPart = content.substring(start, end + 1);
-                            }
-                            JsonNode root = objectMapper.readTree(jsonPart);
-                            if (root.has("primaryEmotion")) {
-                                result.setPrimaryEmotion(root.get("primaryEmotion").asText());
-                            }
-                            if (root.has("confidence")) {
-                                result.setConfidence(root.get("confidence").asDouble());
-                            }
-                            if (root.has("situationLabel")) {
-                                result.setSituationLabel(root.get("situationLabel").asText());
-                            }
-                            if (root.has("recommendationKeywords") && root.get("recommendationKeywords").isArray()) {
-                                List<String> keywords = new ArrayList<>();
-                                for (JsonNode kn : root.get("recommendationKeywords")) {
-                                    keywords.add(kn.asText());
-                                }
-                                result.setRecommendationKeywords(keywords);
-                            }
-                            if (root.has("emotionScores") && root.get("emotionScores").isObject()) {
-                                var map = objectMapper.convertValue(root.get("emotionScores"), java.util.Map.class);
-                                result.setEmotionScores(map);
-                            }
-                        } catch (Exception ex) {
-                            log.warn("Failed to parse GPT analysis JSON: {} | content: {}", ex.getMessage(), content);
-                        }
-                        return result;
-                    }
-                } catch (Exception e) {
-                    log.error("analyzeTranscriptEmotion error: {} | transcript: {}", e.getMessage(), transcript);
-                }
+        try {
+            ChatCompletionResponse response = createChatCompletion(request);
+            if (response == null || response.getChoices() == null || response.getChoices().isEmpty()) {
+                log.warn("OpenAI API 응답이 비어 있습니다. (generateAnalyzedResponse)");
                 return null;
-            });
-            return future.get(7, java.util.concurrent.TimeUnit.SECONDS); // 7초 제한
-        } catch (java.util.concurrent.TimeoutException e) {
+            }
+            String content = response.getChoices().get(0).getMessage().getContent();
+            JsonNode root = objectMapper.readTree(content);
+            JsonNode reply = root.get("reply");
+            JsonNode analysisNode = root.get("analysis");
+            if (reply == null || !reply.isTextual() || reply.asText().isBlank() || analysisNode == null || !analysisNode.isObject()) {
+                log.warn("통합 분석 응답 형식이 올바르지 않습니다: {}", content);
+                return null;
+            }
+            EmotionAnalysisResult analysis = new EmotionAnalysisResult();
+            analysis.setRawJson(analysisNode.toString());
+            applyEmotionFields(analysis, analysisNode);
+            log.info("OpenAI API combined analysis/reply: {}", reply.asText());
+            return new VoiceTurnResult(analysis, reply.asText());
+        } catch (Exception e) {
+            log.error("통합 감정 분석/응답 생성 중 오류 발생: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    public EmotionAnalysisResult analyzeTranscriptEmotion(String transcript, VoiceMetadata metadata) {
+        try {
+            return openAICallExecutor.callWithTimeout(() -> analyzeTranscriptEmotionInline(transcript, metadata),
+                    OpenAICallExecutor.DEFAULT_TIMEOUT_MS);
+        } catch (TimeoutException e) {
             log.warn("감정분석 타임아웃, null 반환");
             return null;
         } catch (Exception e) {
             log.error("analyzeTranscriptEmotion error: {}", e.getMessage());
             return null;
-        } finally {
-            executor.shutdown();
         }
     }
 
+    /**
+     * 호출 스레드에서 바로 실행하는 감정 분석. 이미 OpenAI 풀 작업 안에 있을 때 사용하며(같은 풀에 다시 넣고 기다리지 않도록),
+     * 데드라인은 호출자가 바깥 future에 겁니다.
+     */
+    EmotionAnalysisResult analyzeTranscriptEmotionInline(String transcript, VoiceMetadata metadata) {
+        try {
+            // 프롬프트를 더 강하게: 반드시 JSON만, 예시 포함, 추가 텍스트 금지
+            List<ChatCompletionRequest.Message> messages = new ArrayList<>();
+            messages.add(ChatCompletionRequest.Message.builder()
+                    .role("system")
+                    .content("당신은 감정 분석가입니다. 아래 사용자의 전사 텍스트를 분석하여 반드시 JSON만 반환하세요. 다음 필드를 포함해야 합니다: primaryEmotion (string), emotionScores (map string->float), situationLabel (string), confidence (0.0-1.0), recommendationKeywords (list). 감정은 긍정, 부정, 중립 외에 비꼬는, 반어, 풍자, 아이러니, 유머러스, 진지, 화남, 슬픔, 기쁨, 불안, 혼란, 당황, 놀람, 실망, 희망, 사랑, 증오, 질투, 자부심, 수치심, 죄책감, 감사, 동정, 공감, 무관심 등 세부적으로 분류하세요. 예시: {\"primaryEmotion\":\"비꼬는\",\"emotionScores\":{\"비꼬는\":0.7,\"불쾌\":0.2,\"유머\":0.1},\"situationLabel\":\"반어적 상황\",\"confidence\":0.85,\"recommendationKeywords\":[\"유머\",\"공감\",\"진지하게 응답\"]}. JSON 외 텍스트, 설명, 인사말, 마크다운, 코드블록, 따옴표 등은 절대 포함하지 마세요.")
+                    .build());
+
+            String userContent = "Transcript: " + transcript;
+            if (metadata != null) {
+                userContent += "\nVoiceMetadata: " + metadata.toString();
+            }
+
+            messages.add(ChatCompletionRequest.Message.builder()
+                    .role("user")
+                    .content(userContent)
+                    .build());
+
+            ChatCompletionResponse response = createChatCompletion(messages);
+            if (response != null && response.getChoices() != null && !response.getChoices().isEmpty()) {
+                String content = response.getChoices().get(0).getMessage().getContent();
+                EmotionAnalysisResult result = new EmotionAnalysisResult();
+                result.setRawJson(content);
+                // 반드시 JSON만 반환하도록 프롬프트를 강화했지만, 혹시 모를 예외 처리
+                try {
+                    int start = content.indexOf('{');
+                    int end = content.lastIndexOf('}');
+                    String jsonPart = content;
+                    if (start >= 0 && end > start) {
+                        jsonPart = content.substring(start, end + 1);
+                    }
+                    applyEmotionFields(result, objectMapper.readTree(jsonPart));
+                } catch (Exception ex) {
+                    log.warn("Failed to parse GPT analysis JSON: {} | content: {}", ex.getMessage(), content);
+                }
+                return result;
+            }
+        } catch (Exception e) {
+            log.error("analyzeTranscriptEmotion error: {} | transcript: {}", e.getMessage(), transcript);
+        }
+        return null;
+    }
+
     private String getDefaultResponseWithHistory(List<ChatCompletionRequest.Message> messageHistory, String userMessage) {
         // 히스토리에서 마지막 사용자 메시지 추출
         String lastUserMessage = "";
@@ -467,6 +886,37 @@ public class OpenAIService {
     public String generateDuckyResponse(String userMessage, String characterProfile, String extractedLabelsJson, List<Map<String, Object>> conversationHistory) {
         log.info("Generating Ducky response for characterProfile: {} with conversation history", characterProfile);
 
+        String cachePartition = duckyCachePartition(characterProfile, extractedLabelsJson, conversationHistory);
+        if (cachePartition != null) {
+            Optional<String> cached = semanticResponseCache.get(cachePartition, userMessage);
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+        }
+
+        List<ChatCompletionRequest.Message> messages = buildDuckyMessages(userMessage, characterProfile, extractedLabelsJson, conversationHistory);
+
+        try {
+            ChatCompletionResponse response = createChatCompletion(messages);
+
+            if (response != null && response.getChoices() != null && !response.getChoices().isEmpty()) {
+                String content = response.getChoices().get(0).getMessage().getContent();
+                log.info("Ducky API response for {}: {}", characterProfile, content);
+                if (cachePartition != null) {
+                    semanticResponseCache.put(cachePartition, userMessage, content);
+                }
+                return content; // 일반 텍스트로 반환
+            } else {
+                log.warn("OpenAI API response was empty (generateDuckyResponse)");
+                return "죄송해요, 지금은 답변을 드리기 어렵네요.";
+            }
+        } catch (Exception e) {
+            log.error("Error calling OpenAI API (generateDuckyResponse): {}", e.getMessage(), e);
+            return "죄송해요, 시스템에 오류가 발생했어요.";
+        }
+    }
+
+    private List<ChatCompletionRequest.Message> buildDuckyMessages(String userMessage, String characterProfile, String extractedLabelsJson, List<Map<String, Object>> conversationHistory) {
         List<ChatCompletionRequest.Message> messages = new ArrayList<>();
 
         String systemPrompt = getDuckySystemPrompt(characterProfile);
@@ -510,22 +960,7 @@ public class OpenAIService {
                 .role("user")
                 .content(userContent)
                 .build());
-
-        try {
-            ChatCompletionResponse response = createChatCompletion(messages);
-
-            if (response != null && response.getChoices() != null && !response.getChoices().isEmpty()) {
-                String content = response.getChoices().get(0).getMessage().getContent();
-                log.info("Ducky API response for {}: {}", characterProfile, content);
-                return content; // 일반 텍스트로 반환
-            } else {
-                log.warn("OpenAI API response was empty (generateDuckyResponse)");
-                return "죄송해요, 지금은 답변을 드리기 어렵네요.";
-            }
-        } catch (Exception e) {
-            log.error("Error calling OpenAI API (generateDuckyResponse): {}", e.getMessage(), e);
-            return "죄송해요, 시스템에 오류가 발생했어요.";
-        }
+        return messages;
     }
 
     private String getDuckySystemPrompt(String characterProfile) {
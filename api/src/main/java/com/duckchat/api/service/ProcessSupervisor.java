@@ -0,0 +1,262 @@
+package com.duckchat.api.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 외부 도구(ffmpeg, openSMILE) 프로세스 실행 관리.
+ * 동시에 실행되는 프로세스 수를 슬롯(기본 CPU 코어 수)으로 제한하고, 호출마다 제한 시간을 넘기면 자식 프로세스까지 강제 종료합니다.
+ * 요청 처리와 무관한 백그라운드 작업(동영상 색인의 ffprobe 등)은 별도의 작은 슬롯을 써서 요청 경로의 슬롯을 차지하지 않습니다.
+ * stdout/stderr는 별도 스레드에서 비워 파이프 버퍼가 차서 멈추는 일이 없게 하고, 로그는 마지막 일부만 보관합니다.
+ */
+@Slf4j
+@Component
+public class ProcessSupervisor {
+
+    private static final int OUTPUT_TAIL_CHARS = 4096;
+
+    /** stdout을 직접 읽어 결과를 만드는 처리기. null이면 stdout은 로그 꼬리로만 보관 */
+    @FunctionalInterface
+    public interface StdoutHandler<T> {
+        T handle(InputStream stdout) throws IOException;
+    }
+
+    /** 프로세스 stdin에 입력을 쓰는 처리기. 쓰기가 끝나면 stdin은 닫힘 */
+    @FunctionalInterface
+    public interface StdinWriter {
+        void write(OutputStream stdin) throws IOException;
+    }
+
+    public static final class Result<T> {
+        private final int exitCode;
+        private final boolean timedOut;
+        private final T value;
+        private final String outputTail;
+
+        private Result(int exitCode, boolean timedOut, T value, String outputTail) {
+            this.exitCode = exitCode;
+            this.timedOut = timedOut;
+            this.value = value;
+            this.outputTail = outputTail;
+        }
+
+        public boolean succeeded() {
+            return !timedOut && exitCode == 0;
+        }
+
+        public int exitCode() {
+            return exitCode;
+        }
+
+        public boolean timedOut() {
+            return timedOut;
+        }
+
+        public T value() {
+            return value;
+        }
+
+        public String outputTail() {
+            return outputTail;
+        }
+    }
+
+    private final Semaphore slots;
+    private final Semaphore backgroundSlots;
+    private final AtomicInteger active = new AtomicInteger();
+    private final ExecutorService streamReaders;
+    private final MeterRegistry meterRegistry;
+
+    public ProcessSupervisor(@Value("${app.process.max-concurrent:0}") int maxConcurrent,
+                             @Value("${app.process.background-max-concurrent:1}") int backgroundMaxConcurrent,
+                             MeterRegistry meterRegistry) {
+        int permits = maxConcurrent > 0 ? maxConcurrent : Runtime.getRuntime().availableProcessors();
+        this.slots = new Semaphore(permits, true);
+        this.backgroundSlots = new Semaphore(Math.max(1, backgroundMaxConcurrent), true);
+        this.meterRegistry = meterRegistry;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.streamReaders = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "ProcIO-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("process.active", active, AtomicInteger::get)
+                .description("실행 중인 외부 프로세스 수")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 슬롯을 얻어 프로세스를 실행하고 끝날 때까지 기다립니다.
+     * 슬롯을 기다리는 시간도 timeoutMs에 포함되며, 시간을 넘기면 프로세스 트리를 종료하고 timedOut 결과를 반환합니다.
+     */
+    public <T> Result<T> run(String tool, ProcessBuilder builder, long timeoutMs, StdoutHandler<T> stdoutHandler)
+            throws IOException, InterruptedException {
+        return run(tool, builder, timeoutMs, null, stdoutHandler);
+    }
+
+    /**
+     * stdin으로 입력을 흘려 넣는 실행 (파이프 입출력). 입력 쓰기도 별도 스레드에서 해 stdout과 서로 막히지 않게 합니다.
+     */
+    public <T> Result<T> run(String tool, ProcessBuilder builder, long timeoutMs, StdinWriter stdinWriter, StdoutHandler<T> stdoutHandler)
+            throws IOException, InterruptedException {
+        return run(slots, tool, builder, timeoutMs, stdinWriter, stdoutHandler);
+    }
+
+    /**
+     * 백그라운드 작업용 실행. 요청 경로(ffmpeg 디코딩 등)와 슬롯을 나누지 않으므로 대량 색인이 음성 턴을 기다리게 하지 않습니다.
+     */
+    public <T> Result<T> runBackground(String tool, ProcessBuilder builder, long timeoutMs, StdoutHandler<T> stdoutHandler)
+            throws IOException, InterruptedException {
+        return run(backgroundSlots, tool, builder, timeoutMs, null, stdoutHandler);
+    }
+
+    private <T> Result<T> run(Semaphore slots, String tool, ProcessBuilder builder, long timeoutMs, StdinWriter stdinWriter,
+                              StdoutHandler<T> stdoutHandler) throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        if (!slots.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+            record(tool, "no_slot", 0);
+            return new Result<>(-1, true, null, "실행 슬롯을 얻지 못했습니다");
+        }
+        active.incrementAndGet();
+        try {
+            long spawnStarted = System.nanoTime();
+            Process process = builder.start();
+            long started = System.nanoTime();
+            Timer.builder("process.spawn").tag("tool", tool)
+                    .description("외부 프로세스 생성 시간")
+                    .register(meterRegistry)
+                    .record(started - spawnStarted, TimeUnit.NANOSECONDS);
+
+            OutputTail tail = new OutputTail();
+            if (stdinWriter != null) {
+                CompletableFuture.runAsync(() -> {
+                    try (OutputStream stdin = process.getOutputStream()) {
+                        stdinWriter.write(stdin);
+                    } catch (IOException ignored) {
+                        // 프로세스가 입력을 다 읽기 전에 끝나면 파이프가 닫힘 - 결과는 종료 코드로 판단
+                    }
+                }, streamReaders);
+            }
+            CompletableFuture<Void> stderr = CompletableFuture.runAsync(() -> tail.drain(process.getErrorStream()), streamReaders);
+            CompletableFuture<T> stdout = CompletableFuture.supplyAsync(() -> {
+                try (InputStream in = process.getInputStream()) {
+                    if (stdoutHandler == null) {
+                        tail.drain(in);
+                        return null;
+                    }
+                    return stdoutHandler.handle(in);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }, streamReaders);
+
+            long remaining = deadline - System.nanoTime();
+            boolean exited;
+            try {
+                exited = process.waitFor(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                // 호출한 요청이 취소됨 - 자식 프로세스가 슬롯 밖에서 계속 돌지 않도록 종료하고 인터럽트를 그대로 전달
+                destroyTree(process);
+                record(tool, "interrupted", System.nanoTime() - started);
+                Thread.currentThread().interrupt();
+                throw e;
+            }
+            if (!exited) {
+                destroyTree(process);
+                record(tool, "timeout", System.nanoTime() - started);
+                log.warn("{} 프로세스가 제한 시간({}ms)을 넘어 종료했습니다.", tool, timeoutMs);
+                return new Result<>(-1, true, null, tail.toString());
+            }
+            int exitCode = process.exitValue();
+            T value = null;
+            try {
+                // 프로세스가 끝났으니 파이프도 곧 닫힘
+                stderr.get(1, TimeUnit.SECONDS);
+                value = stdout.get(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw e;
+            } catch (Exception e) {
+                log.warn("{} 출력 읽기 실패: {}", tool, e.getMessage());
+                exitCode = exitCode == 0 ? -1 : exitCode;
+            }
+            record(tool, exitCode == 0 ? "ok" : "failed", System.nanoTime() - started);
+            return new Result<>(exitCode, false, value, tail.toString());
+        } catch (IOException e) {
+            record(tool, "spawn_failed", 0);
+            throw e;
+        } finally {
+            active.decrementAndGet();
+            slots.release();
+        }
+    }
+
+    private void record(String tool, String outcome, long nanos) {
+        if (nanos > 0) {
+            Timer.builder("process.exec").tag("tool", tool).tag("outcome", outcome)
+                    .description("외부 프로세스 실행 시간")
+                    .register(meterRegistry)
+                    .record(nanos, TimeUnit.NANOSECONDS);
+        } else {
+            Counter.builder("process.failures").tag("tool", tool).tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+
+    private static void destroyTree(Process process) {
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        streamReaders.shutdownNow();
+    }
+
+    // 출력의 마지막 OUTPUT_TAIL_CHARS 글자만 보관
+    private static final class OutputTail {
+        private final StringBuilder buffer = new StringBuilder();
+
+        void drain(InputStream in) {
+            byte[] chunk = new byte[4096];
+            try (in) {
+                int read;
+                while ((read = in.read(chunk)) != -1) {
+                    append(new String(chunk, 0, read, StandardCharsets.UTF_8));
+                }
+            } catch (IOException ignored) {
+                // 프로세스가 강제 종료되면 파이프가 닫힘
+            }
+        }
+
+        private synchronized void append(String text) {
+            buffer.append(text);
+            if (buffer.length() > OUTPUT_TAIL_CHARS) {
+                buffer.delete(0, buffer.length() - OUTPUT_TAIL_CHARS);
+            }
+        }
+
+        @Override
+        public synchronized String toString() {
+            return buffer.toString().trim();
+        }
+    }
+}
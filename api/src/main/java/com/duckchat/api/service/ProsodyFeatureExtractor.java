@@ -0,0 +1,230 @@
+package com.duckchat.api.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 16kHz mono PCM에서 음높이(YIN), RMS 에너지, 유성음 확률을 JVM 안에서 바로 계산합니다.
+ * openSMILE 결과에서 실제로 쓰는 세 피처만 같은 키(F0final_sma, pcm_RMSenergy_sma, voicingFinalUnclipped_sma)로 반환합니다.
+ * YIN 차이 함수는 d(τ) = e(0) + e(τ) - 2r(τ)로 나눠, 에너지 항은 제곱 누적합으로 O(1)에, 상호상관 r(τ)은 FFT로 계산합니다
+ * (프레임당 O(FRAME×maxLag) 대신 O(N log N)). 작업 버퍼는 호출마다 한 번만 만들고 프레임 루프에서는 새로 할당하지 않습니다.
+ */
+@Component
+public class ProsodyFeatureExtractor {
+
+    static final int FRAME = 400;        // 25ms
+    static final int HOP = 160;          // 10ms
+    static final double MIN_F0 = 60.0;
+    static final double MAX_F0 = 500.0;
+    // YIN 누적 평균 정규화 차이 임계값
+    static final double YIN_THRESHOLD = 0.15;
+    // 이보다 조용한 프레임은 무성음으로 보고 음높이 계산을 건너뜀
+    static final double SILENCE_RMS = 0.01;
+
+    public Map<String, String> extract(DecodedAudio audio) {
+        return extract(audio.samples(), DecodedAudio.SAMPLE_RATE);
+    }
+
+    public Map<String, String> extract(float[] samples, int sampleRate) {
+        Map<String, String> result = new HashMap<>();
+        int minLag = (int) Math.floor(sampleRate / MAX_F0);
+        int maxLag = (int) Math.ceil(sampleRate / MIN_F0);
+        int span = FRAME + maxLag;
+        if (samples.length < span) {
+            result.put("error", "오디오가 너무 짧습니다");
+            return result;
+        }
+
+        double[] diff = new double[maxLag + 1];
+        double[] energy = new double[samples.length + 1];
+        for (int i = 0; i < samples.length; i++) {
+            energy[i + 1] = energy[i] + (double) samples[i] * samples[i];
+        }
+        Fft fft = new Fft(Integer.highestOneBit(span - 1) << 1);
+        int frames = 0;
+        int voicedFrames = 0;
+        double rmsSum = 0;
+        double voicingSum = 0;
+        double f0Sum = 0;
+
+        for (int start = 0; start + span <= samples.length; start += HOP) {
+            frames++;
+            double rms = rms(samples, start);
+            rmsSum += rms;
+            if (rms < SILENCE_RMS) {
+                continue;
+            }
+            differences(samples, energy, start, maxLag, fft, diff);
+            double lag = yin(minLag, maxLag, diff);
+            int best = (int) Math.round(lag);
+            double voicing = Math.max(0.0, Math.min(1.0, 1.0 - diff[best]));
+            voicingSum += voicing;
+            if (diff[best] < YIN_THRESHOLD) {
+                voicedFrames++;
+                f0Sum += sampleRate / lag;
+            }
+        }
+
+        result.put("F0final_sma", format(voicedFrames > 0 ? f0Sum / voicedFrames : 0.0));
+        result.put("pcm_RMSenergy_sma", format(rmsSum / frames));
+        result.put("voicingFinalUnclipped_sma", format(voicingSum / frames));
+        return result;
+    }
+
+    private static double rms(float[] x, int start) {
+        double sum = 0;
+        for (int i = start; i < start + FRAME; i++) {
+            sum += x[i] * x[i];
+        }
+        return Math.sqrt(sum / FRAME);
+    }
+
+    /**
+     * 누적 평균 정규화 차이 함수를 diff에 채웁니다.
+     * a = 프레임(FRAME개), b = 프레임부터 FRAME + maxLag개를 실수/허수부에 함께 넣어 FFT 한 번으로 두 스펙트럼을 얻고,
+     * conj(A)·B의 역변환으로 r(τ) = Σ a[j]·b[j+τ]를 구합니다. N ≥ FRAME + maxLag이므로 순환 겹침이 없습니다.
+     */
+    static void differences(float[] x, double[] energy, int start, int maxLag, Fft fft, double[] diff) {
+        int n = fft.size;
+        double[] re = fft.re;
+        double[] im = fft.im;
+        for (int j = 0; j < n; j++) {
+            re[j] = j < FRAME ? x[start + j] : 0.0;
+            im[j] = j < FRAME + maxLag ? x[start + j] : 0.0;
+        }
+        fft.transform();
+
+        // Z = A + iB → A_k = (Z_k + conj(Z_{N-k})) / 2, B_k = (Z_k - conj(Z_{N-k})) / 2i. conj(A)·B를 켤레로 넣어 순변환 = 역변환
+        double[] pr = fft.scratchRe;
+        double[] pi = fft.scratchIm;
+        for (int k = 0; k < n; k++) {
+            int m = (n - k) & (n - 1);
+            double ar = (re[k] + re[m]) * 0.5;
+            double ai = (im[k] - im[m]) * 0.5;
+            double br = (im[k] + im[m]) * 0.5;
+            double bi = (re[m] - re[k]) * 0.5;
+            pr[k] = ar * br + ai * bi;
+            pi[k] = -(ar * bi - ai * br);
+        }
+        System.arraycopy(pr, 0, re, 0, n);
+        System.arraycopy(pi, 0, im, 0, n);
+        fft.transform();
+
+        double frameEnergy = energy[start + FRAME] - energy[start];
+        diff[0] = 1.0;
+        double running = 0;
+        for (int tau = 1; tau <= maxLag; tau++) {
+            double lagEnergy = energy[start + tau + FRAME] - energy[start + tau];
+            double sum = Math.max(0.0, frameEnergy + lagEnergy - 2 * re[tau] / n);
+            running += sum;
+            diff[tau] = running > 0 ? sum * tau / running : 1.0;
+        }
+    }
+
+    /**
+     * YIN: 누적 평균 정규화 차이(diff)에서 임계값 아래 첫 극소점 → 포물선 보간.
+     * 임계값 아래가 없으면 전체 최소점을 반환하고, 호출한 쪽에서 무성음으로 처리합니다.
+     */
+    private static double yin(int minLag, int maxLag, double[] diff) {
+
+        int best = -1;
+        for (int tau = minLag; tau <= maxLag; tau++) {
+            if (diff[tau] < YIN_THRESHOLD) {
+                while (tau + 1 <= maxLag && diff[tau + 1] < diff[tau]) {
+                    tau++;
+                }
+                best = tau;
+                break;
+            }
+        }
+        if (best < 0) {
+            best = minLag;
+            for (int tau = minLag + 1; tau <= maxLag; tau++) {
+                if (diff[tau] < diff[best]) {
+                    best = tau;
+                }
+            }
+        }
+        if (best <= minLag || best >= maxLag) {
+            return best;
+        }
+        double prev = diff[best - 1];
+        double next = diff[best + 1];
+        double denominator = prev - 2 * diff[best] + next;
+        if (denominator == 0) {
+            return best;
+        }
+        return best + 0.5 * (prev - next) / denominator;
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.6f", value);
+    }
+
+    /** 크기 2^k 복소 FFT (제자리, 반복형 radix-2). 비트 반전 순서와 회전 인자는 생성할 때 한 번만 계산 */
+    static final class Fft {
+        final int size;
+        final double[] re;
+        final double[] im;
+        final double[] scratchRe;
+        final double[] scratchIm;
+        private final int[] reversed;
+        private final double[] cos;
+        private final double[] sin;
+
+        Fft(int size) {
+            this.size = size;
+            this.re = new double[size];
+            this.im = new double[size];
+            this.scratchRe = new double[size];
+            this.scratchIm = new double[size];
+            this.reversed = new int[size];
+            int bits = Integer.numberOfTrailingZeros(size);
+            for (int i = 0; i < size; i++) {
+                reversed[i] = Integer.reverse(i) >>> (32 - bits);
+            }
+            // 단계별 회전 인자를 이어 붙여 둠: 반 길이 half인 단계의 k번째 인자는 [half + k]
+            this.cos = new double[size];
+            this.sin = new double[size];
+            for (int half = 1; half < size; half <<= 1) {
+                for (int k = 0; k < half; k++) {
+                    cos[half + k] = Math.cos(-Math.PI * k / half);
+                    sin[half + k] = Math.sin(-Math.PI * k / half);
+                }
+            }
+        }
+
+        void transform() {
+            for (int i = 0; i < size; i++) {
+                int j = reversed[i];
+                if (i < j) {
+                    double t = re[i];
+                    re[i] = re[j];
+                    re[j] = t;
+                    t = im[i];
+                    im[i] = im[j];
+                    im[j] = t;
+                }
+            }
+            for (int half = 1; half < size; half <<= 1) {
+                for (int block = 0; block < size; block += half * 2) {
+                    for (int k = 0; k < half; k++) {
+                        double wr = cos[half + k];
+                        double wi = sin[half + k];
+                        int a = block + k;
+                        int b = a + half;
+                        double tr = re[b] * wr - im[b] * wi;
+                        double ti = re[b] * wi + im[b] * wr;
+                        re[b] = re[a] - tr;
+                        im[b] = im[a] - ti;
+                        re[a] += tr;
+                        im[a] += ti;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.duckchat.api.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+/**
+ * 운율 피처(F0, RMS 에너지, 유성음 확률) 추출 백엔드 선택.
+ * 기본은 JVM 안에서 바로 계산하는 ProsodyFeatureExtractor이고, app.prosody.backend=opensmile이면 SMILExtract를 실행합니다.
+ * app.prosody.opensmile-config(APP_OPENSMILE_CONFIG)는 opensmile 백엔드에서만 필요하며, 그때 비어 있으면 기동에 실패합니다.
+ */
+@Slf4j
+@Service
+public class ProsodyFeatureService {
+
+    private final ProsodyFeatureExtractor extractor;
+    private final OpenSmileService openSmileService;
+    private final boolean useOpenSmile;
+    private final String openSmileConfigPath;
+    private final Timer timer;
+
+    public ProsodyFeatureService(ProsodyFeatureExtractor extractor,
+                                 OpenSmileService openSmileService,
+                                 @Value("${app.prosody.backend:java}") String backend,
+                                 @Value("${app.prosody.opensmile-config:}") String openSmileConfigPath,
+                                 MeterRegistry meterRegistry) {
+        this.extractor = extractor;
+        this.openSmileService = openSmileService;
+        this.useOpenSmile = "opensmile".equalsIgnoreCase(backend);
+        if (useOpenSmile && openSmileConfigPath.isBlank()) {
+            throw new IllegalStateException("app.prosody.backend=opensmile이면 app.prosody.opensmile-config(APP_OPENSMILE_CONFIG)를 설정해야 합니다.");
+        }
+        this.openSmileConfigPath = openSmileConfigPath;
+        this.timer = Timer.builder("voice.prosody.extract")
+                .description("운율 피처 추출 시간")
+                .tag("backend", useOpenSmile ? "opensmile" : "java")
+                .register(meterRegistry);
+        log.info("운율 피처 백엔드: {}", useOpenSmile ? "opensmile" : "java");
+    }
+
+    public Map<String, String> extract(DecodedAudio audio) {
+        return timer.record(() -> useOpenSmile
+                ? openSmileService.analyzeEmotion(audio, openSmileConfigPath)
+                : extractor.extract(audio));
+    }
+}
@@ -0,0 +1,273 @@
+package com.duckchat.api.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 히스토리가 없는 첫 턴 응답을 위한 프로세스 내 의미 기반 캐시.
+ * 정규화한 메시지를 문자 n-gram 해싱 트릭으로 임베딩(네트워크 호출 없음)하고,
+ * 같은 파티션(캐릭터 프로필, 음성 스타일 버킷 등) 안에서 코사인 유사도가 임계값 이상이면 저장된 응답을 재사용합니다.
+ * 대화 맥락에 의존하는 호출에는 사용하지 않아야 합니다.
+ */
+@Component
+public class SemanticResponseCache {
+
+    private static final int DIMENSIONS = 512;
+    private static final Set<String> NEGATION_WORDS = Set.of("안", "못", "not", "no", "never");
+
+    private final boolean enabled;
+    private final double similarityThreshold;
+    private final int maxEntries;
+    private final long ttlMillis;
+
+    // 파티션 → (파티션 + 정규화 메시지 → 항목). 조회와 유사도 스캔은 잠금 없이 읽고, 쓰기(put/축출)만 writeLock으로 직렬화.
+    // 비게 된 파티션 맵은 writeLock 안에서 바로 지워 파티션 수가 항목 수를 넘지 않게 함
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Entry>> partitions = new ConcurrentHashMap<>();
+    private final AtomicInteger count = new AtomicInteger();
+    // LRU용 논리 시계 (조회/저장마다 증가)
+    private final AtomicLong clock = new AtomicLong();
+    private final Object writeLock = new Object();
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public SemanticResponseCache(@Value("${app.semantic-cache.enabled:true}") boolean enabled,
+                                 @Value("${app.semantic-cache.similarity-threshold:0.85}") double similarityThreshold,
+                                 @Value("${app.semantic-cache.max-entries:1000}") int maxEntries,
+                                 @Value("${app.semantic-cache.ttl-minutes:60}") long ttlMinutes,
+                                 MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.similarityThreshold = similarityThreshold;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMinutes * 60_000L;
+        this.hitCounter = Counter.builder("semantic.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.missCounter = Counter.builder("semantic.cache.requests").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("semantic.cache.size", this, SemanticResponseCache::size).register(meterRegistry);
+        Gauge.builder("semantic.cache.hit.ratio", this, SemanticResponseCache::hitRatio).register(meterRegistry);
+    }
+
+    /**
+     * 완전 일치를 먼저 찾고, 없으면 같은 파티션의 항목만 잠금 없이 스캔합니다 (동시 요청이 서로의 스캔을 기다리지 않음).
+     * 부정 표현(안/못/않/없…)의 개수가 다른 문장은 n-gram이 겹쳐도 뜻이 반대일 수 있으므로 유사 일치로 보지 않습니다.
+     */
+    public Optional<String> get(String partition, String message) {
+        if (!enabled || message == null) {
+            return Optional.empty();
+        }
+        String normalized = normalize(message);
+        long now = System.currentTimeMillis();
+        ConcurrentHashMap<String, Entry> candidates = partitions.get(partition);
+        if (candidates != null) {
+            Entry exact = candidates.get(partition + "\u0000" + normalized);
+            if (exact != null && !exact.isExpired(now)) {
+                return hit(exact);
+            }
+
+            float[] query = embed(normalized);
+            int negations = negations(normalized);
+            Entry best = null;
+            double bestScore = similarityThreshold;
+            for (Entry candidate : candidates.values()) {
+                if (candidate.isExpired(now)) {
+                    remove(candidates, candidate);
+                    continue;
+                }
+                if (candidate.negations != negations) {
+                    continue;
+                }
+                double score = cosine(query, candidate.embedding);
+                if (score >= bestScore) {
+                    best = candidate;
+                    bestScore = score;
+                }
+            }
+            if (best != null) {
+                return hit(best);
+            }
+        }
+        missCounter.increment();
+        return Optional.empty();
+    }
+
+    public void put(String partition, String message, String response) {
+        if (!enabled || message == null || response == null || response.isBlank()) {
+            return;
+        }
+        String normalized = normalize(message);
+        String key = partition + "\u0000" + normalized;
+        Entry entry = new Entry(key, partition, embed(normalized), negations(normalized), response,
+                System.currentTimeMillis() + ttlMillis, clock.incrementAndGet());
+        synchronized (writeLock) {
+            if (partitions.computeIfAbsent(partition, p -> new ConcurrentHashMap<>()).put(key, entry) == null) {
+                count.incrementAndGet();
+            }
+            while (count.get() > maxEntries && evictLeastRecentlyUsed()) {
+                // 한도 안으로 들어올 때까지 축출
+            }
+        }
+    }
+
+    public int size() {
+        return count.get();
+    }
+
+    int partitionCount() {
+        return partitions.size();
+    }
+
+    private Optional<String> hit(Entry entry) {
+        entry.lastAccess = clock.incrementAndGet(); // LRU 순서 갱신
+        hitCounter.increment();
+        return Optional.of(entry.response);
+    }
+
+    private void remove(ConcurrentHashMap<String, Entry> candidates, Entry entry) {
+        if (candidates.remove(entry.key, entry)) {
+            count.decrementAndGet();
+        }
+        if (candidates.isEmpty()) {
+            synchronized (writeLock) {
+                // put은 writeLock 안에서 맵을 얻고 채우므로, 잠금 안에서 다시 비어 있으면 아무도 이 맵에 쓰지 않음
+                if (candidates.isEmpty()) {
+                    partitions.remove(entry.partition, candidates);
+                }
+            }
+        }
+    }
+
+    // writeLock 안에서 호출. 저장할 때 한도를 넘은 경우에만 전체를 훑음
+    private boolean evictLeastRecentlyUsed() {
+        Entry eldest = null;
+        for (ConcurrentHashMap<String, Entry> candidates : partitions.values()) {
+            for (Entry candidate : candidates.values()) {
+                if (eldest == null || candidate.lastAccess < eldest.lastAccess) {
+                    eldest = candidate;
+                }
+            }
+        }
+        if (eldest == null) {
+            return false;
+        }
+        remove(partitions.get(eldest.partition), eldest);
+        return true;
+    }
+
+    private double hitRatio() {
+        double hits = hitCounter.count();
+        double total = hits + missCounter.count();
+        return total == 0 ? 0.0 : hits / total;
+    }
+
+    // 대소문자, 전각/반각, 문장부호·이모지, 공백 차이를 없앰
+    static String normalize(String text) {
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase();
+        StringBuilder sb = new StringBuilder(folded.length());
+        boolean lastSpace = true;
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(c);
+                lastSpace = false;
+            } else if (!lastSpace) {
+                sb.append(' ');
+                lastSpace = true;
+            }
+        }
+        int len = sb.length();
+        if (len > 0 && sb.charAt(len - 1) == ' ') {
+            sb.setLength(len - 1);
+        }
+        return sb.toString();
+    }
+
+    // 부정 표현 개수: 단독 부정 부사(안, 못, not, no, never), 부정 어간(않, 없, 아니), 정규화로 "don t"처럼 갈라진 n't
+    static int negations(String normalized) {
+        String[] words = normalized.split(" ");
+        int negations = 0;
+        for (int i = 0; i < words.length; i++) {
+            String word = words[i];
+            if (NEGATION_WORDS.contains(word) || word.contains("않") || word.contains("없") || word.startsWith("아니")) {
+                negations++;
+            } else if (word.endsWith("n") && i + 1 < words.length && words[i + 1].equals("t")) {
+                negations++;
+            }
+        }
+        return negations;
+    }
+
+    // 문자 2-gram/3-gram 해싱 트릭 임베딩 (L2 정규화)
+    static float[] embed(String normalized) {
+        float[] vector = new float[DIMENSIONS];
+        String padded = " " + normalized + " ";
+        for (int n = 2; n <= 3; n++) {
+            for (int i = 0; i + n <= padded.length(); i++) {
+                int h = hash(padded, i, n);
+                int index = Math.floorMod(h, DIMENSIONS);
+                vector[index] += ((h >>> 28) & 1) == 0 ? 1f : -1f;
+            }
+        }
+        double norm = 0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        if (norm > 0) {
+            float inv = (float) (1.0 / Math.sqrt(norm));
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] *= inv;
+            }
+        }
+        return vector;
+    }
+
+    static double cosine(float[] a, float[] b) {
+        double dot = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+        }
+        return dot; // 둘 다 단위 벡터
+    }
+
+    // FNV-1a
+    private static int hash(String s, int offset, int length) {
+        int h = 0x811c9dc5;
+        for (int i = offset; i < offset + length; i++) {
+            h ^= s.charAt(i);
+            h *= 0x01000193;
+        }
+        return h;
+    }
+
+    private static final class Entry {
+        final String key;
+        final String partition;
+        final float[] embedding;
+        final int negations;
+        final String response;
+        final long expiresAt;
+        volatile long lastAccess;
+
+        Entry(String key, String partition, float[] embedding, int negations, String response, long expiresAt, long lastAccess) {
+            this.key = key;
+            this.partition = partition;
+            this.embedding = embedding;
+            this.negations = negations;
+            this.response = response;
+            this.expiresAt = expiresAt;
+            this.lastAccess = lastAccess;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.duckchat.api.service;
+
+import com.duckchat.api.dto.openai.ChatCompletionRequest;
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingType;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * gpt-3.5-turbo와 같은 cl100k_base BPE 인코딩으로 프롬프트 토큰 수를 로컬에서 계산합니다.
+ */
+@Component
+public class TokenCounter {
+
+    // 메시지 하나당 포맷 오버헤드와 응답 프라이밍 토큰 (OpenAI 가이드 기준)
+    private static final int TOKENS_PER_MESSAGE = 3;
+    private static final int REPLY_PRIMING_TOKENS = 3;
+
+    private final Encoding encoding = Encodings.newLazyEncodingRegistry().getEncoding(EncodingType.CL100K_BASE);
+
+    public int count(String text) {
+        return text == null || text.isEmpty() ? 0 : encoding.countTokens(text);
+    }
+
+    public int count(ChatCompletionRequest.Message message) {
+        return TOKENS_PER_MESSAGE + count(message.getRole()) + count(message.getContent());
+    }
+
+    public int count(List<ChatCompletionRequest.Message> messages) {
+        int total = REPLY_PRIMING_TOKENS;
+        for (ChatCompletionRequest.Message message : messages) {
+            total += count(message);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,145 @@
+package com.duckchat.api.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 업로드 음성 전사. 디코딩된 PCM에서 무음을 잘라 Opus로 압축해 Whisper에 보내고,
+ * 남은 음성이 너무 짧으면 Whisper를 호출하지 않고 기본 문장으로 대신합니다.
+ * 최근에 디코딩/준비한 업로드는 내용 해시(audioKey)로 잠깐 보관해, 동기 턴이 데드라인으로 작업에 넘어가도
+ * 작업이 ffmpeg를 다시 실행하지 않고 같은 PCM과 Opus를 씁니다.
+ */
+@Slf4j
+@Service
+public class TranscriptionService {
+
+    // 음성을 알아들을 수 없을 때(너무 짧거나 API 키가 더미일 때) 사용하는 기본 문장
+    public static final String DEFAULT_TRANSCRIPT = "안녕하세요! 음성 메시지를 받았어요. 어떻게 도와드릴까요?";
+
+    private static final class Recent {
+        private DecodedAudio audio;
+        private WhisperUploadPreparer.Prepared prepared;
+        private long storedAt;
+    }
+
+    private final AudioDecoder audioDecoder;
+    private final WhisperUploadPreparer whisperUploadPreparer;
+    private final OpenAIService openAIService;
+    private final int reuseEntries;
+    private final long reuseTtlMs;
+    private final LinkedHashMap<String, Recent> recent = new LinkedHashMap<>(16, 0.75f, true);
+
+    public TranscriptionService(AudioDecoder audioDecoder,
+                                WhisperUploadPreparer whisperUploadPreparer,
+                                OpenAIService openAIService,
+                                @Value("${app.whisper-upload.reuse-entries:8}") int reuseEntries,
+                                @Value("${app.whisper-upload.reuse-ttl-ms:120000}") long reuseTtlMs) {
+        this.audioDecoder = audioDecoder;
+        this.whisperUploadPreparer = whisperUploadPreparer;
+        this.openAIService = openAIService;
+        this.reuseEntries = reuseEntries;
+        this.reuseTtlMs = reuseTtlMs;
+    }
+
+    public String transcribe(String audioKey, VoiceUpload upload, String language) {
+        long originalSize = upload.isInMemory() ? upload.content().remaining() : fileSize(upload);
+        return transcribe(audioKey, () -> audioDecoder.decode(upload), upload.asResource(), originalSize, language);
+    }
+
+    /**
+     * @param audio 디코딩 공급자. 결과가 null이면(디코딩 실패) 원본을 그대로 업로드
+     */
+    public String transcribe(String audioKey, Supplier<DecodedAudio> audio, Resource original, long originalSize, String language) {
+        WhisperUploadPreparer.Prepared prepared = recentPrepared(audioKey);
+        if (prepared == null) {
+            DecodedAudio decoded = decoded(audioKey, audio);
+            if (decoded == null) {
+                return openAIService.transcribeAudio(original, language);
+            }
+            prepared = whisperUploadPreparer.prepare(decoded, originalSize);
+            rememberPrepared(audioKey, prepared);
+        }
+        if (prepared.tooShort()) {
+            log.info("음성이 {}초뿐이라 전사를 생략하고 기본 문장을 사용합니다.", String.format("%.2f", prepared.speechSeconds()));
+            return DEFAULT_TRANSCRIPT;
+        }
+        return openAIService.transcribeAudio(prepared.resource(), language);
+    }
+
+    /**
+     * 같은 업로드의 최근 디코딩 결과가 있으면 재사용하고, 없으면 loader로 디코딩해 보관합니다 (운율 피처 추출도 이 버퍼를 씀).
+     */
+    public DecodedAudio decoded(String audioKey, Supplier<DecodedAudio> loader) {
+        synchronized (recent) {
+            Recent entry = fresh(audioKey);
+            if (entry != null && entry.audio != null) {
+                return entry.audio;
+            }
+        }
+        DecodedAudio audio = loader.get();
+        if (audio != null && audioKey != null) {
+            synchronized (recent) {
+                entry(audioKey).audio = audio;
+            }
+        }
+        return audio;
+    }
+
+    private WhisperUploadPreparer.Prepared recentPrepared(String audioKey) {
+        synchronized (recent) {
+            Recent entry = fresh(audioKey);
+            return entry != null ? entry.prepared : null;
+        }
+    }
+
+    private void rememberPrepared(String audioKey, WhisperUploadPreparer.Prepared prepared) {
+        if (audioKey == null) {
+            return;
+        }
+        synchronized (recent) {
+            entry(audioKey).prepared = prepared;
+        }
+    }
+
+    // recent 잠금 안에서 호출
+    private Recent fresh(String audioKey) {
+        if (audioKey == null) {
+            return null;
+        }
+        Recent entry = recent.get(audioKey);
+        if (entry != null && System.currentTimeMillis() - entry.storedAt > reuseTtlMs) {
+            recent.remove(audioKey);
+            return null;
+        }
+        return entry;
+    }
+
+    // recent 잠금 안에서 호출
+    private Recent entry(String audioKey) {
+        Recent entry = fresh(audioKey);
+        if (entry == null) {
+            entry = new Recent();
+            entry.storedAt = System.currentTimeMillis();
+            recent.put(audioKey, entry);
+            while (recent.size() > reuseEntries) {
+                Map.Entry<String, Recent> eldest = recent.entrySet().iterator().next();
+                recent.remove(eldest.getKey());
+            }
+        }
+        return entry;
+    }
+
+    private static long fileSize(VoiceUpload upload) {
+        try {
+            return java.nio.file.Files.size(upload.file());
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+}
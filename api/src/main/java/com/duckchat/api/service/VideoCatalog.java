@@ -0,0 +1,485 @@
+package com.duckchat.api.service;
+
+import com.duckchat.api.config.OpenAIConfig;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 동영상 아카이브 인덱스.
+ * 요청마다 디렉토리를 나열하지 않도록 기동 시 한 번 인덱스를 만들고, 이후에는 WatchService 이벤트로 바뀐 파일만 다시 색인합니다
+ * (이벤트가 오지 않는 네트워크 마운트를 위해 주기적 재검사도 함께 수행).
+ * 항목에는 내용 기반 id, 정규화한 제목/토큰, ffprobe 메타데이터(길이, 해상도, 코덱)가 들어가며,
+ * 인덱스는 사이드카 파일(JSON)로 저장해 재시작 때는 크기/수정 시각이 같은 파일을 다시 분석하지 않습니다.
+ * 내용 id 계산과 ffprobe는 잠금 밖에서 하고, 맵 반영과 사이드카 저장만 indexLock 안에서 합니다.
+ */
+@Slf4j
+@Service
+public class VideoCatalog {
+
+    private static final String VIDEO_EXTENSION = ".mp4";
+    // 내용 id 계산 시 앞/뒤에서 읽는 크기 (큰 파일을 통째로 해시하지 않음)
+    private static final int ID_SAMPLE_BYTES = 64 * 1024;
+
+    @Data
+    public static class Entry {
+        private String id;
+        private String filename;
+        private String title;
+        private String normalizedTitle;
+        private List<String> tokens;
+        private long size;
+        private long lastModified;
+        private Double durationSeconds;
+        private Integer width;
+        private Integer height;
+        private String codec;
+    }
+
+    // app.videos.archive-dir가 비어 있으면 null - 카탈로그 없이 기동 (목록/추천은 "폴더 없음" 응답)
+    private final Path archiveDir;
+    private final Path indexFile;
+    private final long probeTimeoutMs;
+    private final long settleMs;
+    private final ObjectMapper objectMapper;
+    private final ProcessSupervisor processSupervisor;
+
+    // filename → 항목
+    private final Map<String, Entry> byFilename = new ConcurrentHashMap<>();
+    private final Map<String, Entry> byId = new ConcurrentHashMap<>();
+    // 파일 이름 순으로 정렬한 읽기 전용 목록 (변경 시 교체)
+    private volatile List<Entry> snapshot = List.of();
+    private volatile WatchService watchService;
+    // 맵 변경과 사이드카 저장을 직렬화 (조회는 잠그지 않음)
+    private final Object indexLock = new Object();
+
+    public VideoCatalog(@Value("${app.videos.archive-dir:}") String archiveDir,
+                        @Value("${app.videos.probe-timeout-ms:10000}") long probeTimeoutMs,
+                        @Value("${app.videos.settle-ms:2000}") long settleMs,
+                        OpenAIConfig openAIConfig,
+                        ObjectMapper objectMapper,
+                        ProcessSupervisor processSupervisor) {
+        this.archiveDir = archiveDir.isBlank() ? null : Paths.get(archiveDir);
+        // TempFileCleanupService는 업로드 디렉토리 바로 아래 파일만 지우므로 하위 디렉토리에 둠
+        this.indexFile = Path.of(openAIConfig.getUploadDir(), "video-catalog", "index.json");
+        this.probeTimeoutMs = probeTimeoutMs;
+        this.settleMs = settleMs;
+        this.objectMapper = objectMapper;
+        this.processSupervisor = processSupervisor;
+        if (this.archiveDir == null) {
+            log.info("app.videos.archive-dir가 설정되지 않아 동영상 카탈로그를 사용하지 않습니다.");
+        } else {
+            loadIndex();
+        }
+    }
+
+    public boolean isAvailable() {
+        return archiveDir != null && Files.isDirectory(archiveDir);
+    }
+
+    public List<Entry> all() {
+        return snapshot;
+    }
+
+    public Optional<Entry> byId(String id) {
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    public Optional<Entry> byFilename(String filename) {
+        return Optional.ofNullable(byFilename.get(filename));
+    }
+
+    public Path resolve(Entry entry) {
+        return archiveDir.resolve(entry.getFilename());
+    }
+
+    // 사이드카 인덱스를 먼저 올려 두고, 디렉토리 검사와 감시는 기동 후 백그라운드에서 시작
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Thread thread = new Thread(() -> {
+            rescan();
+            watch();
+        }, "VideoCatalog");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 전체 재검사: 디렉토리를 한 번 나열해 새 파일/바뀐 파일만 색인하고 사라진 파일은 뺍니다.
+     * 파일 분석은 잠금 없이 하므로 감시 스레드의 변경 반영과 동시에 진행될 수 있습니다.
+     */
+    @Scheduled(fixedDelayString = "${app.videos.rescan-interval-ms:600000}", initialDelayString = "${app.videos.rescan-interval-ms:600000}")
+    public void rescan() {
+        if (!isAvailable()) {
+            if (archiveDir != null) {
+                log.warn("동영상 아카이브 폴더를 찾을 수 없습니다: {}", archiveDir);
+            }
+            return;
+        }
+        Set<String> seen = new HashSet<>();
+        boolean changed = false;
+        try (Stream<Path> stream = Files.list(archiveDir)) {
+            for (Path path : (Iterable<Path>) stream::iterator) {
+                if (!isVideo(path)) {
+                    continue;
+                }
+                seen.add(path.getFileName().toString());
+                changed |= refresh(path);
+            }
+        } catch (IOException e) {
+            log.error("동영상 아카이브 검사 실패: {}", e.getMessage());
+            return;
+        }
+        synchronized (indexLock) {
+            for (String filename : new ArrayList<>(byFilename.keySet())) {
+                // 나열한 뒤 감시 스레드가 추가한 파일은 남김
+                if (!seen.contains(filename) && !Files.exists(archiveDir.resolve(filename))) {
+                    remove(filename);
+                    changed = true;
+                }
+            }
+            if (changed) {
+                publish();
+            }
+        }
+        log.info("동영상 카탈로그: {}개", byFilename.size());
+    }
+
+    // 새 파일이거나 크기/수정 시각이 바뀐 경우만 잠금 밖에서 분석한 뒤 반영. 바뀌었으면 true
+    private boolean refresh(Path path) {
+        String filename = path.getFileName().toString();
+        try {
+            long size = Files.size(path);
+            long lastModified = Files.getLastModifiedTime(path).toMillis();
+            if (isCurrent(byFilename.get(filename), size, lastModified)) {
+                return false;
+            }
+            Entry entry = new Entry();
+            entry.setFilename(filename);
+            entry.setSize(size);
+            entry.setLastModified(lastModified);
+            entry.setId(contentId(path, size));
+            entry.setTitle(filename.replaceFirst("[.][^.]+$", ""));
+            entry.setNormalizedTitle(normalize(entry.getTitle()));
+            entry.setTokens(tokens(entry.getNormalizedTitle()));
+            probe(path, entry);
+
+            synchronized (indexLock) {
+                Entry existing = byFilename.get(filename);
+                // 분석하는 동안 다른 검사가 같은 상태(또는 더 새 상태)를 이미 반영함
+                if (isCurrent(existing, size, lastModified) || (existing != null && existing.getLastModified() > lastModified)) {
+                    return false;
+                }
+                if (existing != null) {
+                    byId.remove(existing.getId(), existing);
+                }
+                entry.setId(uniqueId(entry.getId(), filename));
+                byFilename.put(filename, entry);
+                byId.put(entry.getId(), entry);
+            }
+            return true;
+        } catch (IOException e) {
+            // 복사 중인 파일 등 - 다음 이벤트/재검사 때 다시 시도
+            log.debug("동영상 색인 보류: {} ({})", filename, e.getMessage());
+            return false;
+        }
+    }
+
+    private static boolean isCurrent(Entry entry, long size, long lastModified) {
+        return entry != null && entry.getSize() == size && entry.getLastModified() == lastModified;
+    }
+
+    /**
+     * indexLock 안에서 호출. 내용이 같은 다른 파일(복사본, 앞/뒤 샘플만 같은 파일)이 이미 id를 쓰고 있으면 경로 해시를 덧붙입니다.
+     * 기존 소유 파일이 사라졌으면(이름 변경) 그 항목을 빼고 원래 id를 이어받습니다.
+     */
+    private String uniqueId(String contentId, String filename) {
+        Entry owner = byId.get(contentId);
+        if (owner == null || owner.getFilename().equals(filename)) {
+            return contentId;
+        }
+        if (!Files.exists(archiveDir.resolve(owner.getFilename()))) {
+            remove(owner.getFilename());
+            return contentId;
+        }
+        return contentId + "-" + sha256Hex(filename.getBytes(StandardCharsets.UTF_8)).substring(0, 8);
+    }
+
+    // indexLock 안에서 호출
+    private void remove(String filename) {
+        Entry removed = byFilename.remove(filename);
+        if (removed != null) {
+            byId.remove(removed.getId(), removed);
+        }
+    }
+
+    private void watch() {
+        if (!isAvailable()) {
+            return;
+        }
+        try {
+            watchService = archiveDir.getFileSystem().newWatchService();
+            archiveDir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException | UnsupportedOperationException e) {
+            log.warn("동영상 아카이브 감시를 시작하지 못했습니다 (주기적 재검사만 사용): {}", e.getMessage());
+            return;
+        }
+        // 이벤트를 받았지만 아직 크기가 안정되지 않은 파일 (감시 스레드 전용)
+        Map<String, FileState> pending = new HashMap<>();
+        while (true) {
+            WatchKey key;
+            try {
+                key = pending.isEmpty() ? watchService.take() : watchService.poll(settleMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            if (key != null) {
+                boolean overflow = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        overflow = true;
+                    } else {
+                        // 이벤트마다 안정 대기 시간을 다시 잼
+                        pending.put(event.context().toString(), FileState.UNSEEN);
+                    }
+                }
+                key.reset();
+                if (overflow) {
+                    rescan();
+                }
+            }
+            apply(settled(pending, System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * 크기/수정 시각이 settleMs 동안 그대로인 파일과 사라진 파일만 꺼냅니다.
+     * 복사 중인 큰 파일은 MODIFY 이벤트가 계속 오므로 복사가 끝날 때까지 내용 id 계산과 ffprobe를 미룹니다.
+     */
+    Set<String> settled(Map<String, FileState> pending, long now) {
+        Set<String> ready = new HashSet<>();
+        Iterator<Map.Entry<String, FileState>> it = pending.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, FileState> candidate = it.next();
+            Path path = archiveDir.resolve(candidate.getKey());
+            FileState current;
+            try {
+                current = new FileState(Files.size(path), Files.getLastModifiedTime(path).toMillis(), now);
+            } catch (IOException e) {
+                ready.add(candidate.getKey()); // 삭제됨
+                it.remove();
+                continue;
+            }
+            FileState last = candidate.getValue();
+            if (current.size() != last.size() || current.lastModified() != last.lastModified()) {
+                candidate.setValue(current);
+            } else if (now - last.observedAt() >= settleMs) {
+                ready.add(candidate.getKey());
+                it.remove();
+            }
+        }
+        return ready;
+    }
+
+    record FileState(long size, long lastModified, long observedAt) {
+        static final FileState UNSEEN = new FileState(-1, -1, 0);
+    }
+
+    private void apply(Set<String> filenames) {
+        boolean changed = false;
+        for (String filename : filenames) {
+            Path path = archiveDir.resolve(filename);
+            if (Files.isRegularFile(path) && isVideo(path)) {
+                changed |= refresh(path);
+            } else if (byFilename.containsKey(filename)) {
+                synchronized (indexLock) {
+                    remove(filename);
+                }
+                changed = true;
+            }
+        }
+        if (changed) {
+            synchronized (indexLock) {
+                publish();
+            }
+        }
+    }
+
+    // indexLock 안에서 호출
+    private void publish() {
+        List<Entry> entries = new ArrayList<>(byFilename.values());
+        entries.sort(Comparator.comparing(Entry::getFilename));
+        snapshot = List.copyOf(entries);
+        saveIndex(entries);
+    }
+
+    private void loadIndex() {
+        if (!Files.exists(indexFile)) {
+            return;
+        }
+        try {
+            List<Entry> entries = objectMapper.readValue(indexFile.toFile(), new TypeReference<List<Entry>>() {});
+            for (Entry entry : entries) {
+                byFilename.put(entry.getFilename(), entry);
+                byId.put(entry.getId(), entry);
+            }
+            List<Entry> sorted = new ArrayList<>(entries);
+            sorted.sort(Comparator.comparing(Entry::getFilename));
+            snapshot = List.copyOf(sorted);
+            log.info("동영상 카탈로그 사이드카에서 {}개 로드", entries.size());
+        } catch (IOException e) {
+            log.warn("동영상 카탈로그 사이드카를 읽지 못했습니다: {}", e.getMessage());
+        }
+    }
+
+    private void saveIndex(List<Entry> entries) {
+        try {
+            Files.createDirectories(indexFile.getParent());
+            Path tmp = Files.createTempFile(indexFile.getParent(), "index", ".tmp");
+            objectMapper.writeValue(tmp.toFile(), entries);
+            Files.move(tmp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("동영상 카탈로그 사이드카 저장 실패: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 크기 + 앞/뒤 64KB의 SHA-256 앞 16자리. 파일 이름이 바뀌어도 같은 영상이면 id가 유지됩니다.
+     */
+    static String contentId(Path path, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MessageDigest digest = sha256();
+            digest.update(ByteBuffer.allocate(Long.BYTES).putLong(0, size));
+            ByteBuffer buffer = ByteBuffer.allocate(ID_SAMPLE_BYTES);
+            readFully(channel, buffer, 0);
+            digest.update(buffer.flip());
+            if (size > ID_SAMPLE_BYTES) {
+                buffer.clear();
+                readFully(channel, buffer, Math.max(ID_SAMPLE_BYTES, size - ID_SAMPLE_BYTES));
+                digest.update(buffer.flip());
+            }
+            return HexFormat.of().formatHex(digest.digest()).substring(0, 16);
+        }
+    }
+
+    private static String sha256Hex(byte[] bytes) {
+        return HexFormat.of().formatHex(sha256().digest(bytes));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                break;
+            }
+        }
+    }
+
+    /** 소문자, NFC, 구분 기호(_ - . 괄호 등)는 공백으로 */
+    public static String normalize(String title) {
+        String normalized = Normalizer.normalize(title, Normalizer.Form.NFC).toLowerCase(Locale.ROOT);
+        return normalized.replaceAll("[\\p{Punct}\\s]+", " ").trim();
+    }
+
+    public static List<String> tokens(String normalizedTitle) {
+        return Arrays.stream(normalizedTitle.split(" "))
+                .filter(token -> token.length() > 1)
+                .distinct()
+                .toList();
+    }
+
+    // ffprobe가 없거나 실패하면 메타데이터 없이 색인
+    private void probe(Path path, Entry entry) {
+        ProcessBuilder pb = new ProcessBuilder(
+                "ffprobe", "-v", "error",
+                "-select_streams", "v:0",
+                "-show_entries", "stream=codec_name,width,height:format=duration",
+                "-of", "json", path.toString());
+        try {
+            // 색인은 요청 경로가 아니므로 ffmpeg 디코딩과 슬롯을 나누지 않는 백그라운드 슬롯에서 실행
+            ProcessSupervisor.Result<byte[]> result = processSupervisor.runBackground("ffprobe", pb, probeTimeoutMs, InputStream::readAllBytes);
+            if (!result.succeeded() || result.value() == null) {
+                return;
+            }
+            JsonNode root = objectMapper.readTree(result.value());
+            JsonNode stream = root.path("streams").path(0);
+            if (stream.has("codec_name")) {
+                entry.setCodec(stream.get("codec_name").asText());
+            }
+            if (stream.has("width")) {
+                entry.setWidth(stream.get("width").asInt());
+                entry.setHeight(stream.path("height").asInt());
+            }
+            JsonNode duration = root.path("format").path("duration");
+            if (!duration.isMissingNode()) {
+                entry.setDurationSeconds(duration.asDouble());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.debug("ffprobe 실패: {} ({})", path, e.getMessage());
+        }
+    }
+
+    private static boolean isVideo(Path path) {
+        return path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(VIDEO_EXTENSION);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.duckchat.api.service;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 16kHz mono 16-bit PCM 스트림을 에너지(RMS) 기준으로 나누는 VAD. 연결(스트림) 하나당 인스턴스 하나를 씁니다.
+ * 짧은 쉼(segment-silence)에서 구간을 닫아 바로 전사할 수 있게 하고, 긴 쉼(end-silence)이 오면 발화 끝을 알립니다.
+ */
+public class VoiceActivityDetector {
+
+    public enum EventType {
+        SEGMENT,
+        END_OF_SPEECH
+    }
+
+    public static final class Event {
+        private final EventType type;
+        private final byte[] pcm;
+
+        private Event(EventType type, byte[] pcm) {
+            this.type = type;
+            this.pcm = pcm;
+        }
+
+        public EventType type() {
+            return type;
+        }
+
+        /** SEGMENT일 때 구간 PCM (s16le) */
+        public byte[] pcm() {
+            return pcm;
+        }
+    }
+
+    static final int FRAME_MS = 20;
+    private static final int FRAME_BYTES = DecodedAudio.SAMPLE_RATE / 1000 * FRAME_MS * 2;
+
+    private final double threshold;
+    private final int segmentSilenceMs;
+    private final int endSilenceMs;
+    private final int minSpeechMs;
+    private final int maxSegmentMs;
+
+    private final byte[] frame = new byte[FRAME_BYTES];
+    private int frameFill;
+    private final ByteArrayOutputStream segment = new ByteArrayOutputStream();
+    private boolean inSegment;
+    private boolean speechStarted;
+    private int segmentMs;
+    private int voicedMs;
+    private int silenceMs;
+
+    public VoiceActivityDetector(double threshold, int segmentSilenceMs, int endSilenceMs, int minSpeechMs, int maxSegmentMs) {
+        this.threshold = threshold;
+        this.segmentSilenceMs = segmentSilenceMs;
+        this.endSilenceMs = endSilenceMs;
+        this.minSpeechMs = minSpeechMs;
+        this.maxSegmentMs = maxSegmentMs;
+    }
+
+    /** 청크 경계는 프레임/샘플 경계와 맞지 않아도 됨 */
+    public List<Event> feed(byte[] chunk) {
+        List<Event> events = new ArrayList<>();
+        int offset = 0;
+        while (offset < chunk.length) {
+            int count = Math.min(FRAME_BYTES - frameFill, chunk.length - offset);
+            System.arraycopy(chunk, offset, frame, frameFill, count);
+            frameFill += count;
+            offset += count;
+            if (frameFill == FRAME_BYTES) {
+                processFrame(events);
+                frameFill = 0;
+            }
+        }
+        return events;
+    }
+
+    /** 클라이언트가 녹음을 끝냈을 때: 열린 구간을 닫고 발화 끝을 알림 */
+    public List<Event> flush() {
+        List<Event> events = new ArrayList<>();
+        closeSegment(events);
+        if (speechStarted) {
+            events.add(new Event(EventType.END_OF_SPEECH, null));
+        }
+        reset();
+        return events;
+    }
+
+    private void processFrame(List<Event> events) {
+        boolean voiced = rms() >= threshold;
+        if (voiced) {
+            inSegment = true;
+            speechStarted = true;
+            silenceMs = 0;
+            voicedMs += FRAME_MS;
+        } else if (speechStarted) {
+            silenceMs += FRAME_MS;
+        }
+
+        if (inSegment) {
+            segment.write(frame, 0, FRAME_BYTES);
+            segmentMs += FRAME_MS;
+            if (silenceMs >= segmentSilenceMs || segmentMs >= maxSegmentMs) {
+                closeSegment(events);
+            }
+        }
+        if (speechStarted && !inSegment && silenceMs >= endSilenceMs) {
+            events.add(new Event(EventType.END_OF_SPEECH, null));
+            reset();
+        }
+    }
+
+    private void closeSegment(List<Event> events) {
+        // 짧은 잡음(클릭, 숨소리)은 전사하지 않음
+        if (inSegment && voicedMs >= minSpeechMs) {
+            events.add(new Event(EventType.SEGMENT, segment.toByteArray()));
+        }
+        segment.reset();
+        inSegment = false;
+        segmentMs = 0;
+        voicedMs = 0;
+    }
+
+    private void reset() {
+        segment.reset();
+        inSegment = false;
+        speechStarted = false;
+        segmentMs = 0;
+        voicedMs = 0;
+        silenceMs = 0;
+    }
+
+    private double rms() {
+        double sum = 0;
+        int samples = FRAME_BYTES / 2;
+        for (int i = 0; i < FRAME_BYTES; i += 2) {
+            double sample = (short) ((frame[i] & 0xff) | (frame[i + 1] << 8)) / 32768.0;
+            sum += sample * sample;
+        }
+        return Math.sqrt(sum / samples);
+    }
+}
@@ -0,0 +1,215 @@
+package com.duckchat.api.service;
+
+import com.duckchat.api.exception.JobRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 비동기 음성 작업 스케줄러.
+ * 작업은 크기가 정해진 우선순위 큐에 들어가고, 전체 동시 실행 수와 사용자별 동시 실행 수 한도 안에서 꺼내 실행됩니다.
+ * 큐가 가득 차거나 사용자별 대기 한도를 넘으면 JobRejectedException(429)으로 거절합니다.
+ * 데드라인을 넘겨 전환된 HIGH 작업은 큐 용량 위에 따로 예약한 자리(high-priority-reserve)를 쓸 수 있어,
+ * 일반 업로드로 큐가 찬 순간에도 이미 기다린 사용자의 턴을 429로 잃지 않습니다.
+ * 작업 안의 단계는 네트워크(Whisper/LLM) 풀과 CPU(ffmpeg/openSMILE) 풀을 공유해 실행합니다.
+ */
+@Slf4j
+@Component
+public class VoiceJobScheduler {
+
+    public enum Priority {
+        // 동기 요청이 데드라인을 넘어 전환된 작업 - 사용자가 이미 기다렸으므로 먼저 실행
+        HIGH,
+        NORMAL
+    }
+
+    private final int maxRunning;
+    private final int maxRunningPerUser;
+    private final int maxPendingPerUser;
+    private final int queueCapacity;
+    private final int highPriorityReserve;
+
+    private final ThreadPoolTaskExecutor jobRunner;
+    private final ThreadPoolTaskExecutor networkPool;
+    private final ThreadPoolTaskExecutor cpuPool;
+
+    // 우선순위 → 들어온 순서
+    private final TreeSet<QueuedJob> queue = new TreeSet<>(Comparator
+            .comparing((QueuedJob job) -> job.priority)
+            .thenComparingLong(job -> job.sequence));
+    private final Map<Long, Integer> runningByUser = new HashMap<>();
+    private final Map<Long, Integer> pendingByUser = new HashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private int running;
+    // 작업 실행 시간 이동 평균 (Retry-After 추정용)
+    private double avgRunMillis = 10_000;
+
+    private final Timer waitTimer;
+    private final Timer runTimer;
+    private final MeterRegistry meterRegistry;
+
+    public VoiceJobScheduler(@Value("${app.jobs.max-running:8}") int maxRunning,
+                             @Value("${app.jobs.max-running-per-user:2}") int maxRunningPerUser,
+                             @Value("${app.jobs.max-pending-per-user:5}") int maxPendingPerUser,
+                             @Value("${app.jobs.queue-capacity:50}") int queueCapacity,
+                             @Value("${app.jobs.high-priority-reserve:10}") int highPriorityReserve,
+                             @Value("${app.jobs.network-pool-size:16}") int networkPoolSize,
+                             @Value("${app.jobs.cpu-pool-size:0}") int cpuPoolSize,
+                             MeterRegistry meterRegistry) {
+        this.maxRunning = maxRunning;
+        this.maxRunningPerUser = maxRunningPerUser;
+        this.maxPendingPerUser = maxPendingPerUser;
+        this.queueCapacity = queueCapacity;
+        this.highPriorityReserve = highPriorityReserve;
+        this.meterRegistry = meterRegistry;
+
+        // 실행 중인 작업 수는 maxRunning으로 제한되므로 풀 큐에서 거절될 일은 없음
+        this.jobRunner = pool("VoiceJob-", maxRunning);
+        this.networkPool = pool("VoiceNet-", networkPoolSize);
+        this.cpuPool = pool("VoiceCpu-", cpuPoolSize > 0 ? cpuPoolSize : Runtime.getRuntime().availableProcessors());
+
+        this.waitTimer = Timer.builder("voice.jobs.queue.wait")
+                .description("작업이 큐에서 실행되기까지 기다린 시간")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("voice.jobs.run")
+                .description("작업 실행 시간")
+                .register(meterRegistry);
+        Gauge.builder("voice.jobs.queue.depth", this, VoiceJobScheduler::queueDepth)
+                .description("실행을 기다리는 작업 수")
+                .register(meterRegistry);
+        Gauge.builder("voice.jobs.running", this, VoiceJobScheduler::runningCount)
+                .description("실행 중인 작업 수")
+                .register(meterRegistry);
+    }
+
+    private static ThreadPoolTaskExecutor pool(String prefix, int size) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(size);
+        executor.setMaxPoolSize(size);
+        executor.setThreadNamePrefix(prefix);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 작업을 큐에 넣습니다. 자리가 없으면 바로 JobRejectedException을 던지고 작업은 실행되지 않습니다.
+     */
+    public void submit(Long userId, Priority priority, Runnable task) {
+        synchronized (this) {
+            int capacity = priority == Priority.HIGH ? queueCapacity + highPriorityReserve : queueCapacity;
+            if (queue.size() >= capacity) {
+                reject("queue_full", "처리 대기 중인 작업이 많습니다. 잠시 후 다시 시도해주세요.");
+            }
+            if (pendingByUser.getOrDefault(userId, 0) >= maxPendingPerUser) {
+                reject("user_limit", "처리 중인 음성 작업이 너무 많습니다. 이전 작업이 끝난 뒤 다시 시도해주세요.");
+            }
+            queue.add(new QueuedJob(userId, priority, sequence.incrementAndGet(), task));
+            pendingByUser.merge(userId, 1, Integer::sum);
+            dispatch();
+        }
+    }
+
+    /**
+     * 바로 실행할 수 있는 자리 수. 다른 노드의 작업을 가져올지 판단할 때 사용합니다 (대기열에 쌓아 두지 않도록).
+     */
+    public synchronized int availableSlots() {
+        return Math.max(0, maxRunning - running - queue.size());
+    }
+
+    /** Whisper/LLM 호출 단계용 풀 */
+    public Executor networkExecutor() {
+        return networkPool;
+    }
+
+    /** ffmpeg/openSMILE 단계용 풀 */
+    public Executor cpuExecutor() {
+        return cpuPool;
+    }
+
+    // 실행 자리가 있는 동안, 사용자 한도에 걸리지 않는 가장 우선순위 높은 작업부터 시작
+    private void dispatch() {
+        Iterator<QueuedJob> it = queue.iterator();
+        while (running < maxRunning && it.hasNext()) {
+            QueuedJob job = it.next();
+            if (runningByUser.getOrDefault(job.userId, 0) >= maxRunningPerUser) {
+                continue;
+            }
+            it.remove();
+            running++;
+            runningByUser.merge(job.userId, 1, Integer::sum);
+            jobRunner.execute(() -> run(job));
+        }
+    }
+
+    private void run(QueuedJob job) {
+        long started = System.nanoTime();
+        waitTimer.record(started - job.enqueuedAt, TimeUnit.NANOSECONDS);
+        try {
+            job.task.run();
+        } catch (Exception e) {
+            log.error("음성 작업 실행 중 처리되지 않은 예외: {}", e.getMessage(), e);
+        } finally {
+            long elapsed = System.nanoTime() - started;
+            runTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            synchronized (this) {
+                avgRunMillis = avgRunMillis * 0.8 + TimeUnit.NANOSECONDS.toMillis(elapsed) * 0.2;
+                running--;
+                runningByUser.computeIfPresent(job.userId, (k, v) -> v > 1 ? v - 1 : null);
+                pendingByUser.computeIfPresent(job.userId, (k, v) -> v > 1 ? v - 1 : null);
+                dispatch();
+            }
+        }
+    }
+
+    private void reject(String reason, String message) {
+        Counter.builder("voice.jobs.rejected").tag("reason", reason).register(meterRegistry).increment();
+        // 큐가 빠지는 데 걸릴 시간 추정: (대기 작업 수 / 동시 실행 수 + 1) × 평균 실행 시간
+        long seconds = (long) Math.ceil((queue.size() / (double) maxRunning + 1) * avgRunMillis / 1000.0);
+        throw new JobRejectedException(message, Math.max(1, Math.min(seconds, 120)));
+    }
+
+    private synchronized int queueDepth() {
+        return queue.size();
+    }
+
+    private synchronized int runningCount() {
+        return running;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobRunner.shutdown();
+        networkPool.shutdown();
+        cpuPool.shutdown();
+    }
+
+    private static final class QueuedJob {
+        private final Long userId;
+        private final Priority priority;
+        private final long sequence;
+        private final Runnable task;
+        private final long enqueuedAt = System.nanoTime();
+
+        private QueuedJob(Long userId, Priority priority, long sequence, Runnable task) {
+            this.userId = userId;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.task = task;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.duckchat.api.service;
+
+import com.duckchat.api.config.OpenAIConfig;
+import com.duckchat.api.dto.EmotionAnalysisResult;
+import com.duckchat.api.dto.VoiceMetadata;
+import com.duckchat.api.dto.VoiceTurnResult;
+import com.duckchat.api.dto.openai.ChatCompletionRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+
+/**
+ * 음성 턴의 감정 분석 + 응답 생성.
+ * openai.combined-analysis.enabled면 JSON 모드 호출 한 번으로 둘 다 받고, 꺼져 있거나 통합 호출이 실패하면 기존 2회 호출로 처리합니다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VoiceTurnService {
+
+    private final OpenAIService openAIService;
+    private final AudioAnalysisCache audioAnalysisCache;
+    private final OpenAIConfig openAIConfig;
+    private final OpenAICallExecutor openAICallExecutor;
+
+    public boolean isCombinedEnabled() {
+        return openAIConfig.isCombinedAnalysisEnabled();
+    }
+
+    public VoiceTurnResult analyzeAndReply(String audioKey, List<ChatCompletionRequest.Message> messageHistory,
+                                           String transcript, VoiceMetadata voiceMetadata) {
+        return analyzeAndReply(audioKey, messageHistory, transcript, voiceMetadata, openAIService::analyzeTranscriptEmotion);
+    }
+
+    /**
+     * analyzer는 감정 분석 호출. OpenAI 풀 작업 안에서는 같은 풀에 작업을 다시 넣고 기다리지 않도록(풀이 차면 서로를 기다림)
+     * 호출 스레드에서 바로 실행하는 analyzeTranscriptEmotionInline을 넘기고, 데드라인은 바깥 future에 한 번만 겁니다.
+     */
+    private VoiceTurnResult analyzeAndReply(String audioKey, List<ChatCompletionRequest.Message> messageHistory,
+                                            String transcript, VoiceMetadata voiceMetadata,
+                                            BiFunction<String, VoiceMetadata, EmotionAnalysisResult> analyzer) {
+        if (!isCombinedEnabled()) {
+            EmotionAnalysisResult analysis = audioAnalysisCache.emotion(audioKey, transcript,
+                    () -> analyzer.apply(transcript, null));
+            String reply = openAIService.generateResponseWithHistoryAndVoice(messageHistory, transcript, voiceMetadata);
+            return new VoiceTurnResult(analysis, reply);
+        }
+
+        // 분석 결과가 캐시에 있으면 통합 호출 없이 응답만 생성
+        AtomicReference<String> combinedReply = new AtomicReference<>();
+        EmotionAnalysisResult analysis = audioAnalysisCache.emotion(audioKey, transcript, () -> {
+            VoiceTurnResult combined = openAIService.generateAnalyzedResponse(messageHistory, transcript, voiceMetadata);
+            if (combined != null) {
+                combinedReply.set(combined.getReply());
+                return combined.getAnalysis();
+            }
+            log.warn("통합 분석 호출 실패, 분석/응답 개별 호출로 대체합니다.");
+            return analyzer.apply(transcript, null);
+        });
+
+        String reply = combinedReply.get();
+        if (reply == null) {
+            reply = openAIService.generateResponseWithHistoryAndVoice(messageHistory, transcript, voiceMetadata);
+        }
+        return new VoiceTurnResult(analysis, reply);
+    }
+
+    /**
+     * 전사/히스토리 future가 준비되는 대로 분석과 응답을 진행하는 비동기 버전.
+     * 2회 호출 모드에서는 응답이 분석 결과에 의존하지 않으므로 두 호출을 동시에 실행하고, 분석이 실패해도 응답은 그대로 반환합니다.
+     * 반환된 future를 취소하면(데드라인 전환) 이미 시작한 분석/응답 호출도 취소해 HTTP 요청을 중단합니다.
+     */
+    public CompletableFuture<VoiceTurnResult> analyzeAndReplyAsync(String audioKey,
+                                                                 CompletableFuture<List<ChatCompletionRequest.Message>> historyFuture,
+                                                                 CompletableFuture<String> transcriptFuture,
+                                                                 VoiceMetadata voiceMetadata) {
+        CompletableFuture<VoiceTurnResult> turn = new CompletableFuture<>();
+        List<CompletableFuture<?>> calls = new CopyOnWriteArrayList<>();
+        turn.whenComplete((result, ex) -> {
+            if (turn.isCancelled()) {
+                calls.forEach(call -> call.cancel(true));
+            }
+        });
+
+        CompletableFuture<VoiceTurnResult> graph;
+        if (isCombinedEnabled()) {
+            // 통합 호출도 개별 호출과 같은 데드라인을 걸고, 넘기면 작업 스레드를 인터럽트한 뒤 2회 호출로 대체
+            graph = transcriptFuture.thenCombine(historyFuture, (transcript, history) -> track(turn, calls,
+                            OpenAICallExecutor.withDeadline(openAICallExecutor.submit(() -> analyzeAndReply(audioKey, history, transcript, voiceMetadata,
+                                            openAIService::analyzeTranscriptEmotionInline)),
+                                    OpenAICallExecutor.DEFAULT_TIMEOUT_MS)))
+                    .thenCompose(call -> call)
+                    .exceptionallyCompose(e -> {
+                        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                        if (!(cause instanceof TimeoutException) || turn.isDone()) {
+                            return CompletableFuture.failedFuture(cause);
+                        }
+                        log.warn("통합 분석 호출이 {}ms 데드라인을 넘어 분석/응답 개별 호출로 대체합니다.", OpenAICallExecutor.DEFAULT_TIMEOUT_MS);
+                        return separateCallsAsync(audioKey, historyFuture, transcriptFuture, voiceMetadata, turn, calls);
+                    });
+        } else {
+            graph = separateCallsAsync(audioKey, historyFuture, transcriptFuture, voiceMetadata, turn, calls);
+        }
+        graph.whenComplete((result, ex) -> {
+            if (ex != null) {
+                turn.completeExceptionally(ex);
+            } else {
+                turn.complete(result);
+            }
+        });
+        return turn;
+    }
+
+    private CompletableFuture<VoiceTurnResult> separateCallsAsync(String audioKey,
+                                                                CompletableFuture<List<ChatCompletionRequest.Message>> historyFuture,
+                                                                CompletableFuture<String> transcriptFuture,
+                                                                VoiceMetadata voiceMetadata,
+                                                                CompletableFuture<VoiceTurnResult> turn,
+                                                                List<CompletableFuture<?>> calls) {
+        CompletableFuture<EmotionAnalysisResult> analysisFuture = transcriptFuture
+                .thenCompose(transcript -> track(turn, calls, OpenAICallExecutor.withDeadline(
+                        openAICallExecutor.submit(() -> audioAnalysisCache.emotion(audioKey, transcript,
+                                () -> openAIService.analyzeTranscriptEmotionInline(transcript, null))),
+                        OpenAICallExecutor.DEFAULT_TIMEOUT_MS)))
+                .exceptionally(e -> {
+                    log.warn("감정 분석 실패, 분석 없이 응답만 저장합니다: {}", e.getMessage());
+                    return null;
+                });
+        // 응답은 논블로킹 클라이언트로 보내 풀 스레드를 점유하지 않음
+        CompletableFuture<String> replyFuture = transcriptFuture.thenCombine(historyFuture,
+                (transcript, history) -> track(turn, calls, openAIService.generateResponseWithHistoryAndVoiceAsync(history, transcript, voiceMetadata)))
+                .thenCompose(reply -> reply);
+        return analysisFuture.thenCombine(replyFuture, VoiceTurnResult::new);
+    }
+
+    // 턴이 이미 취소된 뒤 시작된 호출은 바로 취소
+    private static <T> CompletableFuture<T> track(CompletableFuture<?> turn, List<CompletableFuture<?>> calls, CompletableFuture<T> call) {
+        calls.add(call);
+        if (turn.isCancelled()) {
+            call.cancel(true);
+        }
+        return call;
+    }
+}
@@ -0,0 +1,172 @@
+package com.duckchat.api.service;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 저장된 음성 업로드 한 건. 작은 클립은 풀에서 빌린 direct ByteBuffer에, 큰 파일은 업로드 디렉토리에 있습니다.
+ * 참조 카운트로 수명을 관리해, 마지막 release에서 버퍼를 풀에 돌려주거나 (작업에 넘기지 않은) 파일을 지웁니다.
+ */
+public class VoiceUpload {
+
+    private final String filename;
+    private final Path uploadDir;
+    private final Consumer<ByteBuffer> bufferReturner;
+    private final AtomicInteger refs = new AtomicInteger(1);
+    private ByteBuffer buffer;
+    private Path file;
+    private boolean handedOff;
+
+    VoiceUpload(String filename, ByteBuffer buffer, Path uploadDir, Consumer<ByteBuffer> bufferReturner) {
+        this.filename = filename;
+        this.buffer = buffer;
+        this.uploadDir = uploadDir;
+        this.bufferReturner = bufferReturner;
+    }
+
+    VoiceUpload(String filename, Path file) {
+        this.filename = filename;
+        this.file = file;
+        this.uploadDir = file.getParent();
+        this.bufferReturner = null;
+    }
+
+    public synchronized boolean isInMemory() {
+        return buffer != null;
+    }
+
+    public String filename() {
+        return filename;
+    }
+
+    /** 디스크에 쓰지 않고 그대로 읽는 내용 (읽기 전용 사본 위치) */
+    public synchronized ByteBuffer content() {
+        return buffer != null ? buffer.asReadOnlyBuffer() : null;
+    }
+
+    public synchronized Path file() {
+        return file;
+    }
+
+    /** 멀티파트 업로드용. 메모리 클립은 버퍼에서 바로 스트리밍 */
+    public synchronized Resource asResource() {
+        if (buffer == null) {
+            return new FileSystemResource(file);
+        }
+        ByteBuffer view = buffer.asReadOnlyBuffer();
+        return new AbstractResource() {
+            @Override
+            public String getFilename() {
+                return filename;
+            }
+
+            @Override
+            public long contentLength() {
+                return view.remaining();
+            }
+
+            @Override
+            public String getDescription() {
+                return "in-memory upload [" + filename + "]";
+            }
+
+            @Override
+            public InputStream getInputStream() {
+                return new ByteBufferInputStream(view.duplicate());
+            }
+        };
+    }
+
+    /**
+     * 비동기 작업으로 넘길 파일 경로. 메모리 클립이면 이때 한 번만 디스크에 씁니다.
+     * 넘긴 파일은 작업이 소유하므로 release에서 지우지 않습니다.
+     */
+    public synchronized Path handOff() throws IOException {
+        if (file == null) {
+            Files.createDirectories(uploadDir);
+            Path target = Files.createTempFile(uploadDir, "upload-", "-" + filename);
+            try (FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE)) {
+                ByteBuffer view = buffer.asReadOnlyBuffer();
+                while (view.hasRemaining()) {
+                    channel.write(view);
+                }
+            } catch (IOException e) {
+                // 쓰다 만 파일을 남기지 않음
+                Files.deleteIfExists(target);
+                throw e;
+            }
+            file = target;
+        }
+        handedOff = true;
+        return file;
+    }
+
+    /** 작업 등록이 실패(큐 초과 등)하면 넘긴 파일을 다시 가져와 마지막 release에서 지워지도록 함 */
+    public synchronized void reclaim() {
+        handedOff = false;
+    }
+
+    /** 다른 스레드가 버퍼를 읽는 동안 반납되지 않도록 참조를 하나 더 잡음 */
+    public VoiceUpload retain() {
+        refs.incrementAndGet();
+        return this;
+    }
+
+    public void release() {
+        if (refs.decrementAndGet() != 0) {
+            return;
+        }
+        synchronized (this) {
+            if (buffer != null) {
+                bufferReturner.accept(buffer);
+                buffer = null;
+            }
+            if (file != null && !handedOff) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException ignored) {
+                    // 업로드 디렉토리 정리는 실패해도 응답에는 영향 없음
+                }
+            }
+        }
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer source;
+
+        private ByteBufferInputStream(ByteBuffer source) {
+            this.source = source;
+        }
+
+        @Override
+        public int read() {
+            return source.hasRemaining() ? source.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) {
+            if (!source.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, source.remaining());
+            source.get(target, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return source.remaining();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.duckchat.api.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 음성 업로드 저장소.
+ * in-memory-max-bytes 이하 클립은 풀링된 direct ByteBuffer로 읽어 디스크를 거치지 않고, 그보다 크면
+ * MultipartFile.transferTo로 업로드 디렉토리에 옮깁니다 (힙 byte[]로 전체를 읽지 않음).
+ * 버퍼 풀이 모두 사용 중이면 디스크 경로로 처리합니다.
+ */
+@Component
+public class VoiceUploadStore {
+
+    private final Path uploadDir;
+    private final int inMemoryMaxBytes;
+    private final int poolSize;
+    private final BlockingQueue<ByteBuffer> pool;
+    private final AtomicInteger allocated = new AtomicInteger();
+    private final Counter inMemoryCounter;
+    private final Counter diskCounter;
+
+    public VoiceUploadStore(@Value("${app.upload.dir:/tmp/duckchat-uploads}") String uploadDir,
+                            @Value("${app.upload.in-memory-max-bytes:1048576}") int inMemoryMaxBytes,
+                            @Value("${app.upload.buffer-pool-size:16}") int poolSize,
+                            MeterRegistry meterRegistry) {
+        this.uploadDir = Paths.get(uploadDir);
+        this.inMemoryMaxBytes = inMemoryMaxBytes;
+        this.poolSize = poolSize;
+        this.pool = new ArrayBlockingQueue<>(Math.max(1, poolSize));
+        this.inMemoryCounter = Counter.builder("voice.uploads").tag("storage", "memory").register(meterRegistry);
+        this.diskCounter = Counter.builder("voice.uploads").tag("storage", "disk").register(meterRegistry);
+    }
+
+    public VoiceUpload store(MultipartFile audio) throws IOException {
+        String filename = safeFilename(audio.getOriginalFilename());
+        long size = audio.getSize();
+        if (size > 0 && size <= inMemoryMaxBytes) {
+            ByteBuffer buffer = borrow();
+            if (buffer != null) {
+                try (InputStream in = audio.getInputStream(); ReadableByteChannel channel = Channels.newChannel(in)) {
+                    while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+                        // 버퍼가 찰 때까지 읽음
+                    }
+                } catch (IOException e) {
+                    giveBack(buffer);
+                    throw e;
+                }
+                buffer.flip();
+                inMemoryCounter.increment();
+                return new VoiceUpload(filename, buffer, uploadDir, this::giveBack);
+            }
+        }
+        Files.createDirectories(uploadDir);
+        // 같은 밀리초에 같은 이름으로 올라온 업로드끼리 덮어쓰지 않도록 고유한 파일을 먼저 만듦
+        Path target = Files.createTempFile(uploadDir, "upload-", "-" + filename);
+        try {
+            // 서블릿 컨테이너가 디스크에 받아 둔 파트는 복사 없이 이동됨
+            audio.transferTo(target);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        }
+        diskCounter.increment();
+        return new VoiceUpload(filename, target);
+    }
+
+    private ByteBuffer borrow() {
+        ByteBuffer buffer = pool.poll();
+        if (buffer == null && allocated.incrementAndGet() <= poolSize) {
+            buffer = ByteBuffer.allocateDirect(inMemoryMaxBytes);
+        } else if (buffer == null) {
+            allocated.decrementAndGet();
+        }
+        if (buffer != null) {
+            buffer.clear();
+        }
+        return buffer;
+    }
+
+    private void giveBack(ByteBuffer buffer) {
+        buffer.clear();
+        pool.offer(buffer);
+    }
+
+    // 업로드 디렉토리 밖으로 나가지 않도록 파일 이름만 남김
+    private static String safeFilename(String original) {
+        if (original == null || original.isBlank()) {
+            return "audio.webm";
+        }
+        String name = original.substring(Math.max(original.lastIndexOf('/'), original.lastIndexOf('\\')) + 1)
+                .replaceAll("[^A-Za-z0-9._-]", "_");
+        return name.isEmpty() || name.startsWith(".") ? "audio" + name : name;
+    }
+}
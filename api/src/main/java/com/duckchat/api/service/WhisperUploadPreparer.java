@@ -0,0 +1,197 @@
+package com.duckchat.api.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Whisper 업로드 전 단계: 앞뒤 무음을 잘라내고 16kHz mono Opus/OGG로 압축합니다.
+ * 남은 음성이 최소 길이보다 짧으면 업로드하지 않도록 알려 주고, 인코딩에 실패하면 잘라낸 PCM을 WAV로 보냅니다.
+ */
+@Slf4j
+@Component
+public class WhisperUploadPreparer {
+
+    private static final int FRAME_MS = 20;
+    private static final int FRAME_BYTES = DecodedAudio.SAMPLE_RATE / 1000 * FRAME_MS * 2;
+
+    /** 업로드할 내용. tooShort이면 resource는 null */
+    public static final class Prepared {
+        private final Resource resource;
+        private final double speechSeconds;
+
+        private Prepared(Resource resource, double speechSeconds) {
+            this.resource = resource;
+            this.speechSeconds = speechSeconds;
+        }
+
+        public boolean tooShort() {
+            return resource == null;
+        }
+
+        public Resource resource() {
+            return resource;
+        }
+
+        public double speechSeconds() {
+            return speechSeconds;
+        }
+    }
+
+    private final ProcessSupervisor processSupervisor;
+    private final double silenceThreshold;
+    private final int paddingMs;
+    private final int minSpeechMs;
+    private final String bitrate;
+    private final long timeoutMs;
+    private final Counter bytesSaved;
+    private final Counter skipped;
+    private final DistributionSummary originalBytes;
+    private final DistributionSummary uploadBytes;
+
+    public WhisperUploadPreparer(ProcessSupervisor processSupervisor,
+                                 @Value("${app.whisper-upload.silence-threshold:0.01}") double silenceThreshold,
+                                 @Value("${app.whisper-upload.padding-ms:200}") int paddingMs,
+                                 @Value("${app.whisper-upload.min-speech-ms:400}") int minSpeechMs,
+                                 @Value("${app.whisper-upload.opus-bitrate:24k}") String bitrate,
+                                 @Value("${app.process.ffmpeg-timeout-ms:60000}") long timeoutMs,
+                                 MeterRegistry meterRegistry) {
+        this.processSupervisor = processSupervisor;
+        this.silenceThreshold = silenceThreshold;
+        this.paddingMs = paddingMs;
+        this.minSpeechMs = minSpeechMs;
+        this.bitrate = bitrate;
+        this.timeoutMs = timeoutMs;
+        this.bytesSaved = Counter.builder("whisper.upload.bytes.saved")
+                .description("무음 제거와 압축으로 줄인 Whisper 업로드 바이트")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.skipped = Counter.builder("whisper.upload.skipped")
+                .description("음성이 너무 짧아 Whisper를 호출하지 않은 횟수")
+                .register(meterRegistry);
+        this.originalBytes = DistributionSummary.builder("whisper.upload.size").tag("stage", "original")
+                .baseUnit("bytes").register(meterRegistry);
+        this.uploadBytes = DistributionSummary.builder("whisper.upload.size").tag("stage", "prepared")
+                .baseUnit("bytes").register(meterRegistry);
+    }
+
+    /**
+     * @param originalSize 클라이언트가 올린 원본 크기 (절감량 계산용)
+     */
+    public Prepared prepare(DecodedAudio audio, long originalSize) {
+        byte[] pcm = audio.pcm();
+        int[] voiced = voicedFrames(pcm, silenceThreshold);
+        // 음성 길이는 첫~마지막 유성 프레임만으로 재고, padding은 잘라낼 때만 붙임 (짧은 잡음이 padding 덕에 최소 길이를 넘지 않도록)
+        double speechSeconds = voiced == null ? 0 : (voiced[1] - voiced[0] + 1) * FRAME_MS / 1000.0;
+        if (speechSeconds * 1000 < minSpeechMs) {
+            skipped.increment();
+            log.debug("음성 {}초 - 최소 길이({}ms) 미만이라 Whisper 업로드 생략", speechSeconds, minSpeechMs);
+            return new Prepared(null, speechSeconds);
+        }
+
+        int[] bounds = paddedBounds(voiced, pcm.length, paddingMs);
+        byte[] trimmed = bounds[0] == 0 && bounds[1] == pcm.length ? pcm : Arrays.copyOfRange(pcm, bounds[0], bounds[1]);
+        Resource resource = encodeOpus(trimmed);
+        if (resource == null) {
+            resource = new DecodedAudio(trimmed).asWavResource("audio.wav");
+        }
+        long prepared = contentLength(resource);
+        originalBytes.record(originalSize);
+        uploadBytes.record(prepared);
+        if (originalSize > prepared) {
+            bytesSaved.increment(originalSize - prepared);
+        }
+        log.debug("Whisper 업로드 {} → {} bytes (음성 {}초 / 전체 {}초)", originalSize, prepared, speechSeconds, audio.durationSeconds());
+        return new Prepared(resource, speechSeconds);
+    }
+
+    /**
+     * 첫 유성 프레임 앞, 마지막 유성 프레임 뒤로 padding만 남긴 [시작, 끝) 바이트 범위.
+     * 유성 프레임이 없으면 길이 0 범위를 반환합니다.
+     */
+    static int[] speechBounds(byte[] pcm, double threshold, int paddingMs) {
+        return paddedBounds(voicedFrames(pcm, threshold), pcm.length, paddingMs);
+    }
+
+    // 첫/마지막 유성 프레임 번호. 없으면 null
+    private static int[] voicedFrames(byte[] pcm, double threshold) {
+        int frames = pcm.length / FRAME_BYTES;
+        int first = -1;
+        int last = -1;
+        for (int f = 0; f < frames; f++) {
+            if (frameRms(pcm, f * FRAME_BYTES) >= threshold) {
+                if (first < 0) {
+                    first = f;
+                }
+                last = f;
+            }
+        }
+        return first < 0 ? null : new int[]{first, last};
+    }
+
+    private static int[] paddedBounds(int[] voiced, int length, int paddingMs) {
+        if (voiced == null) {
+            return new int[]{0, 0};
+        }
+        int padFrames = paddingMs / FRAME_MS;
+        int start = Math.max(0, voiced[0] - padFrames) * FRAME_BYTES;
+        int end = Math.min(length, (voiced[1] + 1 + padFrames) * FRAME_BYTES);
+        return new int[]{start, end};
+    }
+
+    private static double frameRms(byte[] pcm, int offset) {
+        double sum = 0;
+        for (int i = offset; i < offset + FRAME_BYTES; i += 2) {
+            double sample = (short) ((pcm[i] & 0xff) | (pcm[i + 1] << 8)) / 32768.0;
+            sum += sample * sample;
+        }
+        return Math.sqrt(sum / (FRAME_BYTES / 2.0));
+    }
+
+    // PCM을 stdin으로 넣고 OGG를 stdout으로 받음 (중간 파일 없음). 실패하면 null
+    private Resource encodeOpus(byte[] pcm) {
+        ProcessBuilder pb = new ProcessBuilder(
+                "ffmpeg", "-hide_banner", "-loglevel", "error",
+                "-f", "s16le", "-ar", String.valueOf(DecodedAudio.SAMPLE_RATE), "-ac", String.valueOf(DecodedAudio.CHANNELS),
+                "-i", "pipe:0",
+                "-c:a", "libopus", "-b:a", bitrate, "-application", "voip",
+                "-f", "ogg", "pipe:1");
+        try {
+            ProcessSupervisor.Result<byte[]> result = processSupervisor.run("ffmpeg", pb, timeoutMs,
+                    stdin -> stdin.write(pcm), InputStream::readAllBytes);
+            if (!result.succeeded() || result.value() == null || result.value().length == 0) {
+                log.warn("Opus 인코딩 실패 (종료 코드 {}): {}", result.exitCode(), result.outputTail());
+                return null;
+            }
+            byte[] ogg = result.value();
+            return new ByteArrayResource(ogg) {
+                @Override
+                public String getFilename() {
+                    return "audio.ogg";
+                }
+            };
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            log.warn("Opus 인코딩 예외: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static long contentLength(Resource resource) {
+        try {
+            return resource.contentLength();
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+}
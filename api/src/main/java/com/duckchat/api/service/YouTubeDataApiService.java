@@ -1,11 +1,11 @@
 package com.duckchat.api.service;
 
 import com.duckchat.api.config.OpenAIConfig;
+import com.duckchat.api.config.OutboundHttpClients;
 import com.duckchat.api.dto.YouTubeRecommendation;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.net.URI;
@@ -20,7 +20,7 @@ import java.util.concurrent.TimeUnit;
 public class YouTubeDataApiService {
 
     private final OpenAIConfig openAIConfig;
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final OutboundHttpClients outboundHttpClients;
     // simple in-memory cache: query -> (timestamp, results)
     private final Map<String, CacheEntry> cache = new LinkedHashMap<>();
     private static final long CACHE_TTL_MS = TimeUnit.MINUTES.toMillis(30);
@@ -54,7 +54,7 @@ public class YouTubeDataApiService {
             int maxAttempts = 3;
             while (attempts < maxAttempts) {
                 try {
-                    ResponseEntity<String> resp = restTemplate.getForEntity(uri, String.class);
+                    ResponseEntity<String> resp = outboundHttpClients.getYoutube().getForEntity(uri, String.class);
                     body = resp.getBody();
                     break;
                 } catch (Exception ex) {
@@ -20,6 +20,9 @@ CREATE TABLE IF NOT EXISTS chat_sessions (
     user_id BIGINT NOT NULL,
     title VARCHAR(255) NOT NULL,
     is_active BOOLEAN NOT NULL DEFAULT TRUE,
+    summary TEXT,
+    summarized_until_order INT,
+    next_message_order INT,
     created_at TIMESTAMP NOT NULL,
     updated_at TIMESTAMP NOT NULL,
     FOREIGN KEY (user_id) REFERENCES users(id)
@@ -64,3 +67,28 @@ CREATE TABLE IF NOT EXISTS contents (
     created_at TIMESTAMP NOT NULL,
     updated_at TIMESTAMP NOT NULL
 );
+
+-- 음성 처리 작업 테이블 (id는 시간순 UUIDv7)
+-- lease_owner/lease_expires_at: 작업을 처리 중인 노드와 리스 만료 시각 (만료되면 다른 노드가 이어서 처리)
+-- attempts: 실제로 실행을 시작한 횟수, turn_saved_at: 채팅 히스토리에 턴을 저장한 시각 (중복 저장 방지)
+CREATE TABLE IF NOT EXISTS processing_job (
+    id VARCHAR(36) PRIMARY KEY,
+    status VARCHAR(255),
+    user_id BIGINT,
+    transcript LONGTEXT,
+    analysis_json LONGTEXT,
+    assistant_response LONGTEXT,
+    error_message VARCHAR(255),
+    chat_session_id VARCHAR(255),
+    file_path VARCHAR(255),
+    language VARCHAR(255),
+    upload_node VARCHAR(255),
+    features_json LONGTEXT,
+    lease_owner VARCHAR(255),
+    lease_expires_at DATETIME(6),
+    attempts INT,
+    turn_saved_at DATETIME(6),
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    INDEX idx_processing_job_claim (status, lease_expires_at)
+);
@@ -0,0 +1,112 @@
+package com.duckchat.api.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 응답하지 않는 서버를 상대로, 타임아웃과 호출 스레드 인터럽트가 모두 HTTP 교환(연결)까지 끊는지 확인합니다.
+ */
+public class HttpClientConfigTest {
+
+    private ServerSocket server;
+    private OutboundHttpClients clients;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = new ServerSocket(0);
+        HttpClientConfig config = new HttpClientConfig();
+        ReflectionTestUtils.setField(config, "connectTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(config, "maxConcurrentPerHost", 4);
+        ReflectionTestUtils.setField(config, "chatResponseTimeoutMs", 30_000L);
+        ReflectionTestUtils.setField(config, "transcriptionResponseTimeoutMs", 30_000L);
+        ReflectionTestUtils.setField(config, "youtubeResponseTimeoutMs", 300L);
+        clients = config.outboundHttpClients(config.outboundHttpClient(), new RestTemplateBuilder(),
+                config.outboundConcurrencyLimiter(new SimpleMeterRegistry()));
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        server.close();
+    }
+
+    @Test
+    public void templatesDoNotUseBufferingInterceptors() {
+        Assertions.assertTrue(clients.getChat().getInterceptors().isEmpty());
+        Assertions.assertTrue(clients.getTranscription().getInterceptors().isEmpty());
+        Assertions.assertTrue(clients.getYoutube().getInterceptors().isEmpty());
+    }
+
+    @Test
+    public void responseTimeoutAbortsTheExchange() throws Exception {
+        CompletableFuture<Object> call = CompletableFuture.supplyAsync(() -> get(clients.getYoutube()));
+
+        try (Socket accepted = server.accept()) {
+            Assertions.assertTrue(closedByClient(accepted), "타임아웃 후 클라이언트가 연결을 끊어야 함");
+        }
+        Exception failure = Assertions.assertThrows(Exception.class, () -> call.get(5, TimeUnit.SECONDS));
+        Assertions.assertInstanceOf(ResourceAccessException.class, failure.getCause());
+    }
+
+    @Test
+    public void interruptingTheCallerCancelsTheExchange() throws Exception {
+        CompletableFuture<Throwable> outcome = new CompletableFuture<>();
+        Thread caller = new Thread(() -> {
+            try {
+                get(clients.getChat());
+                outcome.complete(null);
+            } catch (Throwable t) {
+                outcome.complete(t);
+            }
+        });
+        caller.start();
+
+        try (Socket accepted = server.accept()) {
+            readRequestHead(accepted.getInputStream());
+            caller.interrupt();
+            // 응답 타임아웃(30초)보다 훨씬 먼저 교환이 취소되어 연결이 닫혀야 함
+            Assertions.assertTrue(closedByClient(accepted), "인터럽트 후 클라이언트가 연결을 끊어야 함");
+        }
+        Assertions.assertInstanceOf(ResourceAccessException.class, outcome.get(5, TimeUnit.SECONDS));
+    }
+
+    private Object get(RestTemplate template) {
+        return template.getForObject("http://127.0.0.1:" + server.getLocalPort() + "/slow", String.class);
+    }
+
+    private static void readRequestHead(InputStream in) throws Exception {
+        int matched = 0;
+        byte[] end = "\r\n\r\n".getBytes();
+        while (matched < end.length) {
+            int b = in.read();
+            if (b < 0) {
+                return;
+            }
+            matched = b == end[matched] ? matched + 1 : (b == end[0] ? 1 : 0);
+        }
+    }
+
+    // 응답을 보내지 않고 기다리다가 클라이언트 쪽에서 연결을 닫으면 true
+    private static boolean closedByClient(Socket socket) throws Exception {
+        socket.setSoTimeout(5000);
+        InputStream in = socket.getInputStream();
+        readRequestHead(in);
+        try {
+            return in.read() < 0;
+        } catch (java.net.SocketException e) {
+            return true; // reset
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.duckchat.api.config;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public class IdSequenceInitializerTest {
+
+    @Test
+    public void failedAlignmentStopsStartup() {
+        JdbcTemplate jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        Mockito.doThrow(new DataAccessResourceFailureException("권한 없음")).when(jdbcTemplate).execute(Mockito.anyString());
+
+        IllegalStateException failure = Assertions.assertThrows(IllegalStateException.class,
+                () -> new IdSequenceInitializer(jdbcTemplate).alignSequences());
+        Assertions.assertTrue(failure.getMessage().contains("chat_messages_seq"));
+    }
+}
@@ -0,0 +1,90 @@
+package com.duckchat.api.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class OutboundConcurrencyLimiterTest {
+
+    private static final URI API = URI.create("https://api.openai.com/v1/chat/completions");
+
+    @Test
+    public void permitIsHeldUntilTheExchangeItselfEnds() {
+        OutboundConcurrencyLimiter limiter = new OutboundConcurrencyLimiter(1, 0, new SimpleMeterRegistry());
+        CompletableFuture<String> exchange = new CompletableFuture<>();
+
+        CompletableFuture<String> started = limiter.limitAsync(API, () -> exchange);
+        CompletableFuture<String> parsed = started.thenApply(String::trim);
+        // 파생 future만 끝나도 교환이 진행 중이면 자리를 비우지 않음
+        parsed.complete("early");
+        Assertions.assertTrue(limiter.limitAsync(API, CompletableFuture::new).isCompletedExceptionally());
+
+        exchange.complete("done");
+        CompletableFuture<String> next = limiter.limitAsync(API, CompletableFuture::new);
+        Assertions.assertFalse(next.isCompletedExceptionally());
+    }
+
+    @Test
+    public void timedOutCallCancelsTheExchangeAndThenFreesItsPermit() {
+        OutboundConcurrencyLimiter limiter = new OutboundConcurrencyLimiter(1, 0, new SimpleMeterRegistry());
+        CompletableFuture<String> exchange = new CompletableFuture<>();
+
+        CompletableFuture<String> started = limiter.limitAsync(API, () -> exchange);
+        CompletableFuture<String> result = OutboundConcurrencyLimiter.cancelExchangeWith(started.thenApply(String::trim), started)
+                .orTimeout(50, TimeUnit.MILLISECONDS);
+
+        // 데드라인 전에는 교환이 자리를 차지
+        Assertions.assertTrue(limiter.limitAsync(API, CompletableFuture::new).isCompletedExceptionally());
+
+        CompletionException timedOut = Assertions.assertThrows(CompletionException.class, result::join);
+        Assertions.assertInstanceOf(TimeoutException.class, timedOut.getCause());
+        Assertions.assertTrue(exchange.isCancelled(), "데드라인이 교환 future까지 취소해야 함");
+        Assertions.assertFalse(limiter.limitAsync(API, CompletableFuture::new).isCompletedExceptionally());
+    }
+
+    @Test
+    public void limitedRequestHoldsItsPermitUntilTheResponseIsClosed() throws Exception {
+        OutboundConcurrencyLimiter limiter = new OutboundConcurrencyLimiter(1, 20, new SimpleMeterRegistry());
+        ClientHttpRequestFactory factory = limiter.limit((uri, method) -> {
+            MockClientHttpRequest request = new MockClientHttpRequest(method, uri);
+            request.setResponse(new MockClientHttpResponse(new byte[0], HttpStatus.OK));
+            return request;
+        });
+
+        ClientHttpResponse first = factory.createRequest(API, HttpMethod.POST).execute();
+        ClientHttpRequest second = factory.createRequest(API, HttpMethod.POST);
+        Assertions.assertThrows(IOException.class, second::execute);
+
+        first.close();
+        try (ClientHttpResponse third = factory.createRequest(API, HttpMethod.POST).execute()) {
+            Assertions.assertEquals(HttpStatus.OK, third.getStatusCode());
+        }
+    }
+
+    @Test
+    public void limitedRequestKeepsTheBodyStreaming() throws Exception {
+        OutboundConcurrencyLimiter limiter = new OutboundConcurrencyLimiter(1, 20, new SimpleMeterRegistry());
+        MockClientHttpRequest target = new MockClientHttpRequest(HttpMethod.POST, API);
+        ClientHttpRequest request = limiter.limit((uri, method) -> target).createRequest(API, HttpMethod.POST);
+
+        // 메시지 컨버터가 본문을 바이트 배열로 모으지 않고 바로 쓰도록 StreamingHttpOutputMessage를 유지
+        Assertions.assertInstanceOf(StreamingHttpOutputMessage.class, request);
+        ((StreamingHttpOutputMessage) request).setBody(out -> out.write("audio".getBytes()));
+        Assertions.assertEquals("audio", target.getBodyAsString());
+    }
+}
@@ -0,0 +1,34 @@
+package com.duckchat.api.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WebSocketConfigTest {
+
+    @Test
+    public void tokenComesFromAuthorizationHeader() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth("header.jwt.value");
+
+        assertEquals("header.jwt.value", WebSocketConfig.bearerToken(headers));
+    }
+
+    @Test
+    public void browserTokenComesFromTheBearerSubprotocol() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("Sec-WebSocket-Protocol", "bearer, browser.jwt.value");
+
+        assertEquals("browser.jwt.value", WebSocketConfig.bearerToken(headers));
+    }
+
+    @Test
+    public void noTokenWithoutHeaderOrSubprotocolValue() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("Sec-WebSocket-Protocol", "bearer");
+
+        assertNull(WebSocketConfig.bearerToken(headers));
+        assertNull(WebSocketConfig.bearerToken(new HttpHeaders()));
+    }
+}
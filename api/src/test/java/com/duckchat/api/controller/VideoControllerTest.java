@@ -0,0 +1,168 @@
+package com.duckchat.api.controller;
+
+import com.duckchat.api.service.VideoCatalog;
+import jakarta.servlet.Filter;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class VideoControllerTest {
+
+    private static final String URL = "/api/videos/stream/clip.mp4";
+
+    @TempDir
+    Path dir;
+
+    private byte[] content;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        content = new byte[1000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        Path file = Files.write(dir.resolve("clip.mp4"), content);
+        VideoCatalog.Entry entry = new VideoCatalog.Entry();
+        entry.setId("abc123");
+        entry.setFilename("clip.mp4");
+        VideoCatalog catalog = mock(VideoCatalog.class);
+        when(catalog.byFilename("clip.mp4")).thenReturn(Optional.of(entry));
+        when(catalog.resolve(entry)).thenReturn(file);
+        mockMvc = MockMvcBuilders.standaloneSetup(new VideoController(catalog))
+                .addFilters(nonBlockingOutput())
+                .build();
+    }
+
+    @Test
+    public void singleRangeReturnsPartialContent() throws Exception {
+        MvcResult result = mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=10-19"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 10-19/1000"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 10))
+                .andExpect(content().bytes(Arrays.copyOfRange(content, 10, 20)))
+                .andReturn();
+
+        assertEquals(1, result.getResponse().getHeaders(HttpHeaders.ETAG).size(), "조건부 처리에서 넣은 ETag와 겹치지 않아야 함");
+    }
+
+    @Test
+    public void sendfileHandsTheRangeToTheContainer() throws Exception {
+        MvcResult result = mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=10-19")
+                        .requestAttr("org.apache.tomcat.sendfile.support", true))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 10-19/1000"))
+                .andReturn();
+
+        assertEquals(10L, result.getRequest().getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(20L, result.getRequest().getAttribute("org.apache.tomcat.sendfile.end"));
+        assertEquals(0, result.getResponse().getContentAsByteArray().length);
+    }
+
+    @Test
+    public void unsatisfiableRangeReturns416() throws Exception {
+        mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=5000-6000"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */1000"));
+    }
+
+    @Test
+    public void ifRangeMismatchSendsTheWholeFile() throws Exception {
+        mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=10-19").header(HttpHeaders.IF_RANGE, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 1000))
+                .andExpect(content().bytes(content));
+    }
+
+    @Test
+    public void ifNoneMatchReturns304() throws Exception {
+        String etag = mockMvc.perform(head(URL)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        mockMvc.perform(get(URL).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    public void multipleRangesReturnMultipartByteranges() throws Exception {
+        mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=0-9,20-29"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, startsWith("multipart/byteranges")));
+    }
+
+    @Test
+    public void headAnswersWithHeadersOnly() throws Exception {
+        MvcResult result = mockMvc.perform(head(URL).header(HttpHeaders.RANGE, "bytes=10-19"))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 1000))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andReturn();
+
+        assertEquals(0, result.getResponse().getContentAsByteArray().length);
+        assertFalse(result.getRequest().isAsyncStarted(), "HEAD는 본문 전송을 시작하지 않아야 함");
+    }
+
+    // 목 응답은 WriteListener를 지원하지 않으므로, 항상 쓰기 가능한 출력으로 감싸 FileRegionWriter를 바로 실행
+    private static Filter nonBlockingOutput() {
+        return (request, response, chain) -> {
+            HttpServletResponse target = (HttpServletResponse) response;
+            chain.doFilter(request, new HttpServletResponseWrapper(target) {
+                @Override
+                public ServletOutputStream getOutputStream() throws IOException {
+                    ServletOutputStream delegate = target.getOutputStream();
+                    return new ServletOutputStream() {
+                        @Override
+                        public boolean isReady() {
+                            return true;
+                        }
+
+                        @Override
+                        public void setWriteListener(WriteListener listener) {
+                            try {
+                                listener.onWritePossible();
+                            } catch (IOException e) {
+                                listener.onError(e);
+                            }
+                        }
+
+                        @Override
+                        public void write(int b) throws IOException {
+                            delegate.write(b);
+                        }
+
+                        @Override
+                        public void write(byte[] b, int off, int len) throws IOException {
+                            delegate.write(b, off, len);
+                        }
+                    };
+                }
+            });
+        };
+    }
+}
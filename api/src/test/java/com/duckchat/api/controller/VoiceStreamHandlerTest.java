@@ -0,0 +1,154 @@
+package com.duckchat.api.controller;
+
+import com.duckchat.api.dto.VoiceTurnResult;
+import com.duckchat.api.entity.ChatMessage;
+import com.duckchat.api.entity.ChatSession;
+import com.duckchat.api.entity.User;
+import com.duckchat.api.repository.UserRepository;
+import com.duckchat.api.service.ChatService;
+import com.duckchat.api.service.ConversationContextService;
+import com.duckchat.api.service.OpenAICallExecutor;
+import com.duckchat.api.service.OpenAIService;
+import com.duckchat.api.service.VoiceTurnService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class VoiceStreamHandlerTest {
+
+    private final ChatService chatService = mock(ChatService.class);
+    private final ConversationContextService conversationContextService = mock(ConversationContextService.class);
+    private final VoiceTurnService voiceTurnService = mock(VoiceTurnService.class);
+    private final OpenAICallExecutor openAICallExecutor = mock(OpenAICallExecutor.class);
+    private final User user = User.builder().id(1L).email("duck@example.com").build();
+    private final ChatSession chatSession = ChatSession.builder().id(7L).build();
+    private VoiceStreamHandler handler;
+    private WebSocketSession socket;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        OpenAIService openAIService = mock(OpenAIService.class);
+        when(openAIService.transcribeAudio(any(), anyString())).thenReturn("안녕");
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(chatService.getChatSession(7L, user)).thenReturn(Optional.of(chatSession));
+        when(chatService.saveTurn(eq(user), any(), any(), eq(7L))).thenReturn(ChatMessage.builder().id(1L).content("응답").build());
+        when(conversationContextService.buildHistory(any())).thenReturn(new ArrayList<>());
+        when(openAICallExecutor.submit(any())).thenAnswer(invocation -> {
+            Callable<?> task = invocation.getArgument(0);
+            return CompletableFuture.completedFuture(task.call());
+        });
+
+        handler = new VoiceStreamHandler(openAIService, chatService, userRepository, conversationContextService,
+                voiceTurnService, openAICallExecutor, Runnable::run, new ObjectMapper(), 0.02, 300, 900, 200, 8000, 30, 100);
+
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(VoiceStreamHandler.ATTR_EMAIL, user.getEmail());
+        attributes.put(VoiceStreamHandler.ATTR_CHAT_SESSION_ID, "7");
+        socket = mock(WebSocketSession.class);
+        when(socket.getId()).thenReturn("socket-1");
+        when(socket.getAttributes()).thenReturn(attributes);
+        when(socket.isOpen()).thenReturn(true);
+        handler.afterConnectionEstablished(socket);
+    }
+
+    @Test
+    public void nextTurnReadsHistoryOnlyAfterThePreviousTurnIsSaved() throws Exception {
+        CompletableFuture<VoiceTurnResult> firstReply = new CompletableFuture<>();
+        when(voiceTurnService.analyzeAndReplyAsync(any(), any(), any(), any()))
+                .thenReturn(firstReply)
+                .thenReturn(CompletableFuture.completedFuture(new VoiceTurnResult(null, "두 번째")));
+
+        utterance();
+        utterance();
+        // 첫 턴이 저장되기 전에는 두 번째 턴의 히스토리를 읽지 않음
+        verify(conversationContextService, times(1)).buildHistory(any());
+        verify(voiceTurnService, times(1)).analyzeAndReplyAsync(any(), any(), any(), any());
+
+        firstReply.complete(new VoiceTurnResult(null, "첫 번째"));
+        verify(conversationContextService, times(2)).buildHistory(any());
+        verify(chatService, times(2)).saveTurn(eq(user), any(), any(), eq(7L));
+    }
+
+    @Test
+    public void chatSessionIsReloadedForEveryTurn() throws Exception {
+        when(voiceTurnService.analyzeAndReplyAsync(any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(new VoiceTurnResult(null, "응답")));
+
+        utterance();
+        utterance();
+
+        // 연결 시 1번 + 턴마다 1번 (요약이 바뀐 세션을 다시 읽음)
+        verify(chatService, times(3)).getChatSession(7L, user);
+    }
+
+    @Test
+    public void rejectedSegmentEndsTheUtteranceWithAnErrorFrame() throws Exception {
+        doThrow(new RejectedExecutionException("pool full")).when(openAICallExecutor).submit(any());
+        when(voiceTurnService.analyzeAndReplyAsync(any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(new VoiceTurnResult(null, "응답")));
+
+        // 거절이 연결 스레드로 올라오지 않고 error 메시지로 끝남
+        utterance();
+
+        verify(socket).sendMessage(argThat(message -> message instanceof TextMessage text
+                && text.getPayload().contains("\"type\":\"error\"")));
+        verify(chatService, times(0)).saveTurn(any(), any(), any(), any());
+    }
+
+    @Test
+    public void segmentPastItsDeadlineEndsTheUtteranceWithAnErrorFrame() throws Exception {
+        CompletableFuture<Object> stuck = new CompletableFuture<>();
+        doReturn(stuck).when(openAICallExecutor).submit(any());
+        when(voiceTurnService.analyzeAndReplyAsync(any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(new VoiceTurnResult(null, "응답")));
+
+        utterance();
+
+        // 데드라인(100ms)이 지나면 전사 호출을 취소하고 error 메시지를 보냄
+        verify(socket, timeout(2000)).sendMessage(argThat(message -> message instanceof TextMessage text
+                && text.getPayload().contains("\"type\":\"error\"")));
+        Assertions.assertTrue(stuck.isCancelled());
+        verify(chatService, times(0)).saveTurn(any(), any(), any(), any());
+    }
+
+    private void utterance() throws Exception {
+        handler.handleMessage(socket, new BinaryMessage(tone(500)));
+        handler.handleMessage(socket, new TextMessage("{\"type\":\"end\"}"));
+    }
+
+    private static byte[] tone(int ms) {
+        int samples = 16 * ms;
+        byte[] pcm = new byte[samples * 2];
+        for (int i = 0; i < samples; i++) {
+            short value = (short) (0.3 * 32767 * Math.sin(2 * Math.PI * 220 * i / 16000.0));
+            pcm[2 * i] = (byte) value;
+            pcm[2 * i + 1] = (byte) (value >> 8);
+        }
+        return pcm;
+    }
+}
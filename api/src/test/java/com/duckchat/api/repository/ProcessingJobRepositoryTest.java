@@ -0,0 +1,179 @@
+package com.duckchat.api.repository;
+
+import com.duckchat.api.entity.ProcessingJob;
+import com.duckchat.api.service.JobStateStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * processing_job 리스 쿼리 (schema.sql로 만든 H2 MySQL 모드 테이블).
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:jobs;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.show_sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ProcessingJobRepositoryTest {
+
+    // 애플리케이션 클래스(.env 필요) 대신 JPA 슬라이스만 구성
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = ProcessingJob.class)
+    static class JpaSliceConfig {
+    }
+
+    @Autowired
+    private ProcessingJobRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    public void tearDown() {
+        repository.deleteAll();
+    }
+
+    @Test
+    public void concurrentClaimsNeverHandOutTheSameJob() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            repository.save(job(null, null, "PENDING"));
+        }
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+
+        // 노드 A: 두 행을 잠그고 리스를 쓴 채로 트랜잭션을 열어 둠
+        CompletableFuture<List<String>> nodeA = CompletableFuture.supplyAsync(() -> tx.execute(status -> {
+            List<String> ids = repository.lockClaimable(Instant.now(), "host-a", Instant.EPOCH, 2);
+            repository.lease(ids, "node-a", Instant.now().plusSeconds(30));
+            locked.countDown();
+            await(finish);
+            return ids;
+        }));
+        Assertions.assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+        // 노드 B: 잠긴 행을 기다리지 않고(SKIP LOCKED) 건너뜀
+        List<String> whileLocked = CompletableFuture.supplyAsync(() -> tx.execute(status -> repository.lockClaimable(Instant.now(), "host-a", Instant.EPOCH, 4)))
+                .get(5, TimeUnit.SECONDS);
+        finish.countDown();
+        List<String> claimedByA = nodeA.get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(2, claimedByA.size());
+        Set<String> overlap = new HashSet<>(claimedByA);
+        overlap.retainAll(whileLocked);
+        Assertions.assertTrue(overlap.isEmpty(), "두 노드가 같은 작업을 점유하면 안 됨");
+
+        // A가 커밋한 뒤에는 리스가 살아 있는 A의 작업을 빼고 나머지만 가져감
+        List<String> afterCommit = tx.execute(status -> repository.lockClaimable(Instant.now(), "host-a", Instant.EPOCH, 4));
+        Assertions.assertEquals(2, afterCommit.size());
+        overlap = new HashSet<>(claimedByA);
+        overlap.retainAll(afterCommit);
+        Assertions.assertTrue(overlap.isEmpty());
+    }
+
+    @Test
+    public void onlyUnleasedOrExpiredUnfinishedJobsAreClaimable() {
+        Instant now = Instant.now();
+        ProcessingJob unleased = repository.save(job(null, null, "PENDING"));
+        ProcessingJob expired = repository.save(job("node-a", now.minusSeconds(5), "RUNNING"));
+        repository.save(job("node-a", now.plusSeconds(30), "RUNNING"));
+        repository.save(job(null, null, "DONE"));
+
+        List<String> claimable = new TransactionTemplate(transactionManager)
+                .execute(status -> repository.lockClaimable(now, "host-a", Instant.EPOCH, 10));
+
+        Assertions.assertEquals(List.of(unleased.getId(), expired.getId()), claimable);
+    }
+
+    @Test
+    public void jobWithoutTranscriptStaysWithItsUploadNodeUntilOrphaned() {
+        Instant now = Instant.now();
+        ProcessingJob pending = job(null, null, "PENDING");
+        pending.setUploadNode("host-a");
+        repository.save(pending);
+        ProcessingJob transcribed = job(null, null, "TRANSCRIBED");
+        transcribed.setUploadNode("host-a");
+        transcribed.setTranscript("안녕");
+        repository.save(transcribed);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        // 다른 노드는 업로드 파일이 필요 없는(전사 체크포인트가 있는) 작업만 가져감
+        Assertions.assertEquals(List.of(transcribed.getId()),
+                tx.execute(status -> repository.lockClaimable(now, "host-b", Instant.EPOCH, 10)));
+        Assertions.assertEquals(List.of(pending.getId(), transcribed.getId()),
+                tx.execute(status -> repository.lockClaimable(now, "host-a", Instant.EPOCH, 10)));
+        // 업로드 노드가 돌아오지 않으면(orphanBefore 이전에 생성) 다른 노드도 가져감
+        Assertions.assertEquals(List.of(pending.getId(), transcribed.getId()),
+                tx.execute(status -> repository.lockClaimable(now, "host-b", now.plusSeconds(1), 10)));
+    }
+
+    @Test
+    public void leasingDoesNotCountAnAttemptButStartingDoes() {
+        ProcessingJob job = repository.save(job(null, null, "PENDING"));
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        tx.executeWithoutResult(status -> repository.lease(List.of(job.getId()), "node-a", Instant.now().plusSeconds(30)));
+        Assertions.assertEquals(0, repository.findById(job.getId()).orElseThrow().getAttempts());
+
+        Assertions.assertEquals(0, repository.startAttempt(job.getId(), "node-b"), "리스가 없는 노드는 실행을 시작할 수 없음");
+        Assertions.assertEquals(1, repository.startAttempt(job.getId(), "node-a"));
+        Assertions.assertEquals(1, repository.findById(job.getId()).orElseThrow().getAttempts());
+        Assertions.assertEquals(List.of(job.getId()), repository.findLeasedBy(List.of(job.getId()), "node-a"));
+    }
+
+    @Test
+    public void turnIsMarkedSavedOnlyOnce() {
+        ProcessingJob job = repository.save(job(null, null, "RUNNING"));
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        int first = tx.execute(status -> repository.markTurnSaved(job.getId(), Instant.now()));
+        int retried = tx.execute(status -> repository.markTurnSaved(job.getId(), Instant.now()));
+
+        Assertions.assertEquals(1, first);
+        Assertions.assertEquals(0, retried, "재시도된 작업은 턴을 다시 저장하지 않음");
+    }
+
+    private static ProcessingJob job(String leaseOwner, Instant leaseExpiresAt, String status) {
+        return ProcessingJob.builder()
+                .id(JobStateStore.newJobId())
+                .status(status)
+                .userId(1L)
+                .leaseOwner(leaseOwner)
+                .leaseExpiresAt(leaseExpiresAt)
+                .attempts(0)
+                .build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
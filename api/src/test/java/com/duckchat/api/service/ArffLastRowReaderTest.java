@@ -0,0 +1,47 @@
+package com.duckchat.api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ArffLastRowReaderTest {
+
+    private static final List<String> FEATURES = List.of("F0final_sma", "pcm_RMSenergy_sma", "voicingFinalUnclipped_sma");
+
+    @Test
+    public void readsRequestedColumnsFromLastDataRow() throws Exception {
+        String arff = String.join("\n",
+                "@relation 'openSMILE_features'",
+                "@attribute name string",
+                "@attribute frameTime numeric",
+                "@attribute pcm_RMSenergy_sma numeric",
+                "@attribute F0final_sma numeric",
+                "@attribute voicingFinalUnclipped_sma numeric",
+                "@attribute class {unknown}",
+                "",
+                "@data",
+                "",
+                "'unknown',0.00,0.10,120.5,0.80,unknown",
+                "% comment",
+                "'unknown',0.01,0.20,?,0.70,unknown",
+                "");
+
+        Map<String, String> result = ArffLastRowReader.read(new BufferedReader(new StringReader(arff)), FEATURES);
+
+        assertEquals(Map.of("pcm_RMSenergy_sma", "0.20", "voicingFinalUnclipped_sma", "0.70"), result);
+    }
+
+    @Test
+    public void missingDataSectionIsAnError() throws Exception {
+        String arff = "@relation x\n@attribute F0final_sma numeric\n@data\n\n";
+
+        Map<String, String> result = ArffLastRowReader.read(new BufferedReader(new StringReader(arff)), FEATURES);
+
+        assertTrue(result.containsKey("error"));
+    }
+}
@@ -0,0 +1,149 @@
+package com.duckchat.api.service;
+
+import com.duckchat.api.dto.EmotionAnalysisResult;
+import com.duckchat.api.entity.ProcessingJob;
+import com.duckchat.api.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 재시도된 작업이 체크포인트(전사 → 피처 → 감정분석)에서 끝난 단계를 다시 실행하지 않고 이어서 처리하는지.
+ */
+public class AsyncProcessingServiceResumeTest {
+
+    private static final String FEATURES = "{\"F0final_sma\":\"180.0\"}";
+    private static final String ANALYSIS = "{\"primaryEmotion\":\"joy\"}";
+
+    @TempDir
+    Path dir;
+
+    private final TranscriptionService transcriptionService = mock(TranscriptionService.class);
+    private final ProsodyFeatureService prosodyFeatureService = mock(ProsodyFeatureService.class);
+    private final OpenAIService openAIService = mock(OpenAIService.class);
+    private final JobStateStore jobStateStore = mock(JobStateStore.class);
+    private final JobLeaseService jobLeaseService = mock(JobLeaseService.class);
+    private AsyncProcessingService service;
+    private Path upload;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        upload = Files.write(dir.resolve("upload.webm"), new byte[]{1, 2, 3});
+
+        AudioAnalysisCache cache = mock(AudioAnalysisCache.class);
+        when(cache.fingerprint(any(Path.class))).thenReturn("key");
+        when(cache.transcript(any(), any(), any())).thenAnswer(inv -> ((Supplier<String>) inv.getArgument(2)).get());
+        when(cache.prosodyFeatures(any(), any())).thenAnswer(inv -> ((Supplier<Map<String, String>>) inv.getArgument(1)).get());
+        when(cache.emotion(any(), any(), any())).thenAnswer(inv -> ((Supplier<EmotionAnalysisResult>) inv.getArgument(2)).get());
+
+        AudioDecoder audioDecoder = mock(AudioDecoder.class);
+        when(audioDecoder.lazy(any(Path.class))).thenReturn(() -> new DecodedAudio(new byte[3200]));
+
+        VoiceJobScheduler scheduler = mock(VoiceJobScheduler.class);
+        when(scheduler.networkExecutor()).thenReturn(Runnable::run);
+        when(scheduler.cpuExecutor()).thenReturn(Runnable::run);
+
+        VoiceTurnService voiceTurnService = mock(VoiceTurnService.class);
+        when(voiceTurnService.isCombinedEnabled()).thenReturn(false);
+
+        when(transcriptionService.decoded(any(), any())).thenAnswer(inv -> ((Supplier<DecodedAudio>) inv.getArgument(1)).get());
+        when(transcriptionService.transcribe(any(), any(), any(), anyLong(), anyString())).thenReturn("오늘 좀 피곤해");
+        when(prosodyFeatureService.extract(any(DecodedAudio.class))).thenReturn(Map.of("F0final_sma", "175.0"));
+        when(openAIService.analyzeTranscriptEmotion(anyString(), any()))
+                .thenReturn(EmotionAnalysisResult.builder().primaryEmotion("tired").rawJson("{}").build());
+        when(openAIService.generateResponseWithHistoryAndVoice(any(), anyString(), any())).thenReturn("푹 쉬어");
+        when(jobLeaseService.startAttempt(anyString())).thenReturn(true);
+        when(jobLeaseService.holds(anyString())).thenReturn(true);
+
+        service = new AsyncProcessingService(mock(ChatService.class), mock(UserRepository.class), prosodyFeatureService,
+                audioDecoder, transcriptionService, cache, mock(ConversationContextService.class), voiceTurnService,
+                scheduler, new JobEventBus(), jobStateStore, jobLeaseService, openAIService, new ObjectMapper(), 3);
+    }
+
+    @Test
+    public void freshJobRunsEveryStage() {
+        ProcessingJob job = run(null, null, null);
+
+        Assertions.assertEquals("DONE", job.getStatus());
+        verify(transcriptionService, times(1)).transcribe(any(), any(), any(), anyLong(), anyString());
+        verify(prosodyFeatureService, times(1)).extract(any(DecodedAudio.class));
+        verify(openAIService, times(1)).analyzeTranscriptEmotion(anyString(), any());
+        verify(jobStateStore).checkpointTranscript(job);
+        verify(jobStateStore).checkpointFeatures(any(), anyString());
+        verify(jobStateStore).checkpointAnalysis(any(), anyString());
+    }
+
+    @Test
+    public void resumesAfterTranscriptCheckpoint() {
+        ProcessingJob job = run("오늘 좀 피곤해", null, null);
+
+        Assertions.assertEquals("DONE", job.getStatus());
+        verify(transcriptionService, never()).transcribe(any(), any(), any(), anyLong(), anyString());
+        verify(prosodyFeatureService, times(1)).extract(any(DecodedAudio.class));
+        verify(openAIService, times(1)).analyzeTranscriptEmotion(anyString(), any());
+    }
+
+    @Test
+    public void resumesAfterFeaturesCheckpoint() {
+        ProcessingJob job = run("오늘 좀 피곤해", FEATURES, null);
+
+        Assertions.assertEquals("DONE", job.getStatus());
+        verify(transcriptionService, never()).transcribe(any(), any(), any(), anyLong(), anyString());
+        verify(prosodyFeatureService, never()).extract(any(DecodedAudio.class));
+        verify(openAIService, times(1)).analyzeTranscriptEmotion(anyString(), any());
+    }
+
+    @Test
+    public void resumesAfterAnalysisCheckpointWithOnlyTheReplyLeft() {
+        ProcessingJob job = run("오늘 좀 피곤해", FEATURES, ANALYSIS);
+
+        Assertions.assertEquals("DONE", job.getStatus());
+        Assertions.assertEquals("푹 쉬어", job.getAssistantResponse());
+        verify(transcriptionService, never()).transcribe(any(), any(), any(), anyLong(), anyString());
+        verify(prosodyFeatureService, never()).extract(any(DecodedAudio.class));
+        verify(openAIService, never()).analyzeTranscriptEmotion(anyString(), any());
+        verify(openAIService, times(1)).generateResponseWithHistoryAndVoice(any(), anyString(), any());
+    }
+
+    @Test
+    public void jobWhoseLeaseWasLostIsNotRun() {
+        when(jobLeaseService.startAttempt(anyString())).thenReturn(false);
+
+        ProcessingJob job = run(null, null, null);
+
+        Assertions.assertEquals("PENDING", job.getStatus());
+        verify(transcriptionService, never()).transcribe(any(), any(), any(), anyLong(), anyString());
+        verify(jobStateStore, never()).finish(any());
+    }
+
+    private ProcessingJob run(String transcript, String featuresJson, String analysisJson) {
+        ProcessingJob job = new ProcessingJob();
+        job.setId("job-1");
+        job.setStatus("PENDING");
+        job.setUserId(1L);
+        job.setFilePath(upload.toString());
+        job.setLanguage("ko");
+        job.setTranscript(transcript);
+        job.setFeaturesJson(featuresJson);
+        job.setAnalysisJson(analysisJson);
+        when(jobStateStore.get("job-1")).thenReturn(job);
+        return service.runTranscriptionAndAnalysis("job-1");
+    }
+}
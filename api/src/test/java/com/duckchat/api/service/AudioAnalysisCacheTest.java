@@ -0,0 +1,84 @@
+package com.duckchat.api.service;
+
+import com.duckchat.api.config.OpenAIConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AudioAnalysisCacheTest {
+
+    @TempDir
+    Path uploadDir;
+
+    private AudioAnalysisCache newCache(boolean diskEnabled, long ttlHours, long diskMaxMb) {
+        OpenAIConfig config = Mockito.mock(OpenAIConfig.class);
+        Mockito.when(config.getUploadDir()).thenReturn(uploadDir.toString());
+        return new AudioAnalysisCache(new ObjectMapper(), config, new SimpleMeterRegistry(), 10, diskEnabled, ttlHours, diskMaxMb);
+    }
+
+    @Test
+    public void olderSnapshotDoesNotOverwriteANewerFile() throws Exception {
+        AudioAnalysisCache cache = newCache(true, 24, 512);
+        cache.transcript("abc", "ko", () -> "첫 전사");
+        AudioAnalysisCache.Entry stale = new AudioAnalysisCache.Entry();
+        stale.setTranscript("첫 전사");
+        stale.setTranscriptLanguage("ko");
+        stale.setVersion(1);
+        cache.prosodyFeatures("abc", () -> Map.of("F0final_sma", "120"));
+
+        // 락 밖에서 직렬화된 이전 버전이 늦게 도착해도 디스크의 새 버전을 덮어쓰지 않아야 함
+        cache.writeDisk("abc", stale);
+
+        AudioAnalysisCache.Entry onDisk = new ObjectMapper()
+                .readValue(uploadDir.resolve("analysis-cache/abc.json").toFile(), AudioAnalysisCache.Entry.class);
+        Assertions.assertEquals(2, onDisk.getVersion());
+        Assertions.assertEquals("120", onDisk.getProsodyFeatures().get("F0final_sma"));
+        try (var files = Files.list(uploadDir.resolve("analysis-cache"))) {
+            Assertions.assertEquals(1, files.count(), "버려진 임시 파일이 남지 않아야 함");
+        }
+    }
+
+    @Test
+    public void memoryEntriesExpireWithTheSameTtl() throws Exception {
+        AudioAnalysisCache cache = newCache(false, 0, 512);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.transcript("abc", "ko", () -> "전사 " + loads.incrementAndGet());
+        Thread.sleep(5);
+
+        Assertions.assertEquals("전사 2", cache.transcript("abc", "ko", () -> "전사 " + loads.incrementAndGet()));
+    }
+
+    @Test
+    public void sweepRemovesExpiredAndOldestFilesBeyondTheSizeLimit() throws Exception {
+        AudioAnalysisCache cache = newCache(true, 24, 1);
+        Path dir = Files.createDirectories(uploadDir.resolve("analysis-cache"));
+        long now = System.currentTimeMillis();
+        Path expired = write(dir.resolve("expired.json"), 10, now - 25 * 3_600_000L);
+        Path leftoverTmp = write(dir.resolve("abc123.tmp"), 10, now - 60 * 60_000L);
+        Path oldest = write(dir.resolve("oldest.json"), 600 * 1024, now - 3 * 3_600_000L);
+        Path newest = write(dir.resolve("newest.json"), 600 * 1024, now - 3_600_000L);
+
+        cache.sweep();
+
+        Assertions.assertFalse(Files.exists(expired));
+        Assertions.assertFalse(Files.exists(leftoverTmp));
+        Assertions.assertFalse(Files.exists(oldest), "1MB 한도를 넘으면 가장 오래된 파일부터 지워야 함");
+        Assertions.assertTrue(Files.exists(newest));
+    }
+
+    private static Path write(Path file, int size, long modifiedMillis) throws Exception {
+        Files.write(file, new byte[size]);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modifiedMillis));
+        return file;
+    }
+}
@@ -0,0 +1,26 @@
+package com.duckchat.api.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class AudioDecoderTest {
+
+    @Test
+    public void fileInputIsPassedAsASeekablePath() {
+        List<String> command = AudioDecoder.decoderProcess("file:/tmp/uploads/voice.m4a").command();
+
+        Assertions.assertEquals("file:/tmp/uploads/voice.m4a", command.get(command.indexOf("-i") + 1));
+        Assertions.assertTrue(command.contains("-nostdin"));
+        Assertions.assertEquals("pipe:1", command.get(command.size() - 1));
+    }
+
+    @Test
+    public void memoryInputIsStreamedThroughStdin() {
+        List<String> command = AudioDecoder.decoderProcess("pipe:0").command();
+
+        Assertions.assertEquals("pipe:0", command.get(command.indexOf("-i") + 1));
+        Assertions.assertFalse(command.contains("-nostdin"));
+    }
+}
@@ -0,0 +1,70 @@
+package com.duckchat.api.service;
+
+import com.duckchat.api.dto.ChatMessageRequest;
+import com.duckchat.api.dto.PendingTurn;
+import com.duckchat.api.entity.ChatMessage;
+import com.duckchat.api.entity.ChatSession;
+import com.duckchat.api.entity.ChatSessionMessage;
+import com.duckchat.api.entity.User;
+import com.duckchat.api.repository.ChatMessageRepository;
+import com.duckchat.api.repository.ChatSessionMessageRepository;
+import com.duckchat.api.repository.ChatSessionRepository;
+import com.duckchat.api.repository.ProcessingJobRepository;
+import com.duckchat.api.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class ChatServiceTest {
+
+    private final ChatMessageRepository chatMessageRepository = mock(ChatMessageRepository.class);
+    private final ChatSessionRepository chatSessionRepository = mock(ChatSessionRepository.class);
+    private final ChatSessionMessageRepository chatSessionMessageRepository = mock(ChatSessionMessageRepository.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final ChatService chatService = new ChatService(chatMessageRepository, chatSessionRepository,
+            chatSessionMessageRepository, mock(UserRepository.class), mock(ProcessingJobRepository.class), eventPublisher);
+
+    private final User user = User.builder().id(7L).build();
+
+    @Test
+    public void userMessageIsStoredBeforeTheReplyAndTheNextOrderIsReserved() {
+        when(chatSessionRepository.incrementNextMessageOrder(1L, 7L, 2)).thenReturn(1);
+        when(chatSessionRepository.findNextMessageOrder(1L)).thenReturn(12);
+        when(chatSessionRepository.getReferenceById(1L)).thenReturn(ChatSession.builder().id(1L).build());
+        when(chatMessageRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        PendingTurn pending = chatService.saveUserMessage(user, message("안녕", ChatMessage.MessageType.USER), 1L);
+
+        // 응답을 받기 전: 사용자 메시지만 저장되고 요약 갱신 이벤트는 아직 없음
+        ArgumentCaptor<ChatSessionMessage> link = ArgumentCaptor.forClass(ChatSessionMessage.class);
+        verify(chatSessionMessageRepository).save(link.capture());
+        assertEquals(10, link.getValue().getOrder());
+        assertEquals(ChatMessage.MessageType.USER, link.getValue().getMessage().getType());
+        assertEquals(11, pending.getAssistantOrder());
+        verifyNoInteractions(eventPublisher);
+
+        chatService.saveAssistantReply(pending, message("안녕하세요!", ChatMessage.MessageType.ASSISTANT));
+
+        verify(chatSessionMessageRepository, times(2)).save(link.capture());
+        assertEquals(11, link.getValue().getOrder());
+        assertEquals("안녕하세요!", link.getValue().getMessage().getContent());
+        verify(eventPublisher).publishEvent(any(ChatTurnCompletedEvent.class));
+    }
+
+    @Test
+    public void foreignSessionIsRejectedBeforeAnythingIsSaved() {
+        when(chatSessionRepository.incrementNextMessageOrder(1L, 7L, 2)).thenReturn(0);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> chatService.saveUserMessage(user, message("안녕", ChatMessage.MessageType.USER), 1L));
+        verifyNoInteractions(chatMessageRepository);
+    }
+
+    private static ChatMessageRequest message(String content, ChatMessage.MessageType type) {
+        return ChatMessageRequest.builder().content(content).type(type).build();
+    }
+}
@@ -0,0 +1,103 @@
+package com.duckchat.api.service;
+
+import com.duckchat.api.config.OpenAIConfig;
+import com.duckchat.api.dto.SessionTurn;
+import com.duckchat.api.dto.openai.ChatCompletionRequest;
+import com.duckchat.api.entity.ChatMessage;
+import com.duckchat.api.entity.ChatSession;
+import com.duckchat.api.repository.ChatSessionRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ConversationContextServiceTest {
+
+    private final ChatSessionRepository chatSessionRepository = mock(ChatSessionRepository.class);
+    private final ChatService chatService = mock(ChatService.class);
+    private final OpenAIService openAIService = mock(OpenAIService.class);
+    private final TokenCounter tokenCounter = mock(TokenCounter.class);
+    private final OpenAIConfig config = mock(OpenAIConfig.class);
+    private final ConversationContextService service =
+            new ConversationContextService(chatSessionRepository, chatService, openAIService, tokenCounter, config);
+
+    private final ChatSession session = ChatSession.builder().id(1L).build();
+
+    @Test
+    public void turnsOlderThanTheWindowAreSummarizedEvenWhenTheWindowFits() {
+        givenTurns(100, 60, 100_000);
+
+        service.refreshSummary(1L);
+
+        // 최근 60개(41~100)는 예산 안에 들어가도, 창 밖의 1~40은 버리지 않고 요약에 합쳐야 함
+        ArgumentCaptor<List<ChatCompletionRequest.Message>> summarized = messagesCaptor();
+        verify(openAIService).summarizeConversation(isNull(), summarized.capture());
+        assertEquals(40, summarized.getValue().size());
+        assertEquals("메시지 1", summarized.getValue().get(0).getContent());
+        verify(chatSessionRepository).updateSummary(1L, "요약 40", 40);
+    }
+
+    @Test
+    public void overflowIsSummarizedOldestFirstInMaxTurnBatches() {
+        givenTurns(30, 10, 40); // 턴당 10토큰: 창은 4개, 요약 후에는 3개(28~30)만 남김
+
+        service.refreshSummary(1L);
+
+        verify(chatSessionRepository).updateSummary(1L, "요약 10", 10);
+        verify(chatSessionRepository).updateSummary(1L, "요약 20", 20);
+        verify(chatSessionRepository).updateSummary(1L, "요약 27", 27);
+        verify(openAIService).summarizeConversation(eq("요약 20"), any());
+        verify(chatSessionRepository, times(3)).updateSummary(anyLong(), anyString(), anyInt());
+    }
+
+    @Test
+    public void windowThatFitsWithNothingOlderIsLeftAlone() {
+        givenTurns(20, 60, 100_000);
+
+        service.refreshSummary(1L);
+
+        verifyNoInteractions(openAIService);
+        verify(chatSessionRepository, never()).updateSummary(anyLong(), anyString(), anyInt());
+    }
+
+    private void givenTurns(int count, int maxTurns, int budget) {
+        List<SessionTurn> turns = new ArrayList<>();
+        for (int order = 1; order <= count; order++) {
+            turns.add(new SessionTurn(order, order % 2 == 1 ? ChatMessage.MessageType.USER : ChatMessage.MessageType.ASSISTANT,
+                    "메시지 " + order, null, null));
+        }
+        when(config.getHistoryMaxTurns()).thenReturn(maxTurns);
+        when(config.getHistoryTokenBudget()).thenReturn(budget);
+        when(tokenCounter.count(any(ChatCompletionRequest.Message.class))).thenReturn(10);
+        when(chatSessionRepository.findById(1L)).thenReturn(Optional.of(session));
+        when(chatSessionRepository.updateSummary(anyLong(), anyString(), anyInt())).thenReturn(1);
+        when(chatService.getRecentTurns(eq(session), any(), anyInt())).thenAnswer(invocation -> {
+            int limit = invocation.getArgument(2);
+            return new ArrayList<>(turns.subList(Math.max(0, turns.size() - limit), turns.size()));
+        });
+        when(chatService.getTurnsAfter(eq(session), any(), anyInt())).thenAnswer(invocation -> {
+            Integer after = invocation.getArgument(1);
+            int limit = invocation.getArgument(2);
+            return turns.stream().filter(turn -> after == null || turn.getOrder() > after).limit(limit).toList();
+        });
+        when(openAIService.summarizeConversation(any(), any())).thenAnswer(invocation -> {
+            List<ChatCompletionRequest.Message> messages = invocation.getArgument(1);
+            String last = messages.get(messages.size() - 1).getContent();
+            return "요약 " + last.substring("메시지 ".length());
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<List<ChatCompletionRequest.Message>> messagesCaptor() {
+        return ArgumentCaptor.forClass(List.class);
+    }
+}
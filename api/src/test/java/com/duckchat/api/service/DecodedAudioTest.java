@@ -0,0 +1,61 @@
+package com.duckchat.api.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class DecodedAudioTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void wavHeaderDescribesTheDecodedPcm() throws Exception {
+        byte[] pcm = new byte[3200]; // 0.1초
+        pcm[0] = 0x34;
+        pcm[1] = 0x12;
+        byte[] wav = new DecodedAudio(pcm).asWavResource("audio.wav").getContentAsByteArray();
+
+        ByteBuffer header = ByteBuffer.wrap(wav).order(ByteOrder.LITTLE_ENDIAN);
+        Assertions.assertEquals(44 + pcm.length, wav.length);
+        Assertions.assertEquals("RIFF", new String(wav, 0, 4));
+        Assertions.assertEquals(36 + pcm.length, header.getInt(4));
+        Assertions.assertEquals("WAVEfmt ", new String(wav, 8, 8));
+        Assertions.assertEquals(1, header.getShort(20), "PCM");
+        Assertions.assertEquals(DecodedAudio.SAMPLE_RATE * 2, header.getInt(28), "byte rate");
+        Assertions.assertEquals("data", new String(wav, 36, 4));
+        Assertions.assertEquals(pcm.length, header.getInt(40));
+        Assertions.assertEquals(0x1234, header.getShort(44));
+
+        // 표준 WAV 파서로도 같은 형식으로 읽혀야 함
+        try (AudioInputStream in = AudioSystem.getAudioInputStream(new BufferedInputStream(new ByteArrayInputStream(wav)))) {
+            AudioFormat format = in.getFormat();
+            Assertions.assertEquals(DecodedAudio.SAMPLE_RATE, format.getSampleRate());
+            Assertions.assertEquals(DecodedAudio.CHANNELS, format.getChannels());
+            Assertions.assertEquals(DecodedAudio.BITS_PER_SAMPLE, format.getSampleSizeInBits());
+            Assertions.assertFalse(format.isBigEndian());
+            Assertions.assertEquals(pcm.length / 2, in.getFrameLength());
+        }
+    }
+
+    @Test
+    public void writtenWavMatchesTheUploadResource() throws Exception {
+        DecodedAudio audio = new DecodedAudio(new byte[]{1, 2, 3, 4});
+        Path target = dir.resolve("audio.wav");
+
+        audio.writeWav(target);
+
+        Assertions.assertArrayEquals(audio.asWavResource("audio.wav").getContentAsByteArray(), Files.readAllBytes(target));
+        Assertions.assertEquals(2.0 / DecodedAudio.SAMPLE_RATE, audio.durationSeconds(), 1e-9);
+    }
+}
@@ -0,0 +1,65 @@
+package com.duckchat.api.service;
+
+import com.duckchat.api.dto.JobEvent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class JobEventBusTest {
+
+    @Test
+    public void subscriberGetsTheSnapshotThenEachTransitionWithItsSequence() {
+        JobEventBus bus = new JobEventBus();
+        RecordingEmitter emitter = new RecordingEmitter();
+
+        bus.subscribe("job", emitter, event("PENDING"));
+        bus.publish(event("RUNNING"));
+        bus.publish(event(JobEvent.DONE));
+
+        Assertions.assertEquals(List.of("PENDING", "RUNNING", JobEvent.DONE), emitter.statuses);
+        Assertions.assertEquals(List.of("1", "2", "3"), emitter.ids);
+        Assertions.assertTrue(emitter.completed);
+    }
+
+    @Test
+    public void olderEventArrivingLateIsNotSent() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        JobEventBus.Subscriber subscriber = new JobEventBus.Subscriber(emitter);
+
+        // 잠금 밖 전송이 뒤섞여 TRANSCRIBED(2)가 RUNNING(1)보다 먼저 도착한 경우
+        subscriber.deliver(2, event("TRANSCRIBED"));
+        subscriber.deliver(1, event("RUNNING"));
+
+        Assertions.assertEquals(List.of("TRANSCRIBED"), emitter.statuses);
+    }
+
+    private static JobEvent event(String status) {
+        return JobEvent.builder().jobId("job").status(status).build();
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+        private final List<String> statuses = new CopyOnWriteArrayList<>();
+        private final List<String> ids = new CopyOnWriteArrayList<>();
+        private volatile boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            for (var part : builder.build()) {
+                if (part.getData() instanceof JobEvent event) {
+                    statuses.add(event.getStatus());
+                } else if (part.getData() instanceof String text && text.startsWith("id:")) {
+                    ids.add(text.substring(3, text.indexOf('\n')));
+                }
+            }
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.duckchat.api.service;
+
+import com.duckchat.api.dto.JobEvent;
+import com.duckchat.api.entity.ProcessingJob;
+import com.duckchat.api.repository.ProcessingJobRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * 두 노드(JobLeaseService 두 개)가 같은 processing_job 테이블을 나눠 쓰는 상황.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:leases;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.show_sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class JobLeaseServiceTest {
+
+    // 애플리케이션 클래스(.env 필요) 대신 JPA 슬라이스만 구성
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = ProcessingJob.class)
+    @EnableJpaRepositories(basePackageClasses = ProcessingJobRepository.class)
+    static class JpaSliceConfig {
+    }
+
+    @Autowired
+    private ProcessingJobRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    public void tearDown() {
+        repository.deleteAll();
+    }
+
+    @Test
+    public void newJobIsLeasedByItsCreatorFromTheFirstInsert() {
+        Node a = new Node(30_000);
+        Node b = new Node(30_000);
+        ProcessingJob job = a.create();
+
+        Assertions.assertTrue(b.claim(10).isEmpty(), "만든 노드가 점유한 작업은 다른 노드의 폴러가 가져가지 못함");
+        Assertions.assertTrue(a.lease.holds(job.getId()));
+        Assertions.assertEquals(a.lease.nodeId(), repository.findById(job.getId()).orElseThrow().getLeaseOwner());
+    }
+
+    @Test
+    public void expiredLeaseIsReclaimedAndTheOldNodeLetsGo() throws Exception {
+        Node a = new Node(1);
+        Node b = new Node(30_000);
+        ProcessingJob job = a.create();
+        a.store.update(running(job));
+        Thread.sleep(20);
+
+        List<ProcessingJob> reclaimed = b.claim(10);
+        Assertions.assertEquals(List.of(job.getId()), reclaimed.stream().map(ProcessingJob::getId).toList());
+
+        // 하트비트로 리스를 잃은 것을 알게 되면 메모리 상태를 버리고 구독자에게 MOVED
+        a.lease.heartbeat();
+        Assertions.assertFalse(a.lease.holds(job.getId()));
+        Assertions.assertEquals(JobEvent.MOVED, a.bus.latest(job.getId()).getStatus());
+        Assertions.assertFalse(a.lease.startAttempt(job.getId()), "리스를 잃은 노드는 실행을 시작하지 않음");
+        Assertions.assertTrue(b.lease.startAttempt(job.getId()));
+    }
+
+    @Test
+    public void jobWithoutTranscriptIsResumedOnlyWhereItsUploadLives() throws Exception {
+        Node a = new Node(1, "host-a", false);
+        Node otherHost = new Node(30_000, "host-b", false);
+        Node sharedHost = new Node(30_000, "host-b", true);
+        ProcessingJob job = a.create();
+        Thread.sleep(20);
+
+        Assertions.assertEquals("host-a", repository.findById(job.getId()).orElseThrow().getUploadNode());
+        Assertions.assertTrue(otherHost.claim(10).isEmpty(), "업로드 파일이 없는 노드는 전사 전 작업을 가져가지 않음");
+        Assertions.assertEquals(1, sharedHost.claim(10).size(), "업로드 디렉터리를 공유하면 어느 노드든 가져감");
+    }
+
+    @Test
+    public void restartedProcessOnTheSameHostResumesItsUploads() throws Exception {
+        Node before = new Node(1, "host-a", false);
+        ProcessingJob job = before.create();
+        Thread.sleep(20);
+
+        Node restarted = new Node(30_000, "host-a", false);
+        Assertions.assertNotEquals(before.lease.nodeId(), restarted.lease.nodeId());
+        Assertions.assertEquals(List.of(job.getId()), restarted.claim(10).stream().map(ProcessingJob::getId).toList());
+    }
+
+    @Test
+    public void attemptsCountRunsNotClaimsReleasedUnderBackpressure() {
+        Node a = new Node(30_000);
+        Node b = new Node(30_000);
+        ProcessingJob job = a.create();
+        a.lease.release(job.getId()); // 큐가 가득 차 바로 반납
+
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertEquals(1, b.claim(10).size());
+            b.lease.release(job.getId());
+        }
+        Assertions.assertEquals(0, repository.findById(job.getId()).orElseThrow().getAttempts());
+
+        b.claim(10);
+        Assertions.assertTrue(b.lease.startAttempt(job.getId()));
+        Assertions.assertEquals(1, repository.findById(job.getId()).orElseThrow().getAttempts());
+    }
+
+    private static ProcessingJob running(ProcessingJob job) {
+        job.setStatus("RUNNING");
+        return job;
+    }
+
+    // 노드 하나 = 자기 JobStateStore/JobEventBus/JobLeaseService (기본은 같은 호스트의 프로세스들)
+    private final class Node {
+        private final JobStateStore store = new JobStateStore(repository, 10, 30);
+        private final JobEventBus bus = new JobEventBus();
+        private final JobLeaseService lease;
+
+        private Node(long leaseMs) {
+            this(leaseMs, "host-1", false);
+        }
+
+        private Node(long leaseMs, String uploadNode, boolean sharedUploadDir) {
+            this.lease = new JobLeaseService(repository, store, bus, leaseMs, uploadNode, sharedUploadDir, 600_000);
+        }
+
+        ProcessingJob create() {
+            ProcessingJob job = ProcessingJob.builder()
+                    .id(JobStateStore.newJobId())
+                    .status("PENDING")
+                    .userId(1L)
+                    .build();
+            lease.stampNewLease(job);
+            store.create(job);
+            lease.hold(job.getId());
+            return job;
+        }
+
+        List<ProcessingJob> claim(int limit) {
+            return new TransactionTemplate(transactionManager).execute(status -> lease.claim(limit));
+        }
+    }
+}
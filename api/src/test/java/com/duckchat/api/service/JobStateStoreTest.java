@@ -0,0 +1,117 @@
+package com.duckchat.api.service;
+
+import com.duckchat.api.entity.ProcessingJob;
+import com.duckchat.api.repository.ProcessingJobRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+public class JobStateStoreTest {
+
+    @Test
+    public void jobIdsAreTimeOrderedVersion7Uuids() throws Exception {
+        String first = JobStateStore.newJobId();
+        Thread.sleep(2);
+        String second = JobStateStore.newJobId();
+
+        Assertions.assertEquals(7, UUID.fromString(first).version());
+        Assertions.assertEquals(2, UUID.fromString(first).variant());
+        // 문자열 비교만으로 생성 순서가 유지되어야 PK 인덱스 끝에 삽입됨
+        Assertions.assertTrue(first.compareTo(second) < 0);
+    }
+
+    @Test
+    public void progressIsWrittenOnlyOnFlush() {
+        ProcessingJobRepository repository = repository();
+        JobStateStore store = new JobStateStore(repository, 10, 30);
+        ProcessingJob job = job("PENDING");
+        store.create(job);
+
+        job.setStatus("TRANSCRIBING");
+        store.update(job);
+        job.setStatus("ANALYZING");
+        store.update(job);
+        verify(repository, times(1)).save(any());
+        Assertions.assertEquals("ANALYZING", store.get(job.getId()).getStatus(), "조회는 메모리의 최신 상태");
+
+        store.flush();
+        verify(repository).save(argThat(saved -> "ANALYZING".equals(saved.getStatus())));
+        verify(repository, times(2)).save(any());
+
+        store.flush(); // 바뀐 것이 없으면 다시 저장하지 않음
+        verify(repository, times(2)).save(any());
+    }
+
+    @Test
+    public void terminalStateWinsOverPendingAndLateProgress() {
+        ProcessingJobRepository repository = repository();
+        JobStateStore store = new JobStateStore(repository, 10, 30);
+        ProcessingJob job = job("PENDING");
+        store.create(job);
+        store.update(job("ANALYZING", job.getId()));
+
+        store.finish(job("DONE", job.getId()));
+        store.update(job("ANALYZING", job.getId())); // 늦게 도착한 중간 상태
+        store.flush();
+
+        verify(repository, never()).save(argThat(saved -> "ANALYZING".equals(saved.getStatus())));
+        Assertions.assertEquals("DONE", store.get(job.getId()).getStatus());
+    }
+
+    @Test
+    public void finishedEntriesLeaveMemoryAfterTheirTtl() {
+        ProcessingJobRepository repository = repository();
+        JobStateStore store = new JobStateStore(repository, 10, 30);
+        ProcessingJob job = job("PENDING");
+        store.create(job);
+        store.finish(job("DONE", job.getId()));
+        when(repository.findById(job.getId())).thenReturn(Optional.of(job("FROM_DB", job.getId())));
+
+        store.flush(System.currentTimeMillis() + 5 * 60_000L);
+        Assertions.assertEquals("DONE", store.get(job.getId()).getStatus());
+
+        store.flush(System.currentTimeMillis() + 11 * 60_000L);
+        Assertions.assertEquals("FROM_DB", store.get(job.getId()).getStatus());
+    }
+
+    @Test
+    public void unfinishedEntriesLeaveMemoryOnlyAfterTheyAreSavedAndIdle() {
+        ProcessingJobRepository repository = repository();
+        JobStateStore store = new JobStateStore(repository, 10, 30);
+        ProcessingJob job = job("PENDING");
+        store.create(job);
+        store.update(job("ANALYZING", job.getId()));
+        when(repository.findById(job.getId())).thenReturn(Optional.of(job("FROM_DB", job.getId())));
+        long idle = System.currentTimeMillis() + 31 * 60_000L;
+
+        // 저장하지 않은 상태가 있으면 먼저 저장만 하고 남김
+        doThrow(new IllegalStateException("db down")).when(repository).save(argThat(saved -> "ANALYZING".equals(saved.getStatus())));
+        store.flush(idle);
+        Assertions.assertEquals("ANALYZING", store.get(job.getId()).getStatus());
+
+        doAnswer(invocation -> invocation.getArgument(0)).when(repository).save(any());
+        store.flush(idle);
+        store.flush(idle);
+        Assertions.assertEquals("FROM_DB", store.get(job.getId()).getStatus(), "다른 노드로 넘어간 작업은 메모리에 남지 않아야 함");
+    }
+
+    private static ProcessingJobRepository repository() {
+        ProcessingJobRepository repository = mock(ProcessingJobRepository.class);
+        when(repository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        return repository;
+    }
+
+    private static ProcessingJob job(String status) {
+        return job(status, JobStateStore.newJobId());
+    }
+
+    private static ProcessingJob job(String status, String id) {
+        return ProcessingJob.builder().id(id).status(status).userId(1L).build();
+    }
+}
@@ -0,0 +1,89 @@
+package com.duckchat.api.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OpenAICallExecutorTest {
+
+    private final ThreadPoolTaskExecutor pool = new ThreadPoolTaskExecutor();
+
+    @AfterEach
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void cancellingTheSubmittedCallInterruptsItsThread() throws Exception {
+        pool.setCorePoolSize(1);
+        pool.initialize();
+        OpenAICallExecutor executor = new OpenAICallExecutor(pool, new SimpleMeterRegistry());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        CompletableFuture<String> call = executor.submit(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(10_000); // 블로킹 HTTP 호출 대신
+                return "late";
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+        });
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+        call.cancel(true);
+
+        assertTrue(interrupted.await(2, TimeUnit.SECONDS), "취소가 작업 스레드까지 전달되어야 함");
+    }
+
+    @Test
+    public void callCancelledBeforeItStartsNeverRuns() throws Exception {
+        pool.setCorePoolSize(1);
+        pool.initialize();
+        OpenAICallExecutor executor = new OpenAICallExecutor(pool, new SimpleMeterRegistry());
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> release.await(2, TimeUnit.SECONDS)); // 유일한 스레드를 점유
+        CountDownLatch ran = new CountDownLatch(1);
+
+        CompletableFuture<Object> queued = executor.submit(() -> {
+            ran.countDown();
+            return null;
+        });
+        queued.cancel(true);
+        release.countDown();
+
+        assertFalse(ran.await(300, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void missedDeadlineFailsWithTimeoutAndInterruptsTheWorker() throws Exception {
+        pool.setCorePoolSize(1);
+        pool.initialize();
+        OpenAICallExecutor executor = new OpenAICallExecutor(pool, new SimpleMeterRegistry());
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        CompletableFuture<String> call = OpenAICallExecutor.withDeadline(executor.submit(() -> {
+            try {
+                Thread.sleep(10_000); // 응답하지 않는 통합 호출 대신
+                return "late";
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+        }), 50);
+
+        CompletionException timedOut = assertThrows(CompletionException.class, call::join);
+        assertInstanceOf(TimeoutException.class, timedOut.getCause());
+        assertTrue(interrupted.await(2, TimeUnit.SECONDS), "데드라인이 지나면 작업 스레드를 인터럽트해야 함");
+    }
+}
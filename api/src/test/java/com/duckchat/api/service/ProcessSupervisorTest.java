@@ -0,0 +1,114 @@
+package com.duckchat.api.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ProcessSupervisorTest {
+
+    private final ProcessSupervisor supervisor = new ProcessSupervisor(2, 1, new SimpleMeterRegistry());
+
+    @AfterEach
+    public void shutdown() {
+        supervisor.shutdown();
+    }
+
+    @Test
+    public void backgroundRunsDoNotTakeRequestSlots() throws Exception {
+        ProcessSupervisor oneSlot = new ProcessSupervisor(1, 1, new SimpleMeterRegistry());
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            CompletableFuture<ProcessSupervisor.Result<Void>> background = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return oneSlot.runBackground("sh", new ProcessBuilder("sh", "-c", "echo up; sleep 2"), 5000, stdout -> {
+                        started.countDown();
+                        stdout.readAllBytes();
+                        return null;
+                    });
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            Assertions.assertTrue(started.await(2, TimeUnit.SECONDS));
+
+            // 백그라운드 작업이 도는 동안에도 요청 경로의 유일한 슬롯은 비어 있음
+            ProcessSupervisor.Result<Void> result = oneSlot.run("true", new ProcessBuilder("true"), 500, null);
+            Assertions.assertTrue(result.succeeded());
+            Assertions.assertTrue(background.get(5, TimeUnit.SECONDS).succeeded());
+        } finally {
+            oneSlot.shutdown();
+        }
+    }
+
+    @Test
+    public void timeoutKillsTheWholeProcessTree() throws Exception {
+        AtomicLong child = new AtomicLong();
+        // 셸이 띄운 자식 sleep의 pid를 출력하고 기다림
+        ProcessBuilder builder = new ProcessBuilder("sh", "-c", "sleep 30 & echo $!; wait");
+
+        ProcessSupervisor.Result<Void> result = supervisor.run("sh", builder, 300, stdout -> {
+            child.set(firstPid(stdout));
+            return null;
+        });
+
+        Assertions.assertTrue(result.timedOut());
+        assertExits(child.get());
+        Assertions.assertEquals(0, supervisor.run("true", new ProcessBuilder("true"), 5_000, null).exitCode(),
+                "종료 후 슬롯이 반환되어야 함");
+    }
+
+    @Test
+    public void interruptKillsTheProcessAndKeepsTheFlag() throws Exception {
+        AtomicLong pid = new AtomicLong();
+        CountDownLatch spawned = new CountDownLatch(1);
+        AtomicBoolean interruptedAgain = new AtomicBoolean();
+        ProcessBuilder builder = new ProcessBuilder("sh", "-c", "echo $$; exec sleep 30");
+
+        Thread caller = new Thread(() -> {
+            try {
+                supervisor.run("sh", builder, 30_000, stdout -> {
+                    pid.set(firstPid(stdout));
+                    spawned.countDown();
+                    return null;
+                });
+            } catch (InterruptedException e) {
+                interruptedAgain.set(Thread.currentThread().isInterrupted());
+            } catch (Exception ignored) {
+                // 실패로 처리 (interruptedAgain이 false로 남음)
+            }
+        });
+        caller.start();
+        Assertions.assertTrue(spawned.await(5, TimeUnit.SECONDS));
+
+        caller.interrupt();
+        caller.join(5_000);
+
+        Assertions.assertFalse(caller.isAlive());
+        Assertions.assertTrue(interruptedAgain.get(), "InterruptedException을 다시 던지고 인터럽트 플래그를 복원해야 함");
+        assertExits(pid.get());
+    }
+
+    private static long firstPid(InputStream stdout) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(stdout, StandardCharsets.UTF_8));
+        return Long.parseLong(reader.readLine().trim());
+    }
+
+    private static void assertExits(long pid) throws Exception {
+        CompletableFuture<ProcessHandle> exit = ProcessHandle.of(pid)
+                .map(ProcessHandle::onExit)
+                .orElse(CompletableFuture.completedFuture(null));
+        exit.get(5, TimeUnit.SECONDS);
+    }
+}
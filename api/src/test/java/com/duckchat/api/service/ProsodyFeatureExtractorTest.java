@@ -0,0 +1,66 @@
+package com.duckchat.api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProsodyFeatureExtractorTest {
+
+    private final ProsodyFeatureExtractor extractor = new ProsodyFeatureExtractor();
+
+    @Test
+    public void sineToneYieldsItsPitchAndHighVoicing() {
+        float[] samples = new float[16000];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (float) (0.5 * Math.sin(2 * Math.PI * 200 * i / 16000.0));
+        }
+
+        Map<String, String> features = extractor.extract(samples, 16000);
+
+        assertEquals(200.0, Double.parseDouble(features.get("F0final_sma")), 2.0);
+        assertEquals(0.5 / Math.sqrt(2), Double.parseDouble(features.get("pcm_RMSenergy_sma")), 0.01);
+        assertTrue(Double.parseDouble(features.get("voicingFinalUnclipped_sma")) > 0.9);
+    }
+
+    @Test
+    public void silenceIsUnvoicedAndTooShortInputIsAnError() {
+        Map<String, String> silent = extractor.extract(new float[16000], 16000);
+        assertEquals(0.0, Double.parseDouble(silent.get("F0final_sma")));
+        assertEquals(0.0, Double.parseDouble(silent.get("voicingFinalUnclipped_sma")));
+
+        assertTrue(extractor.extract(new float[100], 16000).containsKey("error"));
+    }
+
+    @Test
+    public void fftDifferenceMatchesTheDirectSum() {
+        Random random = new Random(7);
+        float[] x = new float[2000];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = (float) (0.3 * Math.sin(2 * Math.PI * 180 * i / 16000.0) + 0.05 * random.nextGaussian());
+        }
+        int maxLag = 267;
+        int start = 320;
+        double[] energy = new double[x.length + 1];
+        for (int i = 0; i < x.length; i++) {
+            energy[i + 1] = energy[i] + (double) x[i] * x[i];
+        }
+        double[] diff = new double[maxLag + 1];
+
+        ProsodyFeatureExtractor.differences(x, energy, start, maxLag, new ProsodyFeatureExtractor.Fft(1024), diff);
+
+        // 직접 계산한 누적 평균 정규화 차이와 비교
+        double running = 0;
+        for (int tau = 1; tau <= maxLag; tau++) {
+            double sum = 0;
+            for (int j = start; j < start + ProsodyFeatureExtractor.FRAME; j++) {
+                double delta = x[j] - x[j + tau];
+                sum += delta * delta;
+            }
+            running += sum;
+            assertEquals(sum * tau / running, diff[tau], 1e-6, "tau=" + tau);
+        }
+    }
+}
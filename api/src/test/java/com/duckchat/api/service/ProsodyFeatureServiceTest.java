@@ -0,0 +1,26 @@
+package com.duckchat.api.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import static org.mockito.Mockito.mock;
+
+public class ProsodyFeatureServiceTest {
+
+    @Test
+    public void javaBackendStartsWithoutOpenSmileConfig() {
+        Assertions.assertDoesNotThrow(() -> service("java", ""));
+    }
+
+    @Test
+    public void openSmileBackendRequiresItsConfig() {
+        Assertions.assertThrows(IllegalStateException.class, () -> service("opensmile", ""));
+        Assertions.assertDoesNotThrow(() -> service("opensmile", "/etc/opensmile/emobase.conf"));
+    }
+
+    private static ProsodyFeatureService service(String backend, String config) {
+        return new ProsodyFeatureService(mock(ProsodyFeatureExtractor.class), mock(OpenSmileService.class), backend, config,
+                new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,123 @@
+package com.duckchat.api.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class SemanticResponseCacheTest {
+
+    private SemanticResponseCache newCache(int maxEntries) {
+        return new SemanticResponseCache(true, 0.85, maxEntries, 60, new SimpleMeterRegistry());
+    }
+
+    @Test
+    public void normalizedMessageHitsExactEntry() {
+        SemanticResponseCache cache = newCache(10);
+        cache.put("basic", "안녕 덕키!", "안녕하세요!");
+
+        Assertions.assertEquals("안녕하세요!", cache.get("basic", "  안녕, 덕키  ").orElse(null));
+    }
+
+    @Test
+    public void similarMessageHitsAndDifferentMessageMisses() {
+        SemanticResponseCache cache = newCache(10);
+        cache.put("basic", "오늘 너무 슬퍼서 아무것도 하기 싫어", "위로해 줄게요");
+
+        Assertions.assertTrue(cache.get("basic", "오늘 너무 슬퍼서 아무것도 하기 싫어요").isPresent());
+        Assertions.assertTrue(cache.get("basic", "추천할 만한 영화 있어?").isEmpty());
+    }
+
+    @Test
+    public void partitionsAreIsolated() {
+        SemanticResponseCache cache = newCache(10);
+        cache.put("ducky|F형|{}", "안녕", "F형 응답");
+
+        Assertions.assertTrue(cache.get("ducky|T형|{}", "안녕").isEmpty());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedBeyondMaxEntries() {
+        SemanticResponseCache cache = newCache(2);
+        cache.put("basic", "첫번째 메시지", "1");
+        cache.put("basic", "두번째 메시지", "2");
+        cache.get("basic", "첫번째 메시지");
+        cache.put("basic", "세번째 다른 질문", "3");
+
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertEquals("1", cache.get("basic", "첫번째 메시지").orElse(null));
+    }
+
+    @Test
+    public void emptyPartitionsAreDroppedSoPartitionCountStaysBounded() {
+        SemanticResponseCache cache = newCache(3);
+        for (int i = 0; i < 100; i++) {
+            cache.put("ducky|F형|" + i, "안녕 " + i, "응답 " + i);
+        }
+
+        Assertions.assertEquals(3, cache.size());
+        Assertions.assertEquals(3, cache.partitionCount());
+    }
+
+    @Test
+    public void expiredEntryRemovalDropsItsPartition() {
+        SemanticResponseCache cache = new SemanticResponseCache(true, 0.85, 10, 0, new SimpleMeterRegistry());
+        cache.put("ducky|F형|a", "안녕", "응답");
+        cache.put("ducky|F형|b", "안녕", "응답");
+
+        Assertions.assertTrue(cache.get("ducky|F형|a", "안녕하세요").isEmpty());
+        Assertions.assertEquals(1, cache.size());
+        Assertions.assertEquals(1, cache.partitionCount());
+    }
+
+    @Test
+    public void negatedMessageDoesNotShareTheReply() {
+        SemanticResponseCache cache = newCache(10);
+        cache.put("basic", "기분 좋아", "좋은 일 있었어요?");
+        cache.put("basic", "오늘 기분이 좋아", "다행이에요!");
+
+        // n-gram 유사도만으로는 임계값(0.85)을 넘는 쌍도 있으므로 부정 여부가 다르면 재사용하지 않아야 함
+        Assertions.assertTrue(cache.get("basic", "기분 안 좋아").isEmpty());
+        Assertions.assertTrue(cache.get("basic", "오늘 기분이 안 좋아").isEmpty());
+        Assertions.assertTrue(cache.get("basic", "i don't feel happy").isEmpty());
+        Assertions.assertEquals("다행이에요!", cache.get("basic", "오늘 기분이 좋아요").orElse(null));
+    }
+
+    @Test
+    public void countsNegationsWithoutMatchingOrdinaryWords() {
+        Assertions.assertEquals(0, SemanticResponseCache.negations(SemanticResponseCache.normalize("안녕 나 영화 보고 싶어 i want it")));
+        Assertions.assertEquals(1, SemanticResponseCache.negations(SemanticResponseCache.normalize("기분 안 좋아")));
+        Assertions.assertEquals(1, SemanticResponseCache.negations(SemanticResponseCache.normalize("재미없어")));
+        Assertions.assertEquals(1, SemanticResponseCache.negations(SemanticResponseCache.normalize("I don't know")));
+    }
+
+    @Test
+    public void concurrentReadersAndWritersStayWithinCapacity() throws Exception {
+        SemanticResponseCache cache = newCache(50);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int worker = t;
+                tasks.add(pool.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        cache.put("basic", "메시지 " + worker + " " + i, "응답");
+                        cache.get("basic", "메시지 " + worker + " " + (i / 2));
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        Assertions.assertTrue(cache.size() <= 50);
+    }
+}
@@ -0,0 +1,30 @@
+package com.duckchat.api.service;
+
+import com.duckchat.api.dto.openai.ChatCompletionRequest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class TokenCounterTest {
+
+    private final TokenCounter tokenCounter = new TokenCounter();
+
+    private ChatCompletionRequest.Message message(String role, String content) {
+        return ChatCompletionRequest.Message.builder().role(role).content(content).build();
+    }
+
+    @Test
+    public void countsWithChatModelEncoding() {
+        Assertions.assertEquals(2, tokenCounter.count("hello world"));
+        Assertions.assertEquals(0, tokenCounter.count((String) null));
+    }
+
+    @Test
+    public void countsPerMessageOverheadAndReplyPriming() {
+        ChatCompletionRequest.Message user = message("user", "hello world");
+
+        Assertions.assertEquals(3 + 1 + 2, tokenCounter.count(user));
+        Assertions.assertEquals(3 + 2 * tokenCounter.count(user), tokenCounter.count(List.of(user, user)));
+    }
+}
@@ -0,0 +1,59 @@
+package com.duckchat.api.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TranscriptionServiceTest {
+
+    private static final int BYTES_PER_MS = 32;
+
+    @Test
+    public void handedOffJobReusesTheDecodedAndPreparedUpload() {
+        TranscriptionService service = service(8);
+        AtomicInteger decodes = new AtomicInteger();
+        DecodedAudio silence = new DecodedAudio(new byte[500 * BYTES_PER_MS]);
+
+        // 동기 턴에서 한 번 디코딩/준비
+        service.transcribe("key", counting(decodes, silence), new ByteArrayResource(new byte[0]), 0, "ko");
+        // 데드라인 후 작업: 전사와 운율 피처 모두 같은 결과를 재사용
+        String transcript = service.transcribe("key", counting(decodes, silence), new ByteArrayResource(new byte[0]), 0, "ko");
+        DecodedAudio forProsody = service.decoded("key", counting(decodes, silence));
+
+        assertEquals(TranscriptionService.DEFAULT_TRANSCRIPT, transcript);
+        assertSame(silence, forProsody);
+        assertEquals(1, decodes.get());
+    }
+
+    @Test
+    public void differentUploadsAndUnknownKeysAreDecodedSeparately() {
+        TranscriptionService service = service(1);
+        AtomicInteger decodes = new AtomicInteger();
+        DecodedAudio silence = new DecodedAudio(new byte[500 * BYTES_PER_MS]);
+
+        service.decoded("a", counting(decodes, silence));
+        service.decoded("b", counting(decodes, silence)); // 한도 1 - a를 밀어냄
+        service.decoded("a", counting(decodes, silence));
+        service.decoded(null, counting(decodes, silence));
+        service.decoded(null, counting(decodes, silence));
+
+        assertEquals(5, decodes.get());
+    }
+
+    private static TranscriptionService service(int entries) {
+        WhisperUploadPreparer preparer = new WhisperUploadPreparer(null, 0.01, 200, 400, "24k", 1000, new SimpleMeterRegistry());
+        return new TranscriptionService(null, preparer, null, entries, 60_000);
+    }
+
+    private static Supplier<DecodedAudio> counting(AtomicInteger decodes, DecodedAudio audio) {
+        return () -> {
+            decodes.incrementAndGet();
+            return audio;
+        };
+    }
+}
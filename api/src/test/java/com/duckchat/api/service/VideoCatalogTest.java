@@ -0,0 +1,116 @@
+package com.duckchat.api.service;
+
+import com.duckchat.api.config.OpenAIConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class VideoCatalogTest {
+
+    @Test
+    void normalizesTitleAndDropsSingleCharacterTokens() {
+        String normalized = VideoCatalog.normalize("Funny_Cat-Compilation (웃음 모음) 2");
+        assertEquals("funny cat compilation 웃음 모음 2", normalized);
+        assertEquals(List.of("funny", "cat", "compilation", "웃음", "모음"), VideoCatalog.tokens(normalized));
+    }
+
+    @Test
+    void contentIdFollowsContentNotFilename(@TempDir Path dir) throws Exception {
+        byte[] content = new byte[200 * 1024];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        Path a = Files.write(dir.resolve("a.mp4"), content);
+        Path b = Files.write(dir.resolve("renamed.mp4"), content);
+        content[content.length - 1] ^= 1;
+        Path c = Files.write(dir.resolve("c.mp4"), content);
+
+        String id = VideoCatalog.contentId(a, Files.size(a));
+        assertEquals(16, id.length());
+        assertEquals(id, VideoCatalog.contentId(b, Files.size(b)));
+        assertNotEquals(id, VideoCatalog.contentId(c, Files.size(c)));
+    }
+
+    @Test
+    void duplicateContentGetsDistinctIds(@TempDir Path dir) throws Exception {
+        Path archive = Files.createDirectory(dir.resolve("archive"));
+        byte[] content = new byte[100 * 1024];
+        Files.write(archive.resolve("a.mp4"), content);
+        Files.write(archive.resolve("copy.mp4"), content);
+        VideoCatalog catalog = catalog(archive, dir.resolve("uploads"), 1000);
+
+        catalog.rescan();
+
+        String a = catalog.byFilename("a.mp4").orElseThrow().getId();
+        String copy = catalog.byFilename("copy.mp4").orElseThrow().getId();
+        assertNotEquals(a, copy);
+        assertEquals("a.mp4", catalog.byId(a).orElseThrow().getFilename());
+        assertEquals("copy.mp4", catalog.byId(copy).orElseThrow().getFilename());
+        assertEquals(2, catalog.all().size());
+    }
+
+    @Test
+    void renamedFileKeepsItsContentId(@TempDir Path dir) throws Exception {
+        Path archive = Files.createDirectory(dir.resolve("archive"));
+        Path original = Files.write(archive.resolve("a.mp4"), new byte[100 * 1024]);
+        VideoCatalog catalog = catalog(archive, dir.resolve("uploads"), 1000);
+        catalog.rescan();
+        String id = catalog.byFilename("a.mp4").orElseThrow().getId();
+
+        Files.move(original, archive.resolve("b.mp4"));
+        catalog.rescan();
+
+        assertEquals(id, catalog.byFilename("b.mp4").orElseThrow().getId());
+        assertTrue(catalog.byFilename("a.mp4").isEmpty());
+    }
+
+    @Test
+    void fileIsIndexedOnlyAfterItsSizeStopsChanging(@TempDir Path dir) throws Exception {
+        Path archive = Files.createDirectory(dir.resolve("archive"));
+        Path copying = Files.write(archive.resolve("big.mp4"), new byte[1024]);
+        VideoCatalog catalog = catalog(archive, dir.resolve("uploads"), 1000);
+        Map<String, VideoCatalog.FileState> pending = new HashMap<>();
+        pending.put("big.mp4", VideoCatalog.FileState.UNSEEN);
+
+        assertTrue(catalog.settled(pending, 0).isEmpty());
+        assertTrue(catalog.settled(pending, 500).isEmpty());
+        Files.write(copying, new byte[1024], StandardOpenOption.APPEND); // 아직 복사 중
+        assertTrue(catalog.settled(pending, 1200).isEmpty());
+        assertEquals(Set.of("big.mp4"), catalog.settled(pending, 2200));
+        assertTrue(pending.isEmpty());
+
+        pending.put("big.mp4", VideoCatalog.FileState.UNSEEN);
+        Files.delete(copying);
+        assertEquals(Set.of("big.mp4"), catalog.settled(pending, 2300), "삭제는 기다리지 않음");
+    }
+
+    @Test
+    void unsetArchiveDirMeansNoCatalog(@TempDir Path dir) {
+        VideoCatalog catalog = catalog(null, dir.resolve("uploads"), 1000);
+
+        catalog.rescan();
+
+        assertFalse(catalog.isAvailable());
+        assertTrue(catalog.all().isEmpty());
+    }
+
+    private static VideoCatalog catalog(Path archive, Path uploadDir, long settleMs) {
+        OpenAIConfig config = mock(OpenAIConfig.class);
+        when(config.getUploadDir()).thenReturn(uploadDir.toString());
+        return new VideoCatalog(archive == null ? "" : archive.toString(), 1000, settleMs, config, new ObjectMapper(),
+                new ProcessSupervisor(1, 1, new SimpleMeterRegistry()));
+    }
+}
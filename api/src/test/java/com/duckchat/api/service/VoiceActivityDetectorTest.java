@@ -0,0 +1,63 @@
+package com.duckchat.api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VoiceActivityDetectorTest {
+
+    private final VoiceActivityDetector vad = new VoiceActivityDetector(0.02, 300, 900, 200, 8000);
+
+    @Test
+    public void shortPauseClosesSegmentAndLongPauseEndsSpeech() {
+        List<VoiceActivityDetector.Event> events = new ArrayList<>();
+        events.addAll(feedInOddChunks(tone(500)));
+        events.addAll(feedInOddChunks(silence(400)));
+        events.addAll(feedInOddChunks(tone(500)));
+        events.addAll(feedInOddChunks(silence(1000)));
+
+        assertEquals(List.of(VoiceActivityDetector.EventType.SEGMENT, VoiceActivityDetector.EventType.SEGMENT,
+                VoiceActivityDetector.EventType.END_OF_SPEECH), events.stream().map(VoiceActivityDetector.Event::type).toList());
+        // 음성 500ms + 구간을 닫기까지의 쉼 300ms
+        assertEquals(16 * 800 * 2, events.get(0).pcm().length);
+    }
+
+    @Test
+    public void shortNoiseIsIgnoredAndFlushClosesOpenSegment() {
+        assertTrue(vad.feed(tone(100)).stream().noneMatch(e -> e.type() == VoiceActivityDetector.EventType.SEGMENT));
+        vad.feed(silence(400));
+
+        vad.feed(tone(300));
+        List<VoiceActivityDetector.Event> flushed = vad.flush();
+
+        assertEquals(List.of(VoiceActivityDetector.EventType.SEGMENT, VoiceActivityDetector.EventType.END_OF_SPEECH),
+                flushed.stream().map(VoiceActivityDetector.Event::type).toList());
+    }
+
+    private List<VoiceActivityDetector.Event> feedInOddChunks(byte[] pcm) {
+        List<VoiceActivityDetector.Event> events = new ArrayList<>();
+        for (int offset = 0; offset < pcm.length; offset += 777) {
+            byte[] chunk = java.util.Arrays.copyOfRange(pcm, offset, Math.min(pcm.length, offset + 777));
+            events.addAll(vad.feed(chunk));
+        }
+        return events;
+    }
+
+    private static byte[] tone(int ms) {
+        int samples = 16 * ms;
+        byte[] pcm = new byte[samples * 2];
+        for (int i = 0; i < samples; i++) {
+            short value = (short) (0.3 * 32767 * Math.sin(2 * Math.PI * 220 * i / 16000.0));
+            pcm[2 * i] = (byte) value;
+            pcm[2 * i + 1] = (byte) (value >> 8);
+        }
+        return pcm;
+    }
+
+    private static byte[] silence(int ms) {
+        return new byte[16 * ms * 2];
+    }
+}
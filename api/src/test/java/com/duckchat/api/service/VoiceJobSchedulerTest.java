@@ -0,0 +1,87 @@
+package com.duckchat.api.service;
+
+import com.duckchat.api.exception.JobRejectedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class VoiceJobSchedulerTest {
+
+    private VoiceJobScheduler scheduler;
+
+    @AfterEach
+    public void tearDown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void rejectsWhenUserPendingLimitIsReached() throws Exception {
+        scheduler = new VoiceJobScheduler(4, 1, 2, 10, 0, 1, 1, new SimpleMeterRegistry());
+        CountDownLatch release = new CountDownLatch(1);
+
+        scheduler.submit(1L, VoiceJobScheduler.Priority.NORMAL, () -> await(release));
+        scheduler.submit(1L, VoiceJobScheduler.Priority.NORMAL, () -> await(release));
+
+        JobRejectedException rejected = Assertions.assertThrows(JobRejectedException.class,
+                () -> scheduler.submit(1L, VoiceJobScheduler.Priority.NORMAL, () -> { }));
+        Assertions.assertTrue(rejected.getRetryAfterSeconds() >= 1);
+
+        // 다른 사용자는 영향을 받지 않음
+        CountDownLatch otherRan = new CountDownLatch(1);
+        scheduler.submit(2L, VoiceJobScheduler.Priority.NORMAL, otherRan::countDown);
+        Assertions.assertTrue(otherRan.await(5, TimeUnit.SECONDS));
+        release.countDown();
+    }
+
+    @Test
+    public void runsHigherPriorityJobsFirst() throws Exception {
+        scheduler = new VoiceJobScheduler(1, 1, 10, 10, 0, 1, 1, new SimpleMeterRegistry());
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(2);
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        scheduler.submit(1L, VoiceJobScheduler.Priority.NORMAL, () -> await(release));
+        scheduler.submit(2L, VoiceJobScheduler.Priority.NORMAL, () -> { order.add("normal"); done.countDown(); });
+        scheduler.submit(3L, VoiceJobScheduler.Priority.HIGH, () -> { order.add("high"); done.countDown(); });
+        release.countDown();
+
+        Assertions.assertTrue(done.await(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(List.of("high", "normal"), order);
+    }
+
+    @Test
+    public void deadlineHandOffsUseTheReservedCapacity() throws Exception {
+        scheduler = new VoiceJobScheduler(1, 1, 10, 2, 1, 1, 1, new SimpleMeterRegistry());
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.submit(1L, VoiceJobScheduler.Priority.NORMAL, () -> await(release)); // 실행 중
+        scheduler.submit(2L, VoiceJobScheduler.Priority.NORMAL, () -> { });
+        scheduler.submit(3L, VoiceJobScheduler.Priority.NORMAL, () -> { });
+
+        Assertions.assertThrows(JobRejectedException.class,
+                () -> scheduler.submit(4L, VoiceJobScheduler.Priority.NORMAL, () -> { }));
+        CountDownLatch handOffRan = new CountDownLatch(1);
+        scheduler.submit(5L, VoiceJobScheduler.Priority.HIGH, handOffRan::countDown);
+        // 예약한 자리도 다 쓰면 HIGH도 거절
+        Assertions.assertThrows(JobRejectedException.class,
+                () -> scheduler.submit(6L, VoiceJobScheduler.Priority.HIGH, () -> { }));
+
+        release.countDown();
+        Assertions.assertTrue(handOffRan.await(5, TimeUnit.SECONDS));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
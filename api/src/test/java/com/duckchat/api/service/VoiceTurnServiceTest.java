@@ -0,0 +1,94 @@
+package com.duckchat.api.service;
+
+import com.duckchat.api.config.OpenAIConfig;
+import com.duckchat.api.dto.EmotionAnalysisResult;
+import com.duckchat.api.dto.VoiceTurnResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class VoiceTurnServiceTest {
+
+    private final ThreadPoolTaskExecutor pool = new ThreadPoolTaskExecutor();
+
+    @AfterEach
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void cancellingTheTurnCancelsTheInFlightReplyCall() {
+        pool.initialize();
+        OpenAIService openAIService = mock(OpenAIService.class);
+        CompletableFuture<String> reply = new CompletableFuture<>();
+        when(openAIService.generateResponseWithHistoryAndVoiceAsync(any(), any(), any())).thenReturn(reply);
+        OpenAIConfig config = mock(OpenAIConfig.class);
+        when(config.isCombinedAnalysisEnabled()).thenReturn(false);
+        VoiceTurnService service = new VoiceTurnService(openAIService, mock(AudioAnalysisCache.class), config,
+                new OpenAICallExecutor(pool, new SimpleMeterRegistry()));
+
+        CompletableFuture<VoiceTurnResult> turn = service.analyzeAndReplyAsync("key",
+                CompletableFuture.completedFuture(new ArrayList<>()), CompletableFuture.completedFuture("안녕"), null);
+        turn.cancel(true);
+
+        assertTrue(reply.isCancelled(), "데드라인 전환 시 응답 HTTP 호출도 취소되어야 함");
+    }
+
+    @Test
+    public void callStartedAfterTheTurnWasCancelledIsCancelledImmediately() {
+        pool.initialize();
+        OpenAIService openAIService = mock(OpenAIService.class);
+        CompletableFuture<String> reply = new CompletableFuture<>();
+        when(openAIService.generateResponseWithHistoryAndVoiceAsync(any(), any(), any())).thenReturn(reply);
+        OpenAIConfig config = mock(OpenAIConfig.class);
+        VoiceTurnService service = new VoiceTurnService(openAIService, mock(AudioAnalysisCache.class), config,
+                new OpenAICallExecutor(pool, new SimpleMeterRegistry()));
+        CompletableFuture<String> transcript = new CompletableFuture<>();
+
+        CompletableFuture<VoiceTurnResult> turn = service.analyzeAndReplyAsync("key",
+                CompletableFuture.completedFuture(new ArrayList<>()), transcript, null);
+        turn.cancel(true);
+        transcript.complete("안녕");
+
+        assertTrue(reply.isCancelled());
+    }
+
+    @Test
+    public void poolTasksDoNotWaitOnNestedTasksInTheSamePool() throws Exception {
+        // 작업 스레드가 하나뿐인 풀: 안에서 같은 풀에 작업을 넣고 기다리면 7초 데드라인까지 멈춤
+        pool.setCorePoolSize(1);
+        pool.setMaxPoolSize(1);
+        pool.initialize();
+        OpenAIService openAIService = mock(OpenAIService.class);
+        EmotionAnalysisResult analysis = new EmotionAnalysisResult();
+        when(openAIService.analyzeTranscriptEmotionInline(anyString(), any())).thenReturn(analysis);
+        when(openAIService.generateAnalyzedResponse(any(), any(), any())).thenReturn(null); // 통합 호출 실패 → 개별 분석으로 대체
+        when(openAIService.generateResponseWithHistoryAndVoice(any(), any(), any())).thenReturn("답");
+        when(openAIService.generateResponseWithHistoryAndVoiceAsync(any(), any(), any())).thenReturn(CompletableFuture.completedFuture("답"));
+        AudioAnalysisCache cache = mock(AudioAnalysisCache.class);
+        when(cache.emotion(any(), any(), any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(2)).get());
+        OpenAIConfig config = mock(OpenAIConfig.class);
+        VoiceTurnService service = new VoiceTurnService(openAIService, cache, config, new OpenAICallExecutor(pool, new SimpleMeterRegistry()));
+
+        for (boolean combined : new boolean[]{true, false}) {
+            when(config.isCombinedAnalysisEnabled()).thenReturn(combined);
+            VoiceTurnResult result = service.analyzeAndReplyAsync("key", CompletableFuture.completedFuture(new ArrayList<>()),
+                    CompletableFuture.completedFuture("안녕"), null).get(2, TimeUnit.SECONDS);
+            assertSame(analysis, result.getAnalysis());
+            assertEquals("답", result.getReply());
+        }
+        // 풀에 작업을 다시 넣는 callWithTimeout 경로는 쓰지 않음
+        verify(openAIService, never()).analyzeTranscriptEmotion(anyString(), any());
+    }
+}
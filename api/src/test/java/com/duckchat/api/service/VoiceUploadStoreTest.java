@@ -0,0 +1,47 @@
+package com.duckchat.api.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VoiceUploadStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void largeUploadsWithTheSameNameGoToDistinctFiles() throws Exception {
+        VoiceUploadStore store = new VoiceUploadStore(dir.toString(), 4, 2, new SimpleMeterRegistry());
+
+        VoiceUpload first = store.store(new MockMultipartFile("audio", "voice.webm", "audio/webm", new byte[]{1, 1, 1, 1, 1}));
+        VoiceUpload second = store.store(new MockMultipartFile("audio", "voice.webm", "audio/webm", new byte[]{2, 2, 2, 2, 2}));
+
+        assertFalse(first.isInMemory());
+        assertNotEquals(first.file(), second.file());
+        assertEquals(1, Files.readAllBytes(first.file())[0]);
+        assertEquals(2, Files.readAllBytes(second.file())[0]);
+
+        first.release();
+        second.release();
+        try (var files = Files.list(dir)) {
+            assertEquals(0, files.count(), "작업에 넘기지 않은 파일은 release에서 지워져야 함");
+        }
+    }
+
+    @Test
+    public void smallUploadStaysInMemory() throws Exception {
+        VoiceUploadStore store = new VoiceUploadStore(dir.toString(), 1024, 2, new SimpleMeterRegistry());
+
+        VoiceUpload upload = store.store(new MockMultipartFile("audio", "../../etc/passwd", "audio/webm", new byte[]{1, 2, 3}));
+
+        assertTrue(upload.isInMemory());
+        assertEquals(3, upload.content().remaining());
+        assertEquals("passwd", upload.filename());
+    }
+}
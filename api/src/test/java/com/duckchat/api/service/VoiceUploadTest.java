@@ -0,0 +1,44 @@
+package com.duckchat.api.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VoiceUploadTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void handedOffFileSurvivesReleaseUntilReclaimed() throws Exception {
+        VoiceUpload kept = new VoiceUpload("a.webm", ByteBuffer.wrap(new byte[]{1, 2, 3}), dir, buffer -> { });
+        Path keptFile = kept.handOff();
+        kept.release();
+        assertTrue(Files.exists(keptFile), "작업에 넘긴 파일은 작업이 소유");
+
+        VoiceUpload rejected = new VoiceUpload("b.webm", ByteBuffer.wrap(new byte[]{1, 2, 3}), dir, buffer -> { });
+        Path rejectedFile = rejected.handOff();
+        rejected.reclaim(); // 작업 등록 실패
+        rejected.release();
+        assertFalse(Files.exists(rejectedFile));
+    }
+
+    @Test
+    public void sameNamedHandOffsInTheSameMillisecondGetTheirOwnFiles() throws Exception {
+        VoiceUpload first = new VoiceUpload("voice.webm", ByteBuffer.wrap(new byte[]{1}), dir, buffer -> { });
+        VoiceUpload second = new VoiceUpload("voice.webm", ByteBuffer.wrap(new byte[]{2}), dir, buffer -> { });
+
+        Path firstFile = first.handOff();
+        Path secondFile = second.handOff();
+
+        assertNotEquals(firstFile, secondFile);
+        assertArrayEquals(new byte[]{1}, Files.readAllBytes(firstFile));
+        assertArrayEquals(new byte[]{2}, Files.readAllBytes(secondFile));
+        assertTrue(firstFile.getFileName().toString().endsWith("-voice.webm"));
+    }
+}
@@ -0,0 +1,65 @@
+package com.duckchat.api.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WhisperUploadPreparerTest {
+
+    private static final int BYTES_PER_MS = 32;
+
+    @Test
+    public void trimsLeadingAndTrailingSilenceKeepingPadding() {
+        byte[] pcm = concat(new byte[1000 * BYTES_PER_MS], tone(1000), new byte[1000 * BYTES_PER_MS]);
+
+        int[] bounds = WhisperUploadPreparer.speechBounds(pcm, 0.01, 200);
+
+        assertEquals(800 * BYTES_PER_MS, bounds[0]);
+        assertEquals(2200 * BYTES_PER_MS, bounds[1]);
+    }
+
+    @Test
+    public void silenceOnlyHasNoSpeech() {
+        int[] bounds = WhisperUploadPreparer.speechBounds(new byte[2000 * BYTES_PER_MS], 0.01, 200);
+
+        assertEquals(0, bounds[1] - bounds[0]);
+    }
+
+    @Test
+    public void singleShortClickIsSkippedDespitePadding() {
+        // 40ms 잡음 + 앞뒤 padding 200ms씩이면 0.44초지만, 음성 길이는 padding 없이 재므로 최소 길이(400ms) 미만
+        byte[] pcm = concat(new byte[1000 * BYTES_PER_MS], tone(40), new byte[1000 * BYTES_PER_MS]);
+        WhisperUploadPreparer preparer = new WhisperUploadPreparer(null, 0.01, 200, 400, "24k", 1000, new SimpleMeterRegistry());
+
+        WhisperUploadPreparer.Prepared prepared = preparer.prepare(new DecodedAudio(pcm), pcm.length);
+
+        assertTrue(prepared.tooShort());
+        assertEquals(0.04, prepared.speechSeconds(), 1e-9);
+    }
+
+    private static byte[] tone(int ms) {
+        int samples = 16 * ms;
+        byte[] pcm = new byte[samples * 2];
+        for (int i = 0; i < samples; i++) {
+            short value = (short) (0.3 * 32767 * Math.sin(2 * Math.PI * 220 * i / 16000.0));
+            pcm[2 * i] = (byte) value;
+            pcm[2 * i + 1] = (byte) (value >> 8);
+        }
+        return pcm;
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        int length = 0;
+        for (byte[] part : parts) {
+            length += part.length;
+        }
+        byte[] joined = new byte[length];
+        int offset = 0;
+        for (byte[] part : parts) {
+            System.arraycopy(part, 0, joined, offset, part.length);
+            offset += part.length;
+        }
+        return joined;
+    }
+}